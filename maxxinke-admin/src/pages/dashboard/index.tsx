@@ -14,7 +14,8 @@ import type {
   VisitData, 
   CategoryData, 
   RecentMessage, 
-  RecentNews 
+  RecentNews,
+  DashboardPanel
 } from '@/services/dashboardService';
 
 // 格式化百分比数字，限制小数位数为2位
@@ -64,25 +65,32 @@ const DashboardPage: React.FC = () => {
   const fetchDashboardData = async () => {
     try {
       setLoading(true);
-      const [
-        statsData,
-        categoryData,
-        messagesData,
-        newsData
-      ] = await Promise.all([
-        dashboardAPI.getStats(),
-        dashboardAPI.getCategoryData(),
-        dashboardAPI.getRecentMessages(),
-        dashboardAPI.getRecentNews()
-      ]);
+      const overview = await dashboardAPI.getOverview();
+      const failed: string[] = [];
+      // 超时或出错的面板保留原有数据
+      const apply = <T,>(panel: DashboardPanel<T>, name: string, setter: (data: T) => void) => {
+        if (panel.data !== null && !panel.timedOut && !panel.error) {
+          setter(panel.data);
+        } else {
+          failed.push(name);
+        }
+      };
 
-      setStats(statsData);
-      setCategoryData(categoryData);
-      setRecentMessages(messagesData);
-      setRecentNews(newsData);
-      
-      // 根据当前选择的时间范围获取相应的访问数据
-      await fetchVisitData(timeRange);
+      apply(overview.stats, '统计数据', setStats);
+      apply(overview.categories, '分类统计', setCategoryData);
+      apply(overview.recentMessages, '最新留言', setRecentMessages);
+      apply(overview.recentNews, '最新新闻', setRecentNews);
+
+      // 组合接口已包含月度和每日访问数据，年度数据单独获取
+      if (timeRange === 'year') {
+        await fetchVisitData(timeRange);
+      } else {
+        apply(timeRange === 'day' ? overview.dailyVisits : overview.visits, '访问数据', setVisitData);
+      }
+
+      if (failed.length > 0) {
+        message.warning(`部分数据加载失败: ${failed.join('、')}`);
+      }
     } catch (error) {
       console.error('获取仪表盘数据失败:', error);
       message.error('获取仪表盘数据失败');
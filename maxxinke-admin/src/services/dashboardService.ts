@@ -36,7 +36,31 @@ export interface RecentNews {
   time: string;
 }
 
+// 组合接口中单个面板的查询结果，超时或出错时data为空
+export interface DashboardPanel<T> {
+  data: T | null;
+  timedOut: boolean;
+  error: string | null;
+  elapsedMillis: number;
+}
+
+export interface DashboardOverview {
+  stats: DashboardPanel<DashboardStats>;
+  visits: DashboardPanel<VisitData[]>;
+  dailyVisits: DashboardPanel<VisitData[]>;
+  categories: DashboardPanel<CategoryData[]>;
+  recentMessages: DashboardPanel<RecentMessage[]>;
+  recentNews: DashboardPanel<RecentNews[]>;
+}
+
 export const dashboardAPI = {
+  // 获取仪表盘首页全部面板数据
+  getOverview: () => 
+    request<DashboardOverview>({
+      url: '/dashboard/overview',
+      method: 'get',
+    }),
+
   // 获取统计数据
   getStats: () => 
     request<DashboardStats>({
@@ -5,6 +5,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 麦克斯鑫科后端应用程序入口类
@@ -13,6 +14,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @ComponentScan(basePackages = "com.maxxinke")
 @EntityScan(basePackages = "com.maxxinke.entity")
 @EnableJpaRepositories(basePackages = "com.maxxinke.repository")
+@EnableScheduling
 public class MaxxinkeApplication {
     
     /**
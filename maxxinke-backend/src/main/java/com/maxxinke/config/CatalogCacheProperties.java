@@ -0,0 +1,31 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品目录缓存配置类
+ * 用于管理产品详情和产品列表缓存的容量和有效时间
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "catalog-cache")
+public class CatalogCacheProperties {
+
+    /**
+     * 缓存的产品详情数上限
+     */
+    private int maxProducts = 2000;
+
+    /**
+     * 缓存的产品列表数上限，包括分类列表和各列表的第一页
+     */
+    private int maxLists = 200;
+
+    /**
+     * 缓存条目的有效时间（秒）
+     * 本节点的修改会立即使缓存失效，多节点部署时其他节点的修改最迟在该时间后可见
+     */
+    private long ttlSeconds = 300;
+}
@@ -0,0 +1,40 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 仪表盘配置类
+ * 用于管理仪表盘统计快照刷新和组合接口并发查询的相关参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "dashboard")
+public class DashboardProperties {
+
+    /**
+     * 内容统计快照的定时刷新间隔（毫秒）
+     */
+    private long snapshotRefreshIntervalMs = 60000;
+
+    /**
+     * 检查内容统计快照是否因内容变更而过期的间隔（毫秒）
+     */
+    private long snapshotStaleCheckIntervalMs = 2000;
+
+    /**
+     * 仪表盘组合接口并发查询的线程数
+     */
+    private int overviewThreads = 4;
+
+    /**
+     * 仪表盘组合接口等待执行的查询任务上限，超出时该面板直接返回错误
+     */
+    private int overviewQueueCapacity = 64;
+
+    /**
+     * 仪表盘组合接口中单个面板的超时时间（毫秒）
+     */
+    private long panelTimeoutMs = 3000;
+}
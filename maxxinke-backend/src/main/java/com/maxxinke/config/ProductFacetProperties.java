@@ -0,0 +1,26 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品规格分面配置类
+ * 用于管理规格分面索引的重建间隔和返回的取值数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product-facet")
+public class ProductFacetProperties {
+
+    /**
+     * 全量重建索引的间隔（毫秒）
+     * 本节点的修改会立即更新索引，多节点部署时其他节点的修改最迟在该时间后生效
+     */
+    private long rebuildIntervalMs = 600000;
+
+    /**
+     * 每个规格最多返回的取值数，按产品数从多到少保留
+     */
+    private int maxValuesPerFacet = 50;
+}
@@ -0,0 +1,31 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 产品搜索配置类
+ * 用于管理产品全文索引的重建间隔和查询限制
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "product-search")
+public class ProductSearchProperties {
+
+    /**
+     * 全量重建索引的间隔（毫秒）
+     * 本节点的修改会立即更新索引，多节点部署时其他节点的修改最迟在该时间后可被搜索到
+     */
+    private long rebuildIntervalMs = 600000;
+
+    /**
+     * 搜索关键词的最大长度
+     */
+    private int maxQueryLength = 100;
+
+    /**
+     * 描述、应用场景等长文本字段高亮片段的最大字符数
+     */
+    private int snippetLength = 120;
+}
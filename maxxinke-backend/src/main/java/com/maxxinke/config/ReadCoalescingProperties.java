@@ -0,0 +1,21 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 并发读取合并配置类
+ * 用于管理新闻详情、产品分类和关于我们等读取接口合并并发查询的方式
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "read-coalescing")
+public class ReadCoalescingProperties {
+
+    /**
+     * 查询完成后结果的保留时间（毫秒），保留期内的请求直接使用该结果，不大于0表示只合并同时进行的查询
+     * 本节点的修改会立即丢弃保留的结果，多节点部署时其他节点的修改最迟在该时间后可见
+     */
+    private long retainMillis = 1000;
+}
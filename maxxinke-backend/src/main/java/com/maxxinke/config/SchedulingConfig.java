@@ -0,0 +1,34 @@
+package com.maxxinke.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务线程池配置
+ *
+ * 默认的调度器只有一个线程，所有@Scheduled任务排队执行，耗时的任务（如按月归档访问日志）
+ * 会推迟访问量、访客统计等每隔几秒执行的写入任务。这里为定时任务配置一个线程池，任务之间互不阻塞
+ */
+@Slf4j
+@Configuration
+public class SchedulingConfig {
+
+    @Value("${scheduling.pool-size:4}")
+    private int poolSize;
+
+    @Bean
+    public TaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(Math.max(poolSize, 1));
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setErrorHandler(e -> log.error("定时任务执行失败: {}", e.getMessage(), e));
+        // 关闭时等待正在执行的任务完成，避免写入中途被中断
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
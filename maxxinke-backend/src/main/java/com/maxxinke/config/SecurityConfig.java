@@ -108,6 +108,7 @@ public class SecurityConfig {
                 .antMatchers(HttpMethod.POST, "/api/messages/**").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/system/config/contact/**").permitAll()
                 .antMatchers(HttpMethod.GET, "/api/dashboard/visits/record/**").permitAll()
+                .antMatchers(HttpMethod.POST, "/api/dashboard/visits/batch").permitAll()
 
                 // 需要认证的接口
                 .antMatchers(HttpMethod.GET, "/api/messages/**").permitAll()
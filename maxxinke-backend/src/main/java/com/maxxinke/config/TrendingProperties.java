@@ -0,0 +1,40 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 热度排行配置类
+ * 用于管理产品和新闻按时间衰减的热度排行的相关参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "trending")
+public class TrendingProperties {
+
+    /**
+     * 热度半衰期（分钟），经过该时长后一次访问贡献的热度降为一半
+     */
+    private long halfLifeMinutes = 24 * 60;
+
+    /**
+     * 排行保留的名次数，热门接口最多返回这么多条
+     */
+    private int topSize = 50;
+
+    /**
+     * 每种内容跟踪的ID数上限
+     */
+    private int maxTrackedIds = 10000;
+
+    /**
+     * 每种内容写入快照的ID数上限
+     */
+    private int snapshotSize = 1000;
+
+    /**
+     * 热度快照写入数据库的间隔（毫秒）
+     */
+    private long snapshotIntervalMs = 300000;
+}
@@ -0,0 +1,25 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 浏览量计数配置类
+ * 用于管理产品和新闻浏览量在内存中累加后批量写入数据库的相关参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "view-counter")
+public class ViewCounterProperties {
+
+    /**
+     * 浏览量累加值写入数据库的间隔（毫秒）
+     */
+    private long flushIntervalMs = 5000;
+
+    /**
+     * 每种内容在内存中同时累加的ID数上限，超出时新ID的浏览被丢弃并计数
+     */
+    private int maxPendingIds = 100000;
+}
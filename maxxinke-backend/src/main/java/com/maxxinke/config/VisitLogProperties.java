@@ -0,0 +1,154 @@
+package com.maxxinke.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+
+/**
+ * 访问日志配置类
+ * 用于管理访问日志异步批量写入的相关参数
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "visit-log")
+public class VisitLogProperties {
+
+    /**
+     * 访问日志预写日志目录，访问记录先写入该目录再由后台线程写入数据库
+     */
+    private String journalDir = "./data/visit-journal";
+
+    /**
+     * 预写日志单个分段文件的大小（字节）
+     */
+    private int journalSegmentBytes = 16 * 1024 * 1024;
+
+    /**
+     * 预写日志所有分段文件的总大小上限（字节），数据库长时间不可用超出上限后新的访问记录将被丢弃并计数
+     */
+    private long journalMaxBytes = 1024L * 1024 * 1024;
+
+    /**
+     * 写入数据库失败后重试的最长间隔（毫秒）
+     */
+    private long maxRetryIntervalMs = 30000;
+
+    /**
+     * 同一批记录写入失败的最多尝试次数（数据库连接失败等临时错误不计入），
+     * 超过后逐条写入时跳过仍然失败的记录，以免一条无法写入的记录阻塞后续记录
+     */
+    private int maxBatchAttempts = 5;
+
+    /**
+     * 单次批量写入的最大行数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 批量写入的最长间隔（毫秒），未攒满一批时到时间也会写入
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 应用关闭时等待预写日志写完的最长时间（毫秒），未写完的部分在下次启动时继续写入
+     */
+    private long shutdownTimeoutMs = 10000;
+
+    /**
+     * 同一访问者重复访问的去重间隔（秒），间隔内的重复访问不计数
+     */
+    private int dedupIntervalSeconds = 30;
+
+    /**
+     * 去重缓存的最大条目数，超出时淘汰最早的条目
+     */
+    private int dedupMaxEntries = 100000;
+
+    /**
+     * 批量上报接口单次最多接受的访问事件数，超出部分忽略
+     */
+    private int beaconMaxEvents = 50;
+
+    /**
+     * 批量上报接口请求体的最大字节数，超出时拒绝请求
+     */
+    private long beaconMaxBytes = 32768;
+
+    /**
+     * 批量上报的访问事件最多可早于服务器时间的秒数，更早的事件被忽略
+     */
+    private long beaconMaxAgeSeconds = 3600;
+
+    /**
+     * 汇总表补算任务的执行时间，每天重新计算前一天的汇总数据
+     */
+    private String rollupRebuildCron = "0 10 0 * * ?";
+
+    /**
+     * 当前应用节点名称，用于区分多节点写入的独立访客估算数据，为空时使用主机名
+     */
+    private String nodeId;
+
+    /**
+     * 每天最多单独统计独立访客的页面数
+     */
+    private int visitorMaxPathsPerDay = 200;
+
+    /**
+     * 独立访客估算数据写入数据库的间隔（毫秒）
+     */
+    private long visitorFlushIntervalMs = 60000;
+
+    /**
+     * 每天跟踪的热门页面候选数量，数量越大热门页面排名越准确
+     */
+    private int topPathCapacity = 200;
+
+    /**
+     * 热门页面数据写入数据库的间隔（毫秒）
+     */
+    private long topPathFlushIntervalMs = 60000;
+
+    /**
+     * User-Agent字典内存缓存的最大条目数
+     */
+    private int userAgentCacheSize = 10000;
+
+    /**
+     * 访问日志归档文件存放目录
+     */
+    private String archiveDir = "./archive/visit-logs";
+
+    /**
+     * 数据库中保留的访问日志月数（不含当月），更早的月份会被自动归档
+     */
+    private int archiveRetentionMonths = 6;
+
+    /**
+     * 归档导出、删除和恢复时每批处理的记录数
+     */
+    private int archiveBatchSize = 5000;
+
+    /**
+     * 自动归档任务的执行时间
+     */
+    private String archiveCron = "0 30 3 1 * ?";
+
+    /**
+     * 获取当前应用节点名称，未配置时使用主机名
+     *
+     * @return 节点名称
+     */
+    public String resolveNodeId() {
+        if (nodeId != null && !nodeId.isEmpty()) {
+            return nodeId;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "default";
+        }
+    }
+}
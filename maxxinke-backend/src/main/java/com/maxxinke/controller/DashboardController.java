@@ -1,22 +1,64 @@
 package com.maxxinke.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxxinke.config.VisitLogProperties;
 import com.maxxinke.dto.CategoryDataDTO;
+import com.maxxinke.dto.ContentTrendDTO;
+import com.maxxinke.dto.DashboardOverviewDTO;
 import com.maxxinke.dto.DashboardStatsDTO;
+import com.maxxinke.dto.PathVisitorDTO;
+import com.maxxinke.dto.TopPathDTO;
+import com.maxxinke.dto.UniqueVisitorDTO;
 import com.maxxinke.dto.VisitDataDTO;
+import com.maxxinke.dto.VisitEventDTO;
+import com.maxxinke.entity.ProductSpecifications;
 import com.maxxinke.entity.VisitLog;
-import com.maxxinke.repository.VisitLogRepository;
+import com.maxxinke.entity.VisitLogArchive;
+import com.maxxinke.exception.BusinessException;
+import com.maxxinke.service.AboutUsService;
+import com.maxxinke.service.ContentTrendService;
 import com.maxxinke.service.DashboardService;
+import com.maxxinke.service.LiveTrafficService;
+import com.maxxinke.service.NewsService;
+import com.maxxinke.service.ProductCategoryService;
+import com.maxxinke.service.ProductFacetService;
+import com.maxxinke.service.ProductSearchService;
+import com.maxxinke.service.ProductService;
+import com.maxxinke.service.TopPathService;
+import com.maxxinke.service.UserAgentService;
+import com.maxxinke.service.ViewCountService;
+import com.maxxinke.service.VisitLogArchiveService;
+import com.maxxinke.service.VisitLogWriter;
+import com.maxxinke.service.VisitRecordService;
+import com.maxxinke.service.VisitorStatsService;
+import com.maxxinke.utils.VisitDedupCache;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Api(tags = "仪表盘接口")
 @RestController
@@ -25,13 +67,27 @@ import java.util.concurrent.ConcurrentHashMap;
 public class DashboardController {
 
     private final DashboardService dashboardService;
-    private final VisitLogRepository visitLogRepository;
+    private final VisitLogWriter visitLogWriter;
+    private final VisitRecordService visitRecordService;
+    private final LiveTrafficService liveTrafficService;
+    private final VisitorStatsService visitorStatsService;
+    private final TopPathService topPathService;
+    private final VisitLogArchiveService visitLogArchiveService;
+    private final UserAgentService userAgentService;
+    private final ContentTrendService contentTrendService;
+    private final ViewCountService viewCountService;
+    private final ProductService productService;
+    private final NewsService newsService;
+    private final ProductCategoryService productCategoryService;
+    private final AboutUsService aboutUsService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
     
-    // 用于记录用户最近访问时间的缓存，key为"IP_路径"，value为最后访问时间
-    private final Map<String, LocalDateTime> lastVisitCache = new ConcurrentHashMap<>();
-    
-    // 同一用户访问同一页面的最小间隔时间（秒）
-    private static final int MIN_VISIT_INTERVAL_SECONDS = 30;
+    private final VisitLogProperties visitLogProperties;
+    private final ObjectMapper objectMapper;
+
+    // 访问去重缓存，key为"IP_路径"
+    private final VisitDedupCache visitDedupCache;
 
     @ApiOperation("获取仪表盘统计数据")
     @GetMapping("/stats")
@@ -39,6 +95,41 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getStats());
     }
 
+    @ApiOperation("获取仪表盘首页全部面板数据")
+    @GetMapping("/overview")
+    public ResponseEntity<DashboardOverviewDTO> getOverview() {
+        return ResponseEntity.ok(dashboardService.getOverview());
+    }
+
+    @ApiOperation("获取内容每日数量趋势")
+    @GetMapping("/content-trends")
+    public ResponseEntity<List<ContentTrendDTO>> getContentTrend(
+            @RequestParam String type,
+            @RequestParam(defaultValue = "30") int days) {
+        if (!contentTrendService.supports(type)) {
+            throw BusinessException.invalidParameter("type");
+        }
+        if (days < 1 || days > 3660) {
+            throw BusinessException.invalidParameter("days");
+        }
+        LocalDate end = LocalDate.now().minusDays(1);
+        return ResponseEntity.ok(contentTrendService.getTrend(type, end.minusDays(days - 1), end));
+    }
+
+    @ApiOperation("根据创建时间重新计算内容每日数量")
+    @PostMapping("/content-trends/rebuild")
+    public ResponseEntity<Void> rebuildContentTrend(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate end = endDate != null && endDate.isBefore(yesterday) ? endDate : yesterday;
+        if (startDate.isAfter(end)) {
+            throw BusinessException.invalidParameter("开始日期不能晚于结束日期");
+        }
+        contentTrendService.rebuild(startDate, end);
+        return ResponseEntity.ok().build();
+    }
+
     @ApiOperation("获取访问量趋势数据")
     @GetMapping("/visits")
     public ResponseEntity<List<VisitDataDTO>> getVisitData() {
@@ -57,47 +148,174 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getYearlyVisitData());
     }
 
+    @ApiOperation("获取最近每分钟的实时访问量")
+    @GetMapping("/visits/live")
+    public ResponseEntity<List<VisitDataDTO>> getLiveVisitData(
+            @RequestParam(defaultValue = "60") int minutes) {
+        return ResponseEntity.ok(liveTrafficService.getMinuteCounts(minutes));
+    }
+
+    @ApiOperation("获取日期范围内的独立访客数")
+    @GetMapping("/visitors")
+    public ResponseEntity<UniqueVisitorDTO> getUniqueVisitors(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String path) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw BusinessException.invalidParameter("开始日期不能晚于结束日期");
+        }
+        return ResponseEntity.ok(visitorStatsService.getUniqueVisitors(start, end, path));
+    }
+
+    @ApiOperation("获取指定日期各页面的独立访客数")
+    @GetMapping("/visitors/paths")
+    public ResponseEntity<List<PathVisitorDTO>> getPathUniqueVisitors(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(visitorStatsService.getPathUniqueVisitors(date != null ? date : LocalDate.now()));
+    }
+
+    @ApiOperation("获取热门页面排行")
+    @GetMapping("/visits/top-paths")
+    public ResponseEntity<List<TopPathDTO>> getTopPaths(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(defaultValue = "10") int limit) {
+        if ("week".equalsIgnoreCase(window)) {
+            return ResponseEntity.ok(topPathService.getWeeklyTopPaths(limit));
+        }
+        if (!"day".equalsIgnoreCase(window)) {
+            throw BusinessException.invalidParameter("window");
+        }
+        return ResponseEntity.ok(topPathService.getDailyTopPaths(date != null ? date : LocalDate.now(), limit));
+    }
+
     @ApiOperation("记录前台网站访问")
     @GetMapping("/visits/record")
     public ResponseEntity<Void> recordVisit(
             @RequestParam String path,
             @RequestParam(required = false) String title,
             HttpServletRequest request) {
-        // 过滤掉后台管理系统的访问
-        if (path.startsWith("/admin") || path.startsWith("/dashboard")) {
-            return ResponseEntity.ok().build();
+        recordPageView(path, getClientIp(request), request.getHeader("User-Agent"), LocalDateTime.now());
+        return ResponseEntity.ok().build();
+    }
+
+    @ApiOperation("批量记录前台网站访问")
+    @PostMapping("/visits/batch")
+    public ResponseEntity<Void> recordVisits(HttpServletRequest request) throws IOException {
+        // 接口无需登录，先按请求体大小拒绝过大的请求，再逐个读取事件，读够上限后不再解析剩余内容
+        long maxBytes = visitLogProperties.getBeaconMaxBytes();
+        if (request.getContentLengthLong() > maxBytes) {
+            throw new BusinessException("请求体过大", HttpStatus.PAYLOAD_TOO_LARGE);
         }
-        
-        // 过滤掉API请求
-        if (path.startsWith("/api")) {
+        List<VisitEventDTO> events;
+        try {
+            events = readVisitEvents(new BoundedInputStream(request.getInputStream(), maxBytes));
+        } catch (JsonProcessingException e) {
+            throw BusinessException.invalidParameter("events");
+        }
+        if (events.isEmpty()) {
             return ResponseEntity.ok().build();
         }
 
         String ip = getClientIp(request);
-        String cacheKey = ip + "_" + path;
-        LocalDateTime now = LocalDateTime.now();
-        
-        // 检查是否是同一用户短时间内重复访问
-        LocalDateTime lastVisit = lastVisitCache.get(cacheKey);
-        if (lastVisit != null) {
-            long secondsSinceLastVisit = java.time.Duration.between(lastVisit, now).getSeconds();
-            if (secondsSinceLastVisit < MIN_VISIT_INTERVAL_SECONDS) {
-                // 如果访问间隔太短，不记录这次访问
-                return ResponseEntity.ok().build();
+        String userAgent = request.getHeader("User-Agent");
+        long now = System.currentTimeMillis();
+        long oldest = now - TimeUnit.SECONDS.toMillis(visitLogProperties.getBeaconMaxAgeSeconds());
+        List<VisitEventDTO> accepted = new ArrayList<>();
+        for (VisitEventDTO event : events) {
+            if (accepted.size() >= visitLogProperties.getBeaconMaxEvents()) {
+                break;
+            }
+            if (event == null || event.getPath() == null) {
+                continue;
+            }
+            // 客户端时间缺失或晚于服务器时间时使用服务器时间，过早的事件忽略
+            long timestamp = event.getTimestamp() == null || event.getTimestamp() > now ? now : event.getTimestamp();
+            if (timestamp >= oldest) {
+                event.setTimestamp(timestamp);
+                accepted.add(event);
+            }
+        }
+        // 按访问时间顺序处理，使去重判断与实际访问顺序一致
+        accepted.sort(Comparator.comparing(VisitEventDTO::getTimestamp));
+        for (VisitEventDTO event : accepted) {
+            recordPageView(event.getPath(), ip, userAgent,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(event.getTimestamp()), ZoneId.systemDefault()));
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * 从请求体中逐个读取访问事件
+     * navigator.sendBeacon发送的请求体通常为text/plain，不依赖Content-Type，直接按JSON数组解析；
+     * 读到beaconMaxEvents个事件后停止，剩余内容不再读取。超出字节上限的请求体被截断，解析失败
+     */
+    private List<VisitEventDTO> readVisitEvents(InputStream body) throws IOException {
+        List<VisitEventDTO> events = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return events;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw BusinessException.invalidParameter("events");
+            }
+            int maxEvents = visitLogProperties.getBeaconMaxEvents();
+            while (events.size() < maxEvents && (token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw BusinessException.invalidParameter("events");
+                }
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                events.add(objectMapper.readValue(parser, VisitEventDTO.class));
             }
         }
+        return events;
+    }
 
-        // 更新最后访问时间
-        lastVisitCache.put(cacheKey, now);
+    @ApiOperation("获取访问日志写入状态")
+    @GetMapping("/visits/pipeline")
+    public ResponseEntity<Map<String, Object>> getVisitPipelineMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(visitLogWriter.getMetrics());
+        metrics.put("dedupCache", visitDedupCache.getStats());
+        metrics.put("userAgents", userAgentService.getStats());
+        metrics.put("viewCounter", viewCountService.getStats());
+        return ResponseEntity.ok(metrics);
+    }
 
-        // 记录访问日志
-        VisitLog visitLog = new VisitLog();
-        visitLog.setPath(path);
-        visitLog.setIp(ip);
-        visitLog.setUserAgent(request.getHeader("User-Agent"));
-        visitLogRepository.save(visitLog);
-        
-        return ResponseEntity.ok().build();
+    @ApiOperation("获取内容缓存和查询合并运行统计")
+    @GetMapping("/caches")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("catalog", productService.getCacheStats());
+        stats.put("news", newsService.getLoadStats());
+        stats.put("categories", productCategoryService.getLoadStats());
+        stats.put("aboutUs", aboutUsService.getLoadStats());
+        stats.put("productSearch", productSearchService.getStats());
+        stats.put("productFacets", productFacetService.getStats());
+        stats.put("productSpecifications", ProductSpecifications.getParseStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @ApiOperation("获取访问日志归档记录")
+    @GetMapping("/visits/archives")
+    public ResponseEntity<List<VisitLogArchive>> getVisitLogArchives() {
+        return ResponseEntity.ok(visitLogArchiveService.getArchives());
+    }
+
+    @ApiOperation("归档指定月份的访问日志")
+    @PostMapping("/visits/archives/{month}")
+    public ResponseEntity<VisitLogArchive> archiveVisitLogs(@PathVariable String month) {
+        return ResponseEntity.ok(visitLogArchiveService.archiveMonth(parseMonth(month)));
+    }
+
+    @ApiOperation("从归档文件恢复指定月份的访问日志")
+    @PostMapping("/visits/archives/{month}/restore")
+    public ResponseEntity<VisitLogArchive> restoreVisitLogs(@PathVariable String month) {
+        return ResponseEntity.ok(visitLogArchiveService.restoreMonth(parseMonth(month)));
     }
 
     @ApiOperation("获取产品分类统计数据")
@@ -118,6 +336,47 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.getRecentNews());
     }
 
+    /**
+     * 记录一次前台页面访问
+     * 过滤后台管理页面和API请求，同一访问者短时间内重复访问同一页面只记录一次
+     */
+    private void recordPageView(String path, String ip, String userAgent, LocalDateTime visitTime) {
+        // 过滤掉后台管理系统的访问
+        if (path.startsWith("/admin") || path.startsWith("/dashboard")) {
+            return;
+        }
+
+        // 过滤掉API请求
+        if (path.startsWith("/api")) {
+            return;
+        }
+
+        // 检查是否是同一用户短时间内重复访问，如果访问间隔太短，不记录这次访问
+        long visitMillis = visitTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!visitDedupCache.tryAcquire(ip + "_" + path, visitMillis)) {
+            return;
+        }
+
+        // 记录访问日志
+        VisitLog visitLog = new VisitLog();
+        visitLog.setPath(path);
+        visitLog.setIp(ip);
+        visitLog.setUserAgent(userAgent);
+        visitLog.setCreateTime(visitTime);
+        visitRecordService.record(visitLog);
+    }
+
+    /**
+     * 解析"YYYY-MM"格式的月份参数
+     */
+    private YearMonth parseMonth(String month) {
+        try {
+            return YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            throw BusinessException.invalidParameter("month");
+        }
+    }
+
     /**
      * 获取客户端真实IP地址
      */
@@ -1,6 +1,9 @@
 package com.maxxinke.controller;
 
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.Message;
+import com.maxxinke.exception.BusinessException;
+import com.maxxinke.service.CatalogStreamService;
 import com.maxxinke.service.MessageService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -8,9 +11,11 @@ import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 /**
@@ -22,9 +27,14 @@ import java.util.List;
 @RequestMapping("/api/messages")
 public class MessageController {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    
     @Autowired
     private MessageService messageService;
     
+    @Autowired
+    private CatalogStreamService catalogStreamService;
+    
     /**
      * 创建消息
      */
@@ -91,15 +101,35 @@ public class MessageController {
         }
     }
     
+    /**
+     * 按游标获取消息列表
+     */
+    @ApiOperation(value = "按游标获取消息", notes = "根据状态按游标翻页，不统计总数，深翻页的耗时与第一页相同；下一页传入上一页返回的nextCursor")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<Message>> getMessagesByCursor(
+            @ApiParam(value = "消息状态：0-未回复，1-已回复", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "上一页返回的游标，为空时获取第一页", required = false)
+            @RequestParam(required = false) String cursor,
+            @ApiParam(value = "每页条数，1到" + MAX_CURSOR_PAGE_SIZE, required = false)
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw BusinessException.invalidParameter("每页条数必须在1到" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+        return ResponseEntity.ok(messageService.findAfter(status, cursor, size));
+    }
+    
     /**
      * 获取用户的消息列表
      */
-    @ApiOperation(value = "获取用户消息", notes = "获取指定用户的所有消息")
+    @ApiOperation(value = "获取用户消息", notes = "获取指定用户的所有消息，结果以流的方式输出")
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Message>> getUserMessages(
+    public ResponseEntity<StreamingResponseBody> getUserMessages(
             @ApiParam(value = "用户ID", required = true)
             @PathVariable Long userId) {
-        return ResponseEntity.ok(messageService.findByUserId(userId));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> catalogStreamService.writeMessagesByUser(userId, out));
     }
     
     /**
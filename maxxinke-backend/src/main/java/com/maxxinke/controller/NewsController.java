@@ -1,10 +1,11 @@
 package com.maxxinke.controller;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.News;
 import com.maxxinke.exception.BusinessException;
+import com.maxxinke.service.CatalogStreamService;
 import com.maxxinke.service.NewsService;
+import com.maxxinke.utils.JsonCodec;
 import com.maxxinke.utils.OssUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -13,10 +14,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -31,8 +34,13 @@ import java.util.List;
 @RequestMapping("/api/news")
 @RequiredArgsConstructor
 public class NewsController {
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String FIELDS_DESCRIPTION = "逗号分隔的字段名，如id,title,image,createTime；"
+            + "default表示列表默认字段（不含正文）；不传时返回完整新闻";
     
     private final NewsService newsService;
+    private final CatalogStreamService catalogStreamService;
     private final OssUtil ossUtil;
     
     /**
@@ -40,10 +48,19 @@ public class NewsController {
      * 
      * @return 新闻列表
      */
-    @ApiOperation(value = "获取所有新闻", notes = "获取所有新闻文章列表")
+    @ApiOperation(value = "获取所有新闻", notes = "获取所有新闻文章列表，结果以流的方式输出；指定fields时只查询和返回选中的字段")
     @GetMapping("/all")
-    public ResponseEntity<List<News>> getAllNews() {
-        return ResponseEntity.ok(newsService.getAllNews());
+    public ResponseEntity<StreamingResponseBody> getAllNews(
+            @ApiParam(value = FIELDS_DESCRIPTION, required = false)
+            @RequestParam(required = false) String fields) {
+        StreamingResponseBody body;
+        if (fields != null) {
+            List<String> selected = newsService.selectFields(fields);
+            body = out -> catalogStreamService.writeAllNewsFields(selected, out);
+        } else {
+            body = catalogStreamService::writeAllNews;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
     
     /**
@@ -59,9 +76,7 @@ public class NewsController {
             @ApiParam(value = "新闻图片")
             @RequestPart(value = "image", required = false) MultipartFile image) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            News news = mapper.readValue(newsJson, News.class);
+            News news = JsonCodec.NEWS_READER.readValue(newsJson);
             
             // 如果上传了图片，处理图片上传
             if (image != null && !image.isEmpty()) {
@@ -105,9 +120,7 @@ public class NewsController {
             // 获取现有新闻
             News existingNews = newsService.getNewsById(id);
             
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            News updatedNews = mapper.readValue(newsJson, News.class);
+            News updatedNews = JsonCodec.NEWS_READER.readValue(newsJson);
             updatedNews.setId(id);
             
             // 如果上传了新图片，处理图片上传
@@ -172,11 +185,16 @@ public class NewsController {
      * @param type 新闻类型
      * @return 新闻列表
      */
-    @ApiOperation(value = "获取新闻列表", notes = "根据类型获取新闻列表")
+    @ApiOperation(value = "获取新闻列表", notes = "根据类型获取新闻列表；指定fields时只查询和返回选中的字段")
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<News>> getNewsByType(
+    public ResponseEntity<List<?>> getNewsByType(
             @ApiParam(value = "新闻类型", required = true)
-            @PathVariable String type) {
+            @PathVariable String type,
+            @ApiParam(value = FIELDS_DESCRIPTION, required = false)
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(newsService.getNewsFieldsByType(type, fields));
+        }
         return ResponseEntity.ok(newsService.findByType(type));
     }
     
@@ -193,6 +211,20 @@ public class NewsController {
         return ResponseEntity.ok(newsService.getNewsByStatus(status));
     }
 
+    /**
+     * 获取近期热门新闻
+     *
+     * @param limit 返回的新闻数量
+     * @return 按近期热度降序排列的新闻列表
+     */
+    @ApiOperation(value = "获取热门新闻", notes = "按近期浏览热度获取已发布的新闻")
+    @GetMapping("/trending")
+    public ResponseEntity<List<News>> getTrendingNews(
+            @ApiParam(value = "返回数量", defaultValue = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(newsService.getTrendingNews(limit));
+    }
+
     /**
      * 获取新闻详情
      */
@@ -225,19 +257,38 @@ public class NewsController {
         }
     }
 
+    /**
+     * 按游标获取新闻列表
+     */
+    @ApiOperation(value = "按游标获取新闻", notes = "根据状态和类型按游标翻页，不统计总数，深翻页的耗时与第一页相同；下一页传入上一页返回的nextCursor")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<News>> getNewsByCursor(
+            @ApiParam(value = "新闻状态：0-草稿，1-已发布", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "新闻类型，仅在指定状态时生效", required = false)
+            @RequestParam(required = false) String type,
+            @ApiParam(value = "上一页返回的游标，为空时获取第一页", required = false)
+            @RequestParam(required = false) String cursor,
+            @ApiParam(value = "每页条数，1到" + MAX_CURSOR_PAGE_SIZE, required = false)
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw BusinessException.invalidParameter("每页条数必须在1到" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+        return ResponseEntity.ok(newsService.getNewsAfter(status, type, cursor, size));
+    }
+
     /**
      * 增加新闻浏览量
      * 
      * @param id 新闻ID
-     * @return 更新后的浏览量
+     * @return 操作结果
      */
-    @ApiOperation(value = "增加新闻浏览量", notes = "记录新闻浏览，增加浏览量计数")
+    @ApiOperation(value = "增加新闻浏览量", notes = "记录新闻浏览，浏览量在几秒内批量写入数据库")
     @PostMapping("/{id}/view")
-    public ResponseEntity<Integer> incrementViews(
+    public ResponseEntity<Void> incrementViews(
             @ApiParam(value = "新闻ID", required = true)
             @PathVariable Long id) {
-        log.info("接收到新闻浏览量增加请求, ID: {}", id);
-        News news = newsService.incrementViews(id);
-        return ResponseEntity.ok(news.getViews());
+        newsService.incrementViews(id);
+        return ResponseEntity.ok().build();
     }
 } 
\ No newline at end of file
@@ -1,13 +1,19 @@
 package com.maxxinke.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maxxinke.dto.CursorPageDTO;
+import com.maxxinke.dto.ProductFacetsDTO;
+import com.maxxinke.dto.ProductImportResultDTO;
+import com.maxxinke.dto.ProductSearchResultDTO;
 import com.maxxinke.entity.Product;
 import com.maxxinke.exception.BusinessException;
+import com.maxxinke.service.CatalogStreamService;
+import com.maxxinke.service.ProductFacetService;
+import com.maxxinke.service.ProductImportService;
+import com.maxxinke.service.ProductSearchService;
 import com.maxxinke.service.ProductService;
 import com.maxxinke.service.FileService;
+import com.maxxinke.utils.JsonCodec;
 import com.maxxinke.utils.OssUtil;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -16,12 +22,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -35,7 +46,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
     
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String FIELDS_DESCRIPTION = "逗号分隔的字段名，如id,name,image,createTime；"
+            + "default表示列表默认字段（不含描述、规格和应用）；不传时返回完整产品";
+    
     private final ProductService productService;
+    private final CatalogStreamService catalogStreamService;
+    private final ProductImportService productImportService;
+    private final ProductSearchService productSearchService;
+    private final ProductFacetService productFacetService;
     private final FileService fileService;
     private final OssUtil ossUtil;
     
@@ -52,10 +71,7 @@ public class ProductController {
             @RequestPart(value = "image", required = false) MultipartFile image) {
         
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            Product product = mapper.readValue(productJson, Product.class);
+            Product product = JsonCodec.PRODUCT_READER.readValue(productJson);
             
             // 设置默认值
             if (product.getSort() == null) {
@@ -110,10 +126,7 @@ public class ProductController {
                 throw BusinessException.productNotFound();
             }
 
-            ObjectMapper mapper = new ObjectMapper();
-            mapper.registerModule(new JavaTimeModule());
-            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            Product updatedProduct = mapper.readValue(productJson, Product.class);
+            Product updatedProduct = JsonCodec.PRODUCT_READER.readValue(productJson);
             
             // 确保设置正确的ID
             updatedProduct.setId(id);
@@ -214,15 +227,20 @@ public class ProductController {
     /**
      * 分页获取产品列表
      */
-    @ApiOperation(value = "分页获取产品", notes = "根据状态和分类分页获取产品列表")
+    @ApiOperation(value = "分页获取产品", notes = "根据状态和分类分页获取产品列表；指定fields时只查询和返回选中的字段")
     @GetMapping
-    public ResponseEntity<Page<Product>> getProducts(
+    public ResponseEntity<Page<?>> getProducts(
             @ApiParam(value = "产品状态：0-下架，1-上架", required = false)
             @RequestParam(required = false) Integer status,
             @ApiParam(value = "产品分类", required = false)
             @RequestParam(required = false) String category,
+            @ApiParam(value = FIELDS_DESCRIPTION, required = false)
+            @RequestParam(required = false) String fields,
             @ApiParam(value = "分页参数", required = true)
             Pageable pageable) {
+        if (fields != null) {
+            return ResponseEntity.ok(productService.getProductFields(status, category, fields, pageable));
+        }
         try {
             Page<Product> products;
             if (status != null && category != null) {
@@ -238,15 +256,86 @@ public class ProductController {
         }
     }
     
+    /**
+     * 按游标获取产品列表
+     */
+    @ApiOperation(value = "按游标获取产品", notes = "根据状态和分类按游标翻页，不统计总数，深翻页的耗时与第一页相同；下一页传入上一页返回的nextCursor")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<Product>> getProductsByCursor(
+            @ApiParam(value = "产品状态：0-下架，1-上架", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "产品分类，仅在指定状态时生效", required = false)
+            @RequestParam(required = false) String category,
+            @ApiParam(value = "上一页返回的游标，为空时获取第一页", required = false)
+            @RequestParam(required = false) String cursor,
+            @ApiParam(value = "每页条数，1到" + MAX_CURSOR_PAGE_SIZE, required = false)
+            @RequestParam(defaultValue = "20") int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw BusinessException.invalidParameter("每页条数必须在1到" + MAX_CURSOR_PAGE_SIZE + "之间");
+        }
+        return ResponseEntity.ok(productService.getProductsAfter(status, category, cursor, size));
+    }
+    
+    /**
+     * 搜索产品
+     */
+    @ApiOperation(value = "搜索产品", notes = "按关键词全文搜索产品名称、分类、规格、描述和应用场景，结果按相关度排序，匹配部分用<em>标签高亮")
+    @GetMapping("/search")
+    public ResponseEntity<Page<ProductSearchResultDTO>> searchProducts(
+            @ApiParam(value = "搜索关键词", required = true)
+            @RequestParam String q,
+            @ApiParam(value = "产品状态：0-下架，1-上架", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "产品分类", required = false)
+            @RequestParam(required = false) String category,
+            @ApiParam(value = "分页参数", required = true)
+            Pageable pageable) {
+        return ResponseEntity.ok(productSearchService.search(q, status, category, pageable));
+    }
+    
+    /**
+     * 获取产品规格分面统计
+     */
+    @ApiOperation(value = "获取规格分面", notes = "统计符合条件的产品在各分类和各规格取值上的数量，规格条件格式为\"名称:值\"，可重复传入")
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsDTO> getFacets(
+            @ApiParam(value = "产品状态：0-下架，1-上架", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "产品分类", required = false)
+            @RequestParam(required = false) String category,
+            @ApiParam(value = "规格条件，如\"型号:PE100\"", required = false)
+            @RequestParam(required = false) List<String> spec) {
+        return ResponseEntity.ok(productFacetService.getFacets(status, category, spec));
+    }
+    
+    /**
+     * 按规格筛选产品
+     */
+    @ApiOperation(value = "按规格筛选产品", notes = "按状态、分类和规格条件分页筛选产品，同名规格的多个条件之间为\"或\"，不同规格之间为\"且\"")
+    @GetMapping("/filter")
+    public ResponseEntity<Page<Product>> filterProducts(
+            @ApiParam(value = "产品状态：0-下架，1-上架", required = false)
+            @RequestParam(required = false) Integer status,
+            @ApiParam(value = "产品分类", required = false)
+            @RequestParam(required = false) String category,
+            @ApiParam(value = "规格条件，如\"型号:PE100\"", required = false)
+            @RequestParam(required = false) List<String> spec,
+            @ApiParam(value = "分页参数", required = true)
+            Pageable pageable) {
+        return ResponseEntity.ok(productFacetService.filterProducts(status, category, spec, pageable));
+    }
+    
     /**
      * 根据分类获取产品列表
      */
-    @ApiOperation(value = "获取分类产品", notes = "获取指定分类的所有产品")
+    @ApiOperation(value = "获取分类产品", notes = "获取指定分类的所有产品，结果以流的方式输出")
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(
+    public ResponseEntity<StreamingResponseBody> getProductsByCategory(
             @ApiParam(value = "产品分类", required = true)
             @PathVariable String category) {
-        return ResponseEntity.ok(productService.getProductsByCategory(category));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> catalogStreamService.writeProductsByCategory(category, out));
     }
     
     /**
@@ -273,9 +362,58 @@ public class ProductController {
     /**
      * 获取所有产品
      */
-    @ApiOperation(value = "获取所有产品", notes = "获取所有产品列表")
+    @ApiOperation(value = "获取所有产品", notes = "获取所有产品列表，结果以流的方式输出；指定fields时只查询和返回选中的字段")
     @GetMapping("/all")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @ApiParam(value = FIELDS_DESCRIPTION, required = false)
+            @RequestParam(required = false) String fields) {
+        StreamingResponseBody body;
+        if (fields != null) {
+            List<String> selected = productService.selectFields(fields);
+            body = out -> catalogStreamService.writeAllProductFields(selected, out);
+        } else {
+            body = catalogStreamService::writeAllProducts;
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * 从CSV批量导入产品
+     * 需要管理员权限
+     */
+    @ApiOperation(value = "批量导入产品", notes = "上传UTF-8编码的CSV文件批量创建产品，第一行为表头，"
+            + "支持id、name、category、description、specifications（JSON数组）、application、image、sort、status列，"
+            + "id为空时新建产品，有值时按id更新已有产品；返回每个失败行的错误信息；导出的文件可以直接导入，不会产生重复产品")
+    @PostMapping(value = "/import", consumes = { "multipart/form-data" })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProductImportResultDTO> importProducts(
+            @ApiParam(value = "CSV文件", required = true)
+            @RequestPart("file") MultipartFile file) {
+        if (file.isEmpty()) {
+            throw BusinessException.invalidParameter("导入文件不能为空");
+        }
+        String filename = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        if (filename.endsWith(".xls") || filename.endsWith(".xlsx")) {
+            throw BusinessException.invalidParameter("暂不支持Excel文件，请在Excel中另存为\"CSV UTF-8\"后上传");
+        }
+        try (InputStream in = file.getInputStream()) {
+            return ResponseEntity.ok(productImportService.importCsv(in));
+        } catch (IOException e) {
+            throw new BusinessException("读取导入文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 导出所有产品为CSV
+     * 需要管理员权限
+     */
+    @ApiOperation(value = "导出产品", notes = "以流的方式导出所有产品为UTF-8编码的CSV，包括规格")
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products.csv")
+                .body(catalogStreamService::writeProductsCsv);
     }
-} 
\ No newline at end of file
+}
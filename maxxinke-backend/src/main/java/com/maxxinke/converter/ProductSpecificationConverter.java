@@ -1,34 +1,37 @@
 package com.maxxinke.converter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.entity.ProductSpecifications;
+import com.maxxinke.utils.JsonCodec;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.persistence.AttributeConverter;
 import javax.persistence.Converter;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 产品规格JSON转换器
  * 用于在数据库JSON类型和Java对象之间进行转换
+ * 读取时不解析JSON，返回第一次访问时才解析的{@link ProductSpecifications}；写入时未修改的列表直接写回原始JSON
  */
 @Slf4j
 @Converter
 public class ProductSpecificationConverter implements AttributeConverter<List<ProductSpecification>, String> {
     
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
     @Override
     public String convertToDatabaseColumn(List<ProductSpecification> specifications) {
+        if (specifications instanceof ProductSpecifications) {
+            String json = ((ProductSpecifications) specifications).getJson();
+            if (json != null && !json.isEmpty()) {
+                return json;
+            }
+        }
         if (specifications == null || specifications.isEmpty()) {
             return "[]";
         }
         try {
-            return objectMapper.writeValueAsString(specifications);
+            return JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(specifications);
         } catch (JsonProcessingException e) {
             log.error("Error converting specifications to JSON: {}", e.getMessage());
             return "[]";
@@ -37,14 +40,6 @@ public class ProductSpecificationConverter implements AttributeConverter<List<Pr
     
     @Override
     public List<ProductSpecification> convertToEntityAttribute(String dbData) {
-        if (dbData == null || dbData.isEmpty()) {
-            return new ArrayList<>();
-        }
-        try {
-            return objectMapper.readValue(dbData, new TypeReference<List<ProductSpecification>>() {});
-        } catch (IOException e) {
-            log.error("Error converting JSON to specifications: {}", e.getMessage());
-            return new ArrayList<>();
-        }
+        return ProductSpecifications.fromJson(dbData);
     }
-} 
\ No newline at end of file
+}
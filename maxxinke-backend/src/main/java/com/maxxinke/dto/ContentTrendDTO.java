@@ -0,0 +1,21 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 内容数量趋势数据
+ */
+@Data
+public class ContentTrendDTO {
+    private LocalDate date;
+    /**
+     * 当天结束时的总数
+     */
+    private Long totalCount;
+    /**
+     * 当天新增数
+     */
+    private Long createdCount;
+}
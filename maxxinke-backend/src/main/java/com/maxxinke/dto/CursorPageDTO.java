@@ -0,0 +1,42 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 按游标翻页的结果
+ * 不包含总数，下一页使用nextCursor请求，hasNext为false时已到最后一页
+ *
+ * @param <T> 记录类型
+ */
+@Data
+public class CursorPageDTO<T> {
+
+    private List<T> content; // 本页记录
+
+    private Integer size; // 请求的每页条数
+
+    private String nextCursor; // 下一页的游标，没有下一页时为null
+
+    private Boolean hasNext; // 是否还有下一页
+
+    /**
+     * 由多查询一条的结果构造一页，多出的一条只用于判断是否还有下一页
+     * @param fetched 最多size + 1条记录
+     * @param size 每页条数
+     * @param cursorOf 由记录生成游标文本的方法
+     * @return 一页结果
+     */
+    public static <T> CursorPageDTO<T> of(List<T> fetched, int size, Function<T, String> cursorOf) {
+        CursorPageDTO<T> page = new CursorPageDTO<>();
+        boolean hasNext = fetched.size() > size;
+        List<T> content = hasNext ? fetched.subList(0, size) : fetched;
+        page.setContent(content);
+        page.setSize(size);
+        page.setHasNext(hasNext);
+        page.setNextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null);
+        return page;
+    }
+}
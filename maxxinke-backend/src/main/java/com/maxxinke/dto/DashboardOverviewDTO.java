@@ -0,0 +1,19 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 仪表盘组合数据
+ * 一次返回仪表盘首页所需的全部面板，各面板独立查询，单个面板失败不影响其他面板
+ */
+@Data
+public class DashboardOverviewDTO {
+    private DashboardPanelDTO<DashboardStatsDTO> stats;
+    private DashboardPanelDTO<List<VisitDataDTO>> visits;
+    private DashboardPanelDTO<List<VisitDataDTO>> dailyVisits;
+    private DashboardPanelDTO<List<CategoryDataDTO>> categories;
+    private DashboardPanelDTO<List<Object>> recentMessages;
+    private DashboardPanelDTO<List<Object>> recentNews;
+}
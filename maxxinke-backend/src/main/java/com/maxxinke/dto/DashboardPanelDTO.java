@@ -0,0 +1,15 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+/**
+ * 仪表盘面板数据
+ * 面板查询超时或出错时data为空，并通过timedOut、error标记原因
+ */
+@Data
+public class DashboardPanelDTO<T> {
+    private T data;
+    private boolean timedOut;
+    private String error;
+    private long elapsedMillis;
+}
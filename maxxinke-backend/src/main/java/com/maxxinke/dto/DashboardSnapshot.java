@@ -0,0 +1,29 @@
+package com.maxxinke.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * 仪表盘内容统计快照
+ * 由后台定时或在内容变更后重新计算，创建后不再修改，可被多个请求同时读取
+ */
+@Value
+public class DashboardSnapshot {
+    long totalProducts;
+    long totalNews;
+    long totalMessages;
+    /**
+     * 7天前结束时的产品总数，没有记录时为null
+     */
+    Long weekAgoProducts;
+    /**
+     * 7天前结束时的新闻总数，没有记录时为null
+     */
+    Long weekAgoNews;
+    /**
+     * 7天前结束时的留言总数，没有记录时为null
+     */
+    Long weekAgoMessages;
+    LocalDateTime createTime;
+}
@@ -2,6 +2,8 @@ package com.maxxinke.dto;
 
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class DashboardStatsDTO {
     private Long totalProducts;
@@ -13,4 +15,12 @@ public class DashboardStatsDTO {
     private Double newsGrowth;
     private Double messageGrowth;
     private Double viewsGrowth;
+    /**
+     * 内容统计快照的计算时间
+     */
+    private LocalDateTime snapshotTime;
+    /**
+     * 内容统计快照距今的毫秒数
+     */
+    private Long snapshotAgeMillis;
 } 
\ No newline at end of file
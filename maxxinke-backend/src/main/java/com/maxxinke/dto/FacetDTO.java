@@ -0,0 +1,16 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 规格分面数据传输对象
+ */
+@Data
+public class FacetDTO {
+
+    private String name; // 规格名称
+
+    private List<FacetValueDTO> values; // 各取值的产品数，按数量降序排列
+}
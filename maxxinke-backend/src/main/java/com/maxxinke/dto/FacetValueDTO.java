@@ -0,0 +1,14 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+/**
+ * 分面取值统计数据传输对象
+ */
+@Data
+public class FacetValueDTO {
+
+    private String value; // 取值原文，用作筛选条件
+
+    private Integer count; // 符合条件的产品数
+}
@@ -0,0 +1,9 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+@Data
+public class PathVisitorDTO {
+    private String path;
+    private Long uniqueVisitors;
+}
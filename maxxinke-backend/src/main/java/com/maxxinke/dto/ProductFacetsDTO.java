@@ -0,0 +1,19 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 产品分面统计数据传输对象
+ * 统计某个维度时不应用该维度自身的筛选条件，选中一个取值后仍能看到同一维度其他取值的数量
+ */
+@Data
+public class ProductFacetsDTO {
+
+    private Long total; // 符合全部筛选条件的产品数
+
+    private List<FacetValueDTO> categories; // 各分类的产品数
+
+    private List<FacetDTO> specifications; // 各规格的取值统计
+}
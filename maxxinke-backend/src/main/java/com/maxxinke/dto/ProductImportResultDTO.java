@@ -0,0 +1,39 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 产品批量导入结果数据传输对象
+ */
+@Data
+public class ProductImportResultDTO {
+
+    private Integer total = 0; // 读取的数据行数，不含表头
+
+    private Integer imported = 0; // 成功导入的行数，包括按id更新的行
+
+    private Integer failed = 0; // 校验或写入失败的行数
+
+    private Long elapsedMillis; // 导入耗时（毫秒）
+
+    private List<RowError> errors = new ArrayList<>(); // 失败行的错误信息，最多返回前1000条
+
+    /**
+     * 一行数据的错误信息
+     */
+    @Data
+    public static class RowError {
+
+        private Long row; // 行号，表头为第1行
+
+        private String message; // 错误信息
+
+        public RowError(Long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.maxxinke.dto;
+
+import com.maxxinke.entity.Product;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 产品搜索结果数据传输对象
+ */
+@Data
+public class ProductSearchResultDTO {
+
+    private Product product; // 产品信息
+
+    private Double score; // 相关度得分
+
+    private Map<String, String> highlights; // 字段名到高亮片段的映射，匹配部分用<em>标签包围
+}
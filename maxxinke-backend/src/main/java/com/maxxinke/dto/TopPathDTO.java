@@ -0,0 +1,10 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+@Data
+public class TopPathDTO {
+    private String path;
+    private Long count;
+    private Long errorBound;
+}
@@ -0,0 +1,15 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class UniqueVisitorDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String path;
+    private Long uniqueVisitors;
+    private List<VisitDataDTO> daily;
+}
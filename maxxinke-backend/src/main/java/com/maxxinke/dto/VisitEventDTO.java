@@ -0,0 +1,14 @@
+package com.maxxinke.dto;
+
+import lombok.Data;
+
+/**
+ * 前台页面访问事件
+ * 由前台批量上报，timestamp为客户端记录的访问时间（毫秒时间戳）
+ */
+@Data
+public class VisitEventDTO {
+    private String path;
+    private String title;
+    private Long timestamp;
+}
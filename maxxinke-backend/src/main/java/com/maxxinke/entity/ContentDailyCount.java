@@ -0,0 +1,57 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 内容每日数量实体类
+ * 记录每种内容每天结束时的总数和当天新增数，对应数据库中的content_daily_counts表；
+ * 增长率和趋势图只需读取少量行，不再扫描内容表
+ */
+@Data
+@Entity
+@Table(name = "content_daily_counts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_content_daily_count", columnNames = {"bucket_date", "entity_type"})
+})
+public class ContentDailyCount {
+
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_NEWS = "news";
+    public static final String TYPE_MESSAGE = "message";
+    public static final String TYPE_CATEGORY = "category";
+    public static final String TYPE_USER = "user";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 统计日期
+     */
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    /**
+     * 内容类型
+     */
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    /**
+     * 该日结束时的总数
+     */
+    @Column(name = "total_count", nullable = false)
+    private Long totalCount = 0L;
+
+    /**
+     * 该日新增数
+     */
+    @Column(name = "created_count", nullable = false)
+    private Long createdCount = 0L;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+}
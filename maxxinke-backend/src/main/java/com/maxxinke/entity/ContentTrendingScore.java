@@ -0,0 +1,53 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 内容热度快照实体类
+ * 保存各节点内存中产品和新闻的热度，对应数据库中的content_trending_scores表；
+ * 热度按更新时间计算，重启后按经过的时间衰减后恢复
+ */
+@Data
+@Entity
+@Table(name = "content_trending_scores", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_content_trending_score", columnNames = {"node", "entity_type", "content_id"})
+})
+public class ContentTrendingScore {
+
+    public static final String TYPE_PRODUCT = "product";
+    public static final String TYPE_NEWS = "news";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 应用节点名称
+     */
+    @Column(nullable = false, length = 64)
+    private String node;
+
+    /**
+     * 内容类型
+     */
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    /**
+     * 产品或新闻ID
+     */
+    @Column(name = "content_id", nullable = false)
+    private Long contentId;
+
+    /**
+     * 更新时间点的热度
+     */
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        @Index(name = "idx_messages_status_create_time", columnList = "status, create_time"),
+        @Index(name = "idx_messages_create_time", columnList = "create_time"),
+        @Index(name = "idx_messages_user_id_create_time", columnList = "user_id, create_time")
+})
 public class Message {
     
     @Id
@@ -7,7 +7,11 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "news")
+@Table(name = "news", indexes = {
+        @Index(name = "idx_news_status_create_time", columnList = "status, create_time"),
+        @Index(name = "idx_news_create_time", columnList = "create_time"),
+        @Index(name = "idx_news_status_type_create_time", columnList = "status, type, create_time")
+})
 public class News {
     
     @Id
@@ -29,7 +33,8 @@ public class News {
     @Column(nullable = false)
     private Integer status = 1;
     
-    @Column(nullable = false)
+    // 浏览量只通过ViewCountService的批量累加语句更新，保存实体时不写入该列
+    @Column(nullable = false, updatable = false)
     private Integer views = 0;
     
     @Column(length = 500)
@@ -10,7 +10,12 @@ import java.util.List;
 
 @Data
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_sort_create_time", columnList = "sort, create_time"),
+        @Index(name = "idx_product_status_sort_create_time", columnList = "status, sort, create_time"),
+        @Index(name = "idx_product_status_category_sort_create_time", columnList = "status, category, sort, create_time"),
+        @Index(name = "idx_product_category_sort_create_time", columnList = "category, sort, create_time")
+})
 public class Product {
     
     @Id
@@ -42,7 +47,8 @@ public class Product {
     @Column(nullable = false)
     private Integer status = 1;
     
-    @Column(nullable = false)
+    // 浏览量只通过ViewCountService的批量累加语句更新，保存实体时不写入该列
+    @Column(nullable = false, updatable = false)
     private Long views = 0L;
     
     @Column(name = "create_time", nullable = false, updatable = false)
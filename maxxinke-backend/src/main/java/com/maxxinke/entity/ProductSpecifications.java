@@ -0,0 +1,211 @@
+package com.maxxinke.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.maxxinke.utils.JsonCodec;
+import com.maxxinke.utils.LruCache;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 从数据库读取的产品规格列表
+ *
+ * 保存数据库中的原始JSON，第一次访问元素时才解析。解析结果按JSON内容缓存，内容相同的产品共享同一个
+ * 不可修改的列表，列表查询加载大量产品时不再逐行解析，也不会重复解析相同的规格。
+ * 列表被修改时先复制出自己的列表再修改，不影响共享的解析结果；未修改时写回数据库和序列化为响应都直接使用原始JSON。
+ *
+ * 共享的规格元素不能修改，修改规格应通过{@link #set(int, ProductSpecification)}替换元素或替换整个列表。
+ * 本类不是线程安全的，与实体的其他字段一样只在一个线程中使用
+ */
+@Slf4j
+@JsonSerialize(using = ProductSpecifications.RawJsonSerializer.class)
+public final class ProductSpecifications extends AbstractList<ProductSpecification> implements RandomAccess {
+
+    private static final int PARSE_CACHE_SIZE = 1024;
+
+    // 原始JSON到解析结果的缓存，键为JSON文本，按内容哈希和比较
+    private static final LruCache<String, List<ProductSpecification>> PARSE_CACHE = new LruCache<>(PARSE_CACHE_SIZE, 0);
+    private static final LongAdder PARSE_COUNT = new LongAdder();
+    private static final LongAdder PARSE_FAILURE_COUNT = new LongAdder();
+
+    // 未修改时为数据库中的原始JSON，修改后为null
+    private String json;
+    // 共享的解析结果，尚未解析时为null
+    private List<ProductSpecification> parsed;
+    // 修改后的列表，未修改时为null
+    private List<ProductSpecification> modified;
+
+    private ProductSpecifications(String json, List<ProductSpecification> parsed, List<ProductSpecification> modified) {
+        this.json = json;
+        this.parsed = parsed;
+        this.modified = modified;
+    }
+
+    /**
+     * 根据数据库中的JSON创建列表，不立即解析
+     *
+     * @param json 规格JSON
+     * @return 规格列表
+     */
+    public static ProductSpecifications fromJson(String json) {
+        return new ProductSpecifications(json, null, null);
+    }
+
+    /**
+     * 复制列表，未修改时与原列表共享原始JSON和解析结果，不会触发解析
+     *
+     * @return 列表副本
+     */
+    public ProductSpecifications copy() {
+        if (modified == null) {
+            return new ProductSpecifications(json, parsed, null);
+        }
+        List<ProductSpecification> copies = new ArrayList<>(modified.size());
+        for (ProductSpecification specification : modified) {
+            ProductSpecification copy = new ProductSpecification();
+            copy.setName(specification.getName());
+            copy.setValue(specification.getValue());
+            copy.setUnit(specification.getUnit());
+            copies.add(copy);
+        }
+        return new ProductSpecifications(null, null, copies);
+    }
+
+    /**
+     * 获取原始JSON
+     *
+     * @return 未修改时返回数据库中的JSON，修改后返回null
+     */
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public ProductSpecification get(int index) {
+        return elements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    @Override
+    public ProductSpecification set(int index, ProductSpecification element) {
+        return writable().set(index, element);
+    }
+
+    @Override
+    public void add(int index, ProductSpecification element) {
+        writable().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public ProductSpecification remove(int index) {
+        ProductSpecification removed = writable().remove(index);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof ProductSpecifications && json != null && json.equals(((ProductSpecifications) o).json)) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    /**
+     * 获取解析缓存的统计
+     *
+     * @return 统计数据，parses为实际解析JSON的次数
+     */
+    public static Map<String, Object> getParseStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(PARSE_CACHE.getStats());
+        stats.put("parses", PARSE_COUNT.sum());
+        stats.put("parseFailures", PARSE_FAILURE_COUNT.sum());
+        return stats;
+    }
+
+    private List<ProductSpecification> elements() {
+        if (modified != null) {
+            return modified;
+        }
+        if (parsed == null) {
+            parsed = parse(json);
+        }
+        return parsed;
+    }
+
+    private List<ProductSpecification> writable() {
+        if (modified == null) {
+            modified = new ArrayList<>(elements());
+            json = null;
+            parsed = null;
+        }
+        return modified;
+    }
+
+    private static List<ProductSpecification> parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ProductSpecification> cached = PARSE_CACHE.get(json);
+        if (cached != null) {
+            return cached;
+        }
+        long version = PARSE_CACHE.version();
+        List<ProductSpecification> specifications;
+        try {
+            PARSE_COUNT.increment();
+            List<ProductSpecification> values = JsonCodec.SPECIFICATIONS_READER.readValue(json);
+            specifications = values != null ? Collections.unmodifiableList(values) : Collections.emptyList();
+        } catch (IOException e) {
+            PARSE_FAILURE_COUNT.increment();
+            log.error("Error converting JSON to specifications: {}", e.getMessage());
+            specifications = Collections.emptyList();
+        }
+        PARSE_CACHE.put(json, specifications, version);
+        return specifications;
+    }
+
+    /**
+     * 未修改的列表直接输出原始JSON，修改后按元素序列化
+     */
+    public static final class RawJsonSerializer extends StdSerializer<ProductSpecifications> {
+
+        public RawJsonSerializer() {
+            super(ProductSpecifications.class);
+        }
+
+        @Override
+        public void serialize(ProductSpecifications value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (value.json != null && !value.json.isEmpty()) {
+                gen.writeRawValue(value.json);
+                return;
+            }
+            gen.writeStartArray();
+            for (ProductSpecification specification : value.elements()) {
+                provider.defaultSerializeValue(specification, gen);
+            }
+            gen.writeEndArray();
+        }
+    }
+}
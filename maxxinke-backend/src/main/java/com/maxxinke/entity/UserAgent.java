@@ -0,0 +1,58 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * User-Agent字典实体类
+ * 每个不同的User-Agent只保存一次，访问日志中只记录字典ID，对应数据库中的user_agents表
+ */
+@Data
+@Entity
+@Table(name = "user_agents", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_agents_hash", columnNames = "ua_hash")
+})
+public class UserAgent {
+
+    /**
+     * 桌面浏览器
+     */
+    public static final int CATEGORY_BROWSER = 0;
+
+    /**
+     * 移动设备浏览器
+     */
+    public static final int CATEGORY_MOBILE = 1;
+
+    /**
+     * 搜索引擎爬虫、监控程序等非真人访问
+     */
+    public static final int CATEGORY_BOT = 2;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * User-Agent的64位哈希值，用于唯一索引和快速查找
+     */
+    @Column(name = "ua_hash", nullable = false)
+    private Long uaHash;
+
+    /**
+     * User-Agent原文
+     */
+    @Column(name = "user_agent", nullable = false)
+    private String userAgent;
+
+    /**
+     * 访问来源类型：0-桌面浏览器，1-移动设备，2-爬虫
+     */
+    @Column(nullable = false)
+    private Integer category;
+
+    @Column(name = "create_time", nullable = false)
+    private LocalDateTime createTime;
+}
@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
  */
 @Data
 @Entity
-@Table(name = "visit_logs")
+@Table(name = "visit_logs", indexes = {
+        @Index(name = "idx_visit_logs_create_time", columnList = "create_time")
+})
 public class VisitLog {
     
     /**
@@ -44,6 +46,13 @@ public class VisitLog {
      */
     @Column
     private String userAgent;
+
+    /**
+     * User-Agent字典ID
+     * 新写入的访问日志只记录字典ID，不再保存User-Agent原文
+     */
+    @Column(name = "user_agent_id")
+    private Long userAgentId;
     
     /**
      * 访问时间
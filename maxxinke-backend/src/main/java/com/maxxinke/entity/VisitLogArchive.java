@@ -0,0 +1,76 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 访问日志归档记录实体类
+ * 记录每个已归档月份的归档文件及状态，对应数据库中的visit_log_archives表
+ */
+@Data
+@Entity
+@Table(name = "visit_log_archives")
+public class VisitLogArchive {
+
+    /**
+     * 已导出到归档文件，尚未删除数据库中的记录
+     */
+    public static final int STATUS_EXPORTED = 0;
+
+    /**
+     * 已导出并删除数据库中的记录
+     */
+    public static final int STATUS_PURGED = 1;
+
+    /**
+     * 已从归档文件恢复到数据库
+     */
+    public static final int STATUS_RESTORED = 2;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 归档月份，格式为"YYYY-MM"
+     */
+    @Column(name = "archive_month", nullable = false, unique = true, length = 7)
+    private String archiveMonth;
+
+    /**
+     * 归档文件路径
+     */
+    @Column(name = "file_path", nullable = false, length = 500)
+    private String filePath;
+
+    /**
+     * 归档的记录数
+     */
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    /**
+     * 归档状态：0-已导出，1-已删除，2-已恢复
+     */
+    @Column(nullable = false)
+    private Integer status;
+
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+
+    @PrePersist
+    protected void onCreate() {
+        createTime = LocalDateTime.now();
+        updateTime = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updateTime = LocalDateTime.now();
+    }
+}
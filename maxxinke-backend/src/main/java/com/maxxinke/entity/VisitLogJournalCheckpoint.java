@@ -0,0 +1,48 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 访问日志预写日志读取进度实体类
+ * 记录每个节点已写入数据库的预写日志位置，与访问日志在同一事务内更新，
+ * 对应数据库中的visit_log_journal_checkpoints表
+ */
+@Data
+@Entity
+@Table(name = "visit_log_journal_checkpoints")
+public class VisitLogJournalCheckpoint {
+
+    /**
+     * 应用节点名称
+     */
+    @Id
+    @Column(length = 64)
+    private String node;
+
+    /**
+     * 预写日志的唯一标识，日志目录被清空或更换后与当前日志不一致
+     */
+    @Column(name = "journal_id", length = 36)
+    private String journalId;
+
+    /**
+     * 已确认的分段号
+     */
+    @Column(name = "segment_id", nullable = false)
+    private Long segmentId;
+
+    /**
+     * 已确认的段内偏移
+     */
+    @Column(name = "segment_offset", nullable = false)
+    private Integer segmentOffset;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+}
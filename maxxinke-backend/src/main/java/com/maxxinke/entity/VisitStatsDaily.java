@@ -0,0 +1,29 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 按日汇总的访问统计实体类
+ * 对应数据库中的visit_stats_daily表，每天一行
+ */
+@Data
+@Entity
+@Table(name = "visit_stats_daily")
+public class VisitStatsDaily {
+
+    /**
+     * 统计日期
+     */
+    @Id
+    @Column(name = "bucket_date")
+    private LocalDate bucketDate;
+
+    /**
+     * 该日的访问量
+     */
+    @Column(name = "visit_count", nullable = false)
+    private Long visitCount = 0L;
+}
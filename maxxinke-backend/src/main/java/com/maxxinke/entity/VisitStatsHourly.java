@@ -0,0 +1,29 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 按小时汇总的访问统计实体类
+ * 对应数据库中的visit_stats_hourly表，每小时一行
+ */
+@Data
+@Entity
+@Table(name = "visit_stats_hourly")
+public class VisitStatsHourly {
+
+    /**
+     * 统计小时，取整到小时的时间点
+     */
+    @Id
+    @Column(name = "bucket_time")
+    private LocalDateTime bucketTime;
+
+    /**
+     * 该小时内的访问量
+     */
+    @Column(name = "visit_count", nullable = false)
+    private Long visitCount = 0L;
+}
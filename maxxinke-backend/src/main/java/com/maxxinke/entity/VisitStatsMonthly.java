@@ -0,0 +1,29 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * 按月汇总的访问统计实体类
+ * 对应数据库中的visit_stats_monthly表，每月一行
+ */
+@Data
+@Entity
+@Table(name = "visit_stats_monthly")
+public class VisitStatsMonthly {
+
+    /**
+     * 统计月份，取该月第一天
+     */
+    @Id
+    @Column(name = "bucket_month")
+    private LocalDate bucketMonth;
+
+    /**
+     * 该月的访问量
+     */
+    @Column(name = "visit_count", nullable = false)
+    private Long visitCount = 0L;
+}
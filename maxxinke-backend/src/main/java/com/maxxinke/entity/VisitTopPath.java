@@ -0,0 +1,56 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 热门页面统计实体类
+ * 保存各节点每天访问量最高的页面及其估算访问量，对应数据库中的visit_top_paths表
+ */
+@Data
+@Entity
+@Table(name = "visit_top_paths", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_visit_top_path", columnNames = {"bucket_date", "path", "node"})
+})
+public class VisitTopPath {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 统计日期
+     */
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    /**
+     * 页面路径
+     */
+    @Column(nullable = false)
+    private String path;
+
+    /**
+     * 写入该数据的应用节点
+     */
+    @Column(nullable = false, length = 64)
+    private String node;
+
+    /**
+     * 估算访问量
+     */
+    @Column(name = "visit_count", nullable = false)
+    private Long visitCount;
+
+    /**
+     * 估算访问量的误差上限
+     */
+    @Column(name = "error_bound", nullable = false)
+    private Long errorBound;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+}
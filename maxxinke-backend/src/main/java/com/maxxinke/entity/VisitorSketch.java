@@ -0,0 +1,57 @@
+package com.maxxinke.entity;
+
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 独立访客估算数据实体类
+ * 保存按天、按页面、按节点划分的HyperLogLog寄存器数据，对应数据库中的visitor_sketches表
+ * 查询时将多行数据合并即可得到任意日期范围、多个节点的独立访客数
+ */
+@Data
+@Entity
+@Table(name = "visitor_sketches", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_visitor_sketch", columnNames = {"bucket_date", "path", "node"})
+})
+public class VisitorSketch {
+
+    /**
+     * 全站统计使用的路径值
+     */
+    public static final String SITE_PATH = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 统计日期
+     */
+    @Column(name = "bucket_date", nullable = false)
+    private LocalDate bucketDate;
+
+    /**
+     * 页面路径，全站统计为空字符串
+     */
+    @Column(nullable = false)
+    private String path;
+
+    /**
+     * 写入该数据的应用节点
+     */
+    @Column(nullable = false, length = 64)
+    private String node;
+
+    /**
+     * 序列化后的HyperLogLog寄存器数据
+     */
+    @Lob
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] registers;
+
+    @Column(name = "update_time", nullable = false)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,50 @@
+package com.maxxinke.event;
+
+/**
+ * 内容变更事件
+ * 产品、新闻、留言、产品分类新增、修改或删除后发布，用于刷新依赖这些内容的统计和缓存
+ */
+public class ContentChangedEvent {
+
+    /**
+     * 发生变更的内容类型
+     */
+    public enum ContentType {
+        PRODUCT, NEWS, MESSAGE, CATEGORY
+    }
+
+    private final ContentType type;
+    private final Long id;
+    private final boolean deleted;
+
+    /**
+     * @param type 内容类型
+     * @param id 发生变更的内容ID，批量变更时为null
+     */
+    public ContentChangedEvent(ContentType type, Long id) {
+        this(type, id, false);
+    }
+
+    /**
+     * @param type 内容类型
+     * @param id 发生变更的内容ID，批量变更时为null
+     * @param deleted 内容是否已删除
+     */
+    public ContentChangedEvent(ContentType type, Long id, boolean deleted) {
+        this.type = type;
+        this.id = id;
+        this.deleted = deleted;
+    }
+
+    public ContentType getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+}
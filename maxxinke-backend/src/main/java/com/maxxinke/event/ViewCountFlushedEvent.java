@@ -0,0 +1,29 @@
+package com.maxxinke.event;
+
+import java.util.Map;
+
+/**
+ * 浏览量写入数据库事件
+ * 在累加的浏览量提交到数据库之后发布，缓存了浏览量的组件据此更新叠加的增量或使对应条目失效
+ */
+public class ViewCountFlushedEvent {
+
+    private final ContentChangedEvent.ContentType type;
+    private final Map<Long, Long> deltas;
+
+    public ViewCountFlushedEvent(ContentChangedEvent.ContentType type, Map<Long, Long> deltas) {
+        this.type = type;
+        this.deltas = deltas;
+    }
+
+    public ContentChangedEvent.ContentType getType() {
+        return type;
+    }
+
+    /**
+     * 本次写入的各ID浏览量增量
+     */
+    public Map<Long, Long> getDeltas() {
+        return deltas;
+    }
+}
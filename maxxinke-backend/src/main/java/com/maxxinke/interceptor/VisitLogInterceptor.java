@@ -1,7 +1,8 @@
 package com.maxxinke.interceptor;
 
 import com.maxxinke.entity.VisitLog;
-import com.maxxinke.repository.VisitLogRepository;
+import com.maxxinke.service.VisitRecordService;
+import com.maxxinke.utils.VisitDedupCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +11,6 @@ import org.springframework.web.servlet.HandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 访问日志拦截器
@@ -23,19 +21,17 @@ import java.util.concurrent.ConcurrentHashMap;
 public class VisitLogInterceptor implements HandlerInterceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(VisitLogInterceptor.class);
-    
-    // 用于记录用户最近访问时间的缓存，key为"IP"，value为最后访问时间
-    private final Map<String, LocalDateTime> lastVisitCache = new ConcurrentHashMap<>();
-    
-    // 同一用户访问的最小间隔时间（秒）
-    private static final int MIN_VISIT_INTERVAL_SECONDS = 30;
 
     @Autowired
-    private VisitLogRepository visitLogRepository;
+    private VisitRecordService visitRecordService;
+
+    // 访问去重缓存，key为"IP"
+    @Autowired
+    private VisitDedupCache visitDedupCache;
 
     /**
      * 在请求处理之前进行调用
-     * 记录访问日志信息到数据库
+     * 通过访问记录服务提交访问日志，由后台线程批量写入数据库
      *
      * @param request 当前HTTP请求
      * @param response HTTP响应
@@ -52,16 +48,9 @@ public class VisitLogInterceptor implements HandlerInterceptor {
         String ip = getClientIp(request);
         
         // 检查是否是同一用户短时间内重复访问
-        LocalDateTime lastVisit = lastVisitCache.get(ip);
-        LocalDateTime now = LocalDateTime.now();
-        
-        if (lastVisit != null) {
-            long secondsSinceLastVisit = java.time.Duration.between(lastVisit, now).getSeconds();
-            if (secondsSinceLastVisit < MIN_VISIT_INTERVAL_SECONDS) {
-                logger.debug("Skipping repeated visit from IP: {}, seconds since last visit: {}", 
-                        ip, secondsSinceLastVisit);
-                return true;
-            }
+        if (!visitDedupCache.tryAcquire(ip)) {
+            logger.debug("Skipping repeated visit from IP: {}", ip);
+            return true;
         }
 
         try {
@@ -70,12 +59,9 @@ public class VisitLogInterceptor implements HandlerInterceptor {
             visitLog.setPath(request.getRequestURI());
             visitLog.setIp(ip);
             visitLog.setUserAgent(request.getHeader("User-Agent"));
-            visitLogRepository.save(visitLog);
-            
-            // 更新最后访问时间
-            lastVisitCache.put(ip, now);
+            visitRecordService.record(visitLog);
             
-            logger.info("Recorded website visit from IP: {}", ip);
+            logger.debug("Recorded website visit from IP: {}", ip);
         } catch (Exception e) {
             logger.error("Failed to record visit: error={}", e.getMessage());
         }
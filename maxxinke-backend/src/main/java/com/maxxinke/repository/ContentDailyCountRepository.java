@@ -0,0 +1,39 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.ContentDailyCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 内容每日数量数据访问接口
+ */
+@Repository
+public interface ContentDailyCountRepository extends JpaRepository<ContentDailyCount, Long> {
+
+    /**
+     * 查询指定日期所有内容类型的数量
+     * @param bucketDate 统计日期
+     * @return 数量列表
+     */
+    List<ContentDailyCount> findByBucketDate(LocalDate bucketDate);
+
+    /**
+     * 查询某种内容在日期范围内的每日数量
+     * @param entityType 内容类型
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @return 按日期升序排列的数量列表
+     */
+    List<ContentDailyCount> findByEntityTypeAndBucketDateBetweenOrderByBucketDateAsc(String entityType, LocalDate start, LocalDate end);
+
+    /**
+     * 查询已记录的最晚日期
+     * @return 最晚日期，没有记录时为null
+     */
+    @Query("SELECT MAX(c.bucketDate) FROM ContentDailyCount c")
+    LocalDate findLatestBucketDate();
+}
@@ -0,0 +1,21 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.ContentTrendingScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 内容热度快照数据访问接口
+ */
+@Repository
+public interface ContentTrendingScoreRepository extends JpaRepository<ContentTrendingScore, Long> {
+
+    /**
+     * 查询指定节点保存的热度快照
+     * @param node 节点名称
+     * @return 热度快照列表
+     */
+    List<ContentTrendingScore> findByNode(String node);
+}
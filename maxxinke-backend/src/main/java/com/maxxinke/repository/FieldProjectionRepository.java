@@ -0,0 +1,99 @@
+package com.maxxinke.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按字段投影查询实体
+ *
+ * 生成的SQL只包含选中的列，未选中的大字段（TEXT、JSON）不会从数据库读取；
+ * 查询按实体属性构造，属性上的转换器（如产品规格的JSON转换）照常生效。
+ * 字段名和条件名由调用方按白名单校验后传入
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 查询实体的部分字段
+     *
+     * @param entityClass 实体类
+     * @param fields 选中的属性名
+     * @param conditions 属性名到取值的相等条件，多个条件之间为"且"
+     * @param pageable 分页和排序参数，可以为{@link Pageable#unpaged()}
+     * @return 每行一个属性名到取值的映射，顺序与fields一致
+     */
+    public List<Map<String, Object>> findFields(Class<?> entityClass, List<String> fields,
+                                                Map<String, Object> conditions, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entityClass);
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+        query.where(predicates(cb, root, conditions));
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : pageable.getSort()) {
+            orders.add(order.isAscending() ? cb.asc(root.get(order.getProperty())) : cb.desc(root.get(order.getProperty())));
+        }
+        query.orderBy(orders);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) Math.min(pageable.getOffset(), Integer.MAX_VALUE));
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> tuples = typedQuery.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 统计符合条件的实体数量
+     *
+     * @param entityClass 实体类
+     * @param conditions 属性名到取值的相等条件
+     * @return 数量
+     */
+    public long count(Class<?> entityClass, Map<String, Object> conditions) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<?> root = query.from(entityClass);
+        query.select(cb.count(root));
+        query.where(predicates(cb, root, conditions));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, Root<?> root, Map<String, Object> conditions) {
+        List<Predicate> predicates = new ArrayList<>(conditions.size());
+        conditions.forEach((field, value) -> predicates.add(cb.equal(root.get(field), value)));
+        return predicates.toArray(new Predicate[0]);
+    }
+}
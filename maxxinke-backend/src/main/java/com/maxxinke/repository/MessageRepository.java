@@ -4,7 +4,10 @@ import com.maxxinke.entity.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -26,4 +29,17 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     // 根据状态查询消息
     List<Message> findByStatus(Integer status);
+
+    /**
+     * 按游标翻页的查询条件：排在(createTime, id)之后的留言，顺序与ORDER BY一致
+     */
+    String SEEK_AFTER = "(m.createTime < :createTime OR (m.createTime = :createTime AND m.id < :id))";
+    String SEEK_ORDER = " ORDER BY m.createTime DESC, m.id DESC";
+
+    @Query("SELECT m FROM Message m WHERE " + SEEK_AFTER + SEEK_ORDER)
+    List<Message> findAfter(@Param("createTime") LocalDateTime createTime, @Param("id") long id, Pageable limit);
+
+    @Query("SELECT m FROM Message m WHERE m.status = :status AND " + SEEK_AFTER + SEEK_ORDER)
+    List<Message> findByStatusAfter(@Param("status") Integer status, @Param("createTime") LocalDateTime createTime,
+                                    @Param("id") long id, Pageable limit);
 } 
\ No newline at end of file
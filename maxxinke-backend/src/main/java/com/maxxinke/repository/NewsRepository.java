@@ -4,7 +4,10 @@ import com.maxxinke.entity.News;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,4 +18,22 @@ public interface NewsRepository extends JpaRepository<News, Long> {
     List<News> findByStatusOrderByCreateTimeDesc(Integer status);
     List<News> findByType(String type);
     List<News> findTop5ByOrderByCreateTimeDesc();
+
+    /**
+     * 按游标翻页的查询条件：排在(createTime, id)之后的新闻，顺序与ORDER BY一致
+     */
+    String SEEK_AFTER = "(n.createTime < :createTime OR (n.createTime = :createTime AND n.id < :id))";
+    String SEEK_ORDER = " ORDER BY n.createTime DESC, n.id DESC";
+
+    @Query("SELECT n FROM News n WHERE " + SEEK_AFTER + SEEK_ORDER)
+    List<News> findAfter(@Param("createTime") LocalDateTime createTime, @Param("id") long id, Pageable limit);
+
+    @Query("SELECT n FROM News n WHERE n.status = :status AND " + SEEK_AFTER + SEEK_ORDER)
+    List<News> findByStatusAfter(@Param("status") Integer status, @Param("createTime") LocalDateTime createTime,
+                                 @Param("id") long id, Pageable limit);
+
+    @Query("SELECT n FROM News n WHERE n.status = :status AND n.type = :type AND " + SEEK_AFTER + SEEK_ORDER)
+    List<News> findByStatusAndTypeAfter(@Param("status") Integer status, @Param("type") String type,
+                                        @Param("createTime") LocalDateTime createTime, @Param("id") long id,
+                                        Pageable limit);
 } 
\ No newline at end of file
@@ -5,7 +5,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -116,4 +118,25 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return 产品列表
      */
     List<Product> findByStatus(Integer status);
+
+    /**
+     * 按游标翻页的查询条件：排在(sort, createTime, id)之后的产品，顺序与ORDER BY一致
+     */
+    String SEEK_AFTER = "(p.sort < :sort OR (p.sort = :sort AND (p.createTime < :createTime " +
+            "OR (p.createTime = :createTime AND p.id < :id))))";
+    String SEEK_ORDER = " ORDER BY p.sort DESC, p.createTime DESC, p.id DESC";
+
+    @Query("SELECT p FROM Product p WHERE " + SEEK_AFTER + SEEK_ORDER)
+    List<Product> findAfter(@Param("sort") int sort, @Param("createTime") LocalDateTime createTime,
+                            @Param("id") long id, Pageable limit);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND " + SEEK_AFTER + SEEK_ORDER)
+    List<Product> findByStatusAfter(@Param("status") Integer status, @Param("sort") int sort,
+                                    @Param("createTime") LocalDateTime createTime, @Param("id") long id,
+                                    Pageable limit);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.category = :category AND " + SEEK_AFTER + SEEK_ORDER)
+    List<Product> findByStatusAndCategoryAfter(@Param("status") Integer status, @Param("category") String category,
+                                               @Param("sort") int sort, @Param("createTime") LocalDateTime createTime,
+                                               @Param("id") long id, Pageable limit);
 } 
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.UserAgent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * User-Agent字典数据访问接口
+ */
+@Repository
+public interface UserAgentRepository extends JpaRepository<UserAgent, Long> {
+}
@@ -0,0 +1,28 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitLogArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 访问日志归档记录数据访问接口
+ */
+@Repository
+public interface VisitLogArchiveRepository extends JpaRepository<VisitLogArchive, Long> {
+
+    /**
+     * 根据归档月份查找归档记录
+     * @param archiveMonth 归档月份，格式为"YYYY-MM"
+     * @return 归档记录
+     */
+    Optional<VisitLogArchive> findByArchiveMonth(String archiveMonth);
+
+    /**
+     * 获取所有归档记录，按月份降序排列
+     * @return 归档记录列表
+     */
+    List<VisitLogArchive> findAllByOrderByArchiveMonthDesc();
+}
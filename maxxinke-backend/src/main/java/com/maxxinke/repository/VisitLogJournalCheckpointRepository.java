@@ -0,0 +1,12 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitLogJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 访问日志预写日志读取进度数据访问接口
+ */
+@Repository
+public interface VisitLogJournalCheckpointRepository extends JpaRepository<VisitLogJournalCheckpoint, String> {
+}
@@ -0,0 +1,23 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitStatsDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 日访问统计数据访问接口
+ */
+@Repository
+public interface VisitStatsDailyRepository extends JpaRepository<VisitStatsDaily, LocalDate> {
+
+    /**
+     * 查询日期范围内的日统计
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @return 按日期升序排列的日统计列表
+     */
+    List<VisitStatsDaily> findByBucketDateBetweenOrderByBucketDateAsc(LocalDate start, LocalDate end);
+}
@@ -0,0 +1,23 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitStatsHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 小时访问统计数据访问接口
+ */
+@Repository
+public interface VisitStatsHourlyRepository extends JpaRepository<VisitStatsHourly, LocalDateTime> {
+
+    /**
+     * 查询时间段内的小时统计
+     * @param start 开始小时（包含）
+     * @param end 结束小时（包含）
+     * @return 按时间升序排列的小时统计列表
+     */
+    List<VisitStatsHourly> findByBucketTimeBetweenOrderByBucketTimeAsc(LocalDateTime start, LocalDateTime end);
+}
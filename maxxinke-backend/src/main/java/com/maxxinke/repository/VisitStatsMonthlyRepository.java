@@ -0,0 +1,23 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitStatsMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 月访问统计数据访问接口
+ */
+@Repository
+public interface VisitStatsMonthlyRepository extends JpaRepository<VisitStatsMonthly, LocalDate> {
+
+    /**
+     * 查询月份范围内的月统计
+     * @param start 开始月份第一天（包含）
+     * @param end 结束月份第一天（包含）
+     * @return 按月份升序排列的月统计列表
+     */
+    List<VisitStatsMonthly> findByBucketMonthBetweenOrderByBucketMonthAsc(LocalDate start, LocalDate end);
+}
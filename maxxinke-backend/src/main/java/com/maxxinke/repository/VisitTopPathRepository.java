@@ -0,0 +1,31 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitTopPath;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 热门页面统计数据访问接口
+ */
+@Repository
+public interface VisitTopPathRepository extends JpaRepository<VisitTopPath, Long> {
+
+    /**
+     * 查询日期范围内所有节点的热门页面数据
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @return 热门页面数据列表
+     */
+    List<VisitTopPath> findByBucketDateBetween(LocalDate start, LocalDate end);
+
+    /**
+     * 查询指定节点在指定日期的热门页面数据
+     * @param bucketDate 统计日期
+     * @param node 节点名称
+     * @return 热门页面数据列表
+     */
+    List<VisitTopPath> findByBucketDateAndNode(LocalDate bucketDate, String node);
+}
@@ -0,0 +1,39 @@
+package com.maxxinke.repository;
+
+import com.maxxinke.entity.VisitorSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 独立访客估算数据访问接口
+ */
+@Repository
+public interface VisitorSketchRepository extends JpaRepository<VisitorSketch, Long> {
+
+    /**
+     * 查询日期范围内指定路径的估算数据（所有节点）
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @param path 页面路径，全站统计为空字符串
+     * @return 估算数据列表
+     */
+    List<VisitorSketch> findByBucketDateBetweenAndPath(LocalDate start, LocalDate end, String path);
+
+    /**
+     * 查询指定日期的所有估算数据（所有路径、所有节点）
+     * @param bucketDate 统计日期
+     * @return 估算数据列表
+     */
+    List<VisitorSketch> findByBucketDate(LocalDate bucketDate);
+
+    /**
+     * 查询指定节点在指定日期的估算数据
+     * @param bucketDate 统计日期
+     * @param node 节点名称
+     * @return 估算数据列表
+     */
+    List<VisitorSketch> findByBucketDateAndNode(LocalDate bucketDate, String node);
+}
@@ -1,13 +1,20 @@
 package com.maxxinke.service;
 
+import com.maxxinke.config.ReadCoalescingProperties;
 import com.maxxinke.entity.AboutUs;
 import com.maxxinke.repository.AboutUsRepository;
+import com.maxxinke.utils.SingleFlight;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import java.util.Map;
+
 /**
  * 关于我们服务类
  * 处理关于我们信息的业务逻辑
+ * 并发的查询合并为一次数据库查询，结果短暂保留，保存后立即丢弃
  */
 @Service
 public class AboutUsService {
@@ -17,6 +24,19 @@ public class AboutUsService {
      */
     @Autowired
     private AboutUsRepository aboutUsRepository;
+
+    @Autowired
+    private ReadCoalescingProperties coalescingProperties;
+
+    /**
+     * 合并最新关于我们信息的并发查询，只有一个键
+     */
+    private SingleFlight<String, AboutUs> latestLoads;
+
+    @PostConstruct
+    public void initLoads() {
+        latestLoads = new SingleFlight<>(coalescingProperties.getRetainMillis());
+    }
     
     /**
      * 获取最新的关于我们信息
@@ -24,7 +44,8 @@ public class AboutUsService {
      * @return 最新的AboutUs记录，如果没有则返回null
      */
     public AboutUs getLatestAboutUs() {
-        return aboutUsRepository.findFirstByOrderByCreateTimeDesc();
+        AboutUs latest = latestLoads.load("latest", () -> copyOf(aboutUsRepository.findFirstByOrderByCreateTimeDesc()));
+        return copyOf(latest);
     }
     
     /**
@@ -34,6 +55,29 @@ public class AboutUsService {
      * @return 保存后的AboutUs对象，包含数据库生成的ID和时间戳
      */
     public AboutUs saveAboutUs(AboutUs aboutUs) {
-        return aboutUsRepository.save(aboutUs);
+        AboutUs saved = aboutUsRepository.save(aboutUs);
+        latestLoads.forgetAll();
+        return saved;
+    }
+
+    /**
+     * 获取查询合并的运行统计
+     *
+     * @return 统计数据
+     */
+    public Map<String, Object> getLoadStats() {
+        return latestLoads.getStats();
+    }
+
+    /**
+     * 复制关于我们信息，查询结果被多个请求共享，每个请求使用自己的副本
+     */
+    private static AboutUs copyOf(AboutUs source) {
+        if (source == null) {
+            return null;
+        }
+        AboutUs copy = new AboutUs();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
     }
 } 
\ No newline at end of file
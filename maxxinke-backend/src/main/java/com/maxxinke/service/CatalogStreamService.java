@@ -0,0 +1,72 @@
+package com.maxxinke.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 列表流式输出服务接口
+ * 不限条数的列表从数据库分批读取，逐条写成JSON数组，内存占用与总条数无关
+ */
+public interface CatalogStreamService {
+
+    /**
+     * 输出所有产品
+     *
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeAllProducts(OutputStream out) throws IOException;
+
+    /**
+     * 输出所有产品的部分字段，未选中的字段不从数据库读取
+     *
+     * @param fields 已校验的字段名，见{@link com.maxxinke.service.ProductService#selectFields(String)}
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeAllProductFields(List<String> fields, OutputStream out) throws IOException;
+
+    /**
+     * 输出指定分类的产品
+     *
+     * @param category 产品分类
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeProductsByCategory(String category, OutputStream out) throws IOException;
+
+    /**
+     * 输出所有新闻
+     *
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeAllNews(OutputStream out) throws IOException;
+
+    /**
+     * 输出所有新闻的部分字段，未选中的字段不从数据库读取
+     *
+     * @param fields 已校验的字段名，见{@link com.maxxinke.service.NewsService#selectFields(String)}
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeAllNewsFields(List<String> fields, OutputStream out) throws IOException;
+
+    /**
+     * 输出指定用户的消息
+     *
+     * @param userId 用户ID
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeMessagesByUser(Long userId, OutputStream out) throws IOException;
+
+    /**
+     * 将所有产品输出为UTF-8编码的CSV，第一行为表头，规格列为JSON数组
+     *
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    void writeProductsCsv(OutputStream out) throws IOException;
+}
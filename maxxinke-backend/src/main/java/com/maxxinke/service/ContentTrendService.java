@@ -0,0 +1,49 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.ContentTrendDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内容数量趋势服务接口
+ * 每天记录各类内容的总数和新增数，仪表盘的增长率和趋势图读取这些记录而不再扫描内容表
+ */
+public interface ContentTrendService {
+
+    /**
+     * 根据内容的创建时间重新计算日期范围内的每日数量
+     * 计算结果只包含当前仍存在的内容，已删除的内容不计入历史数量
+     *
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     */
+    void rebuild(LocalDate start, LocalDate end);
+
+    /**
+     * 获取指定日期结束时各类内容的总数
+     *
+     * @param date 日期
+     * @return 内容类型到总数的映射，该日没有记录的类型不包含在内
+     */
+    Map<String, Long> getTotals(LocalDate date);
+
+    /**
+     * 获取某种内容在日期范围内的每日数量
+     *
+     * @param entityType 内容类型
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @return 每日数量列表
+     */
+    List<ContentTrendDTO> getTrend(String entityType, LocalDate start, LocalDate end);
+
+    /**
+     * 判断内容类型是否受支持
+     *
+     * @param entityType 内容类型
+     * @return 是否受支持
+     */
+    boolean supports(String entityType);
+}
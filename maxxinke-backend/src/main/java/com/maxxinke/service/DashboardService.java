@@ -1,6 +1,7 @@
 package com.maxxinke.service;
 
 import com.maxxinke.dto.CategoryDataDTO;
+import com.maxxinke.dto.DashboardOverviewDTO;
 import com.maxxinke.dto.DashboardStatsDTO;
 import com.maxxinke.dto.VisitDataDTO;
 
@@ -14,4 +15,12 @@ public interface DashboardService {
     List<CategoryDataDTO> getCategoryData();
     List<Object> getRecentMessages();
     List<Object> getRecentNews();
+
+    /**
+     * 并发查询仪表盘首页的全部面板
+     * 每个面板有独立的超时时间，超时或出错的面板只返回错误标记
+     *
+     * @return 组合数据
+     */
+    DashboardOverviewDTO getOverview();
 } 
\ No newline at end of file
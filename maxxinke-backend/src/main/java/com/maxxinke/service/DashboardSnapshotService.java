@@ -0,0 +1,22 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.DashboardSnapshot;
+
+/**
+ * 仪表盘统计快照服务接口
+ * 在后台用聚合查询计算内容统计数据，仪表盘请求直接读取最近一次的快照
+ */
+public interface DashboardSnapshotService {
+
+    /**
+     * 获取最近一次计算的快照，尚未计算过时同步计算一次
+     *
+     * @return 统计快照
+     */
+    DashboardSnapshot getSnapshot();
+
+    /**
+     * 立即重新计算快照
+     */
+    void refresh();
+}
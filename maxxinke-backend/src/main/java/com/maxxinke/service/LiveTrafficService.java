@@ -0,0 +1,51 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.VisitDataDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 实时访问计数服务接口
+ * 在内存中维护按日访问量、累计访问量以及最近48小时的分钟级访问量，
+ * 启动时从数据库初始化，之后由访问记录流程实时累加
+ */
+public interface LiveTrafficService {
+
+    /**
+     * 可查询的最大分钟数（48小时）
+     */
+    int MAX_MINUTES = 48 * 60;
+
+    /**
+     * 累加一次访问
+     *
+     * @param visitTime 访问时间
+     */
+    void increment(LocalDateTime visitTime);
+
+    /**
+     * 获取指定日期的访问量
+     * 仅保留今天和昨天的数据，更早的日期返回0
+     *
+     * @param day 日期
+     * @return 访问量
+     */
+    long getDayCount(LocalDate day);
+
+    /**
+     * 获取累计总访问量
+     *
+     * @return 总访问量
+     */
+    long getTotalCount();
+
+    /**
+     * 获取最近若干分钟每分钟的访问量
+     *
+     * @param minutes 分钟数，最大为{@link #MAX_MINUTES}
+     * @return 按时间升序排列的分钟访问量，日期格式为"YYYY-MM-DD HH:mm"
+     */
+    List<VisitDataDTO> getMinuteCounts(int minutes);
+}
@@ -1,5 +1,6 @@
 package com.maxxinke.service;
 
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -85,6 +86,15 @@ public interface MessageService {
      */
     Page<Message> findByStatus(Integer status, Pageable pageable);
 
+    /**
+     * 按游标获取留言列表，按创建时间、ID降序排列，不统计总数
+     * @param status 留言状态，为null时不限
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     * @param size 每页条数
+     * @return 一页留言
+     */
+    CursorPageDTO<Message> findAfter(Integer status, String cursor, int size);
+
     /**
      * 获取指定用户的留言列表
      * @param userId 用户ID
@@ -1,9 +1,11 @@
 package com.maxxinke.service;
 
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.News;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 新闻服务接口
@@ -96,12 +98,6 @@ public interface NewsService {
      */
     List<News> findByStatus(Integer status);
 
-    /**
-     * 获取所有新闻
-     * @return 所有新闻列表
-     */
-    List<News> getAllNews();
-
     /**
      * 根据类型获取新闻
      * @param type 新闻类型
@@ -109,10 +105,47 @@ public interface NewsService {
      */
     List<News> getNewsByType(String type);
 
+    /**
+     * 校验并解析新闻列表的字段参数
+     * @param fields 逗号分隔的字段名，为空或为default时使用列表默认字段
+     * @return 选中的字段，第一个为id
+     */
+    List<String> selectFields(String fields);
+
+    /**
+     * 根据类型获取新闻的部分字段
+     * @param type 新闻类型
+     * @param fields 逗号分隔的字段名，为空或为default时使用列表默认字段
+     * @return 每条新闻一个字段名到取值的映射
+     */
+    List<Map<String, Object>> getNewsFieldsByType(String type, String fields);
+
     /**
      * 增加新闻浏览量
      * @param id 新闻ID
-     * @return 更新后的新闻对象
      */
-    News incrementViews(Long id);
+    void incrementViews(Long id);
+
+    /**
+     * 获取近期热门新闻
+     * @param limit 返回的新闻数量
+     * @return 按近期热度降序排列的已发布新闻
+     */
+    List<News> getTrendingNews(int limit);
+
+    /**
+     * 按游标获取新闻列表，按创建时间、ID降序排列，不统计总数
+     * @param status 新闻状态，为null时不限
+     * @param type 新闻类型，仅在status不为null时生效，与分页查询一致
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     * @param size 每页条数
+     * @return 一页新闻
+     */
+    CursorPageDTO<News> getNewsAfter(Integer status, String type, String cursor, int size);
+
+    /**
+     * 获取新闻详情查询合并的运行统计
+     * @return 统计数据
+     */
+    Map<String, Object> getLoadStats();
 } 
\ No newline at end of file
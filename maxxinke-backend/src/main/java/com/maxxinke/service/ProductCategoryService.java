@@ -2,6 +2,7 @@ package com.maxxinke.service;
 
 import com.maxxinke.entity.ProductCategory;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 产品类别服务接口
@@ -47,4 +48,10 @@ public interface ProductCategoryService {
      * @param id 类别ID
      */
     void deleteCategory(Long id);
+
+    /**
+     * 获取类别查询合并的运行统计
+     * @return 统计数据
+     */
+    Map<String, Object> getLoadStats();
 } 
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.ProductFacetsDTO;
+import com.maxxinke.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品规格分面服务接口
+ * 在内存中维护产品状态、分类和规格取值到产品ID位图的索引，筛选和统计不查询数据库
+ */
+public interface ProductFacetService {
+
+    /**
+     * 统计符合条件的产品在各分类和各规格取值上的数量
+     *
+     * @param status 产品状态，为null时不限
+     * @param category 产品分类，为null时不限
+     * @param specs 规格条件，格式为"名称:值"，同名的多个条件之间为"或"
+     * @return 分面统计
+     */
+    ProductFacetsDTO getFacets(Integer status, String category, List<String> specs);
+
+    /**
+     * 按状态、分类和规格条件筛选产品
+     *
+     * @param status 产品状态，为null时不限
+     * @param category 产品分类，为null时不限
+     * @param specs 规格条件，格式为"名称:值"，同名的多个条件之间为"或"
+     * @param pageable 分页参数，排序条件被忽略，结果按排序值降序、创建先后降序排列
+     * @return 产品分页对象
+     */
+    Page<Product> filterProducts(Integer status, String category, List<String> specs, Pageable pageable);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 获取索引和查询的运行统计
+     *
+     * @return 统计数据
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,24 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.ProductImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 产品批量导入服务接口
+ */
+public interface ProductImportService {
+
+    /**
+     * 从CSV导入产品
+     * 第一行为表头，按列名对应产品字段，id列有值的行按ID更新已有产品；
+     * 逐行读取并校验，校验通过的行分批写入数据库，
+     * 校验失败或写入失败的行记录在结果中，不影响其他行
+     *
+     * @param in UTF-8编码的CSV输入，调用方负责关闭
+     * @return 导入结果
+     * @throws IOException 读取失败
+     */
+    ProductImportResultDTO importCsv(InputStream in) throws IOException;
+}
@@ -0,0 +1,37 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.ProductSearchResultDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Map;
+
+/**
+ * 产品搜索服务接口
+ * 在内存中维护产品的全文索引，按相关度搜索产品
+ */
+public interface ProductSearchService {
+
+    /**
+     * 按关键词搜索产品
+     *
+     * @param query 搜索关键词
+     * @param status 产品状态，为null时不限
+     * @param category 产品分类，为null时不限
+     * @param pageable 分页参数，排序条件被忽略，结果按相关度排序
+     * @return 搜索结果分页
+     */
+    Page<ProductSearchResultDTO> search(String query, Integer status, String category, Pageable pageable);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuild();
+
+    /**
+     * 获取索引和查询的运行统计
+     *
+     * @return 统计数据
+     */
+    Map<String, Object> getStats();
+}
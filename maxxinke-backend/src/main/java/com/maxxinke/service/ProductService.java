@@ -1,5 +1,6 @@
 package com.maxxinke.service;
 
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,19 +17,57 @@ public interface ProductService {
     Product updateProduct(Product product);
     void deleteProduct(Long id);
     Product getProductById(Long id);
+
+    /**
+     * 按ID批量获取产品
+     * @param ids 产品ID列表
+     * @return 按ID顺序排列的产品列表，已不存在的产品被跳过
+     */
+    List<Product> getProductsByIds(List<Long> ids);
+
     Page<Product> getProductsByStatusAndCategory(Integer status, String category, Pageable pageable);
     List<Product> getProductsByStatusAndCategory(Integer status, String category);
     Page<Product> getProductsByStatus(Integer status, Pageable pageable);
     List<Product> getProductsByStatus(Integer status);
     List<Product> getProductsByStatusAndCategoryOrderBySortDescCreateTimeDesc(Integer status, String category);
-    List<Product> getAllProducts();
-    List<Product> getProductsByCategory(String category);
     Product updateProductSort(Long id, Integer sort);
-    List<Product> findAll();
     Page<Product> findAll(Pageable pageable);
+
+    /**
+     * 分页获取产品的部分字段，条件和排序与分页获取产品一致，未选中的字段不从数据库读取
+     * @param status 产品状态，为null时不限
+     * @param category 产品分类，仅在status不为null时生效
+     * @param fields 逗号分隔的字段名，为空或为default时使用列表默认字段
+     * @param pageable 分页参数
+     * @return 每个产品一个字段名到取值的映射
+     */
+    Page<Map<String, Object>> getProductFields(Integer status, String category, String fields, Pageable pageable);
+
+    /**
+     * 校验并解析产品列表的字段参数
+     * @param fields 逗号分隔的字段名，为空或为default时使用列表默认字段
+     * @return 选中的字段，第一个为id
+     */
+    List<String> selectFields(String fields);
+
+    /**
+     * 按游标获取产品列表，按排序值、创建时间、ID降序排列，不统计总数
+     * @param status 产品状态，为null时不限
+     * @param category 产品分类，仅在status不为null时生效，与分页查询一致
+     * @param cursor 上一页返回的游标，为空时获取第一页
+     * @param size 每页条数
+     * @return 一页产品
+     */
+    CursorPageDTO<Product> getProductsAfter(Integer status, String category, String cursor, int size);
     Map<String, Object> getProductStats();
     List<Map<String, Object>> getCategoryStats();
     List<Map<String, Object>> getProductTrends();
     List<Product> getHotProducts(int limit);
     void incrementViews(Long productId);
+
+    /**
+     * 获取产品缓存的运行统计
+     * @return 统计数据
+     */
+    Map<String, Object> getCacheStats();
 } 
\ No newline at end of file
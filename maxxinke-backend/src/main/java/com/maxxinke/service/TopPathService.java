@@ -0,0 +1,48 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.TopPathDTO;
+import com.maxxinke.entity.VisitLog;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 热门页面统计服务接口
+ * 使用Space-Saving和Count-Min在固定内存内统计每天及最近7天访问量最高的页面，无需扫描访问日志
+ */
+public interface TopPathService {
+
+    /**
+     * 最近N天滚动窗口的天数
+     */
+    int WINDOW_DAYS = 7;
+
+    /**
+     * 记录一次页面访问
+     *
+     * @param visitLog 访问日志
+     */
+    void offer(VisitLog visitLog);
+
+    /**
+     * 获取指定日期访问量最高的页面
+     *
+     * @param date 日期
+     * @param limit 返回数量
+     * @return 按访问量降序排列的页面列表
+     */
+    List<TopPathDTO> getDailyTopPaths(LocalDate date, int limit);
+
+    /**
+     * 获取最近7天（含今天）访问量最高的页面
+     *
+     * @param limit 返回数量
+     * @return 按访问量降序排列的页面列表
+     */
+    List<TopPathDTO> getWeeklyTopPaths(int limit);
+
+    /**
+     * 将内存中的热门页面数据写入数据库
+     */
+    void flush();
+}
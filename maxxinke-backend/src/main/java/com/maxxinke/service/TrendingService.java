@@ -0,0 +1,59 @@
+package com.maxxinke.service;
+
+import java.util.List;
+
+/**
+ * 内容热度排行服务接口
+ * 根据浏览事件维护产品和新闻按时间衰减的热度，热门查询只读取内存中的排行
+ */
+public interface TrendingService {
+
+    /**
+     * 记录一次产品浏览
+     *
+     * @param productId 产品ID
+     */
+    void recordProductView(Long productId);
+
+    /**
+     * 记录一次新闻浏览
+     *
+     * @param newsId 新闻ID
+     */
+    void recordNewsView(Long newsId);
+
+    /**
+     * 获取当前热度最高的产品ID
+     *
+     * @param limit 返回的个数
+     * @return 按热度降序排列的产品ID
+     */
+    List<Long> getTrendingProductIds(int limit);
+
+    /**
+     * 获取当前热度最高的新闻ID
+     *
+     * @param limit 返回的个数
+     * @return 按热度降序排列的新闻ID
+     */
+    List<Long> getTrendingNewsIds(int limit);
+
+    /**
+     * 从排行中移除已删除的产品
+     *
+     * @param productId 产品ID
+     */
+    void removeProduct(Long productId);
+
+    /**
+     * 从排行中移除已删除的新闻
+     *
+     * @param newsId 新闻ID
+     */
+    void removeNews(Long newsId);
+
+    /**
+     * 将当前热度写入数据库
+     */
+    void snapshot();
+}
@@ -0,0 +1,42 @@
+package com.maxxinke.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * User-Agent字典服务接口
+ * 维护User-Agent到字典ID的映射和访问来源分类，常用的User-Agent缓存在内存中
+ */
+public interface UserAgentService {
+
+    /**
+     * 获取User-Agent的访问来源类型，结果会被缓存
+     *
+     * @param userAgent User-Agent原文
+     * @return {@link com.maxxinke.entity.UserAgent}中定义的访问来源类型
+     */
+    int classify(String userAgent);
+
+    /**
+     * 判断User-Agent是否为爬虫等非真人访问
+     *
+     * @param userAgent User-Agent原文
+     * @return true表示爬虫
+     */
+    boolean isBot(String userAgent);
+
+    /**
+     * 批量获取User-Agent的字典ID，字典中不存在的User-Agent会被写入字典
+     *
+     * @param userAgents User-Agent原文
+     * @return User-Agent到字典ID的映射，空的User-Agent不包含在结果中
+     */
+    Map<String, Long> resolveIds(Collection<String> userAgents);
+
+    /**
+     * 获取缓存命中情况等运行指标
+     *
+     * @return 指标数据
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,53 @@
+package com.maxxinke.service;
+
+import java.util.Map;
+
+/**
+ * 浏览量计数服务接口
+ * 产品和新闻的浏览量先在内存中累加，定期批量写入数据库；
+ * 读取浏览量时需加上尚未写入的累加值才是当前值
+ */
+public interface ViewCountService {
+
+    /**
+     * 产品浏览量加1
+     *
+     * @param productId 产品ID
+     */
+    void incrementProductViews(Long productId);
+
+    /**
+     * 新闻浏览量加1
+     *
+     * @param newsId 新闻ID
+     */
+    void incrementNewsViews(Long newsId);
+
+    /**
+     * 获取产品尚未写入数据库的浏览量
+     *
+     * @param productId 产品ID
+     * @return 未写入的浏览量
+     */
+    long getPendingProductViews(Long productId);
+
+    /**
+     * 获取新闻尚未写入数据库的浏览量
+     *
+     * @param newsId 新闻ID
+     * @return 未写入的浏览量
+     */
+    long getPendingNewsViews(Long newsId);
+
+    /**
+     * 将累加的浏览量写入数据库
+     */
+    void flush();
+
+    /**
+     * 获取计数运行统计
+     *
+     * @return 统计数据
+     */
+    Map<String, Object> getStats();
+}
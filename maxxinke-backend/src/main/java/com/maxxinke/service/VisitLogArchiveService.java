@@ -0,0 +1,39 @@
+package com.maxxinke.service;
+
+import com.maxxinke.entity.VisitLogArchive;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 访问日志归档服务接口
+ * 将已结束月份的访问日志导出为压缩的NDJSON文件并分批删除，控制visit_logs表的大小；
+ * 访问量汇总表中的数据保留不变，需要时可从归档文件恢复
+ */
+public interface VisitLogArchiveService {
+
+    /**
+     * 归档指定月份的访问日志
+     * 导出到归档文件、校验条数后分批删除数据库中的记录
+     *
+     * @param month 已结束的月份
+     * @return 归档记录；该月份已归档且表中没有记录时返回已有的归档记录
+     * @throws com.maxxinke.exception.BusinessException 该月份既没有访问日志也没有归档记录
+     */
+    VisitLogArchive archiveMonth(YearMonth month);
+
+    /**
+     * 从归档文件恢复指定月份的访问日志
+     *
+     * @param month 月份
+     * @return 归档记录
+     */
+    VisitLogArchive restoreMonth(YearMonth month);
+
+    /**
+     * 获取所有归档记录
+     *
+     * @return 按月份降序排列的归档记录
+     */
+    List<VisitLogArchive> getArchives();
+}
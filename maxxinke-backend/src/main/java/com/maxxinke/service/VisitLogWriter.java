@@ -0,0 +1,29 @@
+package com.maxxinke.service;
+
+import com.maxxinke.entity.VisitLog;
+
+import java.util.Map;
+
+/**
+ * 访问日志写入服务接口
+ * 将访问记录追加到本地预写日志，由后台线程批量写入数据库，避免在请求线程上访问数据库
+ */
+public interface VisitLogWriter {
+
+    /**
+     * 提交一条访问记录
+     * 该方法不会访问数据库，预写日志超出大小上限时记录会被丢弃并计入丢弃数
+     *
+     * @param visitLog 访问日志
+     * @return true表示已写入预写日志，false表示被丢弃
+     */
+    boolean submit(VisitLog visitLog);
+
+    /**
+     * 获取写入器运行指标
+     * 包括预写日志积压量、已写入数、丢弃数、失败数以及批量写入耗时
+     *
+     * @return 指标数据
+     */
+    Map<String, Object> getMetrics();
+}
@@ -0,0 +1,18 @@
+package com.maxxinke.service;
+
+import com.maxxinke.entity.VisitLog;
+
+/**
+ * 访问记录服务接口
+ * 前台页面访问的统一记录入口，负责将访问提交到访问日志写入服务并更新各项实时统计
+ */
+public interface VisitRecordService {
+
+    /**
+     * 记录一次已通过过滤和去重的访问
+     *
+     * @param visitLog 访问日志，未设置访问时间时取当前时间
+     * @return true表示访问已被记录，false表示因预写日志已满等原因被丢弃
+     */
+    boolean record(VisitLog visitLog);
+}
@@ -0,0 +1,69 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.VisitDataDTO;
+import com.maxxinke.entity.VisitLog;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * 访问量汇总服务接口
+ * 维护按小时、日、月汇总的访问量表，仪表盘趋势数据直接读取汇总表而不再扫描访问日志
+ */
+public interface VisitStatsService {
+
+    /**
+     * 将一批新写入的访问记录累加到各汇总表
+     * 需在写入访问日志的同一事务中调用，保证明细与汇总一致
+     *
+     * @param visitLogs 新写入的访问记录
+     */
+    void applyIncrements(List<VisitLog> visitLogs);
+
+    /**
+     * 根据访问日志重新计算指定时间段的汇总数据
+     * 时间段按小时对齐，覆盖的日、月汇总也会随之重新计算
+     *
+     * @param start 开始时间（包含）
+     * @param end 结束时间（不包含）
+     */
+    void rebuild(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * 获取按小时统计的访问量
+     *
+     * @param start 开始小时（包含）
+     * @param end 结束小时（包含）
+     * @return 小时访问量列表，日期格式为"YYYY-MM-DD HH:00"
+     */
+    List<VisitDataDTO> getHourlyVisits(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * 获取按日统计的访问量
+     *
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @return 日访问量列表，日期格式为"YYYY-MM-DD"
+     */
+    List<VisitDataDTO> getDailyVisits(LocalDate start, LocalDate end);
+
+    /**
+     * 获取按月统计的访问量
+     *
+     * @param start 开始月份（包含）
+     * @param end 结束月份（包含）
+     * @return 月访问量列表，日期格式为"YYYY-MM"
+     */
+    List<VisitDataDTO> getMonthlyVisits(YearMonth start, YearMonth end);
+
+    /**
+     * 获取按年统计的访问量
+     *
+     * @param startYear 开始年份（包含）
+     * @param endYear 结束年份（包含）
+     * @return 年访问量列表，日期格式为"YYYY"
+     */
+    List<VisitDataDTO> getYearlyVisits(int startYear, int endYear);
+}
@@ -0,0 +1,46 @@
+package com.maxxinke.service;
+
+import com.maxxinke.dto.PathVisitorDTO;
+import com.maxxinke.dto.UniqueVisitorDTO;
+import com.maxxinke.entity.VisitLog;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 独立访客统计服务接口
+ * 使用HyperLogLog按天、按页面估算独立访客数（按IP区分），误差约1-2%，每个估算占用固定内存
+ */
+public interface VisitorStatsService {
+
+    /**
+     * 记录一次访问的访客
+     *
+     * @param visitLog 访问日志
+     */
+    void offer(VisitLog visitLog);
+
+    /**
+     * 获取日期范围内的独立访客数
+     * 范围总数由各天数据合并后估算，同一访客在多天访问只计一次
+     *
+     * @param start 开始日期（包含）
+     * @param end 结束日期（包含）
+     * @param path 页面路径，为空时统计全站
+     * @return 独立访客统计
+     */
+    UniqueVisitorDTO getUniqueVisitors(LocalDate start, LocalDate end, String path);
+
+    /**
+     * 获取指定日期各页面的独立访客数
+     *
+     * @param date 日期
+     * @return 按访客数降序排列的页面列表
+     */
+    List<PathVisitorDTO> getPathUniqueVisitors(LocalDate date);
+
+    /**
+     * 将内存中有变化的估算数据写入数据库
+     */
+    void flush();
+}
@@ -0,0 +1,309 @@
+package com.maxxinke.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxxinke.entity.Message;
+import com.maxxinke.entity.News;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.entity.ProductSpecifications;
+import com.maxxinke.repository.MessageRepository;
+import com.maxxinke.repository.NewsRepository;
+import com.maxxinke.repository.ProductRepository;
+import com.maxxinke.service.CatalogStreamService;
+import com.maxxinke.service.ViewCountService;
+import com.maxxinke.utils.CsvWriter;
+import com.maxxinke.utils.JsonCodec;
+import com.maxxinke.utils.SeekCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * 列表流式输出服务实现类
+ * 按排序值、创建时间、ID分批读取，条件和排序与按游标翻页的查询一致，每批沿索引读取一段范围。
+ * 每批使用单独的EntityManager，读完即关闭并归还数据库连接，然后才把这一批写入输出；
+ * 请求绑定的EntityManager在响应写完前不会归还连接，因此不使用。
+ * 客户端接收数据期间不占用数据库连接和游标，内存中最多保留一批实体。
+ * 各批不在同一个快照中，输出期间新增的记录可能不出现，修改了排序值的记录可能被漏掉或重复输出。
+ * 产品和新闻的浏览量与列表查询一致，加上尚未写入数据库的部分。
+ * 产品也可以导出为CSV，规格列为JSON数组，导出的文件可以直接用于批量导入
+ */
+@Slf4j
+@Service
+public class CatalogStreamServiceImpl implements CatalogStreamService {
+
+    // 每批读取的条数，每写完一批刷新一次输出
+    static final int BATCH_SIZE = 500;
+    // 导出的列，name至status列可以直接用于导入
+    private static final String[] PRODUCT_CSV_COLUMNS = {"id", "name", "category", "description", "specifications",
+            "application", "image", "sort", "status", "views", "createTime", "updateTime"};
+
+    private static final String PRODUCTS = " FROM Product p WHERE "
+            + ProductRepository.SEEK_AFTER + ProductRepository.SEEK_ORDER;
+    private static final String PRODUCTS_BY_CATEGORY = " FROM Product p WHERE p.category = :category AND "
+            + ProductRepository.SEEK_AFTER + ProductRepository.SEEK_ORDER;
+    private static final String NEWS = " FROM News n WHERE "
+            + NewsRepository.SEEK_AFTER + NewsRepository.SEEK_ORDER;
+    private static final String MESSAGES_BY_USER = " FROM Message m WHERE m.userId = :userId AND "
+            + MessageRepository.SEEK_AFTER + MessageRepository.SEEK_ORDER;
+
+    private final ViewCountService viewCountService;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public CatalogStreamServiceImpl(ViewCountService viewCountService,
+                                    ObjectMapper objectMapper,
+                                    EntityManagerFactory entityManagerFactory) {
+        this.viewCountService = viewCountService;
+        this.objectMapper = objectMapper;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void writeAllProducts(OutputStream out) throws IOException {
+        write(out, (em, after) -> productQuery(em, "SELECT p" + PRODUCTS, Product.class, after).getResultList(),
+                CatalogStreamServiceImpl::position, this::writeProduct);
+    }
+
+    @Override
+    public void writeAllProductFields(List<String> fields, OutputStream out) throws IOException {
+        String jpql = "SELECT p.sort, p.createTime, p.id" + columns("p", fields) + PRODUCTS;
+        write(out, (em, after) -> productQuery(em, jpql, Object[].class, after).getResultList(),
+                row -> SeekCursor.of((Integer) row[0], (LocalDateTime) row[1], (Long) row[2]),
+                (generator, row) -> {
+                    if (fields.contains("views")) {
+                        int views = 3 + fields.indexOf("views");
+                        row[views] = (Long) row[views] + viewCountService.getPendingProductViews((Long) row[2]);
+                    }
+                    writeFields(generator, fields, row, 3);
+                });
+    }
+
+    @Override
+    public void writeProductsByCategory(String category, OutputStream out) throws IOException {
+        write(out, (em, after) -> productQuery(em, "SELECT p" + PRODUCTS_BY_CATEGORY, Product.class, after)
+                        .setParameter("category", category)
+                        .getResultList(),
+                CatalogStreamServiceImpl::position, this::writeProduct);
+    }
+
+    @Override
+    public void writeAllNews(OutputStream out) throws IOException {
+        write(out, (em, after) -> seekQuery(em, "SELECT n" + NEWS, News.class, after).getResultList(),
+                news -> SeekCursor.of(null, news.getCreateTime(), news.getId()),
+                (generator, news) -> {
+                    withPendingViews(news);
+                    generator.writeObject(news);
+                });
+    }
+
+    @Override
+    public void writeAllNewsFields(List<String> fields, OutputStream out) throws IOException {
+        String jpql = "SELECT n.createTime, n.id" + columns("n", fields) + NEWS;
+        write(out, (em, after) -> seekQuery(em, jpql, Object[].class, after).getResultList(),
+                row -> SeekCursor.of(null, (LocalDateTime) row[0], (Long) row[1]),
+                (generator, row) -> {
+                    if (fields.contains("views")) {
+                        int views = 2 + fields.indexOf("views");
+                        row[views] = (int) ((Integer) row[views] + viewCountService.getPendingNewsViews((Long) row[1]));
+                    }
+                    writeFields(generator, fields, row, 2);
+                });
+    }
+
+    @Override
+    public void writeMessagesByUser(Long userId, OutputStream out) throws IOException {
+        write(out, (em, after) -> seekQuery(em, "SELECT m" + MESSAGES_BY_USER, Message.class, after)
+                        .setParameter("userId", userId)
+                        .getResultList(),
+                message -> SeekCursor.of(null, message.getCreateTime(), message.getId()),
+                JsonGenerator::writeObject);
+    }
+
+    @Override
+    public void writeProductsCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CsvWriter csv = new CsvWriter(writer);
+        // BOM使Excel按UTF-8打开
+        writer.write('\uFEFF');
+        csv.writeRecord((Object[]) PRODUCT_CSV_COLUMNS);
+        forEach((em, after) -> productQuery(em, "SELECT p" + PRODUCTS, Product.class, after).getResultList(),
+                CatalogStreamServiceImpl::position, product -> {
+                    withPendingViews(product);
+                    csv.writeRecord(product.getId(), product.getName(), product.getCategory(), product.getDescription(),
+                            specificationsJson(product.getSpecifications()), product.getApplication(), product.getImage(),
+                            product.getSort(), product.getStatus(), product.getViews(), product.getCreateTime(), product.getUpdateTime());
+                }, writer);
+        writer.flush();
+    }
+
+    /**
+     * 将分批读取的结果写成JSON数组
+     * @param out 输出流，写入完成后不关闭
+     * @param reader 读取一批的查询
+     * @param position 一条记录在排序中的位置
+     * @param rowWriter 写出一条记录
+     */
+    private <T> void write(OutputStream out, ChunkReader<T> reader, Function<T, SeekCursor> position,
+                           JsonRowWriter<T> rowWriter) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // 输出流由容器关闭；中途失败时不自动补全数组，避免客户端把不完整的列表当作完整结果
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartArray();
+            forEach(reader, position, row -> rowWriter.write(generator, row), generator);
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * 分批读取并逐条处理，每处理完一批刷新输出，再从这一批的最后一条之后读取下一批
+     * @param reader 读取一批的查询
+     * @param position 一条记录在排序中的位置
+     * @param action 每条记录的处理
+     * @param output 需要定期刷新的输出
+     */
+    private <T> void forEach(ChunkReader<T> reader, Function<T, SeekCursor> position, RowWriter<T> action,
+                             Flushable output) throws IOException {
+        long start = System.currentTimeMillis();
+        long count = 0;
+        SeekCursor after = SeekCursor.first();
+        try {
+            List<T> chunk;
+            do {
+                chunk = readChunk(reader, after);
+                for (T row : chunk) {
+                    action.write(row);
+                }
+                output.flush();
+                count += chunk.size();
+                if (!chunk.isEmpty()) {
+                    after = position.apply(chunk.get(chunk.size() - 1));
+                }
+            } while (chunk.size() == BATCH_SIZE);
+            log.debug("流式输出完成, 条数: {}, 耗时: {}ms", count, System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            // 通常是客户端断开连接
+            log.warn("流式输出中断, 已输出: {}条, 错误: {}", count, e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * 使用单独的EntityManager读取一批，返回前关闭EntityManager并归还连接，返回的实体均已脱管
+     */
+    private <T> List<T> readChunk(ChunkReader<T> reader, SeekCursor after) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return reader.read(entityManager, after);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static <T> TypedQuery<T> productQuery(EntityManager entityManager, String jpql, Class<T> type, SeekCursor after) {
+        return seekQuery(entityManager, jpql, type, after).setParameter("sort", after.getSort());
+    }
+
+    private static <T> TypedQuery<T> seekQuery(EntityManager entityManager, String jpql, Class<T> type, SeekCursor after) {
+        return entityManager.createQuery(jpql, type)
+                .setParameter("createTime", after.getCreateTime())
+                .setParameter("id", after.getId())
+                .setHint(HINT_READONLY, true)
+                .setMaxResults(BATCH_SIZE);
+    }
+
+    private static SeekCursor position(Product product) {
+        return SeekCursor.of(product.getSort(), product.getCreateTime(), product.getId());
+    }
+
+    /**
+     * 选中字段对应的查询列，字段名已由服务按白名单校验
+     */
+    private static String columns(String alias, List<String> fields) {
+        StringBuilder columns = new StringBuilder();
+        for (String field : fields) {
+            columns.append(", ").append(alias).append('.').append(field);
+        }
+        return columns.toString();
+    }
+
+    /**
+     * 把一行查询结果写成字段名到取值的对象
+     * @param offset 第一个选中字段在行中的位置，之前为排序用的列
+     */
+    private static void writeFields(JsonGenerator generator, List<String> fields, Object[] row, int offset) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fields.size(); i++) {
+            generator.writeObjectField(fields.get(i), row[offset + i]);
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeProduct(JsonGenerator generator, Product product) throws IOException {
+        withPendingViews(product);
+        generator.writeObject(product);
+    }
+
+    private static String specificationsJson(List<ProductSpecification> specifications) throws IOException {
+        if (specifications instanceof ProductSpecifications && ((ProductSpecifications) specifications).getJson() != null) {
+            return ((ProductSpecifications) specifications).getJson();
+        }
+        return JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(specifications != null ? specifications : new ArrayList<>());
+    }
+
+    private void withPendingViews(Product product) {
+        long pending = viewCountService.getPendingProductViews(product.getId());
+        if (pending > 0) {
+            product.setViews(product.getViews() + pending);
+        }
+    }
+
+    private void withPendingViews(News news) {
+        long pending = viewCountService.getPendingNewsViews(news.getId());
+        if (pending > 0) {
+            news.setViews((int) (news.getViews() + pending));
+        }
+    }
+
+    /**
+     * 读取排在指定位置之后的一批记录
+     */
+    @FunctionalInterface
+    private interface ChunkReader<T> {
+        List<T> read(EntityManager entityManager, SeekCursor after);
+    }
+
+    /**
+     * 处理一条记录
+     */
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
+    }
+
+    /**
+     * 把一条记录写入JSON输出
+     */
+    @FunctionalInterface
+    private interface JsonRowWriter<T> {
+        void write(JsonGenerator generator, T row) throws IOException;
+    }
+}
@@ -0,0 +1,165 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.dto.ContentTrendDTO;
+import com.maxxinke.entity.ContentDailyCount;
+import com.maxxinke.repository.ContentDailyCountRepository;
+import com.maxxinke.service.ContentTrendService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 内容数量趋势服务实现类
+ * 每天凌晨记录前一天结束时各类内容的总数和新增数；应用停机期间漏记的日期在下次运行时补齐，
+ * 首次启动时根据内容的创建时间回填全部历史数据
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentTrendServiceImpl implements ContentTrendService {
+
+    private static final String UPSERT_COUNT = "INSERT INTO content_daily_counts " +
+            "(bucket_date, entity_type, total_count, created_count, update_time) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_count = VALUES(total_count), created_count = VALUES(created_count), " +
+            "update_time = VALUES(update_time)";
+
+    /**
+     * 内容类型对应的数据表
+     */
+    private static final Map<String, String> TABLES;
+
+    static {
+        Map<String, String> tables = new LinkedHashMap<>();
+        tables.put(ContentDailyCount.TYPE_PRODUCT, "product");
+        tables.put(ContentDailyCount.TYPE_NEWS, "news");
+        tables.put(ContentDailyCount.TYPE_MESSAGE, "messages");
+        tables.put(ContentDailyCount.TYPE_CATEGORY, "product_categories");
+        tables.put(ContentDailyCount.TYPE_USER, "users");
+        TABLES = Collections.unmodifiableMap(tables);
+    }
+
+    private final ContentDailyCountRepository contentDailyCountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 每日记录任务，补齐从上次记录之后到昨天的每日数量
+     */
+    @Scheduled(cron = "${dashboard.content-count-cron:0 20 0 * * ?}")
+    public void recordDaily() {
+        try {
+            catchUp();
+        } catch (Exception e) {
+            log.error("记录内容每日数量失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用启动完成后补齐漏记的日期，表为空时从最早的内容创建时间开始回填
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        recordDaily();
+    }
+
+    @Override
+    public synchronized void rebuild(LocalDate start, LocalDate end) {
+        if (start.isAfter(end)) {
+            return;
+        }
+        Timestamp from = Timestamp.valueOf(start.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(end.plusDays(1).atStartOfDay());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        TABLES.forEach((type, table) -> {
+            Long base = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + table + " WHERE create_time < ?", Long.class, from);
+            Map<LocalDate, Long> created = new HashMap<>();
+            jdbcTemplate.query("SELECT DATE(create_time) AS bucket_date, COUNT(*) AS created_count FROM " + table +
+                            " WHERE create_time >= ? AND create_time < ? GROUP BY DATE(create_time)",
+                    rs -> {
+                        created.put(rs.getDate("bucket_date").toLocalDate(), rs.getLong("created_count"));
+                    }, from, to);
+            long total = base != null ? base : 0L;
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                long count = created.getOrDefault(day, 0L);
+                total += count;
+                rows.add(new Object[]{Date.valueOf(day), type, total, count, now});
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_COUNT, rows));
+        log.info("内容每日数量计算完成: {} ~ {}", start, end);
+    }
+
+    @Override
+    public Map<String, Long> getTotals(LocalDate date) {
+        Map<String, Long> totals = new HashMap<>();
+        for (ContentDailyCount count : contentDailyCountRepository.findByBucketDate(date)) {
+            totals.put(count.getEntityType(), count.getTotalCount());
+        }
+        return totals;
+    }
+
+    @Override
+    public List<ContentTrendDTO> getTrend(String entityType, LocalDate start, LocalDate end) {
+        return contentDailyCountRepository.findByEntityTypeAndBucketDateBetweenOrderByBucketDateAsc(entityType, start, end)
+                .stream()
+                .map(count -> {
+                    ContentTrendDTO trend = new ContentTrendDTO();
+                    trend.setDate(count.getBucketDate());
+                    trend.setTotalCount(count.getTotalCount());
+                    trend.setCreatedCount(count.getCreatedCount());
+                    return trend;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean supports(String entityType) {
+        return TABLES.containsKey(entityType);
+    }
+
+    /**
+     * 计算从上次记录之后到昨天的每日数量
+     */
+    private void catchUp() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate latest = contentDailyCountRepository.findLatestBucketDate();
+        LocalDate start = latest != null ? latest.plusDays(1) : earliestCreateDate();
+        if (start == null || start.isAfter(yesterday)) {
+            return;
+        }
+        rebuild(start, yesterday);
+    }
+
+    /**
+     * 所有内容中最早的创建日期
+     */
+    private LocalDate earliestCreateDate() {
+        LocalDate earliest = null;
+        for (String table : TABLES.values()) {
+            Timestamp min = jdbcTemplate.queryForObject("SELECT MIN(create_time) FROM " + table, Timestamp.class);
+            if (min != null && (earliest == null || min.toLocalDateTime().toLocalDate().isBefore(earliest))) {
+                earliest = min.toLocalDateTime().toLocalDate();
+            }
+        }
+        return earliest;
+    }
+}
@@ -1,6 +1,10 @@
 package com.maxxinke.service.impl;
 
+import com.maxxinke.config.DashboardProperties;
 import com.maxxinke.dto.CategoryDataDTO;
+import com.maxxinke.dto.DashboardOverviewDTO;
+import com.maxxinke.dto.DashboardPanelDTO;
+import com.maxxinke.dto.DashboardSnapshot;
 import com.maxxinke.dto.DashboardStatsDTO;
 import com.maxxinke.dto.VisitDataDTO;
 import com.maxxinke.entity.Message;
@@ -8,25 +12,41 @@ import com.maxxinke.entity.News;
 import com.maxxinke.repository.MessageRepository;
 import com.maxxinke.repository.NewsRepository;
 import com.maxxinke.repository.ProductRepository;
-import com.maxxinke.repository.VisitLogRepository;
 import com.maxxinke.service.DashboardService;
+import com.maxxinke.service.DashboardSnapshotService;
+import com.maxxinke.service.LiveTrafficService;
+import com.maxxinke.service.VisitStatsService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * 仪表盘服务实现类
  * 提供仪表盘所需的各项统计数据
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService {
@@ -34,11 +54,38 @@ public class DashboardServiceImpl implements DashboardService {
     private final ProductRepository productRepository;
     private final NewsRepository newsRepository;
     private final MessageRepository messageRepository;
-    private final VisitLogRepository visitLogRepository;
+    private final VisitStatsService visitStatsService;
+    private final LiveTrafficService liveTrafficService;
+    private final DashboardSnapshotService dashboardSnapshotService;
+    private final DashboardProperties dashboardProperties;
+
+    // 组合接口并发查询各面板使用的有界线程池
+    private ThreadPoolExecutor overviewExecutor;
+
+    @PostConstruct
+    public void startOverviewExecutor() {
+        int threads = dashboardProperties.getOverviewThreads();
+        AtomicInteger threadIndex = new AtomicInteger();
+        overviewExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(dashboardProperties.getOverviewQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-panel-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        overviewExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stopOverviewExecutor() {
+        overviewExecutor.shutdownNow();
+    }
 
     /**
      * 获取仪表盘统计数据
-     * 包括产品、新闻、消息的总数和增长率，以及访问量统计
+     * 包括产品、新闻、消息的总数和增长率，以及访问量统计；
+     * 内容统计取自后台计算的快照，增长率为当前总数相对7天前总数的变化，访问量取自实时计数
      *
      * @return 包含各项统计数据的DTO对象
      */
@@ -46,34 +93,20 @@ public class DashboardServiceImpl implements DashboardService {
     public DashboardStatsDTO getStats() {
         DashboardStatsDTO stats = new DashboardStatsDTO();
         
-        // 获取当前统计数据
-        long totalProducts = productRepository.count();
-        long totalNews = newsRepository.count();
-        long totalMessages = messageRepository.count();
+        // 获取内容统计快照
+        DashboardSnapshot snapshot = dashboardSnapshotService.getSnapshot();
+        long totalProducts = snapshot.getTotalProducts();
+        long totalNews = snapshot.getTotalNews();
+        long totalMessages = snapshot.getTotalMessages();
         
-        // 获取访问量统计
+        // 从实时计数中获取今日和昨日访问量
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfToday = now.toLocalDate().atStartOfDay();
-        LocalDateTime startOfYesterday = startOfToday.minusDays(1);
-        
-        // 统计今日和昨日访问量
-        long todayVisits = visitLogRepository.countByTimeRange(startOfToday, now);
-        long yesterdayVisits = visitLogRepository.countByTimeRange(startOfYesterday, startOfToday);
-        
-        // 获取一周前的数据进行对比
-        LocalDateTime oneWeekAgo = now.minus(7, ChronoUnit.DAYS);
-        
-        // 计算消息和新闻的周环比数据
-        long lastWeekMessages = messageRepository.findByStatusOrderByCreateTimeDesc(0).stream()
-                .filter(msg -> msg.getCreateTime().isAfter(oneWeekAgo))
-                .count();
-        
-        long lastWeekNews = newsRepository.findByStatusOrderByCreateTimeDesc(1).stream()
-                .filter(news -> news.getCreateTime().isAfter(oneWeekAgo))
-                .count();
+        LocalDate today = now.toLocalDate();
+        long todayVisits = liveTrafficService.getDayCount(today);
+        long yesterdayVisits = liveTrafficService.getDayCount(today.minusDays(1));
         
         // 获取总访问量
-        Long totalAllVisits = visitLogRepository.getTotalVisits();
+        long totalAllVisits = liveTrafficService.getTotalCount();
         
         // 设置统计数据
         stats.setTotalProducts(totalProducts);
@@ -81,106 +114,58 @@ public class DashboardServiceImpl implements DashboardService {
         stats.setTotalMessages(totalMessages);
         stats.setTotalViews(todayVisits);
         // 设置总访问量到DTO中
-        stats.setTotalAllViews(totalAllVisits != null ? totalAllVisits : 0L);
+        stats.setTotalAllViews(totalAllVisits);
         
         // 计算各项数据的增长率
-        double messageGrowth = calculateGrowthRate(lastWeekMessages, totalMessages);
-        double newsGrowth = calculateGrowthRate(lastWeekNews, totalNews);
+        double productGrowth = calculateGrowthRate(snapshot.getWeekAgoProducts(), totalProducts);
+        double messageGrowth = calculateGrowthRate(snapshot.getWeekAgoMessages(), totalMessages);
+        double newsGrowth = calculateGrowthRate(snapshot.getWeekAgoNews(), totalNews);
         double viewsGrowth = calculateGrowthRate(yesterdayVisits, todayVisits);
         
         stats.setMessageGrowth(messageGrowth);
         stats.setNewsGrowth(newsGrowth);
-        stats.setProductGrowth(5.0); // 产品增长率需要单独计算
+        stats.setProductGrowth(productGrowth);
         stats.setViewsGrowth(viewsGrowth);
+        stats.setSnapshotTime(snapshot.getCreateTime());
+        stats.setSnapshotAgeMillis(Duration.between(snapshot.getCreateTime(), now).toMillis());
         
         return stats;
     }
 
     /**
      * 获取访问量趋势数据
-     * 统计最近6个月的每月访问量
+     * 从月汇总表读取最近6个月（含当月）的每月访问量
      *
      * @return 包含月份和访问量的数据列表
      */
     @Override
     public List<VisitDataDTO> getVisitData() {
-        // 获取最近6个月的访问数据
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime sixMonthsAgo = now.minus(6, ChronoUnit.MONTHS);
-        
-        // 从数据库获取访问统计数据
-        List<Object[]> monthlyStats = visitLogRepository.countByMonth(sixMonthsAgo, now);
-        
-        // 转换为DTO
-        return monthlyStats.stream()
-                .map(stat -> {
-                    VisitDataDTO data = new VisitDataDTO();
-                    String date = stat[0] != null ? stat[0].toString() : "无数据";
-                    int value = stat[1] != null ? ((Number) stat[1]).intValue() : 0;
-                    
-                    data.setDate(date);
-                    data.setValue(value);
-                    return data;
-                })
-                .collect(Collectors.toList());
+        YearMonth currentMonth = YearMonth.now();
+        return visitStatsService.getMonthlyVisits(currentMonth.minusMonths(6), currentMonth);
     }
 
     /**
      * 获取按日访问量数据
-     * 统计最近30天的每日访问量
+     * 从日汇总表读取最近30天的每日访问量
      *
      * @return 包含日期和访问量的数据列表
      */
     @Override
     public List<VisitDataDTO> getDailyVisitData() {
-        // 获取最近30天的访问数据
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime thirtyDaysAgo = now.minus(30, ChronoUnit.DAYS);
-
-        // 从数据库获取每日访问统计数据
-        List<Object[]> dailyStats = visitLogRepository.countByDay(thirtyDaysAgo, now);
-
-        // 转换为DTO
-        return dailyStats.stream()
-                .map(stat -> {
-                    VisitDataDTO data = new VisitDataDTO();
-                    String date = stat[0] != null ? stat[0].toString() : "无数据";
-                    int value = stat[1] != null ? ((Number) stat[1]).intValue() : 0;
-
-                    data.setDate(date);
-                    data.setValue(value);
-                    return data;
-                })
-                .collect(Collectors.toList());
+        LocalDate today = LocalDate.now();
+        return visitStatsService.getDailyVisits(today.minusDays(30), today);
     }
 
     /**
      * 获取按年访问量数据
-     * 统计最近3年的每年访问量
+     * 从月汇总表累加最近3年的每年访问量
      *
      * @return 包含年份和访问量的数据列表
      */
     @Override
     public List<VisitDataDTO> getYearlyVisitData() {
-        // 获取最近3年的访问数据
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime threeYearsAgo = now.minus(3, ChronoUnit.YEARS);
-
-        // 从数据库获取每年访问统计数据
-        List<Object[]> yearlyStats = visitLogRepository.countByYear(threeYearsAgo, now);
-
-        // 转换为DTO
-        return yearlyStats.stream()
-                .map(stat -> {
-                    VisitDataDTO data = new VisitDataDTO();
-                    String date = stat[0] != null ? stat[0].toString() : "无数据";
-                    int value = stat[1] != null ? ((Number) stat[1]).intValue() : 0;
-
-                    data.setDate(date);
-                    data.setValue(value);
-                    return data;
-                })
-                .collect(Collectors.toList());
+        int currentYear = LocalDate.now().getYear();
+        return visitStatsService.getYearlyVisits(currentYear - 3, currentYear);
     }
 
     /**
@@ -251,6 +236,82 @@ public class DashboardServiceImpl implements DashboardService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 获取仪表盘组合数据
+     * 先提交全部面板查询，再在同一截止时间内依次等待结果，各面板的超时时间相同且互不影响
+     *
+     * @return 包含各面板数据和错误标记的组合数据
+     */
+    @Override
+    public DashboardOverviewDTO getOverview() {
+        PanelTask<DashboardStatsDTO> stats = submitPanel("stats", this::getStats);
+        PanelTask<List<VisitDataDTO>> visits = submitPanel("visits", this::getVisitData);
+        PanelTask<List<VisitDataDTO>> dailyVisits = submitPanel("dailyVisits", this::getDailyVisitData);
+        PanelTask<List<CategoryDataDTO>> categories = submitPanel("categories", this::getCategoryData);
+        PanelTask<List<Object>> recentMessages = submitPanel("recentMessages", this::getRecentMessages);
+        PanelTask<List<Object>> recentNews = submitPanel("recentNews", this::getRecentNews);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(dashboardProperties.getPanelTimeoutMs());
+        DashboardOverviewDTO overview = new DashboardOverviewDTO();
+        overview.setStats(stats.await(deadline));
+        overview.setVisits(visits.await(deadline));
+        overview.setDailyVisits(dailyVisits.await(deadline));
+        overview.setCategories(categories.await(deadline));
+        overview.setRecentMessages(recentMessages.await(deadline));
+        overview.setRecentNews(recentNews.await(deadline));
+        return overview;
+    }
+
+    private <T> PanelTask<T> submitPanel(String name, Callable<T> query) {
+        try {
+            return new PanelTask<>(name, overviewExecutor.submit(query));
+        } catch (RejectedExecutionException e) {
+            log.warn("仪表盘面板查询队列已满: {}", name);
+            return new PanelTask<>(name, null);
+        }
+    }
+
+    /**
+     * 已提交的面板查询
+     */
+    private static final class PanelTask<T> {
+        private final String name;
+        private final Future<T> future;
+        private final long startNanos = System.nanoTime();
+
+        private PanelTask(String name, Future<T> future) {
+            this.name = name;
+            this.future = future;
+        }
+
+        /**
+         * 在截止时间前等待查询结果，超时后取消查询
+         */
+        private DashboardPanelDTO<T> await(long deadline) {
+            DashboardPanelDTO<T> panel = new DashboardPanelDTO<>();
+            if (future == null) {
+                panel.setError("服务繁忙，请稍后重试");
+                return panel;
+            }
+            try {
+                panel.setData(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                panel.setTimedOut(true);
+                log.warn("仪表盘面板查询超时: {}", name);
+            } catch (ExecutionException e) {
+                panel.setError("查询失败");
+                log.error("仪表盘面板查询失败: {}, 错误: {}", name, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                panel.setError("查询被中断");
+            }
+            panel.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return panel;
+        }
+    }
+
     /**
      * 计算增长率
      * 根据前后两个数值计算百分比增长率
@@ -266,4 +327,15 @@ public class DashboardServiceImpl implements DashboardService {
         return ((double)(current - previous) / previous) * 100;
     }
 
+    /**
+     * 计算相对历史总数的增长率，尚无历史记录时视为没有增长
+     *
+     * @param previous 历史总数，可能为null
+     * @param current 当前总数
+     * @return 增长率，以百分比表示
+     */
+    private double calculateGrowthRate(Long previous, long current) {
+        return previous == null ? 0.0 : calculateGrowthRate(previous.longValue(), current);
+    }
+
 } 
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.dto.DashboardSnapshot;
+import com.maxxinke.entity.ContentDailyCount;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.repository.MessageRepository;
+import com.maxxinke.repository.NewsRepository;
+import com.maxxinke.repository.ProductRepository;
+import com.maxxinke.service.ContentTrendService;
+import com.maxxinke.service.DashboardSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 仪表盘统计快照服务实现类
+ * 总数用COUNT聚合查询完成，不加载实体，7天前的总数取自内容每日数量表；快照按固定间隔刷新，
+ * 内容变更事件只标记快照过期，由后台任务合并刷新，避免频繁修改时重复计算
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardSnapshotServiceImpl implements DashboardSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final NewsRepository newsRepository;
+    private final MessageRepository messageRepository;
+    private final ContentTrendService contentTrendService;
+
+    private final AtomicReference<DashboardSnapshot> snapshot = new AtomicReference<>();
+    private volatile boolean stale;
+
+    @Override
+    public DashboardSnapshot getSnapshot() {
+        DashboardSnapshot current = snapshot.get();
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot.get();
+                if (current == null) {
+                    current = load();
+                    snapshot.set(current);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 定时刷新快照，计算失败时保留上一次的快照
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${dashboard.snapshot-refresh-interval-ms:60000}")
+    public void refresh() {
+        stale = false;
+        try {
+            DashboardSnapshot loaded;
+            synchronized (this) {
+                loaded = load();
+                snapshot.set(loaded);
+            }
+            log.debug("仪表盘统计快照已刷新: {}", loaded.getCreateTime());
+        } catch (Exception e) {
+            stale = true;
+            log.error("刷新仪表盘统计快照失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 内容变更事务提交后标记快照过期
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        stale = true;
+    }
+
+    /**
+     * 快照过期时重新计算，同一间隔内的多次变更只刷新一次
+     */
+    @Scheduled(fixedDelayString = "${dashboard.snapshot-stale-check-interval-ms:2000}")
+    public void refreshIfStale() {
+        if (stale) {
+            refresh();
+        }
+    }
+
+    private DashboardSnapshot load() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> weekAgo = contentTrendService.getTotals(now.toLocalDate().minusDays(7));
+        return new DashboardSnapshot(
+                productRepository.count(),
+                newsRepository.count(),
+                messageRepository.count(),
+                weekAgo.get(ContentDailyCount.TYPE_PRODUCT),
+                weekAgo.get(ContentDailyCount.TYPE_NEWS),
+                weekAgo.get(ContentDailyCount.TYPE_MESSAGE),
+                now);
+    }
+}
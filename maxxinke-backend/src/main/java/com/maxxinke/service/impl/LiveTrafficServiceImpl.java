@@ -0,0 +1,207 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.dto.VisitDataDTO;
+import com.maxxinke.entity.UserAgent;
+import com.maxxinke.repository.VisitLogRepository;
+import com.maxxinke.service.LiveTrafficService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 实时访问计数服务实现类
+ * 按日计数使用LongAdder分段累加，避免高并发下的CAS竞争；
+ * 分钟计数使用固定长度的环形数组，下标为分钟序号对数组长度取模，
+ * 槽位中记录所属分钟，分钟变化时重置该槽位，内存占用固定
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveTrafficServiceImpl implements LiveTrafficService {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int DAY_SLOTS = 4;
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter SQL_MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VisitLogRepository visitLogRepository;
+
+    private final LongAdder totalCount = new LongAdder();
+    private final AtomicReferenceArray<DayCounter> dayCounters = new AtomicReferenceArray<>(DAY_SLOTS);
+    private final AtomicLongArray minuteStamps = new AtomicLongArray(MAX_MINUTES);
+    private final AtomicLongArray minuteCounts = new AtomicLongArray(MAX_MINUTES);
+
+    /**
+     * 启动时从数据库初始化计数
+     * 在Web服务开始接收请求之前执行，避免与实时累加的访问重复计数
+     */
+    @PostConstruct
+    public void seed() {
+        for (int i = 0; i < MAX_MINUTES; i++) {
+            minuteStamps.set(i, -1);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDate today = now.toLocalDate();
+
+            Long total = jdbcTemplate.queryForObject("SELECT SUM(visit_count) FROM visit_stats_monthly", Long.class);
+            if (total == null || total == 0) {
+                total = visitLogRepository.getTotalVisits();
+            }
+            totalCount.add(total != null ? total : 0L);
+
+            // 按日计数取自小时汇总表，与趋势图一致且不含爬虫访问；
+            // 汇总表尚未回填（回填在应用启动完成后才执行）时直接统计访问日志
+            dayCounter(today.toEpochDay()).count.add(
+                    countDay(today.atStartOfDay(), today.plusDays(1).atStartOfDay()));
+            dayCounter(today.minusDays(1).toEpochDay()).count.add(
+                    countDay(today.minusDays(1).atStartOfDay(), today.atStartOfDay()));
+
+            LocalDateTime minuteStart = now.truncatedTo(ChronoUnit.MINUTES).minusMinutes(MAX_MINUTES - 1);
+            jdbcTemplate.query("SELECT DATE_FORMAT(v.create_time, '%Y-%m-%d %H:%i:00'), COUNT(*) FROM visit_logs v " +
+                            "LEFT JOIN user_agents u ON u.id = v.user_agent_id " +
+                            "WHERE v.create_time >= ? AND (u.category IS NULL OR u.category <> " + UserAgent.CATEGORY_BOT + ") " +
+                            "GROUP BY DATE_FORMAT(v.create_time, '%Y-%m-%d %H:%i:00')",
+                    rs -> {
+                        LocalDateTime minute = LocalDateTime.parse(rs.getString(1), SQL_MINUTE_FORMATTER);
+                        addToMinute(toEpochMinute(minute), rs.getLong(2));
+                    },
+                    Timestamp.valueOf(minuteStart));
+            log.info("实时访问计数初始化完成, 总访问量: {}, 今日访问量: {}", totalCount.sum(), getDayCount(today));
+        } catch (Exception e) {
+            log.error("实时访问计数初始化失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void increment(LocalDateTime visitTime) {
+        totalCount.increment();
+        dayCounter(visitTime.toLocalDate().toEpochDay()).count.increment();
+        addToMinute(toEpochMinute(visitTime), 1);
+    }
+
+    @Override
+    public long getDayCount(LocalDate day) {
+        DayCounter counter = dayCounters.get(slotOf(day.toEpochDay(), DAY_SLOTS));
+        return counter != null && counter.epochDay == day.toEpochDay() ? counter.count.sum() : 0L;
+    }
+
+    @Override
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    @Override
+    public List<VisitDataDTO> getMinuteCounts(int minutes) {
+        int size = Math.max(1, Math.min(minutes, MAX_MINUTES));
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        List<VisitDataDTO> result = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            LocalDateTime minute = end.minusMinutes(i);
+            long epochMinute = toEpochMinute(minute);
+            int slot = slotOf(epochMinute, MAX_MINUTES);
+            long count = minuteStamps.get(slot) == epochMinute ? minuteCounts.get(slot) : 0L;
+
+            VisitDataDTO data = new VisitDataDTO();
+            data.setDate(minute.format(MINUTE_FORMATTER));
+            data.setValue((int) count);
+            result.add(data);
+        }
+        return result;
+    }
+
+    /**
+     * 统计时间范围内的访问量，优先使用小时汇总表，汇总表中没有该范围的数据时统计访问日志（不含爬虫）
+     */
+    private long countDay(LocalDateTime start, LocalDateTime end) {
+        Long sum = jdbcTemplate.queryForObject(
+                "SELECT SUM(visit_count) FROM visit_stats_hourly WHERE bucket_time >= ? AND bucket_time < ?",
+                Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        if (sum != null) {
+            return sum;
+        }
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM visit_logs v " +
+                        "LEFT JOIN user_agents u ON u.id = v.user_agent_id " +
+                        "WHERE v.create_time >= ? AND v.create_time < ? " +
+                        "AND (u.category IS NULL OR u.category <> " + UserAgent.CATEGORY_BOT + ")",
+                Long.class, Timestamp.valueOf(start), Timestamp.valueOf(end));
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * 获取指定日期的计数器，槽位被更早的日期占用时替换为新计数器
+     */
+    private DayCounter dayCounter(long epochDay) {
+        int slot = slotOf(epochDay, DAY_SLOTS);
+        while (true) {
+            DayCounter current = dayCounters.get(slot);
+            if (current != null && current.epochDay == epochDay) {
+                return current;
+            }
+            if (current != null && current.epochDay > epochDay) {
+                // 超出保留范围的旧日期访问，使用临时计数器丢弃
+                return new DayCounter(epochDay);
+            }
+            DayCounter created = new DayCounter(epochDay);
+            if (dayCounters.compareAndSet(slot, current, created)) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * 累加分钟计数，槽位属于更早的分钟时先重置
+     */
+    private void addToMinute(long epochMinute, long delta) {
+        int slot = slotOf(epochMinute, MAX_MINUTES);
+        long stamp = minuteStamps.get(slot);
+        if (stamp != epochMinute) {
+            if (stamp > epochMinute) {
+                return;
+            }
+            synchronized (minuteStamps) {
+                if (minuteStamps.get(slot) < epochMinute) {
+                    minuteCounts.set(slot, 0);
+                    minuteStamps.set(slot, epochMinute);
+                } else if (minuteStamps.get(slot) > epochMinute) {
+                    return;
+                }
+            }
+        }
+        minuteCounts.addAndGet(slot, delta);
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60L + time.getMinute();
+    }
+
+    private static int slotOf(long value, int size) {
+        return (int) Math.floorMod(value, (long) size);
+    }
+
+    /**
+     * 单日访问计数器
+     */
+    private static final class DayCounter {
+        private final long epochDay;
+        private final LongAdder count = new LongAdder();
+
+        private DayCounter(long epochDay) {
+            this.epochDay = epochDay;
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package com.maxxinke.service.impl;
 
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.Message;
+import com.maxxinke.event.ContentChangedEvent;
 import com.maxxinke.exception.BusinessException;
 import com.maxxinke.repository.MessageRepository;
 import com.maxxinke.service.MessageService;
+import com.maxxinke.utils.SeekCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,8 +26,11 @@ import java.util.List;
 @RequiredArgsConstructor
 @Slf4j
 public class MessageServiceImpl implements MessageService {
+
+    private static final String CURSOR_SCOPE = "message";
     
     private final MessageRepository messageRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 创建新留言
@@ -33,7 +41,9 @@ public class MessageServiceImpl implements MessageService {
     public Message createMessage(Message message) {
         try {
             log.info("创建新留言: {}", message.getContent());
-            return messageRepository.save(message);
+            Message savedMessage = messageRepository.save(message);
+            publishChanged(savedMessage.getId());
+            return savedMessage;
         } catch (Exception e) {
             log.error("创建留言失败", e);
             throw new BusinessException("创建留言失败");
@@ -49,7 +59,9 @@ public class MessageServiceImpl implements MessageService {
     public Message updateMessage(Message message) {
         try {
             log.info("更新留言信息, ID: {}", message.getId());
-            return messageRepository.save(message);
+            Message updatedMessage = messageRepository.save(message);
+            publishChanged(updatedMessage.getId());
+            return updatedMessage;
         } catch (Exception e) {
             log.error("更新留言失败, ID: {}", message.getId(), e);
             throw new BusinessException("更新留言失败");
@@ -65,6 +77,7 @@ public class MessageServiceImpl implements MessageService {
         try {
             log.info("删除留言, ID: {}", id);
             messageRepository.deleteById(id);
+            publishChanged(id);
         } catch (Exception e) {
             log.error("删除留言失败, ID: {}", id, e);
             throw new BusinessException("删除留言失败");
@@ -134,7 +147,9 @@ public class MessageServiceImpl implements MessageService {
             Message message = getMessageById(id);
             message.setReply(reply);
             message.setStatus(1); // 设置为已回复状态
-            return messageRepository.save(message);
+            Message repliedMessage = messageRepository.save(message);
+            publishChanged(id);
+            return repliedMessage;
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -198,6 +213,22 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    @Override
+    public CursorPageDTO<Message> findAfter(Integer status, String cursor, int size) {
+        SeekCursor after;
+        try {
+            after = SeekCursor.decode(CURSOR_SCOPE, cursor);
+        } catch (IllegalArgumentException e) {
+            throw BusinessException.invalidParameter("分页游标无效");
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Message> messages = status != null
+                ? messageRepository.findByStatusAfter(status, after.getCreateTime(), after.getId(), limit)
+                : messageRepository.findAfter(after.getCreateTime(), after.getId(), limit);
+        return CursorPageDTO.of(messages, size,
+                message -> SeekCursor.of(null, message.getCreateTime(), message.getId()).encode(CURSOR_SCOPE));
+    }
+
     @Override
     public List<Message> findByUserId(Long userId) {
         try {
@@ -219,7 +250,9 @@ public class MessageServiceImpl implements MessageService {
             // 如果无法解析为整数，默认设置为已读(1)
             message.setStatus(1);
         }
-        return messageRepository.save(message);
+        Message updatedMessage = messageRepository.save(message);
+        publishChanged(id);
+        return updatedMessage;
     }
 
     @Override
@@ -232,5 +265,14 @@ public class MessageServiceImpl implements MessageService {
             message.setStatus(1);
             messageRepository.save(message);
         }
+        publishChanged(null);
+    }
+
+    /**
+     * 发布留言变更事件
+     * @param id 留言ID，批量变更时为null
+     */
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.MESSAGE, id));
     }
 }
\ No newline at end of file
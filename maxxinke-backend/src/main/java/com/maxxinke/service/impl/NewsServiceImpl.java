@@ -1,30 +1,72 @@
 package com.maxxinke.service.impl;
 
+import com.maxxinke.config.ReadCoalescingProperties;
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.News;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.event.ViewCountFlushedEvent;
 import com.maxxinke.exception.BusinessException;
+import com.maxxinke.repository.FieldProjectionRepository;
 import com.maxxinke.repository.NewsRepository;
 import com.maxxinke.service.NewsService;
+import com.maxxinke.service.TrendingService;
+import com.maxxinke.service.ViewCountService;
+import com.maxxinke.utils.FieldSelection;
 import com.maxxinke.utils.OssUtil;
+import com.maxxinke.utils.SeekCursor;
+import com.maxxinke.utils.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 新闻服务实现类
  * 实现NewsService接口定义的所有业务方法，包括新闻的CRUD操作和按状态、类型查询等功能
+ * 同一条新闻的并发详情查询合并为一次数据库查询，结果短暂保留，新闻修改或浏览量写入后立即丢弃
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NewsServiceImpl implements NewsService {
 
+    private static final String CURSOR_SCOPE = "news";
+    // 列表可选的字段，content为正文
+    private static final List<String> SELECTABLE_FIELDS = Arrays.asList(
+            "id", "title", "content", "image", "type", "status", "views", "summary", "createTime", "updateTime");
+    // 列表默认字段，不含正文
+    private static final List<String> DEFAULT_FIELDS = Arrays.asList(
+            "title", "image", "type", "status", "views", "summary", "createTime");
+
     private final NewsRepository newsRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
     private final OssUtil ossUtil;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ViewCountService viewCountService;
+    private final TrendingService trendingService;
+    private final ReadCoalescingProperties coalescingProperties;
+
+    private SingleFlight<Long, News> newsLoads;
+
+    @PostConstruct
+    public void initLoads() {
+        newsLoads = new SingleFlight<>(coalescingProperties.getRetainMillis());
+    }
 
     /**
      * 创建新闻
@@ -37,6 +79,7 @@ public class NewsServiceImpl implements NewsService {
         try {
             log.info("开始创建新闻: {}", news.getTitle());
             News savedNews = newsRepository.save(news);
+            publishChanged(savedNews.getId());
             log.info("新闻创建成功: {}", savedNews.getId());
             return savedNews;
         } catch (Exception e) {
@@ -60,6 +103,7 @@ public class NewsServiceImpl implements NewsService {
                 throw new BusinessException("新闻不存在，ID: " + news.getId());
             }
             News updatedNews = newsRepository.save(news);
+            publishChanged(updatedNews.getId());
             log.info("新闻更新成功: {}", updatedNews.getId());
             return updatedNews;
         } catch (BusinessException e) {
@@ -98,6 +142,8 @@ public class NewsServiceImpl implements NewsService {
 
             // 删除新闻
             newsRepository.deleteById(id);
+            trendingService.removeNews(id);
+            publishChanged(id);
             log.info("成功删除新闻: {}", id);
         } catch (BusinessException e) {
             throw e;
@@ -107,6 +153,14 @@ public class NewsServiceImpl implements NewsService {
         }
     }
 
+    /**
+     * 发布新闻变更事件
+     * @param id 新闻ID
+     */
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.NEWS, id));
+    }
+
     /**
      * 根据ID获取新闻
      * @param id 新闻ID
@@ -117,8 +171,11 @@ public class NewsServiceImpl implements NewsService {
     public News getNewsById(Long id) {
         try {
             log.debug("获取新闻信息: {}", id);
-            return newsRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("新闻不存在，ID: " + id));
+            News news = newsLoads.load(id, () -> newsRepository.findById(id).map(NewsServiceImpl::copyOf).orElse(null));
+            if (news == null) {
+                throw new BusinessException("新闻不存在，ID: " + id);
+            }
+            return withPendingViews(copyOf(news));
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -138,7 +195,7 @@ public class NewsServiceImpl implements NewsService {
     public Page<News> getNewsByStatusAndType(Integer status, String type, Pageable pageable) {
         try {
             log.debug("获取新闻列表，状态: {}, 类型: {}", status, type);
-            return newsRepository.findByStatusAndTypeOrderByCreateTimeDesc(status, type, pageable);
+            return withPendingViews(newsRepository.findByStatusAndTypeOrderByCreateTimeDesc(status, type, pageable));
         } catch (Exception e) {
             log.error("获取新闻列表失败，状态: {}, 类型: {}, 错误: {}", status, type, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -155,7 +212,7 @@ public class NewsServiceImpl implements NewsService {
     public List<News> getNewsByStatusAndType(Integer status, String type) {
         try {
             log.debug("获取新闻列表，状态: {}, 类型: {}", status, type);
-            return newsRepository.findByStatusAndTypeOrderByCreateTimeDesc(status, type);
+            return withPendingViews(newsRepository.findByStatusAndTypeOrderByCreateTimeDesc(status, type));
         } catch (Exception e) {
             log.error("获取新闻列表失败，状态: {}, 类型: {}, 错误: {}", status, type, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -172,7 +229,7 @@ public class NewsServiceImpl implements NewsService {
     public Page<News> getNewsByStatus(Integer status, Pageable pageable) {
         try {
             log.debug("获取新闻列表，状态: {}", status);
-            return newsRepository.findByStatusOrderByCreateTimeDesc(status, pageable);
+            return withPendingViews(newsRepository.findByStatusOrderByCreateTimeDesc(status, pageable));
         } catch (Exception e) {
             log.error("获取新闻列表失败，状态: {}, 错误: {}", status, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -188,7 +245,7 @@ public class NewsServiceImpl implements NewsService {
     public List<News> getNewsByStatus(Integer status) {
         try {
             log.debug("获取新闻列表，状态: {}", status);
-            return newsRepository.findByStatusOrderByCreateTimeDesc(status);
+            return withPendingViews(newsRepository.findByStatusOrderByCreateTimeDesc(status));
         } catch (Exception e) {
             log.error("获取新闻列表失败，状态: {}, 错误: {}", status, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -199,7 +256,7 @@ public class NewsServiceImpl implements NewsService {
     public List<News> findAll() {
         try {
             log.debug("获取所有新闻");
-            return newsRepository.findAll();
+            return withPendingViews(newsRepository.findAll());
         } catch (Exception e) {
             log.error("获取所有新闻失败，错误: {}", e.getMessage());
             throw new BusinessException("获取所有新闻失败: " + e.getMessage());
@@ -210,7 +267,7 @@ public class NewsServiceImpl implements NewsService {
     public List<News> findByStatus(Integer status) {
         try {
             log.debug("获取新闻列表，状态: {}", status);
-            return newsRepository.findByStatusOrderByCreateTimeDesc(status);
+            return withPendingViews(newsRepository.findByStatusOrderByCreateTimeDesc(status));
         } catch (Exception e) {
             log.error("获取新闻列表失败，状态: {}, 错误: {}", status, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -221,7 +278,7 @@ public class NewsServiceImpl implements NewsService {
     public List<News> findByType(String type) {
         try {
             log.debug("获取新闻列表，类型: {}", type);
-            return newsRepository.findByType(type);
+            return withPendingViews(newsRepository.findByType(type));
         } catch (Exception e) {
             log.error("获取新闻列表失败，类型: {}, 错误: {}", type, e.getMessage());
             throw new BusinessException("获取新闻列表失败: " + e.getMessage());
@@ -229,62 +286,194 @@ public class NewsServiceImpl implements NewsService {
     }
 
     @Override
-    public List<News> getAllNews() {
+    public List<News> getNewsByType(String type) {
         try {
-            log.debug("获取所有新闻");
-            return newsRepository.findAll();
+            log.debug("获取新闻列表，类型: {}", type);
+            return withPendingViews(newsRepository.findByType(type));
         } catch (Exception e) {
-            log.error("获取所有新闻失败，错误: {}", e.getMessage());
-            throw new BusinessException("获取所有新闻失败: " + e.getMessage());
+            log.error("获取新闻列表失败，类型: {}, 错误: {}", type, e.getMessage());
+            throw new BusinessException("获取新闻列表失败: " + e.getMessage());
         }
     }
 
     @Override
-    public List<News> getNewsByType(String type) {
+    public List<String> selectFields(String fields) {
         try {
-            log.debug("获取新闻列表，类型: {}", type);
-            return newsRepository.findByType(type);
-        } catch (Exception e) {
-            log.error("获取新闻列表失败，类型: {}, 错误: {}", type, e.getMessage());
-            throw new BusinessException("获取新闻列表失败: " + e.getMessage());
+            return FieldSelection.parse(fields, SELECTABLE_FIELDS, DEFAULT_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw BusinessException.invalidParameter(e.getMessage());
         }
     }
 
+    @Override
+    public List<Map<String, Object>> getNewsFieldsByType(String type, String fields) {
+        return newsFields(fields, Collections.singletonMap("type", type));
+    }
+
     @Override
     public Page<News> findAll(Pageable pageable) {
         try {
             log.debug("分页获取所有新闻");
-            return newsRepository.findAll(pageable);
+            return withPendingViews(newsRepository.findAll(pageable));
         } catch (Exception e) {
             log.error("分页获取所有新闻失败，错误: {}", e.getMessage());
             throw new BusinessException("分页获取所有新闻失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 按游标获取新闻列表
+     * 每页沿(状态, 类型, 创建时间)索引范围读取，多查询一条用于判断是否还有下一页
+     * @param status 新闻状态
+     * @param type 新闻类型
+     * @param cursor 上一页返回的游标
+     * @param size 每页条数
+     * @return 一页新闻
+     */
+    @Override
+    public CursorPageDTO<News> getNewsAfter(Integer status, String type, String cursor, int size) {
+        SeekCursor after;
+        try {
+            after = SeekCursor.decode(CURSOR_SCOPE, cursor);
+        } catch (IllegalArgumentException e) {
+            throw BusinessException.invalidParameter("分页游标无效");
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<News> newsList;
+        if (status != null && type != null) {
+            newsList = newsRepository.findByStatusAndTypeAfter(status, type, after.getCreateTime(), after.getId(), limit);
+        } else if (status != null) {
+            newsList = newsRepository.findByStatusAfter(status, after.getCreateTime(), after.getId(), limit);
+        } else {
+            newsList = newsRepository.findAfter(after.getCreateTime(), after.getId(), limit);
+        }
+        return CursorPageDTO.of(withPendingViews(newsList), size,
+                news -> SeekCursor.of(null, news.getCreateTime(), news.getId()).encode(CURSOR_SCOPE));
+    }
+
     /**
      * 增加新闻浏览量
+     * 浏览量在内存中累加后批量写入数据库，不读取新闻实体
      * @param id 新闻ID
-     * @return 更新后的新闻对象
      */
     @Override
-    @Transactional
-    public News incrementViews(Long id) {
-        try {
-            log.info("增加新闻浏览量: {}", id);
-            News news = newsRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("新闻不存在，ID: " + id));
-            
-            // 增加浏览量
-            news.setViews(news.getViews() + 1);
-            News updatedNews = newsRepository.save(news);
-            log.debug("新闻浏览量增加成功，ID: {}, 当前浏览量: {}", id, updatedNews.getViews());
-            
-            return updatedNews;
-        } catch (BusinessException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("增加新闻浏览量失败: {}, 错误: {}", id, e.getMessage());
-            throw new BusinessException("增加新闻浏览量失败: " + e.getMessage());
+    public void incrementViews(Long id) {
+        viewCountService.incrementNewsViews(id);
+        trendingService.recordNewsView(id);
+    }
+
+    /**
+     * 获取热门新闻
+     * 按近期浏览的衰减热度排序，热度排行中的已发布新闻不足时用最新发布的新闻补足
+     * @param limit 返回的新闻数量
+     * @return 热门新闻列表
+     */
+    @Override
+    public List<News> getTrendingNews(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Long> trendingIds = trendingService.getTrendingNewsIds(limit);
+        Map<Long, News> found = newsRepository.findAllById(trendingIds).stream()
+                .filter(news -> news.getStatus() == 1)
+                .collect(Collectors.toMap(News::getId, news -> news));
+        List<News> trendingNews = new ArrayList<>(limit);
+        for (Long id : trendingIds) {
+            News news = found.get(id);
+            if (news != null) {
+                trendingNews.add(news);
+            }
+        }
+        if (trendingNews.size() < limit) {
+            for (News news : newsRepository.findByStatusOrderByCreateTimeDesc(1, PageRequest.of(0, limit))) {
+                if (trendingNews.size() >= limit) {
+                    break;
+                }
+                if (!found.containsKey(news.getId())) {
+                    trendingNews.add(news);
+                }
+            }
+        }
+        return withPendingViews(trendingNews);
+    }
+
+    @Override
+    public Map<String, Object> getLoadStats() {
+        return newsLoads.getStats();
+    }
+
+    /**
+     * 新闻变更事务提交后丢弃保留的查询结果
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.NEWS) {
+            return;
+        }
+        if (event.getId() != null) {
+            newsLoads.forget(event.getId());
+        } else {
+            newsLoads.forgetAll();
+        }
+    }
+
+    /**
+     * 浏览量写入数据库后丢弃对应新闻保留的查询结果
+     * @param event 浏览量写入事件
+     */
+    @EventListener
+    public void onViewCountFlushed(ViewCountFlushedEvent event) {
+        if (event.getType() == ContentChangedEvent.ContentType.NEWS) {
+            event.getDeltas().keySet().forEach(newsLoads::forget);
+        }
+    }
+
+    /**
+     * 复制新闻，查询结果被多个请求共享，每个请求使用自己的副本
+     * @param source 源新闻
+     * @return 新闻副本
+     */
+    private static News copyOf(News source) {
+        News copy = new News();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    private List<Map<String, Object>> newsFields(String fields, Map<String, Object> conditions) {
+        List<String> selected = selectFields(fields);
+        List<Map<String, Object>> rows = fieldProjectionRepository.findFields(News.class, selected, conditions, Pageable.unpaged());
+        if (selected.contains("views")) {
+            for (Map<String, Object> row : rows) {
+                long pending = viewCountService.getPendingNewsViews((Long) row.get("id"));
+                if (pending > 0) {
+                    row.put("views", (int) ((Integer) row.get("views") + pending));
+                }
+            }
         }
+        return rows;
+    }
+
+    /**
+     * 在新闻浏览量上加上尚未写入数据库的部分
+     * @param news 新闻对象
+     * @return 同一新闻对象
+     */
+    private News withPendingViews(News news) {
+        long pending = viewCountService.getPendingNewsViews(news.getId());
+        if (pending > 0) {
+            news.setViews((int) (news.getViews() + pending));
+        }
+        return news;
+    }
+
+    private List<News> withPendingViews(List<News> newsList) {
+        newsList.forEach(this::withPendingViews);
+        return newsList;
+    }
+
+    private Page<News> withPendingViews(Page<News> newsPage) {
+        newsPage.forEach(this::withPendingViews);
+        return newsPage;
     }
 }
\ No newline at end of file
@@ -1,16 +1,27 @@
 package com.maxxinke.service.impl;
 
+import com.maxxinke.config.ReadCoalescingProperties;
 import com.maxxinke.entity.ProductCategory;
+import com.maxxinke.event.ContentChangedEvent;
 import com.maxxinke.repository.ProductCategoryRepository;
 import com.maxxinke.service.ProductCategoryService;
+import com.maxxinke.utils.SingleFlight;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 产品类别服务实现类
+ * 类别列表和详情的并发查询合并为一次数据库查询，结果短暂保留，类别修改后立即丢弃
  */
 @Service
 public class ProductCategoryServiceImpl implements ProductCategoryService {
@@ -18,13 +29,28 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
     @Autowired
     private ProductCategoryRepository productCategoryRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ReadCoalescingProperties coalescingProperties;
+
+    private SingleFlight<Long, ProductCategory> categoryLoads;
+    private SingleFlight<String, List<ProductCategory>> listLoads;
+
+    @PostConstruct
+    public void initLoads() {
+        categoryLoads = new SingleFlight<>(coalescingProperties.getRetainMillis());
+        listLoads = new SingleFlight<>(coalescingProperties.getRetainMillis());
+    }
+
     /**
      * 获取所有启用的产品类别列表
      * @return 产品类别列表
      */
     @Override
     public List<ProductCategory> getAllEnabledCategories() {
-        return productCategoryRepository.findByStatusOrderBySortDesc(1);
+        return copyOf(listLoads.load("enabled", () -> copyOf(productCategoryRepository.findByStatusOrderBySortDesc(1))));
     }
 
     /**
@@ -33,7 +59,7 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
      */
     @Override
     public List<ProductCategory> getAllCategories() {
-        return productCategoryRepository.findAllByOrderBySortDesc();
+        return copyOf(listLoads.load("all", () -> copyOf(productCategoryRepository.findAllByOrderBySortDesc())));
     }
 
     /**
@@ -43,7 +69,9 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
      */
     @Override
     public ProductCategory getCategoryById(Long id) {
-        return productCategoryRepository.findById(id).orElse(null);
+        ProductCategory category = categoryLoads.load(id,
+                () -> productCategoryRepository.findById(id).map(ProductCategoryServiceImpl::copyOf).orElse(null));
+        return category != null ? copyOf(category) : null;
     }
 
     /**
@@ -64,7 +92,9 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
     @Override
     @Transactional
     public ProductCategory saveCategory(ProductCategory category) {
-        return productCategoryRepository.save(category);
+        ProductCategory savedCategory = productCategoryRepository.save(category);
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.CATEGORY, savedCategory.getId()));
+        return savedCategory;
     }
 
     /**
@@ -75,5 +105,52 @@ public class ProductCategoryServiceImpl implements ProductCategoryService {
     @Transactional
     public void deleteCategory(Long id) {
         productCategoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.CATEGORY, id));
+    }
+
+    /**
+     * 获取类别查询合并的运行统计
+     * @return 统计数据
+     */
+    @Override
+    public Map<String, Object> getLoadStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("categories", categoryLoads.getStats());
+        stats.put("lists", listLoads.getStats());
+        return stats;
+    }
+
+    /**
+     * 类别变更事务提交后丢弃保留的查询结果
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.CATEGORY) {
+            return;
+        }
+        if (event.getId() != null) {
+            categoryLoads.forget(event.getId());
+        } else {
+            categoryLoads.forgetAll();
+        }
+        listLoads.forgetAll();
+    }
+
+    /**
+     * 复制类别，查询结果被多个请求共享，每个请求使用自己的副本
+     */
+    private static ProductCategory copyOf(ProductCategory source) {
+        ProductCategory copy = new ProductCategory();
+        BeanUtils.copyProperties(source, copy);
+        return copy;
+    }
+
+    private static List<ProductCategory> copyOf(List<ProductCategory> sources) {
+        List<ProductCategory> copies = new ArrayList<>(sources.size());
+        for (ProductCategory source : sources) {
+            copies.add(copyOf(source));
+        }
+        return copies;
     }
 } 
\ No newline at end of file
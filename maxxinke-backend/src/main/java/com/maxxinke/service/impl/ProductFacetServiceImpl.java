@@ -0,0 +1,296 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.ProductFacetProperties;
+import com.maxxinke.dto.FacetDTO;
+import com.maxxinke.dto.FacetValueDTO;
+import com.maxxinke.dto.ProductFacetsDTO;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.exception.BusinessException;
+import com.maxxinke.repository.ProductRepository;
+import com.maxxinke.service.ProductFacetService;
+import com.maxxinke.service.ProductService;
+import com.maxxinke.utils.FacetIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 产品规格分面服务实现类
+ * 产品的状态、分类和每个规格分别作为一个维度，规格取值由值和单位拼接而成；
+ * 启动时从数据库建立索引，产品变更事务提交后更新对应的产品，批量变更后在后台全量重建，并定时全量重建。
+ * 全量重建在新的索引上进行，完成后整体替换，重建期间变更的产品在替换后重新索引
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final String DIMENSION_STATUS = "status";
+    private static final String DIMENSION_CATEGORY = "category";
+    private static final String SPEC_PREFIX = "spec:";
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TaskScheduler taskScheduler;
+    private final ProductFacetProperties properties;
+
+    private volatile IndexState state = new IndexState();
+    private volatile boolean rebuilding;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile long lastRebuildMillis;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    /**
+     * 应用启动完成后建立索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 定时全量重建，使其他节点的修改生效
+     */
+    @Scheduled(initialDelayString = "${product-facet.rebuild-interval-ms:600000}",
+            fixedDelayString = "${product-facet.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            IndexState fresh = new IndexState();
+            for (Product product : productRepository.findAll()) {
+                put(fresh, product);
+            }
+            state = fresh;
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            log.info("产品规格分面索引重建完成, 耗时: {}ms, {}", lastRebuildMillis, fresh.index.getStats());
+        } catch (Exception e) {
+            log.error("重建产品规格分面索引失败: {}", e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+        for (Iterator<Long> it = changedDuringRebuild.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            it.remove();
+            reindex(id);
+        }
+    }
+
+    /**
+     * 产品变更事务提交后更新索引
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.PRODUCT) {
+            return;
+        }
+        if (event.getId() == null) {
+            scheduleRebuild();
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getId());
+        }
+        reindex(event.getId());
+    }
+
+    @Override
+    public ProductFacetsDTO getFacets(Integer status, String category, List<String> specs) {
+        long start = System.nanoTime();
+        Map<String, List<String>> filters = filters(status, category, specs);
+        IndexState current = state;
+        List<FacetIndex.Facet> facets = current.index.counts(filters,
+                dimension -> dimension.equals(DIMENSION_CATEGORY) || dimension.startsWith(SPEC_PREFIX));
+
+        ProductFacetsDTO result = new ProductFacetsDTO();
+        result.setTotal((long) current.index.match(filters).cardinality());
+        result.setCategories(Collections.emptyList());
+        List<FacetDTO> specifications = new ArrayList<>();
+        for (FacetIndex.Facet facet : facets) {
+            if (facet.getKey().equals(DIMENSION_CATEGORY)) {
+                result.setCategories(values(facet));
+            } else {
+                FacetDTO dto = new FacetDTO();
+                dto.setName(facet.getLabel().substring(SPEC_PREFIX.length()));
+                dto.setValues(values(facet));
+                specifications.add(dto);
+            }
+        }
+        result.setSpecifications(specifications);
+        queryCount.increment();
+        queryNanos.add(System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public Page<Product> filterProducts(Integer status, String category, List<String> specs, Pageable pageable) {
+        long start = System.nanoTime();
+        IndexState current = state;
+        BitSet matched = current.index.match(filters(status, category, specs));
+        List<Integer> ids = new ArrayList<>(matched.cardinality());
+        for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        // 与产品列表一致，按排序值降序，排序值相同时新创建的在前
+        ids.sort(Comparator.<Integer>comparingInt(id -> current.sortValues.getOrDefault(id, 0))
+                .thenComparingInt(id -> id)
+                .reversed());
+
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), ids.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), ids.size()) : ids.size();
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (Integer id : ids.subList(from, to)) {
+            pageIds.add(id.longValue());
+        }
+        List<Product> products = productService.getProductsByIds(pageIds);
+        queryCount.increment();
+        queryNanos.add(System.nanoTime() - start);
+        return new PageImpl<>(products, pageable, ids.size());
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(state.index.getStats());
+        long queries = queryCount.sum();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queryNanos.sum() / queries));
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("rebuilding", rebuilding);
+        return stats;
+    }
+
+    /**
+     * 批量变更（如导入产品）后在定时任务线程中全量重建，不占用发布事件的请求线程；
+     * 已提交但尚未开始的重建不再重复提交，开始后的变更会再提交一次重建
+     */
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, Instant.now());
+        }
+    }
+
+    private void reindex(Long id) {
+        try {
+            Product product = productRepository.findById(id).orElse(null);
+            IndexState current = state;
+            if (product == null) {
+                if (id <= Integer.MAX_VALUE) {
+                    current.index.remove(id.intValue());
+                    current.sortValues.remove(id.intValue());
+                }
+            } else {
+                put(current, product);
+            }
+        } catch (Exception e) {
+            log.error("更新产品规格分面索引失败: {}, 错误: {}", id, e.getMessage());
+        }
+    }
+
+    private static void put(IndexState target, Product product) {
+        if (product.getId() > Integer.MAX_VALUE) {
+            log.warn("产品ID超出分面索引范围, 不建立索引: {}", product.getId());
+            return;
+        }
+        int id = product.getId().intValue();
+        Map<String, List<String>> values = new HashMap<>();
+        values.put(DIMENSION_STATUS, Collections.singletonList(String.valueOf(product.getStatus())));
+        values.put(DIMENSION_CATEGORY, Collections.singletonList(product.getCategory()));
+        if (product.getSpecifications() != null) {
+            for (ProductSpecification specification : product.getSpecifications()) {
+                if (specification.getName() == null || specification.getName().trim().isEmpty()) {
+                    continue;
+                }
+                String value = Objects.toString(specification.getValue(), "") + Objects.toString(specification.getUnit(), "");
+                values.computeIfAbsent(SPEC_PREFIX + specification.getName().trim(), name -> new ArrayList<>()).add(value);
+            }
+        }
+        target.index.put(id, values);
+        target.sortValues.put(id, product.getSort() != null ? product.getSort() : 0);
+    }
+
+    /**
+     * 将查询参数转换为索引的筛选条件
+     */
+    private static Map<String, List<String>> filters(Integer status, String category, List<String> specs) {
+        Map<String, List<String>> filters = new HashMap<>();
+        if (status != null) {
+            filters.put(DIMENSION_STATUS, Collections.singletonList(String.valueOf(status)));
+        }
+        if (category != null && !category.isEmpty()) {
+            filters.put(DIMENSION_CATEGORY, Collections.singletonList(category));
+        }
+        if (specs != null) {
+            for (String spec : specs) {
+                int separator = spec.indexOf(':');
+                if (separator <= 0) {
+                    throw BusinessException.invalidParameter("规格条件格式应为\"名称:值\": " + spec);
+                }
+                filters.computeIfAbsent(SPEC_PREFIX + spec.substring(0, separator).trim(), name -> new ArrayList<>())
+                        .add(spec.substring(separator + 1));
+            }
+        }
+        return filters;
+    }
+
+    private List<FacetValueDTO> values(FacetIndex.Facet facet) {
+        List<FacetValueDTO> values = new ArrayList<>();
+        for (FacetIndex.FacetCount count : facet.getValues()) {
+            if (values.size() >= properties.getMaxValuesPerFacet()) {
+                break;
+            }
+            FacetValueDTO dto = new FacetValueDTO();
+            dto.setValue(count.getLabel());
+            dto.setCount(count.getCount());
+            values.add(dto);
+        }
+        return values;
+    }
+
+    /**
+     * 分面索引及产品排序值，全量重建时整体替换
+     */
+    private static final class IndexState {
+        private final FacetIndex index = new FacetIndex();
+        private final Map<Integer, Integer> sortValues = new ConcurrentHashMap<>();
+    }
+}
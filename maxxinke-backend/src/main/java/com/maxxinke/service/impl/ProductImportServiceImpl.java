@@ -0,0 +1,292 @@
+package com.maxxinke.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.maxxinke.dto.ProductImportResultDTO;
+import com.maxxinke.entity.ProductCategory;
+import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.repository.ProductCategoryRepository;
+import com.maxxinke.service.ProductImportService;
+import com.maxxinke.utils.CsvReader;
+import com.maxxinke.utils.CsvWriter;
+import com.maxxinke.utils.JsonCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 产品批量导入服务实现类
+ * 逐行读取CSV，校验通过的行每500行用一条JDBC批量语句写入，每批一个事务，不经过Hibernate逐条插入。
+ * id列为空的行新建产品，ID由数据库自增生成；id列有值的行按ID更新已有产品，保留浏览量和创建时间，
+ * ID不存在时以该ID新建，因此导出的文件重新导入不会产生重复的产品。
+ * 一批写入失败时该批回滚并逐行重试，只有重试仍失败的行记为失败，已写入的批次不回滚。
+ * 导入完成后发布批量变更事件，刷新产品缓存，搜索和分面索引在后台重建
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ERRORS = 1000;
+
+    // TEXT列最多65535字节
+    private static final int MAX_TEXT_BYTES = 65535;
+
+    private static final String COLUMN_ID = "id";
+    private static final String COLUMN_NAME = "name";
+    private static final String COLUMN_CATEGORY = "category";
+    private static final String COLUMN_DESCRIPTION = "description";
+    private static final String COLUMN_SPECIFICATIONS = "specifications";
+    private static final String COLUMN_APPLICATION = "application";
+    private static final String COLUMN_IMAGE = "image";
+    private static final String COLUMN_SORT = "sort";
+    private static final String COLUMN_STATUS = "status";
+
+    // id为null时由数据库生成；id已存在时更新该产品，浏览量和创建时间不变
+    private static final String UPSERT_PRODUCT = "INSERT INTO product "
+            + "(id, name, category, description, specifications, application, image, sort, status, views, create_time, update_time) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE name = VALUES(name), category = VALUES(category), description = VALUES(description), "
+            + "specifications = VALUES(specifications), application = VALUES(application), image = VALUES(image), "
+            + "sort = VALUES(sort), status = VALUES(status), update_time = VALUES(update_time)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public ProductImportResultDTO importCsv(InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        ProductImportResultDTO result = new ProductImportResultDTO();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        Set<String> categories = new HashSet<>();
+        for (ProductCategory category : categoryRepository.findAll()) {
+            categories.add(category.getName());
+        }
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        List<Long> batchRows = new ArrayList<>(BATCH_SIZE);
+        try {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                addError(result, 1L, "文件为空");
+                return finish(result, start);
+            }
+            Map<String, Integer> columns = columns(header);
+            if (!columns.containsKey(COLUMN_NAME) || !columns.containsKey(COLUMN_CATEGORY)) {
+                addError(result, 1L, "表头必须包含name和category列");
+                return finish(result, start);
+            }
+
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                long row = reader.getRecordNumber();
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                    // 忽略空行
+                    continue;
+                }
+                result.setTotal(result.getTotal() + 1);
+                try {
+                    batch.add(toRow(record, columns, categories));
+                    batchRows.add(row);
+                } catch (IllegalArgumentException e) {
+                    result.setFailed(result.getFailed() + 1);
+                    addError(result, row, e.getMessage());
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    writeBatch(batch, batchRows, result);
+                }
+            }
+            writeBatch(batch, batchRows, result);
+        } catch (IllegalArgumentException e) {
+            // CSV格式错误，之后的内容无法继续读取，之前校验通过的行照常写入
+            addError(result, reader.getRecordNumber(), e.getMessage());
+            writeBatch(batch, batchRows, result);
+        } finally {
+            if (result.getImported() > 0) {
+                eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, null));
+            }
+        }
+        return finish(result, start);
+    }
+
+    private void writeBatch(List<Object[]> batch, List<Long> batchRows, ProductImportResultDTO result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_PRODUCT, batch));
+            result.setImported(result.getImported() + batch.size());
+        } catch (Exception e) {
+            // 整批已回滚，逐行重试找出出错的行，其余行照常写入
+            log.warn("批量写入产品失败, 第{}至{}行逐行重试, 错误: {}",
+                    batchRows.get(0), batchRows.get(batchRows.size() - 1), message(e));
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    jdbcTemplate.update(UPSERT_PRODUCT, batch.get(i));
+                    result.setImported(result.getImported() + 1);
+                } catch (Exception rowError) {
+                    result.setFailed(result.getFailed() + 1);
+                    addError(result, batchRows.get(i), "写入数据库失败: " + message(rowError));
+                }
+            }
+        }
+        batch.clear();
+        batchRows.clear();
+    }
+
+    /**
+     * 校验一行数据并转换为插入语句的参数
+     */
+    private static Object[] toRow(List<String> record, Map<String, Integer> columns, Set<String> categories) {
+        Long id = null;
+        String idValue = value(record, columns, COLUMN_ID);
+        if (idValue != null) {
+            try {
+                id = Long.valueOf(idValue);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("产品ID必须是整数: " + idValue);
+            }
+            if (id <= 0) {
+                throw new IllegalArgumentException("产品ID必须大于0");
+            }
+        }
+        String name = required(record, columns, COLUMN_NAME, "产品名称");
+        if (name.length() > 100) {
+            throw new IllegalArgumentException("产品名称不能超过100个字符");
+        }
+        String category = required(record, columns, COLUMN_CATEGORY, "产品分类");
+        if (!categories.contains(category)) {
+            throw new IllegalArgumentException("产品分类不存在: " + category);
+        }
+        String image = value(record, columns, COLUMN_IMAGE);
+        if (image != null && image.length() > 255) {
+            throw new IllegalArgumentException("图片地址不能超过255个字符");
+        }
+        String description = text(record, columns, COLUMN_DESCRIPTION, "产品描述");
+        String application = text(record, columns, COLUMN_APPLICATION, "应用领域");
+        Integer sort = integer(record, columns, COLUMN_SORT, "排序值", 0);
+        if (sort < 0) {
+            throw new IllegalArgumentException("排序值不能为负数");
+        }
+        Integer status = integer(record, columns, COLUMN_STATUS, "状态", 1);
+        if (status != 0 && status != 1) {
+            throw new IllegalArgumentException("状态只能是0或1");
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return new Object[]{id, name, category, description, specifications(record, columns),
+                application, image, sort, status, now, now};
+    }
+
+    /**
+     * 规格列为JSON数组，如[{"name":"长度","value":"10","unit":"mm"}]，校验后重新写为规范的JSON
+     */
+    private static String specifications(List<String> record, Map<String, Integer> columns) {
+        String json = value(record, columns, COLUMN_SPECIFICATIONS);
+        if (json == null) {
+            return "[]";
+        }
+        try {
+            List<ProductSpecification> specifications = JsonCodec.SPECIFICATIONS_READER.readValue(json);
+            return JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(specifications != null ? specifications : new ArrayList<>());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("规格格式错误，应为JSON数组: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String required(List<String> record, Map<String, Integer> columns, String column, String label) {
+        String value = value(record, columns, column);
+        if (value == null) {
+            throw new IllegalArgumentException(label + "不能为空");
+        }
+        return value;
+    }
+
+    /**
+     * 获取TEXT列的值，按UTF-8编码后的字节数校验长度，中文每个字占3字节
+     */
+    private static String text(List<String> record, Map<String, Integer> columns, String column, String label) {
+        String value = value(record, columns, column);
+        // 每个char编码后最多3字节，char数不超过上限的三分之一时不需要编码
+        if (value != null && value.length() * 3 > MAX_TEXT_BYTES
+                && value.getBytes(StandardCharsets.UTF_8).length > MAX_TEXT_BYTES) {
+            throw new IllegalArgumentException(label + "不能超过" + MAX_TEXT_BYTES + "字节");
+        }
+        return value;
+    }
+
+    private static Integer integer(List<String> record, Map<String, Integer> columns, String column, String label, int defaultValue) {
+        String value = value(record, columns, column);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(label + "必须是整数: " + value);
+        }
+    }
+
+    /**
+     * 获取单元格的值，去掉首尾空白和导出时为防止公式执行加上的单引号，列不存在或值为空时返回null
+     */
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = CsvWriter.stripFormulaPrefix(record.get(index).trim());
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * 列名到列序号的映射，列名不区分大小写，不认识的列被忽略
+     */
+    private static Map<String, Integer> columns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(header.get(i).trim().toLowerCase(), i);
+        }
+        return columns;
+    }
+
+    private static String message(Exception e) {
+        if (e instanceof DataAccessException) {
+            return ((DataAccessException) e).getMostSpecificCause().getMessage();
+        }
+        return e.getMessage();
+    }
+
+    private static void addError(ProductImportResultDTO result, Long row, String message) {
+        if (result.getErrors().size() < MAX_ERRORS) {
+            result.getErrors().add(new ProductImportResultDTO.RowError(row, message));
+        }
+    }
+
+    private static ProductImportResultDTO finish(ProductImportResultDTO result, long start) {
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("产品导入完成, 共{}行, 成功: {}, 失败: {}, 耗时: {}ms",
+                result.getTotal(), result.getImported(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+}
@@ -0,0 +1,273 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.ProductSearchProperties;
+import com.maxxinke.dto.ProductSearchResultDTO;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.exception.BusinessException;
+import com.maxxinke.repository.ProductRepository;
+import com.maxxinke.service.ProductSearchService;
+import com.maxxinke.service.ProductService;
+import com.maxxinke.utils.InvertedIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 产品搜索服务实现类
+ * 启动时从数据库建立全文索引，产品变更事务提交后更新对应的文档，批量变更后在后台全量重建，并定时全量重建；
+ * 全量重建在新的索引上进行，完成后整体替换，重建期间变更的产品在替换后重新索引
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_CATEGORY = "category";
+    private static final String FIELD_SPECIFICATIONS = "specifications";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_APPLICATION = "application";
+    private static final Map<String, Float> FIELD_WEIGHTS = new LinkedHashMap<>();
+
+    static {
+        FIELD_WEIGHTS.put(FIELD_NAME, 3.0f);
+        FIELD_WEIGHTS.put(FIELD_CATEGORY, 2.0f);
+        FIELD_WEIGHTS.put(FIELD_SPECIFICATIONS, 1.5f);
+        FIELD_WEIGHTS.put(FIELD_DESCRIPTION, 1.0f);
+        FIELD_WEIGHTS.put(FIELD_APPLICATION, 1.0f);
+    }
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final TaskScheduler taskScheduler;
+    private final ProductSearchProperties properties;
+
+    private volatile InvertedIndex<ProductAttributes> index = new InvertedIndex<>(FIELD_WEIGHTS);
+    private volatile boolean rebuilding;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile long lastRebuildMillis;
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+
+    /**
+     * 应用启动完成后建立索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 定时全量重建，使其他节点的修改可被搜索到
+     */
+    @Scheduled(initialDelayString = "${product-search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${product-search.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        try {
+            InvertedIndex<ProductAttributes> fresh = new InvertedIndex<>(FIELD_WEIGHTS);
+            for (Product product : productRepository.findAll()) {
+                put(fresh, product);
+            }
+            index = fresh;
+            lastRebuildMillis = System.currentTimeMillis() - start;
+            log.info("产品搜索索引重建完成, 耗时: {}ms, {}", lastRebuildMillis, fresh.getStats());
+        } catch (Exception e) {
+            log.error("重建产品搜索索引失败: {}", e.getMessage());
+        } finally {
+            rebuilding = false;
+        }
+        for (Iterator<Long> it = changedDuringRebuild.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            it.remove();
+            reindex(id);
+        }
+    }
+
+    /**
+     * 产品变更事务提交后更新索引
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.PRODUCT) {
+            return;
+        }
+        if (event.getId() == null) {
+            scheduleRebuild();
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getId());
+        }
+        reindex(event.getId());
+    }
+
+    @Override
+    public Page<ProductSearchResultDTO> search(String query, Integer status, String category, Pageable pageable) {
+        if (query == null || query.trim().isEmpty()) {
+            throw BusinessException.invalidParameter("搜索关键词不能为空");
+        }
+        if (query.length() > properties.getMaxQueryLength()) {
+            throw BusinessException.invalidParameter("搜索关键词不能超过" + properties.getMaxQueryLength() + "个字符");
+        }
+        long start = System.nanoTime();
+        Predicate<ProductAttributes> filter = attributes ->
+                (status == null || status.equals(attributes.status))
+                        && (category == null || category.equals(attributes.category));
+        int offset = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        InvertedIndex.SearchResult<ProductAttributes> result = index.search(query, filter, offset, limit);
+
+        List<Long> ids = new ArrayList<>(result.getHits().size());
+        for (InvertedIndex.Hit<ProductAttributes> hit : result.getHits()) {
+            ids.add(hit.getId());
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productService.getProductsByIds(ids)) {
+            products.put(product.getId(), product);
+        }
+        List<ProductSearchResultDTO> content = new ArrayList<>(ids.size());
+        for (InvertedIndex.Hit<ProductAttributes> hit : result.getHits()) {
+            Product product = products.get(hit.getId());
+            if (product == null) {
+                // 索引尚未收到删除事件的产品
+                continue;
+            }
+            ProductSearchResultDTO dto = new ProductSearchResultDTO();
+            dto.setProduct(product);
+            dto.setScore(hit.getScore());
+            dto.setHighlights(highlights(hit, result.getTerms()));
+            content.add(dto);
+        }
+        queryCount.increment();
+        queryNanos.add(System.nanoTime() - start);
+        return new PageImpl<>(content, pageable, result.getTotal());
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(index.getStats());
+        long queries = queryCount.sum();
+        stats.put("queries", queries);
+        stats.put("avgQueryMicros", queries == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queryNanos.sum() / queries));
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("rebuilding", rebuilding);
+        return stats;
+    }
+
+    /**
+     * 批量变更（如导入产品）后在定时任务线程中全量重建，不占用发布事件的请求线程；
+     * 已提交但尚未开始的重建不再重复提交，开始后的变更会再提交一次重建
+     */
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                rebuildScheduled.set(false);
+                rebuild();
+            }, Instant.now());
+        }
+    }
+
+    private void reindex(Long id) {
+        try {
+            Product product = productRepository.findById(id).orElse(null);
+            if (product == null) {
+                index.remove(id);
+            } else {
+                put(index, product);
+            }
+        } catch (Exception e) {
+            log.error("更新产品搜索索引失败: {}, 错误: {}", id, e.getMessage());
+        }
+    }
+
+    private static void put(InvertedIndex<ProductAttributes> target, Product product) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put(FIELD_NAME, product.getName());
+        fields.put(FIELD_CATEGORY, product.getCategory());
+        fields.put(FIELD_SPECIFICATIONS, specificationText(product.getSpecifications()));
+        fields.put(FIELD_DESCRIPTION, product.getDescription());
+        fields.put(FIELD_APPLICATION, product.getApplication());
+        target.put(product.getId(), new ProductAttributes(product.getStatus(), product.getCategory()), fields);
+    }
+
+    /**
+     * 将规格拼接为"名称 值单位"的文本，规格之间用分号隔开
+     */
+    private static String specificationText(List<ProductSpecification> specifications) {
+        if (specifications == null || specifications.isEmpty()) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (ProductSpecification specification : specifications) {
+            if (text.length() > 0) {
+                text.append("；");
+            }
+            text.append(Objects.toString(specification.getName(), ""))
+                    .append(' ')
+                    .append(Objects.toString(specification.getValue(), ""))
+                    .append(Objects.toString(specification.getUnit(), ""));
+        }
+        return text.toString();
+    }
+
+    private Map<String, String> highlights(InvertedIndex.Hit<ProductAttributes> hit, List<String> terms) {
+        Map<String, String> highlights = new LinkedHashMap<>();
+        highlights.put(FIELD_NAME, InvertedIndex.highlight(hit.getField(FIELD_NAME), terms, 0));
+        for (String field : new String[]{FIELD_SPECIFICATIONS, FIELD_DESCRIPTION, FIELD_APPLICATION}) {
+            String snippet = InvertedIndex.highlight(hit.getField(field), terms, properties.getSnippetLength());
+            if (snippet != null) {
+                highlights.put(field, snippet);
+            }
+        }
+        return highlights;
+    }
+
+    /**
+     * 搜索过滤使用的产品属性
+     */
+    private static final class ProductAttributes {
+        private final Integer status;
+        private final String category;
+
+        private ProductAttributes(Integer status, String category) {
+            this.status = status;
+            this.category = category;
+        }
+    }
+}
@@ -1,32 +1,101 @@
 package com.maxxinke.service.impl;
 
+import com.maxxinke.config.CatalogCacheProperties;
+import com.maxxinke.dto.CursorPageDTO;
 import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+import com.maxxinke.entity.ProductSpecifications;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.event.ViewCountFlushedEvent;
 import com.maxxinke.exception.BusinessException;
+import com.maxxinke.repository.FieldProjectionRepository;
 import com.maxxinke.repository.ProductRepository;
 import com.maxxinke.service.ProductService;
+import com.maxxinke.service.TrendingService;
+import com.maxxinke.service.ViewCountService;
+import com.maxxinke.utils.FieldSelection;
+import com.maxxinke.utils.LruCache;
+import com.maxxinke.utils.SeekCursor;
+import com.maxxinke.utils.SingleFlight;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 产品服务实现类
  * 实现ProductService接口定义的所有业务方法
+ *
+ * 产品详情、分类列表和各列表的第一页缓存在内存中，缓存的是与数据库会话无关的副本，
+ * 每次返回时再复制一份，调用方修改返回的对象不会影响缓存。
+ * 产品新增、修改、删除和调整排序的事务提交后使缓存失效。
+ * 浏览量不使缓存失效：缓存中的浏览量减去加载时已写入数据库的累计增量保存，返回时再加上当前的累计增量
+ * 和尚未写入的部分，浏览量每次写入后缓存条目保持有效。
+ * 同一条目同时未命中缓存时只有一个请求查询数据库，其他请求等待并共享查询结果。
+ * 只选择部分字段的列表查询不经过缓存，直接按字段投影查询数据库
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    private static final String CURSOR_SCOPE = "product";
+    // 列表可选的字段，description、application为TEXT，specifications为JSON
+    private static final List<String> SELECTABLE_FIELDS = Arrays.asList(
+            "id", "name", "category", "description", "specifications", "application", "image",
+            "sort", "status", "views", "createTime", "updateTime");
+    // 列表默认字段，不含大字段
+    private static final List<String> DEFAULT_FIELDS = Arrays.asList(
+            "name", "category", "image", "sort", "status", "views", "createTime");
+
     private final ProductRepository productRepository;
+    private final FieldProjectionRepository fieldProjectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ViewCountService viewCountService;
+    private final TrendingService trendingService;
+    private final CatalogCacheProperties cacheProperties;
+
+    // 按ID缓存的产品详情
+    private LruCache<Long, Product> productCache;
+    // 按查询条件缓存的产品列表和列表第一页
+    private LruCache<String, CachedList> listCache;
+    // 合并未命中缓存时的并发查询，结果由缓存保留，这里只合并正在进行的查询
+    private final SingleFlight<Long, Product> productLoads = new SingleFlight<>(0);
+    private final SingleFlight<String, CachedList> listLoads = new SingleFlight<>(0);
+    // 按产品ID累计的已写入数据库的浏览量增量，与缓存中的浏览量叠加
+    private final ConcurrentHashMap<Long, FlushedViews> flushedViews = new ConcurrentHashMap<>();
+    // 浏览量写入序号，每次写入加1
+    private final AtomicLong viewFlushSequence = new AtomicLong();
+
+    @PostConstruct
+    public void initCaches() {
+        long ttlMillis = TimeUnit.SECONDS.toMillis(cacheProperties.getTtlSeconds());
+        productCache = new LruCache<>(cacheProperties.getMaxProducts(), ttlMillis);
+        listCache = new LruCache<>(cacheProperties.getMaxLists(), ttlMillis);
+    }
 
     /**
      * 创建产品
@@ -39,6 +108,7 @@ public class ProductServiceImpl implements ProductService {
         try {
             log.info("开始创建产品: {}", product.getName());
             Product savedProduct = productRepository.save(product);
+            publishChanged(savedProduct.getId());
             log.info("产品创建成功: {}", savedProduct.getId());
             return savedProduct;
         } catch (Exception e) {
@@ -87,6 +157,7 @@ public class ProductServiceImpl implements ProductService {
             }
             
             Product updatedProduct = productRepository.save(existingProduct);
+            publishChanged(updatedProduct.getId());
             log.info("产品更新成功: {}", updatedProduct.getId());
             return updatedProduct;
         } catch (BusinessException e) {
@@ -110,6 +181,8 @@ public class ProductServiceImpl implements ProductService {
                 throw new BusinessException("产品不存在，ID: " + id);
             }
             productRepository.deleteById(id);
+            trendingService.removeProduct(id);
+            eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, id, true));
             log.info("产品删除成功: {}", id);
         } catch (BusinessException e) {
             throw e;
@@ -128,8 +201,11 @@ public class ProductServiceImpl implements ProductService {
     public Product getProductById(Long id) {
         try {
             log.debug("获取产品信息: {}", id);
-            return productRepository.findById(id)
-                    .orElseThrow(() -> new BusinessException("产品不存在，ID: " + id));
+            Product product = cachedProduct(id);
+            if (product == null) {
+                throw new BusinessException("产品不存在，ID: " + id);
+            }
+            return product;
         } catch (BusinessException e) {
             throw e;
         } catch (Exception e) {
@@ -147,7 +223,8 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Page<Product> getProductsByStatusAndCategory(Integer status, String category, Pageable pageable) {
-        return productRepository.findByStatusAndCategoryOrderBySortDesc(status, category, pageable);
+        return cachedPage("status-category:" + status + ":" + category, pageable,
+                page -> productRepository.findByStatusAndCategoryOrderBySortDesc(status, category, page));
     }
 
     /**
@@ -158,7 +235,8 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public List<Product> getProductsByStatusAndCategory(Integer status, String category) {
-        return productRepository.findByStatusAndCategoryOrderBySortDesc(status, category);
+        return cachedList("status-category:" + status + ":" + category,
+                () -> productRepository.findByStatusAndCategoryOrderBySortDesc(status, category));
     }
 
     /**
@@ -169,7 +247,8 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Page<Product> getProductsByStatus(Integer status, Pageable pageable) {
-        return productRepository.findByStatusOrderByCreateTimeDesc(status, pageable);
+        return cachedPage("status:" + status, pageable,
+                page -> productRepository.findByStatusOrderByCreateTimeDesc(status, page));
     }
 
     /**
@@ -179,7 +258,7 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public List<Product> getProductsByStatus(Integer status) {
-        return productRepository.findByStatusOrderBySortDesc(status);
+        return cachedList("status:" + status, () -> productRepository.findByStatusOrderBySortDesc(status));
     }
 
     /**
@@ -190,7 +269,8 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public List<Product> getProductsByStatusAndCategoryOrderBySortDescCreateTimeDesc(Integer status, String category) {
-        return productRepository.findByStatusAndCategoryOrderBySortDescCreateTimeDesc(status, category);
+        return cachedList("status-category-created:" + status + ":" + category,
+                () -> productRepository.findByStatusAndCategoryOrderBySortDescCreateTimeDesc(status, category));
     }
 
     /**
@@ -202,38 +282,55 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public Product updateProductSort(Long id, Integer sort) {
-        Product product = getProductById(id);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("产品不存在，ID: " + id));
         product.setSort(sort);
-        return productRepository.save(product);
-    }
-
-    /**
-     * 获取所有产品
-     * @return 产品列表
-     */
-    @Override
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        Product updatedProduct = productRepository.save(product);
+        publishChanged(id);
+        return updatedProduct;
     }
 
-    /**
-     * 根据分类获取产品列表
-     * @param category 产品分类
-     * @return 产品列表
-     */
     @Override
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    public Page<Product> findAll(Pageable pageable) {
+        return cachedPage("all", pageable, productRepository::findAll);
     }
 
     @Override
-    public List<Product> findAll() {
-        return productRepository.findAll();
+    public Page<Map<String, Object>> getProductFields(Integer status, String category, String fields, Pageable pageable) {
+        List<String> selected = selectFields(fields);
+        Map<String, Object> conditions = new LinkedHashMap<>();
+        Sort sort;
+        if (status != null && category != null) {
+            conditions.put("status", status);
+            conditions.put("category", category);
+            sort = Sort.by(Sort.Direction.DESC, "sort");
+        } else if (status != null) {
+            conditions.put("status", status);
+            sort = Sort.by(Sort.Direction.DESC, "createTime");
+        } else {
+            sort = Sort.unsorted();
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SELECTABLE_FIELDS.contains(order.getProperty())) {
+                throw BusinessException.invalidParameter("不支持的排序字段: " + order.getProperty());
+            }
+        }
+        Pageable page = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(pageable.getSort()))
+                : Pageable.unpaged();
+        List<Map<String, Object>> rows = withPendingViews(selected,
+                fieldProjectionRepository.findFields(Product.class, selected, conditions, page));
+        long total = pageable.isPaged() ? fieldProjectionRepository.count(Product.class, conditions) : rows.size();
+        return new PageImpl<>(rows, pageable, total);
     }
 
     @Override
-    public Page<Product> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable);
+    public List<String> selectFields(String fields) {
+        try {
+            return FieldSelection.parse(fields, SELECTABLE_FIELDS, DEFAULT_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw BusinessException.invalidParameter(e.getMessage());
+        }
     }
 
     @Override
@@ -260,18 +357,428 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 按游标获取产品列表
+     * 每页沿(状态, 分类, 排序值, 创建时间)索引范围读取，多查询一条用于判断是否还有下一页；
+     * 各页位置不固定，不使用列表缓存
+     * @param status 产品状态
+     * @param category 产品分类
+     * @param cursor 上一页返回的游标
+     * @param size 每页条数
+     * @return 一页产品
+     */
+    @Override
+    public CursorPageDTO<Product> getProductsAfter(Integer status, String category, String cursor, int size) {
+        SeekCursor after;
+        try {
+            after = SeekCursor.decode(CURSOR_SCOPE, cursor);
+        } catch (IllegalArgumentException e) {
+            throw BusinessException.invalidParameter("分页游标无效");
+        }
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Product> products;
+        if (status != null && category != null) {
+            products = productRepository.findByStatusAndCategoryAfter(status, category,
+                    after.getSort(), after.getCreateTime(), after.getId(), limit);
+        } else if (status != null) {
+            products = productRepository.findByStatusAfter(status, after.getSort(), after.getCreateTime(), after.getId(), limit);
+        } else {
+            products = productRepository.findAfter(after.getSort(), after.getCreateTime(), after.getId(), limit);
+        }
+        return CursorPageDTO.of(withPendingViews(products), size,
+                product -> SeekCursor.of(product.getSort(), product.getCreateTime(), product.getId()).encode(CURSOR_SCOPE));
+    }
+
+    /**
+     * 按ID批量获取产品，优先从缓存读取
+     * @param ids 产品ID列表
+     * @return 按ID顺序排列的产品列表，已不存在的产品被跳过
+     */
+    @Override
+    public List<Product> getProductsByIds(List<Long> ids) {
+        return cachedProducts(ids);
+    }
+
+    /**
+     * 获取热门产品
+     * 按近期浏览的衰减热度排序，热度排行中的已上架产品不足时用总浏览量最高的产品补足
+     * @param limit 返回的产品数量
+     * @return 热门产品列表
+     */
     @Override
     public List<Product> getHotProducts(int limit) {
-        return productRepository.findHotProducts(PageRequest.of(0, limit));
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<Product> hotProducts = new ArrayList<>(limit);
+        for (Product product : cachedProducts(trendingService.getTrendingProductIds(limit))) {
+            if (product.getStatus() == 1) {
+                hotProducts.add(product);
+            }
+        }
+        if (hotProducts.size() < limit) {
+            List<Long> ranked = hotProducts.stream().map(Product::getId).collect(Collectors.toList());
+            for (Product product : productRepository.findHotProducts(PageRequest.of(0, limit))) {
+                if (hotProducts.size() >= limit) {
+                    break;
+                }
+                if (!ranked.contains(product.getId())) {
+                    hotProducts.add(withPendingViews(product));
+                }
+            }
+        }
+        return hotProducts;
     }
 
+    /**
+     * 增加产品浏览量
+     * 浏览量在内存中累加后批量写入数据库，不读取产品实体
+     * @param productId 产品ID
+     */
     @Override
-    @Transactional
     public void incrementViews(Long productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        product.setViews(product.getViews() + 1);
-        productRepository.save(product);
+        viewCountService.incrementProductViews(productId);
+        trendingService.recordProductView(productId);
+    }
+
+    /**
+     * 在产品浏览量上加上尚未写入数据库的部分
+     * @param product 产品对象
+     * @return 同一产品对象
+     */
+    private Product withPendingViews(Product product) {
+        long pending = viewCountService.getPendingProductViews(product.getId());
+        if (pending > 0) {
+            product.setViews(product.getViews() + pending);
+        }
+        return product;
+    }
+
+    private List<Map<String, Object>> withPendingViews(List<String> fields, List<Map<String, Object>> rows) {
+        if (fields.contains("views")) {
+            for (Map<String, Object> row : rows) {
+                long pending = viewCountService.getPendingProductViews((Long) row.get("id"));
+                if (pending > 0) {
+                    row.put("views", (Long) row.get("views") + pending);
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products", productCache.getStats());
+        stats.put("lists", listCache.getStats());
+        stats.put("productLoads", productLoads.getStats());
+        stats.put("listLoads", listLoads.getStats());
+        stats.put("flushedViews", flushedViews.size());
+        return stats;
+    }
+
+    /**
+     * 产品变更事务提交后使缓存失效
+     * 提交前其他请求查到的旧数据因缓存版本号已变化不会被写回缓存；
+     * 产品删除后不再需要叠加该产品的写入增量，全部失效后清空累计的增量
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.PRODUCT) {
+            return;
+        }
+        if (event.getId() != null) {
+            productCache.invalidate(event.getId());
+            productLoads.forget(event.getId());
+        } else {
+            productCache.invalidateAll();
+            productLoads.forgetAll();
+        }
+        invalidateLists();
+        if (event.getId() == null) {
+            clearFlushedViews();
+        } else if (event.isDeleted()) {
+            flushedViews.remove(event.getId());
+        }
+    }
+
+    /**
+     * 浏览量写入数据库后累加到叠加的增量中，缓存条目不失效
+     * 先以下一个序号记录增量再更新序号，查询期间记录过增量的产品一定能被{@link #viewsFlushedSince}发现
+     * @param event 浏览量写入事件
+     */
+    @EventListener
+    public synchronized void onViewCountFlushed(ViewCountFlushedEvent event) {
+        if (event.getType() != ContentChangedEvent.ContentType.PRODUCT) {
+            return;
+        }
+        long sequence = viewFlushSequence.get() + 1;
+        event.getDeltas().forEach((id, delta) -> flushedViews.merge(id, new FlushedViews(delta, sequence),
+                (previous, added) -> new FlushedViews(previous.total + added.total, sequence)));
+        viewFlushSequence.set(sequence);
+    }
+
+    /**
+     * 清空累计的写入增量和写入序号
+     * 缓存失效到清空之间写入缓存的副本可能已减去清空前的增量，清空后再使缓存失效一次，
+     * 保证之后缓存的副本都是在清空之后查询的
+     */
+    private synchronized void clearFlushedViews() {
+        flushedViews.clear();
+        viewFlushSequence.set(0);
+        productCache.invalidateAll();
+        invalidateLists();
+    }
+
+    private void invalidateLists() {
+        listCache.invalidateAll();
+        listLoads.forgetAll();
+    }
+
+    /**
+     * 从缓存获取产品详情，未缓存时查询数据库
+     * @param id 产品ID
+     * @return 产品副本，不存在时返回null
+     */
+    private Product cachedProduct(Long id) {
+        Product cached = productCache.get(id);
+        if (cached == null) {
+            cached = productLoads.load(id, () -> {
+                long version = productCache.version();
+                long sequence = viewFlushSequence.get();
+                Product loaded = productRepository.findById(id).orElse(null);
+                if (loaded == null) {
+                    return null;
+                }
+                Product copy = toCached(loaded);
+                if (!viewsFlushedSince(id, sequence)) {
+                    productCache.put(id, copy, version);
+                }
+                return copy;
+            });
+            if (cached == null) {
+                return null;
+            }
+        }
+        return fromCached(cached);
+    }
+
+    /**
+     * 按ID顺序批量获取产品详情，未缓存的产品一次查询数据库
+     * @param ids 产品ID列表
+     * @return 产品副本列表，已不存在的产品被跳过
+     */
+    private List<Product> cachedProducts(List<Long> ids) {
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Product cached = productCache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long version = productCache.version();
+            long sequence = viewFlushSequence.get();
+            for (Product loaded : productRepository.findAllById(missing)) {
+                Product cached = toCached(loaded);
+                if (!viewsFlushedSince(cached.getId(), sequence)) {
+                    productCache.put(cached.getId(), cached, version);
+                }
+                found.put(cached.getId(), cached);
+            }
+        }
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product cached = found.get(id);
+            if (cached != null) {
+                products.add(fromCached(cached));
+            }
+        }
+        return products;
+    }
+
+    /**
+     * 从缓存获取产品列表，未缓存时查询数据库
+     * @param key 缓存键
+     * @param loader 查询方法
+     * @return 产品副本列表
+     */
+    private List<Product> cachedList(String key, Supplier<List<Product>> loader) {
+        CachedList cached = listCache.get(key);
+        if (cached == null) {
+            cached = listLoads.load(key, () -> {
+                long version = listCache.version();
+                long sequence = viewFlushSequence.get();
+                List<Product> loaded = loader.get();
+                CachedList list = new CachedList(toCached(loaded), loaded.size());
+                if (!viewsFlushedSince(loaded, sequence)) {
+                    listCache.put(key, list, version);
+                }
+                return list;
+            });
+        }
+        return fromCached(cached.products);
+    }
+
+    /**
+     * 分页获取产品，只缓存第一页
+     * @param key 查询条件对应的缓存键
+     * @param pageable 分页参数
+     * @param loader 分页查询方法
+     * @return 产品分页对象
+     */
+    private Page<Product> cachedPage(String key, Pageable pageable, Function<Pageable, Page<Product>> loader) {
+        if (pageable.isUnpaged() || pageable.getPageNumber() != 0) {
+            Page<Product> page = loader.apply(pageable);
+            page.forEach(this::withPendingViews);
+            return page;
+        }
+        String pageKey = "page:" + key + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+        CachedList cached = listCache.get(pageKey);
+        if (cached == null) {
+            cached = listLoads.load(pageKey, () -> {
+                long version = listCache.version();
+                long sequence = viewFlushSequence.get();
+                Page<Product> loaded = loader.apply(pageable);
+                CachedList list = new CachedList(toCached(loaded.getContent()), loaded.getTotalElements());
+                if (!viewsFlushedSince(loaded.getContent(), sequence)) {
+                    listCache.put(pageKey, list, version);
+                }
+                return list;
+            });
+        }
+        return new PageImpl<>(fromCached(cached.products), pageable, cached.total);
+    }
+
+    private List<Product> withPendingViews(List<Product> products) {
+        products.forEach(this::withPendingViews);
+        return products;
+    }
+
+    /**
+     * 复制查询到的产品用于缓存，浏览量减去当前已累计的写入增量
+     * @param loaded 查询到的产品
+     * @return 缓存副本
+     */
+    private Product toCached(Product loaded) {
+        Product copy = copyOf(loaded);
+        FlushedViews flushed = flushedViews.get(copy.getId());
+        if (flushed != null && copy.getViews() != null) {
+            copy.setViews(copy.getViews() - flushed.total);
+        }
+        return copy;
+    }
+
+    private List<Product> toCached(List<Product> loaded) {
+        List<Product> copies = new ArrayList<>(loaded.size());
+        for (Product product : loaded) {
+            copies.add(toCached(product));
+        }
+        return copies;
+    }
+
+    /**
+     * 复制缓存的产品用于返回，浏览量加上当前已累计的写入增量和尚未写入的部分
+     * @param cached 缓存副本
+     * @return 产品副本
+     */
+    private Product fromCached(Product cached) {
+        Product copy = copyOf(cached);
+        FlushedViews flushed = flushedViews.get(copy.getId());
+        if (flushed != null && copy.getViews() != null) {
+            copy.setViews(copy.getViews() + flushed.total);
+        }
+        return withPendingViews(copy);
+    }
+
+    private List<Product> fromCached(List<Product> cached) {
+        List<Product> copies = new ArrayList<>(cached.size());
+        for (Product product : cached) {
+            copies.add(fromCached(product));
+        }
+        return copies;
+    }
+
+    /**
+     * 查询期间产品的浏览量是否有写入
+     * 此时无法确定查询结果是否已包含这次写入的增量，结果照常返回但不写入缓存
+     * @param id 产品ID
+     * @param sequence 查询数据库之前读取的浏览量写入序号
+     * @return true表示有写入
+     */
+    private boolean viewsFlushedSince(Long id, long sequence) {
+        FlushedViews flushed = flushedViews.get(id);
+        return flushed != null && flushed.sequence > sequence;
+    }
+
+    private boolean viewsFlushedSince(List<Product> products, long sequence) {
+        for (Product product : products) {
+            if (viewsFlushedSince(product.getId(), sequence)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 复制产品，规格列表也复制一份；从数据库读取且未修改的规格列表共享解析结果，不会触发解析
+     * @param source 源产品
+     * @return 产品副本
+     */
+    private static Product copyOf(Product source) {
+        Product copy = new Product();
+        BeanUtils.copyProperties(source, copy);
+        if (source.getSpecifications() instanceof ProductSpecifications) {
+            copy.setSpecifications(((ProductSpecifications) source.getSpecifications()).copy());
+        } else if (source.getSpecifications() != null) {
+            List<ProductSpecification> specifications = new ArrayList<>(source.getSpecifications().size());
+            for (ProductSpecification specification : source.getSpecifications()) {
+                ProductSpecification specificationCopy = new ProductSpecification();
+                BeanUtils.copyProperties(specification, specificationCopy);
+                specifications.add(specificationCopy);
+            }
+            copy.setSpecifications(specifications);
+        }
+        return copy;
+    }
+
+
+    /**
+     * 产品已写入数据库的浏览量累计增量及最近一次写入的序号
+     */
+    private static final class FlushedViews {
+        private final long total;
+        private final long sequence;
+
+        private FlushedViews(long total, long sequence) {
+            this.total = total;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * 缓存的产品列表及符合条件的总数
+     */
+    private static final class CachedList {
+        private final List<Product> products;
+        private final long total;
+
+        private CachedList(List<Product> products, long total) {
+            this.products = products;
+            this.total = total;
+        }
+    }
+
+    /**
+     * 发布产品变更事件
+     * @param id 产品ID
+     */
+    private void publishChanged(Long id) {
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, id));
     }
 
     @Override
@@ -0,0 +1,222 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.dto.TopPathDTO;
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.entity.VisitTopPath;
+import com.maxxinke.repository.VisitTopPathRepository;
+import com.maxxinke.service.TopPathService;
+import com.maxxinke.utils.CountMinSketch;
+import com.maxxinke.utils.SpaceSaving;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 热门页面统计服务实现类
+ * 内存中为最近7天每天保留一份Space-Saving计数表和Count-Min估算，
+ * 报告的访问量取两者中较小的值；定时将每天的热门页面写入visit_top_paths表，
+ * 重启后从表中恢复，查询时合并其他节点写入的数据
+ */
+@Slf4j
+@Service
+public class TopPathServiceImpl implements TopPathService {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int MAX_PATH_LENGTH = 255;
+    private static final String INSERT_TOP_PATH = "INSERT INTO visit_top_paths " +
+            "(bucket_date, path, node, visit_count, error_bound, update_time) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final VisitTopPathRepository visitTopPathRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitLogProperties properties;
+    private final String node;
+
+    private final Map<LocalDate, DayTopPaths> days = new ConcurrentHashMap<>();
+
+    public TopPathServiceImpl(VisitTopPathRepository visitTopPathRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              VisitLogProperties properties) {
+        this.visitTopPathRepository = visitTopPathRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.node = properties.resolveNodeId();
+    }
+
+    /**
+     * 启动时加载本节点最近7天的热门页面数据
+     */
+    @PostConstruct
+    public void load() {
+        LocalDate today = LocalDate.now();
+        try {
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                LocalDate day = today.minusDays(i);
+                List<VisitTopPath> rows = visitTopPathRepository.findByBucketDateAndNode(day, node);
+                if (rows.isEmpty()) {
+                    continue;
+                }
+                DayTopPaths topPaths = dayTopPaths(day);
+                for (VisitTopPath row : rows) {
+                    topPaths.summary.offer(row.getPath(), row.getVisitCount());
+                    topPaths.sketch.add(row.getPath(), row.getVisitCount());
+                }
+            }
+            log.info("热门页面数据加载完成, 节点: {}, 天数: {}", node, days.size());
+        } catch (Exception e) {
+            log.error("加载热门页面数据失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Override
+    public void offer(VisitLog visitLog) {
+        String path = visitLog.getPath();
+        if (path == null || path.isEmpty() || path.length() > MAX_PATH_LENGTH) {
+            return;
+        }
+        LocalDate day = visitLog.getCreateTime().toLocalDate();
+        if (day.isBefore(LocalDate.now().minusDays(WINDOW_DAYS - 1))) {
+            return;
+        }
+        DayTopPaths topPaths = dayTopPaths(day);
+        topPaths.summary.offer(path, 1);
+        topPaths.sketch.add(path, 1);
+        topPaths.dirty = true;
+    }
+
+    @Override
+    public List<TopPathDTO> getDailyTopPaths(LocalDate date, int limit) {
+        return topPaths(date, date, limit);
+    }
+
+    @Override
+    public List<TopPathDTO> getWeeklyTopPaths(int limit) {
+        LocalDate today = LocalDate.now();
+        return topPaths(today.minusDays(WINDOW_DAYS - 1), today, limit);
+    }
+
+    /**
+     * 合并日期范围内本节点内存数据与数据库中的数据，返回访问量最高的页面
+     */
+    private List<TopPathDTO> topPaths(LocalDate start, LocalDate end, int limit) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (VisitTopPath row : visitTopPathRepository.findByBucketDateBetween(start, end)) {
+            if (node.equals(row.getNode()) && days.containsKey(row.getBucketDate())) {
+                // 本节点内存中的数据更新，跳过数据库中的旧数据
+                continue;
+            }
+            long[] total = totals.computeIfAbsent(row.getPath(), p -> new long[2]);
+            total[0] += row.getVisitCount();
+            total[1] += row.getErrorBound();
+        }
+
+        List<DayTopPaths> memoryDays = days.entrySet().stream()
+                .filter(entry -> !entry.getKey().isBefore(start) && !entry.getKey().isAfter(end))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        for (DayTopPaths topPaths : memoryDays) {
+            for (SpaceSaving.Counter<String> counter : topPaths.summary.top(properties.getTopPathCapacity())) {
+                totals.putIfAbsent(counter.getKey(), new long[2]);
+            }
+        }
+        // 页面在某天未进入候选表时，用该天的Count-Min估算值补足
+        totals.forEach((path, total) -> {
+            for (DayTopPaths topPaths : memoryDays) {
+                long estimate = topPaths.sketch.estimate(path);
+                SpaceSaving.Counter<String> counter = topPaths.summary.get(path);
+                if (counter != null) {
+                    total[0] += Math.min(counter.getCount(), estimate);
+                    total[1] += counter.getError();
+                } else {
+                    total[0] += estimate;
+                }
+            }
+        });
+
+        return totals.entrySet().stream()
+                .filter(entry -> entry.getValue()[0] > 0)
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .limit(Math.max(limit, 0))
+                .map(entry -> {
+                    TopPathDTO dto = new TopPathDTO();
+                    dto.setPath(entry.getKey());
+                    dto.setCount(entry.getValue()[0]);
+                    dto.setErrorBound(entry.getValue()[1]);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 定时将有变化的每日热门页面写入数据库，并移除超出7天窗口的内存数据
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${visit-log.top-path-flush-interval-ms:60000}")
+    public void flush() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        days.forEach((day, topPaths) -> {
+            if (!topPaths.dirty) {
+                return;
+            }
+            topPaths.dirty = false;
+            List<Object[]> rows = new ArrayList<>();
+            for (SpaceSaving.Counter<String> counter : topPaths.summary.top(properties.getTopPathCapacity())) {
+                long count = Math.min(counter.getCount(), topPaths.sketch.estimate(counter.getKey()));
+                rows.add(new Object[]{Date.valueOf(day), counter.getKey(), node, count, counter.getError(), now});
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("DELETE FROM visit_top_paths WHERE bucket_date = ? AND node = ?",
+                            Date.valueOf(day), node);
+                    jdbcTemplate.batchUpdate(INSERT_TOP_PATH, rows);
+                });
+            } catch (Exception e) {
+                topPaths.dirty = true;
+                log.error("写入热门页面数据失败: {}, 错误: {}", day, e.getMessage());
+            }
+        });
+        LocalDate windowStart = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        days.keySet().removeIf(day -> day.isBefore(windowStart));
+    }
+
+    private DayTopPaths dayTopPaths(LocalDate day) {
+        return days.computeIfAbsent(day, d -> new DayTopPaths(properties.getTopPathCapacity()));
+    }
+
+    /**
+     * 单日的热门页面候选表和访问次数估算
+     */
+    private static final class DayTopPaths {
+        private final SpaceSaving<String> summary;
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        private volatile boolean dirty;
+
+        private DayTopPaths(int capacity) {
+            this.summary = new SpaceSaving<>(capacity);
+        }
+    }
+}
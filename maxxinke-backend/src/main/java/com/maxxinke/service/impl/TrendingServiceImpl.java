@@ -0,0 +1,154 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.TrendingProperties;
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.entity.ContentTrendingScore;
+import com.maxxinke.repository.ContentTrendingScoreRepository;
+import com.maxxinke.service.TrendingService;
+import com.maxxinke.utils.DecayingTopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 内容热度排行服务实现类
+ * 产品和新闻各维护一份按时间衰减的热度排行，每次浏览增加1点热度；
+ * 定时将每种内容热度最高的部分写入content_trending_scores表，启动时恢复本节点的数据
+ */
+@Slf4j
+@Service
+public class TrendingServiceImpl implements TrendingService {
+
+    private static final String INSERT_SCORE = "INSERT INTO content_trending_scores " +
+            "(node, entity_type, content_id, score, update_time) VALUES (?, ?, ?, ?, ?)";
+
+    private final ContentTrendingScoreRepository contentTrendingScoreRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrendingProperties properties;
+    private final String node;
+    private final DecayingTopK products;
+    private final DecayingTopK news;
+
+    public TrendingServiceImpl(ContentTrendingScoreRepository contentTrendingScoreRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               TrendingProperties properties,
+                               VisitLogProperties visitLogProperties) {
+        this.contentTrendingScoreRepository = contentTrendingScoreRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.node = visitLogProperties.resolveNodeId();
+        long halfLifeMillis = TimeUnit.MINUTES.toMillis(properties.getHalfLifeMinutes());
+        long now = System.currentTimeMillis();
+        this.products = new DecayingTopK(halfLifeMillis, properties.getTopSize(), properties.getMaxTrackedIds(), now);
+        this.news = new DecayingTopK(halfLifeMillis, properties.getTopSize(), properties.getMaxTrackedIds(), now);
+    }
+
+    /**
+     * 启动时加载本节点保存的热度，按保存后经过的时间衰减
+     */
+    @PostConstruct
+    public void load() {
+        try {
+            long now = System.currentTimeMillis();
+            double decayPerMilli = Math.log(2) / TimeUnit.MINUTES.toMillis(properties.getHalfLifeMinutes());
+            List<ContentTrendingScore> rows = contentTrendingScoreRepository.findByNode(node);
+            for (ContentTrendingScore row : rows) {
+                long savedMillis = row.getUpdateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                double score = row.getScore() * Math.exp(-decayPerMilli * Math.max(0, now - savedMillis));
+                DecayingTopK ranking = ContentTrendingScore.TYPE_NEWS.equals(row.getEntityType()) ? news : products;
+                ranking.add(row.getContentId(), score, now);
+            }
+            log.info("内容热度数据加载完成, 节点: {}, 条数: {}", node, rows.size());
+        } catch (Exception e) {
+            log.error("加载内容热度数据失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    @Override
+    public void recordProductView(Long productId) {
+        if (productId != null) {
+            products.add(productId, 1, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public void recordNewsView(Long newsId) {
+        if (newsId != null) {
+            news.add(newsId, 1, System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public List<Long> getTrendingProductIds(int limit) {
+        return ids(products, limit);
+    }
+
+    @Override
+    public List<Long> getTrendingNewsIds(int limit) {
+        return ids(news, limit);
+    }
+
+    @Override
+    public void removeProduct(Long productId) {
+        products.remove(productId);
+    }
+
+    @Override
+    public void removeNews(Long newsId) {
+        news.remove(newsId);
+    }
+
+    /**
+     * 定时保存每种内容热度最高的部分，覆盖本节点上一次保存的数据
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        long nowMillis = System.currentTimeMillis();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        collect(rows, ContentTrendingScore.TYPE_PRODUCT, products, nowMillis, now);
+        collect(rows, ContentTrendingScore.TYPE_NEWS, news, nowMillis, now);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM content_trending_scores WHERE node = ?", node);
+                jdbcTemplate.batchUpdate(INSERT_SCORE, rows);
+            });
+            log.debug("写入内容热度快照: {}条", rows.size());
+        } catch (Exception e) {
+            log.error("写入内容热度快照失败: {}", e.getMessage());
+        }
+    }
+
+    private void collect(List<Object[]> rows, String type, DecayingTopK ranking, long nowMillis, Timestamp now) {
+        for (DecayingTopK.Scored scored : ranking.snapshot(properties.getSnapshotSize(), nowMillis)) {
+            rows.add(new Object[]{node, type, scored.getId(), scored.getScore(), now});
+        }
+    }
+
+    private static List<Long> ids(DecayingTopK ranking, int limit) {
+        return ranking.top(Math.max(limit, 0), System.currentTimeMillis()).stream()
+                .map(DecayingTopK.Scored::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,226 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.entity.UserAgent;
+import com.maxxinke.service.UserAgentService;
+import com.maxxinke.utils.HyperLogLog;
+import com.maxxinke.utils.UserAgentClassifier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * User-Agent字典服务实现类
+ * 内存中按最近使用顺序缓存User-Agent的字典ID和分类结果，缓存按哈希分段加锁，超出容量时淘汰最久未使用的条目；
+ * 未缓存的User-Agent分类只需本地计算，字典ID在后台写入线程中批量查询或写入数据库，请求线程不访问数据库。
+ * 历史访问日志中的User-Agent原文由定时任务分批转换为字典ID
+ */
+@Slf4j
+@Service
+public class UserAgentServiceImpl implements UserAgentService {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int COMPACT_BATCH_SIZE = 1000;
+    private static final int COMPACT_BATCHES_PER_RUN = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder insertCount = new LongAdder();
+    private final LongAdder compactedCount = new LongAdder();
+
+    private long compactCursor;
+    private volatile boolean compactFinished;
+
+    public UserAgentServiceImpl(JdbcTemplate jdbcTemplate, VisitLogProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        int segmentCapacity = Math.max(1, properties.getUserAgentCacheSize() / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    @Override
+    public int classify(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UserAgentClassifier.classify(userAgent);
+        }
+        return entry(userAgent).category;
+    }
+
+    @Override
+    public boolean isBot(String userAgent) {
+        return classify(userAgent) == UserAgent.CATEGORY_BOT;
+    }
+
+    @Override
+    public Map<String, Long> resolveIds(Collection<String> userAgents) {
+        Map<String, Long> result = new HashMap<>();
+        Map<Long, CachedAgent> missing = new LinkedHashMap<>();
+        Set<String> distinct = new LinkedHashSet<>(userAgents);
+        for (String userAgent : distinct) {
+            if (userAgent == null || userAgent.isEmpty()) {
+                continue;
+            }
+            CachedAgent entry = entry(userAgent);
+            if (entry.id != null) {
+                result.put(userAgent, entry.id);
+            } else {
+                missing.put(HyperLogLog.hash64(userAgent), entry);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // 先写入字典中不存在的条目，再按哈希值统一查出ID
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        StringBuilder insert = new StringBuilder("INSERT IGNORE INTO user_agents (ua_hash, user_agent, category, create_time) VALUES ");
+        StringBuilder select = new StringBuilder("SELECT id, ua_hash, user_agent FROM user_agents WHERE ua_hash IN (");
+        List<Object> insertArgs = new ArrayList<>(missing.size() * 4);
+        int i = 0;
+        for (Map.Entry<Long, CachedAgent> item : missing.entrySet()) {
+            insert.append(i > 0 ? ",(?, ?, ?, ?)" : "(?, ?, ?, ?)");
+            select.append(i > 0 ? ",?" : "?");
+            insertArgs.add(item.getKey());
+            insertArgs.add(item.getValue().userAgent);
+            insertArgs.add(item.getValue().category);
+            insertArgs.add(now);
+            i++;
+        }
+        select.append(')');
+        insertCount.add(jdbcTemplate.update(insert.toString(), insertArgs.toArray()));
+        jdbcTemplate.query(select.toString(), rs -> {
+            CachedAgent entry = missing.get(rs.getLong("ua_hash"));
+            if (entry == null) {
+                return;
+            }
+            if (!entry.userAgent.equals(rs.getString("user_agent"))) {
+                log.warn("User-Agent哈希冲突, 不记录字典ID: {}", entry.userAgent);
+                return;
+            }
+            entry.id = rs.getLong("id");
+            result.put(entry.userAgent, entry.id);
+        }, missing.keySet().toArray());
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("hits", hitCount.sum());
+        stats.put("misses", missCount.sum());
+        stats.put("inserted", insertCount.sum());
+        stats.put("compacted", compactedCount.sum());
+        stats.put("compactFinished", compactFinished);
+        return stats;
+    }
+
+    /**
+     * 定时将历史访问日志中的User-Agent原文转换为字典ID并清空原文
+     * 按主键分批处理，每次运行处理有限的批数，全部转换完成后不再执行
+     */
+    @Scheduled(initialDelay = 60000, fixedDelay = 60000)
+    public void compactLegacyRows() {
+        if (compactFinished) {
+            return;
+        }
+        try {
+            for (int batch = 0; batch < COMPACT_BATCHES_PER_RUN; batch++) {
+                List<Object[]> rows = jdbcTemplate.query(
+                        "SELECT id, user_agent FROM visit_logs WHERE id > ? AND user_agent IS NOT NULL ORDER BY id LIMIT ?",
+                        (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("user_agent")},
+                        compactCursor, COMPACT_BATCH_SIZE);
+                if (rows.isEmpty()) {
+                    compactFinished = true;
+                    log.info("历史访问日志User-Agent转换完成, 共转换: {}条", compactedCount.sum());
+                    return;
+                }
+                List<String> userAgents = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    userAgents.add((String) row[1]);
+                }
+                Map<String, Long> ids = resolveIds(userAgents);
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    updates.add(new Object[]{ids.get((String) row[1]), row[0]});
+                }
+                jdbcTemplate.batchUpdate("UPDATE visit_logs SET user_agent_id = ?, user_agent = NULL WHERE id = ?", updates);
+                compactCursor = (Long) rows.get(rows.size() - 1)[0];
+                compactedCount.add(rows.size());
+            }
+        } catch (Exception e) {
+            log.error("转换历史访问日志User-Agent失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取User-Agent的缓存条目，未缓存时计算分类并放入缓存
+     */
+    private CachedAgent entry(String userAgent) {
+        Segment segment = segments[(userAgent.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+        synchronized (segment) {
+            CachedAgent entry = segment.entries.get(userAgent);
+            if (entry != null) {
+                hitCount.increment();
+                return entry;
+            }
+            missCount.increment();
+            entry = new CachedAgent(userAgent, UserAgentClassifier.classify(userAgent));
+            segment.entries.put(userAgent, entry);
+            return entry;
+        }
+    }
+
+    /**
+     * 缓存分段，按访问顺序排列，超出容量时淘汰最久未使用的条目
+     */
+    private static final class Segment {
+        private final LinkedHashMap<String, CachedAgent> entries;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<String, CachedAgent>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedAgent> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * User-Agent的字典ID和分类结果，字典ID在首次写入数据库后填充
+     */
+    private static final class CachedAgent {
+        private final String userAgent;
+        private final int category;
+        private volatile Long id;
+
+        private CachedAgent(String userAgent, int category) {
+            this.userAgent = userAgent;
+            this.category = category;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.ViewCounterProperties;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.event.ViewCountFlushedEvent;
+import com.maxxinke.service.ViewCountService;
+import com.maxxinke.utils.DeltaCounter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 浏览量计数服务实现类
+ * 浏览请求只在内存中累加，不读取实体也不访问数据库；定时任务按ID升序生成
+ * "views = views + ?"的批量更新，多个节点同时写入时不会丢失计数，也不会因加锁顺序不同而死锁。
+ * 写入提交后发布{@link ViewCountFlushedEvent}，供缓存了浏览量的组件更新叠加的增量或使对应条目失效；应用关闭时写入剩余的累加值
+ */
+@Slf4j
+@Service
+public class ViewCountServiceImpl implements ViewCountService {
+
+    private static final String UPDATE_PRODUCT_VIEWS = "UPDATE product SET views = views + ? WHERE id = ?";
+    private static final String UPDATE_NEWS_VIEWS = "UPDATE news SET views = views + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeltaCounter productViews;
+    private final DeltaCounter newsViews;
+
+    public ViewCountServiceImpl(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                ViewCounterProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.productViews = new DeltaCounter(properties.getMaxPendingIds());
+        this.newsViews = new DeltaCounter(properties.getMaxPendingIds());
+    }
+
+    @Override
+    public void incrementProductViews(Long productId) {
+        productViews.add(productId, 1);
+    }
+
+    @Override
+    public void incrementNewsViews(Long newsId) {
+        newsViews.add(newsId, 1);
+    }
+
+    @Override
+    public long getPendingProductViews(Long productId) {
+        return productId == null ? 0 : productViews.get(productId);
+    }
+
+    @Override
+    public long getPendingNewsViews(Long newsId) {
+        return newsId == null ? 0 : newsViews.get(newsId);
+    }
+
+    /**
+     * 定时写入累加的浏览量，写入失败的累加值保留到下次重试
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${view-counter.flush-interval-ms:5000}")
+    public void flush() {
+        flush(ContentChangedEvent.ContentType.PRODUCT, productViews, UPDATE_PRODUCT_VIEWS);
+        flush(ContentChangedEvent.ContentType.NEWS, newsViews, UPDATE_NEWS_VIEWS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("product", productViews.getStats());
+        stats.put("news", newsViews.getStats());
+        return stats;
+    }
+
+    private void flush(ContentChangedEvent.ContentType type, DeltaCounter counter, String sql) {
+        try {
+            int written = counter.flush(deltas -> {
+                List<Object[]> rows = new ArrayList<>(deltas.size());
+                deltas.forEach((id, delta) -> rows.add(new Object[]{delta, id}));
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+                // 在清除正在写入的累加值之前通知，失效前读到的旧浏览量仍会加上这部分累加值；
+                // 已提交的累加值不能因通知失败被放回重复写入
+                try {
+                    eventPublisher.publishEvent(new ViewCountFlushedEvent(type, deltas));
+                } catch (RuntimeException e) {
+                    log.warn("通知{}浏览量写入失败: {}", type, e.getMessage());
+                }
+            });
+            if (written > 0) {
+                log.debug("写入{}浏览量: {}条", type, written);
+            }
+        } catch (Exception e) {
+            log.error("写入{}浏览量失败: {}", type, e.getMessage());
+        }
+    }
+}
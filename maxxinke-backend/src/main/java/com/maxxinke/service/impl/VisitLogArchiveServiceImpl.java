@@ -0,0 +1,336 @@
+package com.maxxinke.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.entity.VisitLogArchive;
+import com.maxxinke.exception.BusinessException;
+import com.maxxinke.repository.VisitLogArchiveRepository;
+import com.maxxinke.service.VisitLogArchiveService;
+import com.maxxinke.service.VisitStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 访问日志归档服务实现类
+ *
+ * 归档按月进行：先用访问日志重算该月的汇总数据，再按主键分批读取该月记录，
+ * 逐行写入gzip压缩的NDJSON文件，校验导出条数与表中条数一致后，按主键区间分批删除。
+ * 每批读取和删除都是独立的短语句，不会长时间锁表或占用大量内存。
+ * 汇总表中的数据不受删除影响，访问趋势、总访问量等统计保持不变；
+ * 已归档的月份之后又写入的记录再次归档时导出到单独编号的文件，原归档文件保持不变。
+ * 恢复时按原主键重新写入，重复执行不会产生重复记录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VisitLogArchiveServiceImpl implements VisitLogArchiveService {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String SELECT_BATCH = "SELECT id, path, ip, user_agent, user_agent_id, create_time FROM visit_logs " +
+            "WHERE id > ? AND id <= ? AND create_time >= ? AND create_time < ? ORDER BY id LIMIT ?";
+    private static final String DELETE_BATCH = "DELETE FROM visit_logs " +
+            "WHERE id >= ? AND id < ? AND create_time >= ? AND create_time < ?";
+    private static final String INSERT_PREFIX = "INSERT IGNORE INTO visit_logs (id, path, ip, user_agent, user_agent_id, create_time) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?)";
+    private static final String FILE_SUFFIX = ".ndjson.gz";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VisitLogArchiveRepository visitLogArchiveRepository;
+    private final VisitStatsService visitStatsService;
+    private final VisitLogProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 定时归档超出保留期限的月份
+     * 只处理表中还有记录的月份；从归档文件恢复的月份是有意放回数据库的，不再自动归档，需要时手动归档
+     */
+    @Scheduled(cron = "${visit-log.archive-cron:0 30 3 1 * ?}")
+    public void archiveExpiredMonths() {
+        YearMonth cutoff = YearMonth.now().minusMonths(Math.max(properties.getArchiveRetentionMonths(), 1));
+        try {
+            List<String> months = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT DATE_FORMAT(create_time, '%Y-%m') FROM visit_logs WHERE create_time < ? ORDER BY 1",
+                    String.class, Timestamp.valueOf(cutoff.atDay(1).atStartOfDay()));
+            for (String month : months) {
+                VisitLogArchive archive = visitLogArchiveRepository.findByArchiveMonth(month).orElse(null);
+                if (archive != null && VisitLogArchive.STATUS_RESTORED == archive.getStatus()) {
+                    log.debug("跳过已恢复的月份: {}", month);
+                    continue;
+                }
+                archiveMonth(YearMonth.parse(month));
+            }
+        } catch (Exception e) {
+            log.error("自动归档访问日志失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized VisitLogArchive archiveMonth(YearMonth month) {
+        if (!month.isBefore(YearMonth.now())) {
+            throw BusinessException.invalidParameter("month");
+        }
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Map<String, Object> range = jdbcTemplate.queryForMap(
+                "SELECT MIN(id) AS min_id, MAX(id) AS max_id, COUNT(*) AS row_count FROM visit_logs " +
+                        "WHERE create_time >= ? AND create_time < ?",
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+        long rowCount = ((Number) range.get("row_count")).longValue();
+        VisitLogArchive archive = visitLogArchiveRepository.findByArchiveMonth(month.toString()).orElse(null);
+        if (rowCount == 0) {
+            if (archive == null) {
+                throw new BusinessException("该月份没有访问日志: " + month, HttpStatus.NOT_FOUND);
+            }
+            // 已归档且记录已删除，重复请求直接返回归档记录
+            return archive;
+        }
+        long minId = ((Number) range.get("min_id")).longValue();
+        long maxId = ((Number) range.get("max_id")).longValue();
+        if (archive != null && VisitLogArchive.STATUS_PURGED == archive.getStatus()) {
+            return archiveLateRows(archive, month, minId, maxId, rowCount);
+        }
+
+        // 删除前用完整的访问日志重算该月汇总，保证删除后统计数据准确
+        visitStatsService.rebuild(start, end);
+
+        Path file = archiveFile(month);
+        long exported = export(file, minId, maxId, start, end);
+        if (exported != rowCount) {
+            throw new BusinessException("归档条数校验失败: " + month + ", 表中" + rowCount + "条, 导出" + exported + "条");
+        }
+        if (archive == null) {
+            archive = new VisitLogArchive();
+            archive.setArchiveMonth(month.toString());
+        }
+        archive.setFilePath(file.toString());
+        archive.setRowCount(exported);
+        archive.setStatus(VisitLogArchive.STATUS_EXPORTED);
+        archive = visitLogArchiveRepository.save(archive);
+
+        long deleted = purge(minId, maxId, start, end);
+        archive.setStatus(VisitLogArchive.STATUS_PURGED);
+        archive = visitLogArchiveRepository.save(archive);
+        log.info("访问日志归档完成: {}, 导出: {}条, 删除: {}条, 文件: {}", month, exported, deleted, file);
+        return archive;
+    }
+
+    /**
+     * 归档已删除记录的月份之后又写入的记录
+     * 表中只剩这些迟到的记录，汇总表中保留着已删除记录的数据，不能再用表中的记录重算；
+     * 迟到的记录由访问日志写入服务在写入的同一事务中累加到了汇总表，删除后统计数据不变。
+     * 记录导出到编号递增的单独文件，原归档文件保持不变，恢复时一并读取
+     */
+    private VisitLogArchive archiveLateRows(VisitLogArchive archive, YearMonth month, long minId, long maxId, long rowCount) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path original = Paths.get(archive.getFilePath());
+        int part = 2;
+        while (Files.exists(partFile(original, part))) {
+            part++;
+        }
+        Path file = partFile(original, part);
+        long exported = export(file, minId, maxId, start, end);
+        if (exported != rowCount) {
+            throw new BusinessException("归档条数校验失败: " + month + ", 表中" + rowCount + "条, 导出" + exported + "条");
+        }
+        long deleted = purge(minId, maxId, start, end);
+        archive.setRowCount(archive.getRowCount() + exported);
+        archive = visitLogArchiveRepository.save(archive);
+        log.info("访问日志补充归档完成: {}, 导出: {}条, 删除: {}条, 文件: {}", month, exported, deleted, file);
+        return archive;
+    }
+
+    @Override
+    public synchronized VisitLogArchive restoreMonth(YearMonth month) {
+        VisitLogArchive archive = visitLogArchiveRepository.findByArchiveMonth(month.toString())
+                .orElseThrow(() -> new BusinessException("该月份没有归档记录: " + month));
+        Path original = Paths.get(archive.getFilePath());
+        if (!Files.exists(original)) {
+            throw new BusinessException("归档文件不存在: " + original);
+        }
+        long restored = restoreFile(original);
+        for (int part = 2; Files.exists(partFile(original, part)); part++) {
+            restored += restoreFile(partFile(original, part));
+        }
+        // 汇总数据在归档时已保留，恢复只写回访问日志，不再重复累加汇总表
+        archive.setStatus(VisitLogArchive.STATUS_RESTORED);
+        archive = visitLogArchiveRepository.save(archive);
+        log.info("访问日志恢复完成: {}, 写入: {}条", month, restored);
+        return archive;
+    }
+
+    @Override
+    public List<VisitLogArchive> getArchives() {
+        return visitLogArchiveRepository.findAllByOrderByArchiveMonthDesc();
+    }
+
+    /**
+     * 读取一个归档文件，按原主键分批写回访问日志
+     */
+    private long restoreFile(Path file) {
+        int batchSize = properties.getArchiveBatchSize();
+        long restored = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                batch.add(new Object[]{
+                        node.get("id").asLong(),
+                        textOrNull(node, "path"),
+                        textOrNull(node, "ip"),
+                        textOrNull(node, "userAgent"),
+                        node.hasNonNull("userAgentId") ? node.get("userAgentId").asLong() : null,
+                        Timestamp.valueOf(LocalDateTime.parse(node.get("createTime").asText(), TIME_FORMATTER))
+                });
+                if (batch.size() >= batchSize) {
+                    restored += insertBatch(batch);
+                }
+            }
+            restored += insertBatch(batch);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取归档文件失败: " + file, e);
+        }
+        return restored;
+    }
+
+    /**
+     * 按主键分批读取该月记录并写入压缩文件
+     * 先写临时文件，全部写完后再替换为正式文件，避免中途失败留下不完整的归档
+     */
+    private long export(Path file, long minId, long maxId, LocalDateTime start, LocalDateTime end) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long[] exported = {0};
+        try {
+            Files.createDirectories(file.getParent());
+            JsonFactory factory = objectMapper.getFactory();
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp));
+                 JsonGenerator generator = factory.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                long[] lastId = {minId - 1};
+                int fetched;
+                do {
+                    int before = (int) exported[0];
+                    jdbcTemplate.query(SELECT_BATCH, rs -> {
+                        try {
+                            generator.writeStartObject();
+                            generator.writeNumberField("id", rs.getLong("id"));
+                            generator.writeStringField("path", rs.getString("path"));
+                            generator.writeStringField("ip", rs.getString("ip"));
+                            generator.writeStringField("userAgent", rs.getString("user_agent"));
+                            long userAgentId = rs.getLong("user_agent_id");
+                            if (rs.wasNull()) {
+                                generator.writeNullField("userAgentId");
+                            } else {
+                                generator.writeNumberField("userAgentId", userAgentId);
+                            }
+                            generator.writeStringField("createTime",
+                                    rs.getTimestamp("create_time").toLocalDateTime().format(TIME_FORMATTER));
+                            generator.writeEndObject();
+                            generator.writeRaw('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        lastId[0] = rs.getLong("id");
+                        exported[0]++;
+                    }, lastId[0], maxId, Timestamp.valueOf(start), Timestamp.valueOf(end), properties.getArchiveBatchSize());
+                    fetched = (int) exported[0] - before;
+                } while (fetched >= properties.getArchiveBatchSize());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return exported[0];
+        } catch (IOException | UncheckedIOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // 临时文件删除失败不影响错误上报
+            }
+            throw new BusinessException("写入归档文件失败: " + file + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * 按主键区间分批删除该月记录，每批一条短语句，避免长事务和大范围锁
+     */
+    private long purge(long minId, long maxId, LocalDateTime start, LocalDateTime end) {
+        long deleted = 0;
+        int batchSize = properties.getArchiveBatchSize();
+        for (long from = minId; from <= maxId; from += batchSize) {
+            deleted += jdbcTemplate.update(DELETE_BATCH, from, from + batchSize,
+                    Timestamp.valueOf(start), Timestamp.valueOf(end));
+        }
+        return deleted;
+    }
+
+    /**
+     * 以多行INSERT写回一批记录，写入后清空批次
+     */
+    private int insertBatch(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 6];
+        int i = 0;
+        for (Object[] row : batch) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(ROW_PLACEHOLDER);
+            System.arraycopy(row, 0, args, i, row.length);
+            i += row.length;
+        }
+        int inserted = jdbcTemplate.update(sql.toString(), args);
+        batch.clear();
+        return inserted;
+    }
+
+    private Path archiveFile(YearMonth month) {
+        return Paths.get(properties.getArchiveDir()).toAbsolutePath().resolve("visit_logs-" + month + FILE_SUFFIX);
+    }
+
+    /**
+     * 补充归档的文件与原归档文件在同一目录，文件名加编号，如"visit_logs-2024-01.2.ndjson.gz"
+     */
+    private static Path partFile(Path original, int part) {
+        String name = original.getFileName().toString();
+        String base = name.endsWith(FILE_SUFFIX) ? name.substring(0, name.length() - FILE_SUFFIX.length()) : name;
+        return original.resolveSibling(base + "." + part + FILE_SUFFIX);
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,451 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.entity.VisitLogJournalCheckpoint;
+import com.maxxinke.repository.VisitLogJournalCheckpointRepository;
+import com.maxxinke.service.LiveTrafficService;
+import com.maxxinke.service.TopPathService;
+import com.maxxinke.service.UserAgentService;
+import com.maxxinke.service.VisitLogWriter;
+import com.maxxinke.service.VisitStatsService;
+import com.maxxinke.service.VisitorStatsService;
+import com.maxxinke.utils.VisitLogJournal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问日志写入服务实现类
+ * 访问记录先追加到本地预写日志，请求线程不访问数据库；后台线程从预写日志按条数或时间间隔攒批，
+ * 以多行INSERT语句写入数据库，并在同一事务内更新读取进度。
+ * 数据库不可用时按递增间隔重试，记录保留在预写日志中，重启后从上次确认的位置继续写入；
+ * 整批写入失败时逐条写入，只跳过本身无法写入的记录
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VisitLogWriterImpl implements VisitLogWriter {
+
+    private static final String INSERT_PREFIX = "INSERT INTO visit_logs (path, ip, user_agent_id, create_time) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?)";
+    private static final String UPSERT_CHECKPOINT = "INSERT INTO visit_log_journal_checkpoints " +
+            "(node, journal_id, segment_id, segment_offset, update_time) VALUES (?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE journal_id = VALUES(journal_id), segment_id = VALUES(segment_id), " +
+            "segment_offset = VALUES(segment_offset), " +
+            "update_time = VALUES(update_time)";
+
+    // visit_logs表中字符串列的默认长度，超长内容截断以免整批写入失败
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitStatsService visitStatsService;
+    private final UserAgentService userAgentService;
+    private final LiveTrafficService liveTrafficService;
+    private final VisitorStatsService visitorStatsService;
+    private final TopPathService topPathService;
+    private final VisitLogJournalCheckpointRepository checkpointRepository;
+    private final VisitLogProperties properties;
+
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder writtenCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    private String node;
+    private VisitLogJournal journal;
+    private volatile VisitLogJournal.Position position;
+    private Thread writerThread;
+    private volatile boolean running;
+    // 同一批记录因非临时错误写入失败的次数，只由写入线程访问
+    private int failedAttempts;
+
+    /**
+     * 打开预写日志并启动后台写入线程
+     */
+    @PostConstruct
+    public void start() {
+        node = properties.resolveNodeId();
+        try {
+            journal = new VisitLogJournal(Paths.get(properties.getJournalDir()),
+                    properties.getJournalSegmentBytes(), properties.getJournalMaxBytes());
+        } catch (Exception e) {
+            log.error("打开访问日志预写日志失败, 目录: {}, 错误: {}", properties.getJournalDir(), e.getMessage());
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runLoop, "visit-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("访问日志写入线程已启动, 预写日志目录: {}, 批量大小: {}, 写入间隔: {}ms",
+                properties.getJournalDir(), properties.getBatchSize(), properties.getFlushIntervalMs());
+    }
+
+    /**
+     * 应用关闭时停止接收新记录，在限定时间内将预写日志中剩余的记录写入数据库
+     * 未写完的记录保留在预写日志中，下次启动时继续写入
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            writerThread.join(properties.getShutdownTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        if (writerThread.isAlive()) {
+            log.warn("访问日志写入线程未能在{}ms内结束, 剩余约{}字节记录将在下次启动时写入",
+                    properties.getShutdownTimeoutMs(), journal.pendingBytes(position));
+        } else {
+            log.info("访问日志写入线程已停止, 累计写入: {}, 丢弃: {}, 失败: {}",
+                    writtenCount.sum(), droppedCount.sum(), failedCount.sum());
+        }
+    }
+
+    @Override
+    public boolean submit(VisitLog visitLog) {
+        if (!running) {
+            droppedCount.increment();
+            return false;
+        }
+        if (visitLog.getCreateTime() == null) {
+            visitLog.setCreateTime(LocalDateTime.now());
+        }
+        VisitLog record = new VisitLog();
+        record.setPath(truncate(visitLog.getPath()));
+        record.setIp(truncate(visitLog.getIp()));
+        record.setUserAgent(truncate(visitLog.getUserAgent()));
+        record.setCreateTime(visitLog.getCreateTime());
+        if (!journal.append(record)) {
+            droppedCount.increment();
+            log.debug("访问日志预写日志已满, 丢弃访问记录: {}", visitLog.getPath());
+            return false;
+        }
+        submittedCount.increment();
+        return true;
+    }
+
+    @Override
+    public Map<String, Object> getMetrics() {
+        long flushes = flushCount.sum();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("journalSegments", journal != null ? journal.getSegmentCount() : 0);
+        metrics.put("journalPendingBytes", journal != null && position != null ? journal.pendingBytes(position) : 0L);
+        metrics.put("journalMaxBytes", properties.getJournalMaxBytes());
+        metrics.put("submitted", submittedCount.sum());
+        metrics.put("written", writtenCount.sum());
+        metrics.put("dropped", droppedCount.sum());
+        metrics.put("failed", failedCount.sum());
+        metrics.put("retries", retryCount.sum());
+        metrics.put("flushes", flushes);
+        metrics.put("lastFlushMillis", nanosToMillis(lastFlushNanos.get()));
+        metrics.put("maxFlushMillis", nanosToMillis(maxFlushNanos.get()));
+        metrics.put("avgFlushMillis", flushes == 0 ? 0.0 : nanosToMillis(totalFlushNanos.sum() / flushes));
+        return metrics;
+    }
+
+    /**
+     * 后台写入循环
+     * 攒满一批或到达写入间隔时执行一次批量写入；写入失败时按递增间隔重试同一批记录，
+     * 停止后继续写完预写日志中剩余的记录再退出
+     */
+    private void runLoop() {
+        int batchSize = properties.getBatchSize();
+        long intervalMillis = properties.getFlushIntervalMs();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        long retryMillis = intervalMillis;
+
+        while (position == null) {
+            if (!running) {
+                return;
+            }
+            try {
+                position = loadCheckpoint();
+            } catch (Exception e) {
+                log.error("读取访问日志预写日志进度失败, 稍后重试, 错误: {}", e.getMessage());
+                if (!sleep(retryMillis)) {
+                    return;
+                }
+                retryMillis = Math.min(retryMillis * 2, properties.getMaxRetryIntervalMs());
+            }
+        }
+        retryMillis = intervalMillis;
+        // 早于该分段的记录是上次运行留下的，单独成批读取
+        long openedSegment = journal.getOpenedSegment();
+
+        while (true) {
+            try {
+                boolean stopping = !running;
+                boolean recovered = position.getSegment() < openedSegment;
+                VisitLogJournal.ReadResult result = recovered
+                        ? journal.read(position, batchSize, openedSegment) : journal.read(position, batchSize);
+                List<VisitLog> batch = result.getRecords();
+                if (batch.isEmpty() && stopping) {
+                    break;
+                }
+                boolean idle = batch.isEmpty() && samePosition(result.getNext(), position);
+                if (!stopping && batch.size() < batchSize && System.nanoTime() - deadline < 0) {
+                    TimeUnit.NANOSECONDS.sleep(Math.min(deadline - System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(50)));
+                    continue;
+                }
+                if (idle) {
+                    deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+                    continue;
+                }
+                journal.force();
+                if (flush(batch, result.getNext(), recovered)) {
+                    position = result.getNext();
+                    journal.deleteBefore(position.getSegment());
+                    retryMillis = intervalMillis;
+                } else if (stopping) {
+                    break;
+                } else {
+                    retryCount.increment();
+                    TimeUnit.MILLISECONDS.sleep(retryMillis);
+                    retryMillis = Math.min(retryMillis * 2, properties.getMaxRetryIntervalMs());
+                }
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("读取访问日志预写日志失败, 稍后重试, 错误: {}", e.getMessage());
+                if (!sleep(retryMillis)) {
+                    break;
+                }
+                retryMillis = Math.min(retryMillis * 2, properties.getMaxRetryIntervalMs());
+            }
+        }
+    }
+
+    /**
+     * 从数据库读取本节点上次确认的预写日志位置，没有记录时从最早的分段开始
+     * 记录的日志标识与当前日志不一致（日志目录被清空或更换）或位置超出当前日志范围时，
+     * 该位置不属于当前日志，从最早的分段开始写入
+     */
+    private VisitLogJournal.Position loadCheckpoint() {
+        VisitLogJournalCheckpoint row = checkpointRepository.findById(node).orElse(null);
+        VisitLogJournal.Position checkpoint = journal.firstPosition();
+        if (row != null) {
+            VisitLogJournal.Position saved = new VisitLogJournal.Position(row.getSegmentId(), row.getSegmentOffset());
+            boolean sameJournal = row.getJournalId() == null || row.getJournalId().equals(journal.getJournalId());
+            if (sameJournal && journal.isValid(saved)) {
+                checkpoint = saved;
+            } else {
+                log.warn("访问日志预写日志进度不属于当前日志, 从最早的分段开始写入, 记录的日志: {}, 位置: {}/{}, 当前日志: {}",
+                        row.getJournalId(), row.getSegmentId(), row.getSegmentOffset(), journal.getJournalId());
+            }
+        }
+        long pending = journal.pendingBytes(checkpoint);
+        if (pending > 0) {
+            log.info("访问日志预写日志中有未写入数据库的记录, 约{}字节, 开始写入", pending);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * 将一批访问记录以多行INSERT写入数据库，并在同一事务内累加访问量汇总表、更新预写日志读取进度
+     * User-Agent转换为字典ID后写入，爬虫访问不计入汇总表。
+     * 整批写入因数据库连接等临时错误失败时稍后重试整批，其他错误改为逐条写入
+     *
+     * @param batch 待写入的访问记录
+     * @param next 该批记录之后的预写日志位置
+     * @param recovered 是否为上次运行留下的记录
+     * @return true表示已确认，可以推进读取位置
+     */
+    private boolean flush(List<VisitLog> batch, VisitLogJournal.Position next, boolean recovered) {
+        long start = System.nanoTime();
+        try {
+            List<String> userAgents = new ArrayList<>(batch.size());
+            List<VisitLog> humanVisits = new ArrayList<>(batch.size());
+            for (VisitLog visitLog : batch) {
+                userAgents.add(visitLog.getUserAgent());
+                if (!userAgentService.isBot(visitLog.getUserAgent())) {
+                    humanVisits.add(visitLog);
+                }
+            }
+            Map<String, Long> userAgentIds = userAgentService.resolveIds(userAgents);
+            List<VisitLog> writtenVisits;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!batch.isEmpty()) {
+                        insert(batch, userAgentIds);
+                        // 爬虫访问只记录日志，不计入访问量汇总
+                        visitStatsService.applyIncrements(humanVisits);
+                    }
+                    saveCheckpoint(next);
+                });
+                writtenCount.add(batch.size());
+                writtenVisits = humanVisits;
+            } catch (RuntimeException e) {
+                if (batch.isEmpty() || isTransient(e)) {
+                    throw e;
+                }
+                log.warn("批量写入访问日志失败, 改为逐条写入, 条数: {}, 错误: {}", batch.size(), e.getMessage());
+                writtenVisits = flushEach(batch, next, userAgentIds);
+            }
+            failedAttempts = 0;
+            if (recovered) {
+                countRecovered(writtenVisits);
+            }
+            return true;
+        } catch (Exception e) {
+            if (!isTransient(e)) {
+                failedAttempts++;
+            }
+            log.error("写入访问日志失败, 条数: {}, 稍后重试, 错误: {}", batch.size(), e.getMessage());
+            return false;
+        } finally {
+            recordFlushTime(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 在一个事务内逐条写入访问记录，跳过本身无法写入的记录，其余记录照常写入并更新读取进度
+     * 数据完整性错误直接跳过该条记录；其他错误在同一批记录失败次数达到上限前整批回滚稍后重试，
+     * 达到上限后同样跳过。MySQL中单条语句失败只回滚该语句，不影响同一事务中已写入的记录
+     *
+     * @return 已写入的真人访问记录
+     */
+    private List<VisitLog> flushEach(List<VisitLog> batch, VisitLogJournal.Position next,
+                                     Map<String, Long> userAgentIds) {
+        boolean lastAttempt = failedAttempts + 1 >= properties.getMaxBatchAttempts();
+        List<VisitLog> humanVisits = new ArrayList<>(batch.size());
+        Integer skipped = transactionTemplate.execute(status -> {
+            humanVisits.clear();
+            int failed = 0;
+            for (VisitLog visitLog : batch) {
+                try {
+                    insert(Collections.singletonList(visitLog), userAgentIds);
+                } catch (RuntimeException e) {
+                    if (isTransient(e) || !(e instanceof DataIntegrityViolationException || lastAttempt)) {
+                        throw e;
+                    }
+                    failed++;
+                    log.error("访问日志数据无法写入, 跳过该条记录, 路径: {}, 时间: {}, 错误: {}",
+                            visitLog.getPath(), visitLog.getCreateTime(), e.getMessage());
+                    continue;
+                }
+                if (!userAgentService.isBot(visitLog.getUserAgent())) {
+                    humanVisits.add(visitLog);
+                }
+            }
+            if (!humanVisits.isEmpty()) {
+                visitStatsService.applyIncrements(humanVisits);
+            }
+            saveCheckpoint(next);
+            return failed;
+        });
+        int failed = skipped != null ? skipped : 0;
+        failedCount.add(failed);
+        writtenCount.add(batch.size() - failed);
+        return humanVisits;
+    }
+
+    /**
+     * 上次运行留下的记录写入数据库后计入实时计数、独立访客和热门页面统计。
+     * 实时计数在本服务创建前按数据库中已有的记录初始化，不包含这些记录；
+     * 上次运行异常退出或数据库不可用时，独立访客和热门页面的内存数据也没有保存
+     */
+    private void countRecovered(List<VisitLog> humanVisits) {
+        for (VisitLog visitLog : humanVisits) {
+            liveTrafficService.increment(visitLog.getCreateTime());
+            visitorStatsService.offer(visitLog);
+            topPathService.offer(visitLog);
+        }
+    }
+
+    /**
+     * 数据库连接失败、锁冲突、无法开启事务等与数据无关的临时错误，重试不计入失败次数
+     */
+    private static boolean isTransient(Exception e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransactionException;
+    }
+
+    private void insert(List<VisitLog> batch, Map<String, Long> userAgentIds) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + batch.size() * (ROW_PLACEHOLDER.length() + 1));
+        sql.append(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 4];
+        int i = 0;
+        for (VisitLog visitLog : batch) {
+            if (i > 0) {
+                sql.append(',');
+            }
+            sql.append(ROW_PLACEHOLDER);
+            args[i++] = visitLog.getPath();
+            args[i++] = visitLog.getIp();
+            args[i++] = visitLog.getUserAgent() != null ? userAgentIds.get(visitLog.getUserAgent()) : null;
+            args[i++] = Timestamp.valueOf(visitLog.getCreateTime());
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    private void saveCheckpoint(VisitLogJournal.Position next) {
+        jdbcTemplate.update(UPSERT_CHECKPOINT, node, journal.getJournalId(), next.getSegment(), next.getOffset(),
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private static boolean samePosition(VisitLogJournal.Position a, VisitLogJournal.Position b) {
+        return a.getSegment() == b.getSegment() && a.getOffset() == b.getOffset();
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void recordFlushTime(long nanos) {
+        flushCount.increment();
+        totalFlushNanos.add(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static String truncate(String value) {
+        if (value == null || value.length() <= MAX_COLUMN_LENGTH) {
+            return value;
+        }
+        return value.substring(0, MAX_COLUMN_LENGTH);
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
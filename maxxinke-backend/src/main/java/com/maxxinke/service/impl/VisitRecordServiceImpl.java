@@ -0,0 +1,47 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.service.LiveTrafficService;
+import com.maxxinke.service.TopPathService;
+import com.maxxinke.service.UserAgentService;
+import com.maxxinke.service.VisitLogWriter;
+import com.maxxinke.service.VisitRecordService;
+import com.maxxinke.service.VisitorStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 访问记录服务实现类
+ * 访问先写入访问日志预写日志，被接受后再累加实时计数、独立访客估算和热门页面统计，保证内存统计与数据库记录一致；
+ * 爬虫等非真人访问只写入访问日志，不计入统计
+ */
+@Service
+@RequiredArgsConstructor
+public class VisitRecordServiceImpl implements VisitRecordService {
+
+    private final VisitLogWriter visitLogWriter;
+    private final LiveTrafficService liveTrafficService;
+    private final VisitorStatsService visitorStatsService;
+    private final TopPathService topPathService;
+    private final UserAgentService userAgentService;
+
+    @Override
+    public boolean record(VisitLog visitLog) {
+        if (visitLog.getCreateTime() == null) {
+            visitLog.setCreateTime(LocalDateTime.now());
+        }
+        if (!visitLogWriter.submit(visitLog)) {
+            return false;
+        }
+        // 爬虫访问只记录日志，不计入各项访问统计
+        if (userAgentService.isBot(visitLog.getUserAgent())) {
+            return true;
+        }
+        liveTrafficService.increment(visitLog.getCreateTime());
+        visitorStatsService.offer(visitLog);
+        topPathService.offer(visitLog);
+        return true;
+    }
+}
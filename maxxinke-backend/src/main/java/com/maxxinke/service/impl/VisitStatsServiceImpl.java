@@ -0,0 +1,212 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.dto.VisitDataDTO;
+import com.maxxinke.entity.UserAgent;
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.entity.VisitStatsMonthly;
+import com.maxxinke.repository.VisitStatsDailyRepository;
+import com.maxxinke.repository.VisitStatsHourlyRepository;
+import com.maxxinke.repository.VisitStatsMonthlyRepository;
+import com.maxxinke.service.VisitStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 访问量汇总服务实现类
+ * 访问日志批量写入时在同一事务内累加小时、日、月汇总表；
+ * 每天定时根据访问日志重新计算前一天的汇总数据，修正可能遗漏的增量；
+ * 首次启动时若汇总表为空，则按月分段从访问日志回填历史数据
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VisitStatsServiceImpl implements VisitStatsService {
+
+    private static final String UPSERT_HOURLY = "INSERT INTO visit_stats_hourly (bucket_time, visit_count) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE visit_count = visit_count + VALUES(visit_count)";
+    private static final String UPSERT_DAILY = "INSERT INTO visit_stats_daily (bucket_date, visit_count) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE visit_count = visit_count + VALUES(visit_count)";
+    private static final String UPSERT_MONTHLY = "INSERT INTO visit_stats_monthly (bucket_month, visit_count) VALUES (?, ?) " +
+            "ON DUPLICATE KEY UPDATE visit_count = visit_count + VALUES(visit_count)";
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitStatsHourlyRepository hourlyRepository;
+    private final VisitStatsDailyRepository dailyRepository;
+    private final VisitStatsMonthlyRepository monthlyRepository;
+
+    @Override
+    public void applyIncrements(List<VisitLog> visitLogs) {
+        if (visitLogs.isEmpty()) {
+            return;
+        }
+        Map<LocalDateTime, Long> hourly = new TreeMap<>();
+        Map<LocalDate, Long> daily = new TreeMap<>();
+        Map<LocalDate, Long> monthly = new TreeMap<>();
+        for (VisitLog visitLog : visitLogs) {
+            LocalDateTime hour = visitLog.getCreateTime().truncatedTo(ChronoUnit.HOURS);
+            hourly.merge(hour, 1L, Long::sum);
+            daily.merge(hour.toLocalDate(), 1L, Long::sum);
+            monthly.merge(hour.toLocalDate().withDayOfMonth(1), 1L, Long::sum);
+        }
+
+        // 按主键顺序写入，降低并发写入时的死锁概率
+        jdbcTemplate.batchUpdate(UPSERT_HOURLY, hourly.entrySet().stream()
+                .map(e -> new Object[]{Timestamp.valueOf(e.getKey()), e.getValue()})
+                .collect(Collectors.toList()));
+        jdbcTemplate.batchUpdate(UPSERT_DAILY, daily.entrySet().stream()
+                .map(e -> new Object[]{Date.valueOf(e.getKey()), e.getValue()})
+                .collect(Collectors.toList()));
+        jdbcTemplate.batchUpdate(UPSERT_MONTHLY, monthly.entrySet().stream()
+                .map(e -> new Object[]{Date.valueOf(e.getKey()), e.getValue()})
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public void rebuild(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime hourStart = start.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime hourEnd = end.truncatedTo(ChronoUnit.HOURS);
+        if (!hourStart.isBefore(hourEnd)) {
+            return;
+        }
+        LocalDate dayStart = hourStart.toLocalDate();
+        LocalDate dayEnd = hourEnd.minusHours(1).toLocalDate().plusDays(1);
+        LocalDate monthStart = dayStart.withDayOfMonth(1);
+        LocalDate monthEnd = dayEnd.minusDays(1).withDayOfMonth(1).plusMonths(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 小时汇总直接由访问日志计算，不计爬虫访问
+            jdbcTemplate.update("DELETE FROM visit_stats_hourly WHERE bucket_time >= ? AND bucket_time < ?",
+                    Timestamp.valueOf(hourStart), Timestamp.valueOf(hourEnd));
+            jdbcTemplate.update("INSERT INTO visit_stats_hourly (bucket_time, visit_count) " +
+                            "SELECT DATE_FORMAT(v.create_time, '%Y-%m-%d %H:00:00'), COUNT(*) FROM visit_logs v " +
+                            "LEFT JOIN user_agents u ON u.id = v.user_agent_id " +
+                            "WHERE v.create_time >= ? AND v.create_time < ? " +
+                            "AND (u.category IS NULL OR u.category <> " + UserAgent.CATEGORY_BOT + ") " +
+                            "GROUP BY DATE_FORMAT(v.create_time, '%Y-%m-%d %H:00:00')",
+                    Timestamp.valueOf(hourStart), Timestamp.valueOf(hourEnd));
+
+            // 日汇总、月汇总分别由下一级汇总表累加得到
+            jdbcTemplate.update("DELETE FROM visit_stats_daily WHERE bucket_date >= ? AND bucket_date < ?",
+                    Date.valueOf(dayStart), Date.valueOf(dayEnd));
+            jdbcTemplate.update("INSERT INTO visit_stats_daily (bucket_date, visit_count) " +
+                            "SELECT DATE(bucket_time), SUM(visit_count) FROM visit_stats_hourly " +
+                            "WHERE bucket_time >= ? AND bucket_time < ? GROUP BY DATE(bucket_time)",
+                    Timestamp.valueOf(dayStart.atStartOfDay()), Timestamp.valueOf(dayEnd.atStartOfDay()));
+
+            jdbcTemplate.update("DELETE FROM visit_stats_monthly WHERE bucket_month >= ? AND bucket_month < ?",
+                    Date.valueOf(monthStart), Date.valueOf(monthEnd));
+            jdbcTemplate.update("INSERT INTO visit_stats_monthly (bucket_month, visit_count) " +
+                            "SELECT DATE_FORMAT(bucket_date, '%Y-%m-01'), SUM(visit_count) FROM visit_stats_daily " +
+                            "WHERE bucket_date >= ? AND bucket_date < ? GROUP BY DATE_FORMAT(bucket_date, '%Y-%m-01')",
+                    Date.valueOf(monthStart), Date.valueOf(monthEnd));
+        });
+    }
+
+    /**
+     * 每日补算任务
+     * 重新计算前一天（已结束的时间段）的汇总数据
+     */
+    @Scheduled(cron = "${visit-log.rollup-rebuild-cron:0 10 0 * * ?}")
+    public void rebuildYesterday() {
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        try {
+            rebuild(today.minusDays(1), today);
+            log.info("访问量汇总补算完成: {}", today.minusDays(1).toLocalDate());
+        } catch (Exception e) {
+            log.error("访问量汇总补算失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 应用启动完成后，若汇总表为空则从访问日志回填历史汇总数据
+     * 按月分段计算，避免单条语句扫描整个访问日志表；只回填到当前小时开始，
+     * 当前小时内启动前的访问会在次日补算任务中修正
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (dailyRepository.count() > 0) {
+                return;
+            }
+            Timestamp earliest = jdbcTemplate.queryForObject("SELECT MIN(create_time) FROM visit_logs", Timestamp.class);
+            if (earliest == null) {
+                return;
+            }
+            LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+            LocalDateTime cursor = earliest.toLocalDateTime().toLocalDate().withDayOfMonth(1).atStartOfDay();
+            log.info("开始回填访问量汇总数据, 起始时间: {}", cursor);
+            while (cursor.isBefore(end)) {
+                LocalDateTime next = cursor.plusMonths(1);
+                rebuild(cursor, next.isBefore(end) ? next : end);
+                cursor = next;
+            }
+            log.info("访问量汇总数据回填完成");
+        } catch (Exception e) {
+            log.error("回填访问量汇总数据失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public List<VisitDataDTO> getHourlyVisits(LocalDateTime start, LocalDateTime end) {
+        return hourlyRepository.findByBucketTimeBetweenOrderByBucketTimeAsc(start, end).stream()
+                .map(stat -> toVisitData(stat.getBucketTime().format(HOUR_FORMATTER), stat.getVisitCount()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<VisitDataDTO> getDailyVisits(LocalDate start, LocalDate end) {
+        return dailyRepository.findByBucketDateBetweenOrderByBucketDateAsc(start, end).stream()
+                .map(stat -> toVisitData(stat.getBucketDate().format(DAY_FORMATTER), stat.getVisitCount()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<VisitDataDTO> getMonthlyVisits(YearMonth start, YearMonth end) {
+        return monthlyRepository.findByBucketMonthBetweenOrderByBucketMonthAsc(start.atDay(1), end.atDay(1)).stream()
+                .map(stat -> toVisitData(stat.getBucketMonth().format(MONTH_FORMATTER), stat.getVisitCount()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<VisitDataDTO> getYearlyVisits(int startYear, int endYear) {
+        Map<Integer, Long> yearly = new TreeMap<>();
+        for (VisitStatsMonthly stat : monthlyRepository.findByBucketMonthBetweenOrderByBucketMonthAsc(
+                LocalDate.of(startYear, 1, 1), LocalDate.of(endYear, 12, 1))) {
+            yearly.merge(stat.getBucketMonth().getYear(), stat.getVisitCount(), Long::sum);
+        }
+        List<VisitDataDTO> result = new ArrayList<>(yearly.size());
+        yearly.forEach((year, count) -> result.add(toVisitData(String.valueOf(year), count)));
+        return result;
+    }
+
+    private static VisitDataDTO toVisitData(String date, Long count) {
+        VisitDataDTO data = new VisitDataDTO();
+        data.setDate(date);
+        data.setValue(count != null ? count.intValue() : 0);
+        return data;
+    }
+}
@@ -0,0 +1,284 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.dto.PathVisitorDTO;
+import com.maxxinke.dto.UniqueVisitorDTO;
+import com.maxxinke.dto.VisitDataDTO;
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.entity.VisitorSketch;
+import com.maxxinke.repository.VisitorSketchRepository;
+import com.maxxinke.service.VisitorStatsService;
+import com.maxxinke.utils.HyperLogLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 独立访客统计服务实现类
+ * 内存中保留今天和昨天的估算数据，定时将有变化的部分写入visitor_sketches表；
+ * 每个节点只写自己的数据行，查询时合并所有节点的数据，因此支持多节点部署。
+ * 某一天的内存数据第一次写入前先在同一事务中读出本节点已保存的数据并合并，
+ * 重启后收到的迟到事件不会用不完整的数据覆盖已保存的数据
+ */
+@Slf4j
+@Service
+public class VisitorStatsServiceImpl implements VisitorStatsService {
+
+    private static final String SELECT_NODE_SKETCHES = "SELECT path, registers FROM visitor_sketches " +
+            "WHERE bucket_date = ? AND node = ?";
+    private static final String UPSERT_SKETCH = "INSERT INTO visitor_sketches (bucket_date, path, node, registers, update_time) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE registers = VALUES(registers), update_time = VALUES(update_time)";
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int MAX_PATH_LENGTH = 255;
+
+    private final VisitorSketchRepository visitorSketchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitLogProperties properties;
+    private final String node;
+
+    private final Map<LocalDate, DaySketches> days = new ConcurrentHashMap<>();
+
+    public VisitorStatsServiceImpl(VisitorSketchRepository visitorSketchRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   VisitLogProperties properties) {
+        this.visitorSketchRepository = visitorSketchRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.node = properties.resolveNodeId();
+    }
+
+    /**
+     * 启动时加载本节点今天和昨天的估算数据，重启后继续累加
+     */
+    @PostConstruct
+    public void load() {
+        LocalDate today = LocalDate.now();
+        for (LocalDate day : new LocalDate[]{today.minusDays(1), today}) {
+            try {
+                DaySketches sketches = daySketches(day);
+                mergePersisted(day, sketches, false);
+                log.info("独立访客估算数据加载完成, 节点: {}, 日期: {}, 页面数: {}", node, day, sketches.paths.size());
+            } catch (Exception e) {
+                log.error("加载独立访客估算数据失败, 日期: {}, 错误: {}", day, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Override
+    public void offer(VisitLog visitLog) {
+        if (visitLog.getIp() == null) {
+            return;
+        }
+        long hash = HyperLogLog.hash64(visitLog.getIp());
+        DaySketches sketches = daySketches(visitLog.getCreateTime().toLocalDate());
+        sketches.site.offer(hash);
+
+        String path = visitLog.getPath();
+        if (path == null || path.isEmpty() || path.length() > MAX_PATH_LENGTH) {
+            return;
+        }
+        SketchHolder holder = sketches.paths.get(path);
+        if (holder == null) {
+            // 页面数超过上限后不再为新页面建立估算，保证内存有界
+            if (sketches.paths.size() >= properties.getVisitorMaxPathsPerDay()) {
+                return;
+            }
+            holder = sketches.paths.computeIfAbsent(path, p -> new SketchHolder());
+        }
+        holder.offer(hash);
+    }
+
+    @Override
+    public UniqueVisitorDTO getUniqueVisitors(LocalDate start, LocalDate end, String path) {
+        String sketchPath = path == null ? VisitorSketch.SITE_PATH : path;
+        Map<LocalDate, HyperLogLog> perDay = new HashMap<>();
+        // 合并是取并集，本节点内存中的数据与数据库中的旧数据重复合并不影响结果
+        for (VisitorSketch row : visitorSketchRepository.findByBucketDateBetweenAndPath(start, end, sketchPath)) {
+            perDay.computeIfAbsent(row.getBucketDate(), d -> new HyperLogLog())
+                    .merge(HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        days.forEach((day, sketches) -> {
+            if (day.isBefore(start) || day.isAfter(end)) {
+                return;
+            }
+            SketchHolder holder = VisitorSketch.SITE_PATH.equals(sketchPath) ? sketches.site : sketches.paths.get(sketchPath);
+            if (holder != null) {
+                perDay.computeIfAbsent(day, d -> new HyperLogLog()).merge(holder.hll);
+            }
+        });
+
+        HyperLogLog total = new HyperLogLog();
+        List<VisitDataDTO> daily = new ArrayList<>(perDay.size());
+        perDay.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    total.merge(entry.getValue());
+                    VisitDataDTO data = new VisitDataDTO();
+                    data.setDate(entry.getKey().format(DAY_FORMATTER));
+                    data.setValue((int) entry.getValue().cardinality());
+                    daily.add(data);
+                });
+
+        UniqueVisitorDTO result = new UniqueVisitorDTO();
+        result.setStartDate(start);
+        result.setEndDate(end);
+        result.setPath(path);
+        result.setUniqueVisitors(total.cardinality());
+        result.setDaily(daily);
+        return result;
+    }
+
+    @Override
+    public List<PathVisitorDTO> getPathUniqueVisitors(LocalDate date) {
+        Map<String, HyperLogLog> perPath = new HashMap<>();
+        DaySketches sketches = days.get(date);
+        for (VisitorSketch row : visitorSketchRepository.findByBucketDate(date)) {
+            if (VisitorSketch.SITE_PATH.equals(row.getPath())) {
+                continue;
+            }
+            perPath.computeIfAbsent(row.getPath(), p -> new HyperLogLog())
+                    .merge(HyperLogLog.fromBytes(row.getRegisters()));
+        }
+        if (sketches != null) {
+            sketches.paths.forEach((path, holder) ->
+                    perPath.computeIfAbsent(path, p -> new HyperLogLog()).merge(holder.hll));
+        }
+        return perPath.entrySet().stream()
+                .map(entry -> {
+                    PathVisitorDTO data = new PathVisitorDTO();
+                    data.setPath(entry.getKey());
+                    data.setUniqueVisitors(entry.getValue().cardinality());
+                    return data;
+                })
+                .sorted(Comparator.comparing(PathVisitorDTO::getUniqueVisitors).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 定时写入有变化的估算数据，并移除已写入且早于昨天的内存数据
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${visit-log.visitor-flush-interval-ms:60000}")
+    public void flush() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        List<SketchHolder> flushed = new ArrayList<>();
+        List<DaySketches> merging = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                days.forEach((day, sketches) -> {
+                    if (!sketches.merged && sketches.isDirty()) {
+                        // 这一天的数据不是启动时加载的，先合并数据库中本节点已保存的数据再整体写回
+                        mergePersisted(day, sketches, true);
+                        merging.add(sketches);
+                    }
+                    collectDirty(rows, flushed, day, VisitorSketch.SITE_PATH, sketches.site, now);
+                    sketches.paths.forEach((path, holder) -> collectDirty(rows, flushed, day, path, holder, now));
+                });
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_SKETCH, rows);
+                }
+            });
+            log.debug("写入独立访客估算数据: {}条", rows.size());
+        } catch (Exception e) {
+            // 写入失败时恢复标记，下次重试
+            flushed.forEach(holder -> holder.dirty = true);
+            merging.forEach(sketches -> sketches.merged = false);
+            log.error("写入独立访客估算数据失败: {}", e.getMessage());
+            return;
+        }
+        days.keySet().removeIf(day -> day.isBefore(yesterday));
+    }
+
+    /**
+     * 将数据库中本节点某一天的估算数据合并到内存中，数据库中有而内存中没有的页面一并建立
+     * @param forUpdate 是否锁定读取的数据行，在写入事务中使用
+     */
+    private void mergePersisted(LocalDate day, DaySketches sketches, boolean forUpdate) {
+        jdbcTemplate.query(forUpdate ? SELECT_NODE_SKETCHES + " FOR UPDATE" : SELECT_NODE_SKETCHES, rs -> {
+            String path = rs.getString("path");
+            HyperLogLog hll = HyperLogLog.fromBytes(rs.getBytes("registers"));
+            if (VisitorSketch.SITE_PATH.equals(path)) {
+                sketches.site.hll.merge(hll);
+            } else {
+                sketches.paths.computeIfAbsent(path, p -> new SketchHolder()).hll.merge(hll);
+            }
+        }, Date.valueOf(day), node);
+        sketches.merged = true;
+    }
+
+    private void collectDirty(List<Object[]> rows, List<SketchHolder> flushed,
+                              LocalDate day, String path, SketchHolder holder, Timestamp now) {
+        if (!holder.dirty) {
+            return;
+        }
+        holder.dirty = false;
+        flushed.add(holder);
+        rows.add(new Object[]{Date.valueOf(day), path, node, holder.hll.toBytes(), now});
+    }
+
+    private DaySketches daySketches(LocalDate day) {
+        return days.computeIfAbsent(day, d -> new DaySketches());
+    }
+
+    /**
+     * 单日的全站及各页面估算数据
+     */
+    private static final class DaySketches {
+        private final SketchHolder site = new SketchHolder();
+        private final Map<String, SketchHolder> paths = new ConcurrentHashMap<>();
+        // 是否已合并数据库中本节点已保存的数据
+        private volatile boolean merged;
+
+        private boolean isDirty() {
+            if (site.dirty) {
+                return true;
+            }
+            for (SketchHolder holder : paths.values()) {
+                if (holder.dirty) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 估算数据及其是否有未写入数据库的变化
+     */
+    private static final class SketchHolder {
+        private final HyperLogLog hll = new HyperLogLog();
+        private volatile boolean dirty;
+
+        private void offer(long hash) {
+            hll.offerHash(hash);
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.maxxinke.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min频率估算
+ * 使用depth行、每行width个计数器估算任意元素的出现次数，估算值只会偏大不会偏小；
+ * 误差上限约为总次数的e/width，置信度为1-e^(-depth)
+ *
+ * 本类的所有方法都是线程安全的
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 哈希函数个数（行数）
+     * @param width 每行计数器个数，会向上取整为2的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-Min参数必须为正数");
+        }
+        this.depth = depth;
+        int roundedWidth = 1;
+        while (roundedWidth < width) {
+            roundedWidth <<= 1;
+        }
+        this.width = roundedWidth;
+        this.counters = new AtomicLongArray(depth * this.width);
+    }
+
+    /**
+     * 累加元素的出现次数
+     *
+     * @param value 元素
+     * @param count 增加的次数
+     */
+    public void add(String value, long count) {
+        long hash = HyperLogLog.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(index(row, h1, h2), count);
+        }
+    }
+
+    /**
+     * 估算元素的出现次数
+     *
+     * @param value 元素
+     * @return 估算次数（不小于真实次数）
+     */
+    public long estimate(String value) {
+        long hash = HyperLogLog.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, h1, h2)));
+        }
+        return min;
+    }
+
+    /**
+     * 使用双重哈希为每一行生成独立的列下标
+     */
+    private int index(int row, int h1, int h2) {
+        int combined = h1 + row * h2;
+        return row * width + (combined & (width - 1));
+    }
+}
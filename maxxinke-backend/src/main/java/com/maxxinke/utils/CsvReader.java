@@ -0,0 +1,113 @@
+package com.maxxinke.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 逐行读取CSV
+ *
+ * 按RFC 4180解析：字段以逗号分隔，含逗号、双引号或换行的字段用双引号包围，字段内的双引号写作两个双引号；
+ * 行尾可以是\n或\r\n，文件开头的UTF-8 BOM（Excel另存为CSV时写入）被忽略。
+ * 每次只读取一行记录，内存占用与文件大小无关。格式错误时抛出IllegalArgumentException
+ */
+public class CsvReader {
+
+    private static final int BOM = '\uFEFF';
+
+    private final Reader reader;
+    private int peeked = -2;
+    private boolean started;
+    private long recordNumber;
+
+    /**
+     * @param reader 字符输入，调用方负责缓冲和关闭
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取下一行记录
+     *
+     * @return 记录的各字段，已到达文件末尾时返回null
+     * @throws IOException 读取失败
+     */
+    public List<String> readRecord() throws IOException {
+        if (!started) {
+            started = true;
+            if (peek() == BOM) {
+                next();
+            }
+        }
+        if (peek() == -1) {
+            return null;
+        }
+        recordNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            int c = next();
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("第" + recordNumber + "行的引号没有闭合");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        next();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                afterQuote = false;
+            } else if (c == '\r' && peek() == '\n') {
+                next();
+                break;
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (afterQuote) {
+                throw new IllegalArgumentException("第" + recordNumber + "行的引号之后只能是逗号或行尾");
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * 已读取的记录数，也是最近一次返回的记录的序号（从1开始）
+     *
+     * @return 记录数
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = reader.read();
+        }
+        return peeked;
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        peeked = -2;
+        return c;
+    }
+}
@@ -0,0 +1,93 @@
+package com.maxxinke.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 逐行写出CSV
+ *
+ * 含逗号、双引号或换行的字段用双引号包围，字段内的双引号写作两个双引号，行尾为\r\n；
+ * 输出可以直接用{@link CsvReader}读回，也可以用Excel打开。
+ * 以=、+、-、@开头的文本字段前加单引号，Excel打开时按文本显示而不作为公式执行，
+ * 读回时用{@link #stripFormulaPrefix}去掉
+ */
+public class CsvWriter {
+
+    private static final char FORMULA_PREFIX = '\'';
+
+    private final Writer writer;
+
+    /**
+     * @param writer 字符输出，调用方负责缓冲和关闭
+     */
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * 写出一行记录
+     *
+     * @param fields 各字段，null写为空字段
+     * @throws IOException 写入失败
+     */
+    public void writeRecord(Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (fields[i] instanceof String) {
+                writeField(protectFormula((String) fields[i]));
+            } else if (fields[i] != null) {
+                writeField(fields[i].toString());
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 去掉写出时为防止公式执行加上的单引号
+     *
+     * @param value 读回的字段值
+     * @return 写出前的字段值
+     */
+    public static String stripFormulaPrefix(String value) {
+        if (value != null && !value.isEmpty() && value.charAt(0) == FORMULA_PREFIX && formulaLike(value)) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    private static String protectFormula(String value) {
+        return formulaLike(value) ? FORMULA_PREFIX + value : value;
+    }
+
+    /**
+     * 跳过开头的单引号后以公式字符开头；本身以单引号开头的值也加前缀，读回时只去掉一个单引号
+     */
+    private static boolean formulaLike(String value) {
+        int i = 0;
+        while (i < value.length() && value.charAt(i) == FORMULA_PREFIX) {
+            i++;
+        }
+        if (i == value.length()) {
+            return false;
+        }
+        char c = value.charAt(i);
+        return c == '=' || c == '+' || c == '-' || c == '@';
+    }
+
+    private void writeField(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,230 @@
+package com.maxxinke.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * 按时间衰减的热度排行
+ * 每次访问为ID增加热度，热度按指数衰减，经过一个半衰期后降为原来的一半，
+ * 因此排行反映的是近期而不是全部时间的热度
+ *
+ * 内部采用前向衰减：记录的是相对基准时间放大后的分值，新的访问按距基准时间的长度放大，
+ * 旧分值不需要随时间更新，各ID分值的相对大小只在该ID被访问时改变。
+ * 排行前K名单独保存在有序集合中，访问时只调整被访问的ID，读取排行只需遍历前K名。
+ * 放大倍数过大时以当前时间为新基准整体缩小一次，同时清除热度已衰减到可以忽略的ID
+ *
+ * 本类的所有方法都是线程安全的
+ */
+public class DecayingTopK {
+
+    /**
+     * 放大倍数的指数上限，超出后整体缩小，避免double溢出
+     */
+    private static final double MAX_EXPONENT = 64;
+
+    /**
+     * 热度低于该值的ID在整体缩小时清除
+     */
+    private static final double MIN_SCORE = 1e-3;
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingDouble(e -> e.score).reversed()
+            .thenComparingLong(e -> e.id);
+
+    private final double decayPerMilli;
+    private final int k;
+    private final int maxIds;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> top = new TreeSet<>(ORDER);
+    private long landmark;
+
+    /**
+     * @param halfLifeMillis 半衰期（毫秒）
+     * @param k 排行保留的名次数
+     * @param maxIds 跟踪的ID数上限，超出时清除热度较低的一半
+     * @param nowMillis 当前时间，作为初始基准时间
+     */
+    public DecayingTopK(long halfLifeMillis, int k, int maxIds, long nowMillis) {
+        if (halfLifeMillis <= 0 || k < 1 || maxIds < k) {
+            throw new IllegalArgumentException("热度排行参数无效");
+        }
+        this.decayPerMilli = Math.log(2) / halfLifeMillis;
+        this.k = k;
+        this.maxIds = maxIds;
+        this.landmark = nowMillis;
+    }
+
+    /**
+     * 为ID增加热度
+     *
+     * @param id ID
+     * @param weight 增加的热度，按当前时间计
+     * @param nowMillis 当前时间
+     */
+    public synchronized void add(long id, double weight, long nowMillis) {
+        if (decayPerMilli * (nowMillis - landmark) > MAX_EXPONENT) {
+            rescale(nowMillis);
+        }
+        double scaled = weight * Math.exp(decayPerMilli * (nowMillis - landmark));
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            if (entries.size() >= maxIds) {
+                evictLowerHalf();
+            }
+            entry = new Entry(id);
+            entries.put(id, entry);
+        }
+        boolean ranked = top.remove(entry);
+        entry.score += scaled;
+        if (ranked || top.size() < k) {
+            top.add(entry);
+        } else if (ORDER.compare(entry, top.last()) < 0) {
+            top.pollLast();
+            top.add(entry);
+        }
+    }
+
+    /**
+     * 移除ID，例如内容已被删除
+     *
+     * @param id ID
+     */
+    public synchronized void remove(long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null && top.remove(entry)) {
+            refillTop();
+        }
+    }
+
+    /**
+     * 获取热度最高的ID
+     *
+     * @param limit 返回的个数，最多为K
+     * @param nowMillis 当前时间
+     * @return 按热度降序排列的ID和当前热度
+     */
+    public synchronized List<Scored> top(int limit, long nowMillis) {
+        double decay = Math.exp(-decayPerMilli * (nowMillis - landmark));
+        List<Scored> result = new ArrayList<>(Math.min(limit, top.size()));
+        for (Entry entry : top) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new Scored(entry.id, entry.score * decay));
+        }
+        return result;
+    }
+
+    /**
+     * 获取热度最高的若干个ID及其当前热度，用于保存快照
+     *
+     * @param limit 返回的个数，可以大于K
+     * @param nowMillis 当前时间
+     * @return 按热度降序排列的ID和当前热度
+     */
+    public synchronized List<Scored> snapshot(int limit, long nowMillis) {
+        double decay = Math.exp(-decayPerMilli * (nowMillis - landmark));
+        List<Entry> ordered = new ArrayList<>(entries.values());
+        ordered.sort(ORDER);
+        List<Scored> result = new ArrayList<>(Math.min(limit, ordered.size()));
+        for (Entry entry : ordered) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new Scored(entry.id, entry.score * decay));
+        }
+        return result;
+    }
+
+    /**
+     * 当前跟踪的ID数
+     *
+     * @return ID数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 以当前时间为新基准缩小所有分值，并清除热度可以忽略的ID
+     */
+    private void rescale(long nowMillis) {
+        double factor = Math.exp(-decayPerMilli * (nowMillis - landmark));
+        landmark = nowMillis;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            entry.score *= factor;
+            if (entry.score < MIN_SCORE) {
+                iterator.remove();
+            }
+        }
+        top.clear();
+        refillTop();
+    }
+
+    /**
+     * 清除热度较低的一半ID，前K名总是保留
+     */
+    private void evictLowerHalf() {
+        List<Entry> ordered = new ArrayList<>(entries.values());
+        ordered.sort(ORDER);
+        for (Entry entry : ordered.subList(Math.max(k, ordered.size() / 2), ordered.size())) {
+            entries.remove(entry.id);
+        }
+    }
+
+    /**
+     * 从全部ID中重新选出前K名
+     */
+    private void refillTop() {
+        for (Entry entry : entries.values()) {
+            if (top.contains(entry)) {
+                continue;
+            }
+            if (top.size() < k) {
+                top.add(entry);
+            } else if (ORDER.compare(entry, top.last()) < 0) {
+                top.pollLast();
+                top.add(entry);
+            }
+        }
+    }
+
+    /**
+     * 跟踪的ID及其放大后的分值，分值只在不属于前K名集合时修改
+     */
+    private static final class Entry {
+        private final long id;
+        private double score;
+
+        private Entry(long id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * ID及其当前热度
+     */
+    public static final class Scored {
+        private final long id;
+        private final double score;
+
+        public Scored(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
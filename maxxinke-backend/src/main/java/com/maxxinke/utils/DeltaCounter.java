@@ -0,0 +1,170 @@
+package com.maxxinke.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 按ID累加的增量计数器
+ * 在内存中合并同一ID的多次累加，由后台任务定期把累加值一次性写入数据库，
+ * 避免每次计数都读取并更新数据库中的整行数据
+ *
+ * 累加值按ID的哈希分段加锁，不同分段的累加互不阻塞；
+ * 每段的ID数有上限，超出时新ID的累加被丢弃并计数，保证内存占用有界。
+ * 写入数据库期间的累加值仍可通过{@link #get(long)}读到，写入失败时重新放回，下次写入时重试
+ *
+ * 累加和读取方法是线程安全的；写入数据库同一时间只有一个线程执行
+ */
+public class DeltaCounter {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final int segmentCapacity;
+
+    /**
+     * 正在写入数据库的累加值，按ID升序排列
+     */
+    private volatile NavigableMap<Long, Long> flushing = Collections.emptyNavigableMap();
+
+    private final LongAdder addedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder flushedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * @param maxIds 内存中同时累加的ID数上限
+     */
+    public DeltaCounter(int maxIds) {
+        this.segmentCapacity = Math.max(1, maxIds / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 累加指定ID的计数
+     *
+     * @param id ID
+     * @param delta 增量
+     * @return true表示已累加，false表示ID数超出上限被丢弃
+     */
+    public boolean add(long id, long delta) {
+        Segment segment = segment(id);
+        synchronized (segment) {
+            Long current = segment.deltas.get(id);
+            if (current == null && segment.deltas.size() >= segmentCapacity) {
+                droppedCount.increment();
+                return false;
+            }
+            segment.deltas.put(id, current == null ? delta : current + delta);
+        }
+        addedCount.increment();
+        return true;
+    }
+
+    /**
+     * 获取指定ID尚未写入数据库的累加值，包括正在写入的部分
+     * 写入事务提交后到清除正在写入的累加值之前，读到的结果可能短暂地重复计算这一部分
+     *
+     * @param id ID
+     * @return 累加值
+     */
+    public long get(long id) {
+        Segment segment = segment(id);
+        synchronized (segment) {
+            return segment.deltas.getOrDefault(id, 0L) + flushing.getOrDefault(id, 0L);
+        }
+    }
+
+    /**
+     * 取出全部累加值交给写入方法，写入方法抛出异常时把累加值放回
+     *
+     * @param writer 写入方法，参数为按ID升序排列的累加值
+     * @return 写入的ID数
+     */
+    public synchronized int flush(Consumer<Map<Long, Long>> writer) {
+        NavigableMap<Long, Long> drained = new ConcurrentSkipListMap<>();
+        flushing = drained;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                drained.putAll(segment.deltas);
+                segment.deltas.clear();
+            }
+        }
+        if (drained.isEmpty()) {
+            flushing = Collections.emptyNavigableMap();
+            return 0;
+        }
+        try {
+            writer.accept(Collections.unmodifiableMap(drained));
+        } catch (RuntimeException e) {
+            failedCount.increment();
+            restore(drained);
+            throw e;
+        } finally {
+            flushing = Collections.emptyNavigableMap();
+        }
+        flushedCount.add(drained.size());
+        return drained.size();
+    }
+
+    /**
+     * 当前内存中累加的ID数
+     *
+     * @return ID数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.deltas.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取计数器的运行统计
+     *
+     * @return 统计数据
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingIds", size());
+        stats.put("added", addedCount.sum());
+        stats.put("dropped", droppedCount.sum());
+        stats.put("flushedIds", flushedCount.sum());
+        stats.put("failedFlushes", failedCount.sum());
+        return stats;
+    }
+
+    /**
+     * 把写入失败的累加值放回各分段，放回时不受ID数上限限制
+     */
+    private void restore(NavigableMap<Long, Long> drained) {
+        for (Map.Entry<Long, Long> entry : drained.entrySet()) {
+            Segment segment = segment(entry.getKey());
+            synchronized (segment) {
+                segment.deltas.merge(entry.getKey(), entry.getValue(), Long::sum);
+                drained.remove(entry.getKey());
+            }
+        }
+    }
+
+    private Segment segment(long id) {
+        return segments[(Long.hashCode(id) & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    /**
+     * 计数分段
+     */
+    private static final class Segment {
+        private final Map<Long, Long> deltas = new HashMap<>();
+    }
+}
@@ -0,0 +1,323 @@
+package com.maxxinke.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 内存分面索引
+ *
+ * 每个维度的每个取值对应一个文档ID位图，按条件过滤只需要位图的与、或运算，不需要读取文档本身。
+ * 同一维度的多个取值之间为"或"，不同维度之间为"且"；统计某个维度各取值的数量时不应用该维度自身的条件，
+ * 用户在一个维度中选中一个取值后仍能看到同一维度其他取值的数量。
+ *
+ * 维度名称和取值都按{@link #normalize(String)}归一化后作为键，展示名称保留最近一次写入的原文。
+ * 文档ID必须是非负的int范围整数。
+ *
+ * 读写使用读写锁，查询之间可以并发。本类的所有方法都是线程安全的
+ */
+public class FacetIndex {
+
+    private final Map<String, Map<String, BitSet>> dimensions = new HashMap<>();
+    private final Map<String, String> labels = new HashMap<>();
+    private final Map<Integer, Map<String, List<String>>> documents = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id 文档ID
+     * @param values 维度到原始取值的映射，维度或取值归一化后为空的被忽略
+     */
+    public void put(int id, Map<String, ? extends Collection<String>> values) {
+        Map<String, List<String>> keys = new HashMap<>();
+        Map<String, String> newLabels = new HashMap<>();
+        values.forEach((rawDimension, raw) -> {
+            String dimension = normalize(rawDimension);
+            if (dimension.isEmpty()) {
+                return;
+            }
+            newLabels.put(labelKey(dimension, ""), rawDimension.trim());
+            for (String value : raw) {
+                String key = normalize(value);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                List<String> dimensionKeys = keys.computeIfAbsent(dimension, d -> new ArrayList<>());
+                if (!dimensionKeys.contains(key)) {
+                    dimensionKeys.add(key);
+                    newLabels.put(labelKey(dimension, key), value.trim());
+                }
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, keys);
+            all.set(id);
+            keys.forEach((dimension, dimensionKeys) -> {
+                Map<String, BitSet> bitmaps = dimensions.computeIfAbsent(dimension, d -> new HashMap<>());
+                for (String key : dimensionKeys) {
+                    bitmaps.computeIfAbsent(key, k -> new BitSet()).set(id);
+                }
+            });
+            labels.putAll(newLabels);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 获取符合条件的文档ID
+     *
+     * @param filters 维度到可选取值的映射，取值为原文，内部归一化
+     * @return 文档ID位图的副本
+     */
+    public BitSet match(Map<String, ? extends Collection<String>> filters) {
+        lock.readLock().lock();
+        try {
+            return matchLocked(normalizeFilters(filters), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计符合条件的文档在各维度各取值上的数量
+     *
+     * @param filters 维度到可选取值的映射
+     * @param dimensionFilter 只统计归一化后的名称满足该条件的维度，为null时统计全部维度
+     * @return 各维度的取值统计，取值按数量降序排列，数量为0的取值被省略
+     */
+    public List<Facet> counts(Map<String, ? extends Collection<String>> filters, Predicate<String> dimensionFilter) {
+        Map<String, List<String>> normalized = normalizeFilters(filters);
+        lock.readLock().lock();
+        try {
+            List<Facet> result = new ArrayList<>();
+            BitSet matchedAll = matchLocked(normalized, null);
+            dimensions.forEach((dimension, bitmaps) -> {
+                if (dimensionFilter != null && !dimensionFilter.test(dimension)) {
+                    return;
+                }
+                // 统计一个维度时不应用该维度自身的条件
+                BitSet base = normalized.containsKey(dimension) ? matchLocked(normalized, dimension) : matchedAll;
+                List<FacetCount> counts = new ArrayList<>();
+                bitmaps.forEach((key, bitmap) -> {
+                    int count = intersectionCount(base, bitmap);
+                    if (count > 0) {
+                        counts.add(new FacetCount(key, labels.get(labelKey(dimension, key)), count));
+                    }
+                });
+                if (!counts.isEmpty()) {
+                    counts.sort(Comparator.comparingInt(FacetCount::getCount).reversed()
+                            .thenComparing(FacetCount::getKey));
+                    result.add(new Facet(dimension, labels.get(labelKey(dimension, "")), counts));
+                }
+            });
+            result.sort(Comparator.comparing(Facet::getKey));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取索引统计
+     *
+     * @return 统计数据
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            int values = 0;
+            for (Map<String, BitSet> bitmaps : dimensions.values()) {
+                values += bitmaps.size();
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documents", documents.size());
+            stats.put("dimensions", dimensions.size());
+            stats.put("values", values);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 归一化取值：全角转半角、去掉首尾空白、连续空白合并为一个空格、英文转小写
+     *
+     * @param value 原始取值
+     * @return 归一化后的取值，输入为null时返回空字符串
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFKC).trim();
+        return normalized.replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    private static Map<String, List<String>> normalizeFilters(Map<String, ? extends Collection<String>> filters) {
+        Map<String, List<String>> normalized = new HashMap<>();
+        filters.forEach((dimension, values) -> {
+            List<String> keys = normalized.computeIfAbsent(normalize(dimension), d -> new ArrayList<>());
+            for (String value : values) {
+                keys.add(normalize(value));
+            }
+        });
+        return normalized;
+    }
+
+    private BitSet matchLocked(Map<String, List<String>> filters, String excluded) {
+        BitSet result = (BitSet) all.clone();
+        for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+            if (filter.getKey().equals(excluded)) {
+                continue;
+            }
+            Map<String, BitSet> bitmaps = dimensions.getOrDefault(filter.getKey(), Collections.emptyMap());
+            BitSet union = new BitSet();
+            for (String value : filter.getValue()) {
+                BitSet bitmap = bitmaps.get(value);
+                if (bitmap != null) {
+                    union.or(bitmap);
+                }
+            }
+            result.and(union);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private void removeLocked(int id) {
+        Map<String, List<String>> existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        all.clear(id);
+        existing.forEach((dimension, keys) -> {
+            Map<String, BitSet> bitmaps = dimensions.get(dimension);
+            if (bitmaps == null) {
+                return;
+            }
+            for (String key : keys) {
+                BitSet bitmap = bitmaps.get(key);
+                if (bitmap == null) {
+                    continue;
+                }
+                bitmap.clear(id);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                    labels.remove(labelKey(dimension, key));
+                }
+            }
+            if (bitmaps.isEmpty()) {
+                dimensions.remove(dimension);
+                labels.remove(labelKey(dimension, ""));
+            }
+        });
+    }
+
+    private static String labelKey(String dimension, String key) {
+        return dimension + '\u0000' + key;
+    }
+
+    /**
+     * 一个维度的取值统计
+     */
+    public static final class Facet {
+        private final String key;
+        private final String label;
+        private final List<FacetCount> values;
+
+        private Facet(String key, String label, List<FacetCount> values) {
+            this.key = key;
+            this.label = label;
+            this.values = Collections.unmodifiableList(values);
+        }
+
+        /**
+         * 归一化后的维度名称
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 维度的展示原文
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public List<FacetCount> getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * 一个取值及其文档数
+     */
+    public static final class FacetCount {
+        private final String key;
+        private final String label;
+        private final int count;
+
+        private FacetCount(String key, String label, int count) {
+            this.key = key;
+            this.label = label;
+            this.count = count;
+        }
+
+        /**
+         * 归一化后的取值
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * 取值的展示原文
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.maxxinke.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 列表接口的字段选择
+ *
+ * 请求参数为逗号分隔的字段名，只查询和返回这些字段；参数为空或为{@link #DEFAULT}时使用接口的默认字段。
+ * 关键字不使用实体中已有的字段名（如新闻的summary），避免与选择单个字段混淆。
+ * id总是被选中并排在第一位，字段名不在可选范围内时抛出IllegalArgumentException
+ */
+public final class FieldSelection {
+
+    /**
+     * 表示使用接口默认字段的参数值
+     */
+    public static final String DEFAULT = "default";
+
+    private static final String ID = "id";
+
+    private FieldSelection() {
+    }
+
+    /**
+     * 解析字段参数
+     *
+     * @param fields 逗号分隔的字段名
+     * @param allowed 可选字段
+     * @param defaults 默认字段
+     * @return 去重后的字段列表，第一个为id
+     */
+    public static List<String> parse(String fields, Collection<String> allowed, Collection<String> defaults) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add(ID);
+        if (fields == null || fields.trim().isEmpty() || fields.trim().equals(DEFAULT)) {
+            selected.addAll(defaults);
+            return new ArrayList<>(selected);
+        }
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("不支持的字段: " + name + "，可选字段: " + String.join(",", allowed));
+            }
+            selected.add(name);
+        }
+        return new ArrayList<>(selected);
+    }
+}
@@ -0,0 +1,459 @@
+package com.maxxinke.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 内存倒排索引
+ *
+ * 文档由多个文本字段组成，每个字段有自己的权重。分词规则：
+ * 连续的汉字（以及日文、韩文）索引单字和相邻两字，查询时使用相邻两字，单个汉字的查询使用单字；
+ * 连续的字母数字按词索引，字母和数字混合的词（如DN110）同时索引拆开后的各部分；英文统一转为小写。
+ *
+ * 相关度使用BM25计算，词频和文档长度按字段权重加权。查询词不多于两个时要求全部匹配，
+ * 更多时至少匹配四分之三，避免长查询拆出的两字词匹配到大量无关文档。
+ *
+ * 读写使用读写锁，查询之间可以并发。本类的所有方法都是线程安全的
+ *
+ * @param <T> 文档附带的属性类型，用于查询时过滤
+ */
+public class InvertedIndex<T> {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private final Map<String, Float> fieldWeights;
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, Document<T>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+
+    /**
+     * @param fieldWeights 各字段的权重，未列出的字段不建立索引
+     */
+    public InvertedIndex(Map<String, Float> fieldWeights) {
+        this.fieldWeights = new LinkedHashMap<>(fieldWeights);
+    }
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id 文档ID
+     * @param attributes 文档属性
+     * @param fields 字段名到文本的映射
+     */
+    public void put(long id, T attributes, Map<String, String> fields) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = 0;
+        for (Map.Entry<String, Float> field : fieldWeights.entrySet()) {
+            String text = fields.get(field.getKey());
+            if (text == null) {
+                continue;
+            }
+            for (String token : indexTokens(text)) {
+                termFrequencies.merge(token, field.getValue(), Float::sum);
+                length += field.getValue();
+            }
+        }
+        Document<T> document = new Document<>(id, attributes, new HashMap<>(fields), length,
+                termFrequencies.keySet().toArray(new String[0]));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, document);
+            totalLength += length;
+            termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按相关度查询文档
+     *
+     * @param query 查询文本
+     * @param filter 文档属性过滤条件，为null时不过滤
+     * @param offset 跳过的结果数
+     * @param limit 返回的结果数
+     * @return 查询结果
+     */
+    public SearchResult<T> search(String query, Predicate<T> filter, int offset, int limit) {
+        List<String> terms = queryTokens(query);
+        if (terms.isEmpty()) {
+            return new SearchResult<>(terms, 0, Collections.emptyList());
+        }
+        int minMatched = terms.size() <= 2 ? terms.size() : (int) Math.ceil(terms.size() * 0.75);
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new SearchResult<>(terms, 0, Collections.emptyList());
+            }
+            double averageLength = Math.max(totalLength / documentCount, 1e-9);
+            Map<Long, double[]> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Long, Float> entry : posting.entrySet()) {
+                    Document<T> document = documents.get(entry.getKey());
+                    double frequency = entry.getValue();
+                    double norm = K1 * (1 - B + B * document.length / averageLength);
+                    double[] score = scores.computeIfAbsent(entry.getKey(), k -> new double[2]);
+                    score[0] += idf * frequency * (K1 + 1) / (frequency + norm);
+                    score[1]++;
+                }
+            }
+
+            // 只保留offset + limit个最高分的结果
+            int keep = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, offset) + Math.max(0, limit));
+            Comparator<Hit<T>> order = Comparator.<Hit<T>>comparingDouble(Hit::getScore)
+                    .thenComparingLong(Hit::getId);
+            PriorityQueue<Hit<T>> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), order);
+            long total = 0;
+            for (Map.Entry<Long, double[]> entry : scores.entrySet()) {
+                double[] score = entry.getValue();
+                if (score[1] < minMatched) {
+                    continue;
+                }
+                Document<T> document = documents.get(entry.getKey());
+                if (filter != null && !filter.test(document.attributes)) {
+                    continue;
+                }
+                total++;
+                if (keep == 0) {
+                    continue;
+                }
+                Hit<T> hit = new Hit<>(document, score[0]);
+                if (top.size() < keep) {
+                    top.add(hit);
+                } else if (order.compare(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            List<Hit<T>> hits = new ArrayList<>(top);
+            hits.sort(order.reversed());
+            List<Hit<T>> page = offset < hits.size() ? hits.subList(Math.max(0, offset), hits.size()) : Collections.emptyList();
+            return new SearchResult<>(terms, total, new ArrayList<>(page));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 获取索引统计
+     *
+     * @return 统计数据
+     */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("documents", documents.size());
+            stats.put("terms", postings.size());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 将文本中匹配查询词的部分用&lt;em&gt;标签包围，其余内容做HTML转义
+     *
+     * @param text 原文
+     * @param terms 查询词，取自{@link SearchResult#getTerms()}
+     * @param maxLength 片段的最大字符数，不大于0时返回全文；截取时以第一个匹配位置为中心
+     * @return 高亮后的HTML片段，maxLength大于0且没有匹配时返回null
+     */
+    public static String highlight(String text, Collection<String> terms, int maxLength) {
+        if (text == null) {
+            return null;
+        }
+        char[] lower = new char[text.length()];
+        for (int i = 0; i < lower.length; i++) {
+            lower[i] = Character.toLowerCase(text.charAt(i));
+        }
+        String folded = new String(lower);
+        boolean[] matched = new boolean[text.length()];
+        int first = -1;
+        for (String term : terms) {
+            for (int at = folded.indexOf(term); at >= 0; at = folded.indexOf(term, at + 1)) {
+                Arrays.fill(matched, at, at + term.length(), true);
+                if (first < 0 || at < first) {
+                    first = at;
+                }
+            }
+        }
+        if (first < 0 && maxLength > 0) {
+            return null;
+        }
+
+        int start = 0;
+        int end = text.length();
+        if (maxLength > 0 && text.length() > maxLength) {
+            start = Math.max(0, Math.min(first - maxLength / 4, text.length() - maxLength));
+            end = start + maxLength;
+        }
+        StringBuilder html = new StringBuilder(end - start + 16);
+        if (start > 0) {
+            html.append('…');
+        }
+        boolean open = false;
+        for (int i = start; i < end; i++) {
+            if (matched[i] != open) {
+                html.append(open ? "</em>" : "<em>");
+                open = matched[i];
+            }
+            appendEscaped(html, text.charAt(i));
+        }
+        if (open) {
+            html.append("</em>");
+        }
+        if (end < text.length()) {
+            html.append('…');
+        }
+        return html.toString();
+    }
+
+    /**
+     * 索引时的分词结果，汉字同时输出单字和相邻两字
+     */
+    static List<String> indexTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens, true);
+        return tokens;
+    }
+
+    /**
+     * 查询时的分词结果，去重后保持原有顺序
+     */
+    static List<String> queryTokens(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        tokenize(text, tokens, false);
+        Set<String> distinct = new LinkedHashSet<>(tokens);
+        return new ArrayList<>(distinct);
+    }
+
+    private static void tokenize(String text, List<String> tokens, boolean forIndex) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(String.valueOf(c));
+                    continue;
+                }
+                for (int j = start; j < i; j++) {
+                    if (forIndex) {
+                        tokens.add(String.valueOf(text.charAt(j)));
+                    }
+                    if (j + 1 < i) {
+                        tokens.add(text.substring(j, j + 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                addWord(text.substring(start, Math.min(i, start + MAX_WORD_LENGTH)), tokens, forIndex);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static void addWord(String word, List<String> tokens, boolean forIndex) {
+        String lower = word.toLowerCase();
+        tokens.add(lower);
+        if (!forIndex) {
+            return;
+        }
+        // 字母和数字混合的词同时索引各部分，如dn110索引为dn110、dn、110
+        int partStart = 0;
+        for (int i = 1; i <= lower.length(); i++) {
+            if (i == lower.length() || Character.isDigit(lower.charAt(i)) != Character.isDigit(lower.charAt(i - 1))) {
+                if (partStart > 0 || i < lower.length()) {
+                    tokens.add(lower.substring(partStart, i));
+                }
+                partStart = i;
+            }
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void appendEscaped(StringBuilder html, char c) {
+        switch (c) {
+            case '<':
+                html.append("&lt;");
+                break;
+            case '>':
+                html.append("&gt;");
+                break;
+            case '&':
+                html.append("&amp;");
+                break;
+            case '"':
+                html.append("&quot;");
+                break;
+            case '\'':
+                html.append("&#39;");
+                break;
+            default:
+                html.append(c);
+        }
+    }
+
+    private void removeLocked(long id) {
+        Document<T> existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        totalLength -= existing.length;
+        for (String term : existing.terms) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * 已索引的文档
+     */
+    private static final class Document<T> {
+        private final long id;
+        private final T attributes;
+        private final Map<String, String> fields;
+        private final float length;
+        private final String[] terms;
+
+        private Document(long id, T attributes, Map<String, String> fields, float length, String[] terms) {
+            this.id = id;
+            this.attributes = attributes;
+            this.fields = fields;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * 一条查询结果
+     */
+    public static final class Hit<T> {
+        private final Document<T> document;
+        private final double score;
+
+        private Hit(Document<T> document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        public long getId() {
+            return document.id;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public T getAttributes() {
+            return document.attributes;
+        }
+
+        /**
+         * 获取建立索引时的字段原文，用于生成高亮片段
+         *
+         * @param field 字段名
+         * @return 字段原文
+         */
+        public String getField(String field) {
+            return document.fields.get(field);
+        }
+    }
+
+    /**
+     * 一次查询的结果
+     */
+    public static final class SearchResult<T> {
+        private final List<String> terms;
+        private final long total;
+        private final List<Hit<T>> hits;
+
+        private SearchResult(List<String> terms, long total, List<Hit<T>> hits) {
+            this.terms = Collections.unmodifiableList(terms);
+            this.total = total;
+            this.hits = Collections.unmodifiableList(hits);
+        }
+
+        /**
+         * 查询文本分词后的查询词
+         */
+        public List<String> getTerms() {
+            return terms;
+        }
+
+        /**
+         * 符合条件的结果总数
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        public List<Hit<T>> getHits() {
+            return hits;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.maxxinke.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maxxinke.entity.News;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+
+import java.util.List;
+
+/**
+ * 共享的JSON读写器
+ *
+ * 请求中以文本提交的JSON（如multipart中的产品、新闻）和产品规格列使用这里预先创建的读写器，
+ * 不再每次创建ObjectMapper；读写器在类加载时就找好了对应类型的序列化器，第一次使用时不需要再查找。
+ * ObjectReader和ObjectWriter不可变，可以被多个线程同时使用。
+ *
+ * 接口响应仍由Spring配置的ObjectMapper输出
+ */
+public final class JsonCodec {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final TypeReference<List<ProductSpecification>> SPECIFICATIONS_TYPE = new TypeReference<List<ProductSpecification>>() {};
+
+    /**
+     * 读取请求中的产品，忽略产品没有的字段
+     */
+    public static final ObjectReader PRODUCT_READER = MAPPER.readerFor(Product.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    /**
+     * 读取请求中的新闻
+     */
+    public static final ObjectReader NEWS_READER = MAPPER.readerFor(News.class);
+
+    /**
+     * 读取产品规格列中的JSON
+     */
+    public static final ObjectReader SPECIFICATIONS_READER = MAPPER.readerFor(SPECIFICATIONS_TYPE);
+
+    /**
+     * 将产品规格写为规格列中的JSON
+     */
+    public static final ObjectWriter SPECIFICATIONS_WRITER = MAPPER.writerFor(SPECIFICATIONS_TYPE);
+
+    private JsonCodec() {
+    }
+}
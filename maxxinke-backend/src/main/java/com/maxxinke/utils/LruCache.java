@@ -0,0 +1,184 @@
+package com.maxxinke.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 有容量上限和过期时间的LRU缓存
+ *
+ * 缓存按key的哈希分段加锁，每段是按访问顺序排列的LinkedHashMap，超出容量时淘汰最久未访问的条目。
+ * 缓存维护一个失效版本号，每次失效操作都会使版本号加1；调用方在查询数据库前读取版本号，
+ * 写入缓存时只有版本号未变化才会写入，避免失效之前查到的旧数据在失效之后被写回缓存
+ *
+ * 本类的所有方法都是线程安全的
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruCache<K, V> {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlMillis;
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    /**
+     * @param maxSize 缓存条目数上限
+     * @param ttlMillis 条目写入后的有效时间（毫秒），不大于0表示不过期
+     */
+    @SuppressWarnings("unchecked")
+    public LruCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.segments = new Segment[SEGMENT_COUNT];
+        int segmentCapacity = Math.max(1, maxSize / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    /**
+     * 获取缓存的值
+     *
+     * @param key 键
+     * @return 缓存的值，不存在或已过期时返回null
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            CachedValue<V> entry = segment.entries.get(key);
+            if (entry != null && (ttlMillis <= 0 || System.currentTimeMillis() < entry.expireAt)) {
+                hitCount.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                segment.entries.remove(key);
+            }
+            missCount.increment();
+            return null;
+        }
+    }
+
+    /**
+     * 当前的失效版本号，应在查询数据库之前读取
+     *
+     * @return 版本号
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * 写入缓存，读取版本号之后发生过失效操作时不写入
+     *
+     * @param key 键
+     * @param value 值
+     * @param loadedVersion 查询数据库之前读取的版本号
+     * @return 是否已写入
+     */
+    public boolean put(K key, V value, long loadedVersion) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            if (version.get() != loadedVersion) {
+                return false;
+            }
+            segment.entries.put(key, new CachedValue<>(value, System.currentTimeMillis() + ttlMillis));
+            return true;
+        }
+    }
+
+    /**
+     * 使单个键失效
+     *
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        version.incrementAndGet();
+        invalidationCount.increment();
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    /**
+     * 使全部键失效
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        invalidationCount.increment();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * 当前缓存的条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取缓存运行统计
+     *
+     * @return 统计数据
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount.sum());
+        stats.put("misses", missCount.sum());
+        stats.put("invalidations", invalidationCount.sum());
+        return stats;
+    }
+
+    private Segment<K, V> segment(K key) {
+        return segments[(key.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    /**
+     * 缓存分段，按访问顺序排列，超出容量时淘汰最久未访问的条目
+     */
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, CachedValue<V>> entries;
+
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, CachedValue<V>> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * 缓存的值及其过期时间
+     */
+    private static final class CachedValue<V> {
+        private final V value;
+        private final long expireAt;
+
+        private CachedValue(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.maxxinke.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 按键值翻页的游标
+ *
+ * 游标记录上一页最后一条记录的排序值、创建时间和ID，下一页从该位置之后开始读取，
+ * 数据库只需沿索引范围读取一页的数据，不需要跳过前面的行，也不需要统计总数。
+ * 没有排序值的列表（新闻、留言）排序值为0。
+ *
+ * 游标编码为URL安全的Base64文本，并带有列表名称，不能用于其他列表
+ */
+public final class SeekCursor {
+
+    /**
+     * 第一页使用的起始位置，排在所有记录之前
+     */
+    private static final SeekCursor FIRST = new SeekCursor(Integer.MAX_VALUE, LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+
+    private final int sort;
+    private final LocalDateTime createTime;
+    private final long id;
+
+    private SeekCursor(int sort, LocalDateTime createTime, long id) {
+        this.sort = sort;
+        this.createTime = createTime;
+        this.id = id;
+    }
+
+    /**
+     * 获取第一页的起始位置
+     *
+     * @return 排在所有记录之前的游标
+     */
+    public static SeekCursor first() {
+        return FIRST;
+    }
+
+    /**
+     * 以一条记录的位置创建游标
+     *
+     * @param sort 排序值，为null时按0处理
+     * @param createTime 创建时间
+     * @param id 记录ID
+     * @return 游标
+     */
+    public static SeekCursor of(Integer sort, LocalDateTime createTime, Long id) {
+        return new SeekCursor(sort != null ? sort : 0, createTime, id);
+    }
+
+    /**
+     * 解析游标，为空时返回第一页的起始位置
+     *
+     * @param scope 列表名称
+     * @param token 游标文本
+     * @return 游标
+     * @throws IllegalArgumentException 游标格式错误或不属于该列表
+     */
+    public static SeekCursor decode(String scope, String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 4 || !parts[0].equals(scope)) {
+                throw new IllegalArgumentException("分页游标不属于该列表");
+            }
+            return new SeekCursor(Integer.parseInt(parts[1]), LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("分页游标格式错误", e);
+        }
+    }
+
+    /**
+     * 编码为游标文本
+     *
+     * @param scope 列表名称
+     * @return 游标文本
+     */
+    public String encode(String scope) {
+        String raw = scope + "|" + sort + "|" + createTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getSort() {
+        return sort;
+    }
+
+    public LocalDateTime getCreateTime() {
+        return createTime;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,168 @@
+package com.maxxinke.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并同一个键的并发加载
+ *
+ * 同一个键同时只有一个线程执行加载，其他线程等待并共享同一个结果，避免缓存失效或重启后
+ * 大量请求同时查询同一条数据。加载在第一个请求的线程中执行，不占用额外的线程池。
+ * 可以设置结果保留时间，保留期内的请求直接使用上次的结果；加载失败的结果不保留。
+ *
+ * 调用{@link #forget(Object)}或{@link #forgetAll()}后，之前开始的加载完成时不再保留结果，
+ * 避免数据修改之前查到的旧数据在修改之后继续被使用
+ *
+ * 结果会被多个线程共享，加载方法应返回不会被修改的对象，由调用方各自复制后再使用。
+ * 本类的所有方法都是线程安全的
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    // 保留的结果超过该数量时清理已过期的结果
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final ConcurrentHashMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+    private final long retainMillis;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder retainedHitCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * @param retainMillis 加载完成后结果的保留时间（毫秒），不大于0表示只合并正在进行的加载
+     */
+    public SingleFlight(long retainMillis) {
+        this.retainMillis = retainMillis;
+    }
+
+    /**
+     * 获取键对应的结果，已有正在进行或保留期内的加载时直接使用其结果
+     *
+     * @param key 键
+     * @param loader 加载方法
+     * @return 加载结果
+     */
+    public V load(K key, Supplier<V> loader) {
+        while (true) {
+            Call<V> call = calls.get(key);
+            if (call != null) {
+                if (call.isExpired(System.currentTimeMillis())) {
+                    calls.remove(key, call);
+                    continue;
+                }
+                if (call.future.isDone()) {
+                    retainedHitCount.increment();
+                } else {
+                    coalescedCount.increment();
+                }
+                return join(call.future);
+            }
+            Call<V> created = new Call<>(generation.get());
+            if (calls.putIfAbsent(key, created) == null) {
+                return execute(key, created, loader);
+            }
+        }
+    }
+
+    /**
+     * 丢弃键对应的加载，之后的请求重新加载
+     *
+     * @param key 键
+     */
+    public void forget(K key) {
+        generation.incrementAndGet();
+        calls.remove(key);
+    }
+
+    /**
+     * 丢弃全部加载
+     */
+    public void forgetAll() {
+        generation.incrementAndGet();
+        calls.clear();
+    }
+
+    /**
+     * 获取运行统计
+     *
+     * @return 统计数据，coalesced为等待其他线程加载的次数，retainedHits为使用保留结果的次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", calls.size());
+        stats.put("loads", loadCount.sum());
+        stats.put("coalesced", coalescedCount.sum());
+        stats.put("retainedHits", retainedHitCount.sum());
+        stats.put("failures", failureCount.sum());
+        return stats;
+    }
+
+    private V execute(K key, Call<V> call, Supplier<V> loader) {
+        loadCount.increment();
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            failureCount.increment();
+            calls.remove(key, call);
+            call.future.completeExceptionally(e);
+            throw e;
+        }
+        if (retainMillis > 0 && call.generation == generation.get()) {
+            call.expireAt = System.currentTimeMillis() + retainMillis;
+        } else {
+            calls.remove(key, call);
+        }
+        call.future.complete(value);
+        if (retainMillis > 0 && calls.size() > SWEEP_THRESHOLD) {
+            long now = System.currentTimeMillis();
+            calls.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+        }
+        return value;
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // 加载线程抛出的异常原样抛给等待的线程
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 一次加载及其结果的保留期限
+     */
+    private static final class Call<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final long generation;
+        // 加载完成前为0，表示尚未开始计算保留期
+        private volatile long expireAt;
+
+        private Call(long generation) {
+            this.generation = generation;
+        }
+
+        private boolean isExpired(long now) {
+            return expireAt != 0 && now >= expireAt;
+        }
+    }
+}
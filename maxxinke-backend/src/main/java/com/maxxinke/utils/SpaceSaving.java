@@ -0,0 +1,121 @@
+package com.maxxinke.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving高频元素统计
+ * 最多跟踪capacity个元素，计数表已满时新元素替换当前计数最小的元素，
+ * 并继承其计数作为误差上限。出现次数超过总次数/capacity的元素一定会被保留
+ *
+ * 本类的所有方法都是线程安全的
+ *
+ * @param <K> 元素类型
+ */
+public class SpaceSaving<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final TreeSet<Counter<K>> ordered;
+    private long sequence;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Space-Saving容量必须为正数");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+        this.ordered = new TreeSet<>(Comparator.<Counter<K>>comparingLong(c -> c.count).thenComparingLong(c -> c.sequence));
+    }
+
+    /**
+     * 累加元素的出现次数
+     *
+     * @param key 元素
+     * @param increment 增加的次数
+     */
+    public synchronized void offer(K key, long increment) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count += increment;
+            ordered.add(counter);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter<>(key, increment, 0, sequence++);
+        } else {
+            Counter<K> min = ordered.pollFirst();
+            counters.remove(min.key);
+            counter = new Counter<>(key, min.count + increment, min.count, sequence++);
+        }
+        counters.put(key, counter);
+        ordered.add(counter);
+    }
+
+    /**
+     * 获取被跟踪元素的计数，未被跟踪时返回null
+     *
+     * @param key 元素
+     * @return 计数项
+     */
+    public synchronized Counter<K> get(K key) {
+        Counter<K> counter = counters.get(key);
+        return counter == null ? null : counter.copy();
+    }
+
+    /**
+     * 获取计数最高的若干元素
+     *
+     * @param limit 数量
+     * @return 按计数降序排列的计数项副本
+     */
+    public synchronized List<Counter<K>> top(int limit) {
+        List<Counter<K>> result = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter<K> counter : ordered.descendingSet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(counter.copy());
+        }
+        return result;
+    }
+
+    /**
+     * 计数项
+     * count为估算次数（不小于真实次数），error为估算的误差上限
+     */
+    public static final class Counter<K> {
+        private final K key;
+        private long count;
+        private final long error;
+        private final long sequence;
+
+        private Counter(K key, long count, long error, long sequence) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+
+        private Counter<K> copy() {
+            return new Counter<>(key, count, error, sequence);
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.maxxinke.utils;
+
+import com.maxxinke.entity.UserAgent;
+
+import java.util.Locale;
+
+/**
+ * User-Agent分类工具
+ * 根据User-Agent中的关键字判断访问来源是桌面浏览器、移动设备还是爬虫；
+ * 空的User-Agent和不含浏览器标识的客户端（如命令行工具、HTTP库）都按爬虫处理
+ */
+public final class UserAgentClassifier {
+
+    private static final String[] BOT_KEYWORDS = {
+            "bot", "spider", "crawl", "slurp", "archiver", "facebookexternalhit", "mediapartners",
+            "feedfetcher", "preview", "headless", "phantomjs", "lighthouse", "pingdom", "uptime",
+            "monitor", "curl", "wget", "python", "java/", "okhttp", "go-http-client", "httpclient",
+            "axios", "node-fetch", "postman", "scrapy"
+    };
+
+    private static final String[] MOBILE_KEYWORDS = {
+            "mobile", "android", "iphone", "ipad", "ipod", "windows phone", "harmonyos", "openharmony"
+    };
+
+    private UserAgentClassifier() {
+    }
+
+    /**
+     * 判断User-Agent的访问来源类型
+     *
+     * @param userAgent User-Agent原文
+     * @return {@link UserAgent}中定义的访问来源类型
+     */
+    public static int classify(String userAgent) {
+        if (userAgent == null || userAgent.trim().isEmpty()) {
+            return UserAgent.CATEGORY_BOT;
+        }
+        String value = userAgent.toLowerCase(Locale.ROOT);
+        for (String keyword : BOT_KEYWORDS) {
+            if (value.contains(keyword)) {
+                return UserAgent.CATEGORY_BOT;
+            }
+        }
+        if (!value.startsWith("mozilla/") && !value.startsWith("opera")) {
+            return UserAgent.CATEGORY_BOT;
+        }
+        for (String keyword : MOBILE_KEYWORDS) {
+            if (value.contains(keyword)) {
+                return UserAgent.CATEGORY_MOBILE;
+            }
+        }
+        return UserAgent.CATEGORY_BROWSER;
+    }
+}
@@ -0,0 +1,154 @@
+package com.maxxinke.utils;
+
+import com.maxxinke.config.VisitLogProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问去重缓存
+ * 记录访问者最近一次被计入统计的时间，同一key在去重间隔内的重复访问不再计数
+ *
+ * 缓存按key的哈希分段加锁，每段是按写入顺序排列的LinkedHashMap，
+ * 表头始终是最早写入的条目，因此过期清理只需从表头依次弹出；
+ * 每段条目数有上限，超出时淘汰最早的条目，保证内存占用有界
+ */
+@Component
+public class VisitDedupCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final long intervalMillis;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public VisitDedupCache(VisitLogProperties properties) {
+        this.intervalMillis = TimeUnit.SECONDS.toMillis(properties.getDedupIntervalSeconds());
+        int segmentCapacity = Math.max(1, properties.getDedupMaxEntries() / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * 判断本次访问是否应计入统计
+     * 若key在去重间隔内已被记录过则返回false（命中），否则记录当前时间并返回true
+     *
+     * @param key 去重键，如IP或"IP_路径"
+     * @return true表示应记录本次访问
+     */
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, System.currentTimeMillis());
+    }
+
+    /**
+     * 判断指定时间点的访问是否应计入统计
+     *
+     * @param key 去重键
+     * @param nowMillis 访问时间（毫秒时间戳）
+     * @return true表示应记录本次访问
+     */
+    public boolean tryAcquire(String key, long nowMillis) {
+        Segment segment = segments[(key.hashCode() & 0x7fffffff) % SEGMENT_COUNT];
+        synchronized (segment) {
+            segment.expire(nowMillis - intervalMillis);
+            Stamp stamp = segment.entries.get(key);
+            if (stamp != null && nowMillis - stamp.millis < intervalMillis) {
+                hitCount.increment();
+                return false;
+            }
+            if (stamp != null) {
+                // 移除后重新放入，使该条目移到表尾，保持表内按时间有序
+                segment.entries.remove(key);
+            } else {
+                stamp = new Stamp();
+            }
+            stamp.millis = nowMillis;
+            segment.entries.put(key, stamp);
+            missCount.increment();
+            return true;
+        }
+    }
+
+    /**
+     * 当前缓存的条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 获取缓存统计数据
+     *
+     * @return 包含条目数、命中数、未命中数和淘汰数的统计数据
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("hits", hitCount.sum());
+        stats.put("misses", missCount.sum());
+        stats.put("evictions", evictionCount.sum());
+        return stats;
+    }
+
+    /**
+     * 可变的时间戳，避免每次更新都创建新对象
+     */
+    private static final class Stamp {
+        private long millis;
+    }
+
+    /**
+     * 缓存分段
+     */
+    private final class Segment {
+
+        private final int capacity;
+        private final LinkedHashMap<String, Stamp> entries;
+
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<String, Stamp>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Stamp> eldest) {
+                    if (size() > Segment.this.capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * 从表头开始移除所有早于指定时间的条目
+         *
+         * @param expireBefore 过期时间点
+         */
+        private void expire(long expireBefore) {
+            Iterator<Stamp> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().millis > expireBefore) {
+                    break;
+                }
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+}
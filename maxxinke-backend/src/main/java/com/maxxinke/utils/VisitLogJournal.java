@@ -0,0 +1,468 @@
+package com.maxxinke.utils;
+
+import com.maxxinke.entity.VisitLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.zip.CRC32;
+
+/**
+ * 访问日志本地预写日志
+ *
+ * 访问记录先追加到本地内存映射的分段文件中，再由后台线程读出写入数据库，
+ * 数据库变慢或不可用时记录留在磁盘上，应用重启后从上次确认的位置继续读取。
+ *
+ * 文件按固定大小分段，文件名为"visits-段号.wal"，写满后切换到新的分段。
+ * 每条记录格式为：4字节长度 + 4字节CRC32校验 + 记录内容；
+ * 长度为0表示尚未写入，长度为-1表示该分段已结束。
+ * 先写校验和内容，最后写长度，读取方不会读到写了一半的记录；
+ * 进程崩溃留下的残缺记录校验不通过，视为该分段结束。
+ * 目录中的journal.id文件保存日志的唯一标识，目录被清空或更换后标识随之改变，
+ * 调用方据此判断保存的读取位置是否属于当前日志。
+ *
+ * 追加方法是线程安全的；读取和删除分段只能由同一个后台线程调用
+ */
+public class VisitLogJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "visits-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_BYTES = 8;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String ID_FILE = "journal.id";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final String journalId;
+    private final NavigableSet<Long> segmentIds = new ConcurrentSkipListSet<>();
+    private final long openedId;
+
+    private MappedByteBuffer activeBuffer;
+    private long activeId;
+    private int writeOffset;
+    private boolean closed;
+
+    /**
+     * 已写入的位置，高32位为段号，低32位为段内偏移，供读取线程判断可读范围
+     */
+    private volatile long published;
+
+    // 读取线程当前读取的分段
+    private long readId = -1;
+    private ByteBuffer readBuffer;
+
+    /**
+     * 打开日志目录，保留已有的分段供读取，并创建新的分段用于追加
+     *
+     * @param directory 日志目录
+     * @param segmentBytes 单个分段文件的大小
+     * @param maxBytes 所有分段文件的总大小上限，超出时拒绝追加
+     * @throws IOException 目录或文件操作失败
+     */
+    public VisitLogJournal(Path directory, int segmentBytes, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        this.journalId = loadJournalId(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    segmentIds.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // 忽略不符合命名规则的文件
+                }
+            }
+        }
+        openSegment(segmentIds.isEmpty() ? 1 : segmentIds.last() + 1);
+        this.openedId = activeId;
+    }
+
+    /**
+     * 追加一条访问记录
+     *
+     * @param visitLog 访问日志，创建时间不能为空
+     * @return true表示已写入，false表示日志已关闭、记录过大或超出总大小上限
+     */
+    public boolean append(VisitLog visitLog) {
+        byte[] payload = encode(visitLog);
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        int recordBytes = HEADER_BYTES + payload.length;
+        synchronized (this) {
+            if (closed || recordBytes + 4 > segmentBytes) {
+                return false;
+            }
+            // 分段末尾预留4字节写结束标记
+            if (writeOffset + recordBytes + 4 > segmentBytes && !rotate()) {
+                return false;
+            }
+            activeBuffer.position(writeOffset + 4);
+            activeBuffer.putInt((int) crc.getValue());
+            activeBuffer.put(payload);
+            activeBuffer.putInt(writeOffset, payload.length);
+            writeOffset += recordBytes;
+            published = (activeId << 32) | writeOffset;
+            return true;
+        }
+    }
+
+    /**
+     * 从指定位置读取记录，已读完的分段自动跳到下一个分段
+     *
+     * @param from 起始位置
+     * @param max 最多读取的条数
+     * @return 读取到的记录和下一次读取的位置
+     */
+    public ReadResult read(Position from, int max) {
+        return read(from, max, Long.MAX_VALUE);
+    }
+
+    /**
+     * 从指定位置读取记录，读到指定分段之前停止
+     *
+     * @param from 起始位置
+     * @param max 最多读取的条数
+     * @param endSegment 不读取该段号及之后的分段
+     * @return 读取到的记录和下一次读取的位置
+     */
+    public ReadResult read(Position from, int max, long endSegment) {
+        long segment = from.getSegment();
+        int offset = from.getOffset();
+        if (!segmentIds.contains(segment)) {
+            // 起始分段已不存在时从之后最早的分段开始
+            Long next = segmentIds.ceiling(segment);
+            segment = next != null ? next : activeId();
+            offset = 0;
+        }
+        List<VisitLog> records = new ArrayList<>(Math.min(max, 1024));
+        while (records.size() < max && segment < endSegment) {
+            long mark = published;
+            long writingId = mark >>> 32;
+            ByteBuffer buffer = segmentBuffer(segment);
+            boolean sealed = segment < writingId;
+            int limit = sealed ? buffer.capacity() : (int) mark;
+            int length = offset + HEADER_BYTES <= limit ? buffer.getInt(offset) : 0;
+            if (length <= 0 || length > limit - offset - HEADER_BYTES) {
+                if (!sealed) {
+                    break;
+                }
+                Long next = segmentIds.higher(segment);
+                segment = next != null ? next : writingId;
+                offset = 0;
+                continue;
+            }
+            byte[] payload = new byte[length];
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset + HEADER_BYTES);
+            view.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                if (!sealed) {
+                    break;
+                }
+                // 崩溃时残缺的记录，跳过该分段余下的内容
+                Long next = segmentIds.higher(segment);
+                segment = next != null ? next : writingId;
+                offset = 0;
+                continue;
+            }
+            records.add(decode(payload));
+            offset += HEADER_BYTES + length;
+        }
+        return new ReadResult(records, new Position(segment, offset));
+    }
+
+    /**
+     * 删除段号小于指定值的已结束分段
+     *
+     * @param segment 段号
+     */
+    public void deleteBefore(long segment) {
+        for (Long id : segmentIds.headSet(Math.min(segment, activeId()), false)) {
+            try {
+                Files.deleteIfExists(segmentFile(id));
+                segmentIds.remove(id);
+                if (id == readId) {
+                    readId = -1;
+                    readBuffer = null;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("删除访问日志分段失败: " + id, e);
+            }
+        }
+    }
+
+    /**
+     * 将当前分段已写入的内容刷到磁盘
+     */
+    public synchronized void force() {
+        if (!closed) {
+            activeBuffer.force();
+        }
+    }
+
+    /**
+     * 最早的可读位置
+     *
+     * @return 位置
+     */
+    public Position firstPosition() {
+        return new Position(segmentIds.first(), 0);
+    }
+
+    /**
+     * 本次打开日志时创建的分段号，更早的分段是之前运行留下的
+     *
+     * @return 段号
+     */
+    public long getOpenedSegment() {
+        return openedId;
+    }
+
+    /**
+     * 日志的唯一标识，目录中没有标识文件时创建时生成
+     *
+     * @return 标识
+     */
+    public String getJournalId() {
+        return journalId;
+    }
+
+    /**
+     * 判断读取位置是否可能属于当前日志：分段号不晚于当前追加的分段，偏移不超出分段大小，
+     * 分段仍存在时偏移不超出已写入的位置
+     *
+     * @param position 读取位置
+     * @return true表示位置有效
+     */
+    public boolean isValid(Position position) {
+        long mark = published;
+        long writingId = mark >>> 32;
+        if (position.getSegment() < 1 || position.getSegment() > writingId
+                || position.getOffset() < 0 || position.getOffset() > segmentBytes) {
+            return false;
+        }
+        return position.getSegment() != writingId || position.getOffset() <= (int) mark;
+    }
+
+    /**
+     * 当前磁盘上的分段数
+     *
+     * @return 分段数
+     */
+    public int getSegmentCount() {
+        return segmentIds.size();
+    }
+
+    /**
+     * 估算从指定位置到当前写入位置之间未读取的字节数
+     *
+     * @param from 读取位置
+     * @return 字节数
+     */
+    public long pendingBytes(Position from) {
+        long mark = published;
+        long writingId = mark >>> 32;
+        int writtenOffset = (int) mark;
+        if (from.getSegment() >= writingId) {
+            return Math.max(0, writtenOffset - from.getOffset());
+        }
+        // 已结束的分段按文件大小估算
+        long sealed = segmentIds.subSet(from.getSegment(), true, writingId, false).size();
+        return Math.max(0, sealed * segmentBytes - from.getOffset() + writtenOffset);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        activeBuffer.force();
+        closed = true;
+    }
+
+    private long activeId() {
+        return published >>> 32;
+    }
+
+    /**
+     * 切换到新的分段，总大小超出上限时返回false
+     */
+    private boolean rotate() {
+        if ((long) (segmentIds.size() + 1) * segmentBytes > maxBytes) {
+            return false;
+        }
+        MappedByteBuffer previous = activeBuffer;
+        int previousOffset = writeOffset;
+        try {
+            openSegment(activeId + 1);
+        } catch (IOException e) {
+            return false;
+        }
+        previous.putInt(previousOffset, END_OF_SEGMENT);
+        previous.force();
+        return true;
+    }
+
+    private void openSegment(long id) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(id).toFile(), "rw")) {
+            file.setLength(segmentBytes);
+            activeBuffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        activeId = id;
+        writeOffset = 0;
+        segmentIds.add(id);
+        published = id << 32;
+    }
+
+    /**
+     * 获取分段的只读视图，当前追加的分段直接复用写入映射
+     */
+    private ByteBuffer segmentBuffer(long segment) {
+        if (segment == readId && readBuffer != null) {
+            return readBuffer;
+        }
+        synchronized (this) {
+            if (segment == activeId) {
+                readBuffer = activeBuffer.duplicate();
+            } else {
+                try (FileChannel channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ)) {
+                    readBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("读取访问日志分段失败: " + segment, e);
+                }
+            }
+        }
+        readId = segment;
+        return readBuffer;
+    }
+
+    /**
+     * 读取目录中的日志标识，没有时生成并写入
+     */
+    private static String loadJournalId(Path directory) throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            String id = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Path temp = directory.resolve(ID_FILE + ".tmp");
+        Files.write(temp, id.getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return id;
+    }
+
+    private Path segmentFile(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static byte[] encode(VisitLog visitLog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            LocalDateTime time = visitLog.getCreateTime();
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+            writeNullable(out, visitLog.getPath());
+            writeNullable(out, visitLog.getIp());
+            writeNullable(out, visitLog.getUserAgent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static VisitLog decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            VisitLog visitLog = new VisitLog();
+            visitLog.setCreateTime(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+            visitLog.setPath(readNullable(in));
+            visitLog.setIp(readNullable(in));
+            visitLog.setUserAgent(readNullable(in));
+            return visitLog;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * 日志中的读取位置
+     */
+    public static final class Position {
+        private final long segment;
+        private final int offset;
+
+        public Position(long segment, int offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public long getSegment() {
+            return segment;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * 一次读取的结果
+     */
+    public static final class ReadResult {
+        private final List<VisitLog> records;
+        private final Position next;
+
+        private ReadResult(List<VisitLog> records, Position next) {
+            this.records = Collections.unmodifiableList(records);
+            this.next = next;
+        }
+
+        public List<VisitLog> getRecords() {
+            return records;
+        }
+
+        public Position getNext() {
+            return next;
+        }
+    }
+}
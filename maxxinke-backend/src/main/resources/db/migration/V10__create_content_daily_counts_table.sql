@@ -0,0 +1,12 @@
+-- 内容每日数量表
+-- 每种内容每天一行，记录当天结束时的总数和当天新增数，用于计算增长率和趋势
+CREATE TABLE IF NOT EXISTS `content_daily_counts` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `bucket_date` date NOT NULL COMMENT '统计日期',
+  `entity_type` varchar(20) NOT NULL COMMENT '内容类型：product、news、message、category、user',
+  `total_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '当天结束时的总数',
+  `created_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '当天新增数',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_content_daily_count` (`bucket_date`, `entity_type`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='内容每日数量表';
@@ -0,0 +1,12 @@
+-- 内容热度快照表
+-- 每个节点定期保存内存中产品和新闻的衰减热度，重启后从表中恢复
+CREATE TABLE IF NOT EXISTS `content_trending_scores` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `node` varchar(64) NOT NULL COMMENT '应用节点名称',
+  `entity_type` varchar(20) NOT NULL COMMENT '内容类型：product、news',
+  `content_id` bigint(20) NOT NULL COMMENT '产品或新闻ID',
+  `score` double NOT NULL COMMENT '更新时间点的热度',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_content_trending_score` (`node`, `entity_type`, `content_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='内容热度快照表';
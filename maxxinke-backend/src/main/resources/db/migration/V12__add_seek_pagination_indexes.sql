@@ -0,0 +1,8 @@
+-- 按游标翻页的产品、新闻和留言列表，每种筛选条件对应一个与排序顺序一致的索引，
+-- InnoDB二级索引末尾隐含主键，(排序值, 创建时间, ID)的范围条件和排序都可以直接沿索引读取
+ALTER TABLE `product` ADD INDEX `idx_product_sort_create_time` (`sort`, `create_time`);
+ALTER TABLE `product` ADD INDEX `idx_product_status_sort_create_time` (`status`, `sort`, `create_time`);
+ALTER TABLE `product` ADD INDEX `idx_product_status_category_sort_create_time` (`status`, `category`, `sort`, `create_time`);
+ALTER TABLE `news` ADD INDEX `idx_news_create_time` (`create_time`);
+ALTER TABLE `news` ADD INDEX `idx_news_status_type_create_time` (`status`, `type`, `create_time`);
+ALTER TABLE `messages` ADD INDEX `idx_messages_create_time` (`create_time`);
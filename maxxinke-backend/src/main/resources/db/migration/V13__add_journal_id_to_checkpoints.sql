@@ -0,0 +1,3 @@
+-- 读取进度记录所属预写日志的唯一标识，日志目录被清空或更换后不再使用旧的读取位置
+ALTER TABLE `visit_log_journal_checkpoints`
+  ADD COLUMN `journal_id` varchar(36) DEFAULT NULL COMMENT '预写日志的唯一标识' AFTER `node`;
@@ -0,0 +1,3 @@
+-- 流式输出的分类产品和用户留言按游标分批读取，每批沿与排序顺序一致的索引读取一段范围
+ALTER TABLE `product` ADD INDEX `idx_product_category_sort_create_time` (`category`, `sort`, `create_time`);
+ALTER TABLE `messages` ADD INDEX `idx_messages_user_id_create_time` (`user_id`, `create_time`);
@@ -0,0 +1,23 @@
+-- 访问日志按时间查询的索引，供汇总表补算使用
+ALTER TABLE `visit_logs` ADD INDEX `idx_visit_logs_create_time` (`create_time`);
+
+-- 按小时汇总的访问统计表
+CREATE TABLE IF NOT EXISTS `visit_stats_hourly` (
+  `bucket_time` datetime NOT NULL COMMENT '统计小时',
+  `visit_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '访问量',
+  PRIMARY KEY (`bucket_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='访问量小时汇总表';
+
+-- 按日汇总的访问统计表
+CREATE TABLE IF NOT EXISTS `visit_stats_daily` (
+  `bucket_date` date NOT NULL COMMENT '统计日期',
+  `visit_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '访问量',
+  PRIMARY KEY (`bucket_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='访问量日汇总表';
+
+-- 按月汇总的访问统计表
+CREATE TABLE IF NOT EXISTS `visit_stats_monthly` (
+  `bucket_month` date NOT NULL COMMENT '统计月份（该月第一天）',
+  `visit_count` bigint(20) NOT NULL DEFAULT '0' COMMENT '访问量',
+  PRIMARY KEY (`bucket_month`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='访问量月汇总表';
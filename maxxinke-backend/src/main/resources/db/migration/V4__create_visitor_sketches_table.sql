@@ -0,0 +1,12 @@
+-- 独立访客估算数据表
+-- 每行保存一个节点在某一天对全站或某个页面的HyperLogLog寄存器数据，查询时合并多行
+CREATE TABLE IF NOT EXISTS `visitor_sketches` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `bucket_date` date NOT NULL COMMENT '统计日期',
+  `path` varchar(255) NOT NULL DEFAULT '' COMMENT '页面路径，全站统计为空字符串',
+  `node` varchar(64) NOT NULL COMMENT '应用节点名称',
+  `registers` blob NOT NULL COMMENT '压缩后的HyperLogLog寄存器数据',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_visitor_sketch` (`bucket_date`, `path`, `node`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='独立访客估算数据表';
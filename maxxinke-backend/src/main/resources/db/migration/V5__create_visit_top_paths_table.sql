@@ -0,0 +1,13 @@
+-- 热门页面统计表
+-- 每个节点每天保存一份访问量最高的页面列表，查询时按页面合并各节点的数据
+CREATE TABLE IF NOT EXISTS `visit_top_paths` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `bucket_date` date NOT NULL COMMENT '统计日期',
+  `path` varchar(255) NOT NULL COMMENT '页面路径',
+  `node` varchar(64) NOT NULL COMMENT '应用节点名称',
+  `visit_count` bigint(20) NOT NULL COMMENT '估算访问量',
+  `error_bound` bigint(20) NOT NULL DEFAULT '0' COMMENT '估算误差上限',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_visit_top_path` (`bucket_date`, `path`, `node`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='热门页面统计表';
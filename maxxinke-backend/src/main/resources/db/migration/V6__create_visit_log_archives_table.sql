@@ -0,0 +1,12 @@
+-- 访问日志归档记录表
+CREATE TABLE IF NOT EXISTS `visit_log_archives` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `archive_month` char(7) NOT NULL COMMENT '归档月份，格式为YYYY-MM',
+  `file_path` varchar(500) NOT NULL COMMENT '归档文件路径',
+  `row_count` bigint(20) NOT NULL COMMENT '归档记录数',
+  `status` tinyint(1) NOT NULL COMMENT '状态：0-已导出，1-已删除，2-已恢复',
+  `create_time` datetime NOT NULL COMMENT '创建时间',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_archive_month` (`archive_month`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='访问日志归档记录表';
@@ -0,0 +1,9 @@
+-- 访问日志预写日志读取进度表
+-- 每个节点一行，与访问日志在同一事务内更新，重启后从该位置继续写入数据库
+CREATE TABLE IF NOT EXISTS `visit_log_journal_checkpoints` (
+  `node` varchar(64) NOT NULL COMMENT '应用节点名称',
+  `segment_id` bigint(20) NOT NULL COMMENT '已确认的分段号',
+  `segment_offset` int(11) NOT NULL COMMENT '已确认的段内偏移',
+  `update_time` datetime NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (`node`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='访问日志预写日志读取进度表';
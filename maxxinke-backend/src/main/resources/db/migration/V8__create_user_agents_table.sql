@@ -0,0 +1,14 @@
+-- User-Agent字典表
+-- 每个不同的User-Agent只保存一次，访问日志中只记录字典ID
+CREATE TABLE IF NOT EXISTS `user_agents` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `ua_hash` bigint(20) NOT NULL COMMENT 'User-Agent的64位哈希值',
+  `user_agent` varchar(255) NOT NULL COMMENT 'User-Agent原文',
+  `category` tinyint(1) NOT NULL COMMENT '访问来源类型：0-桌面浏览器，1-移动设备，2-爬虫',
+  `create_time` datetime NOT NULL COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_user_agents_hash` (`ua_hash`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='User-Agent字典表';
+
+-- 访问日志改为记录User-Agent字典ID
+ALTER TABLE `visit_logs` ADD COLUMN `user_agent_id` bigint(20) DEFAULT NULL COMMENT 'User-Agent字典ID';
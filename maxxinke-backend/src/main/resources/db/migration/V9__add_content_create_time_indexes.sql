@@ -0,0 +1,3 @@
+-- 仪表盘按状态和创建时间统计留言、新闻数量
+ALTER TABLE `messages` ADD INDEX `idx_messages_status_create_time` (`status`, `create_time`);
+ALTER TABLE `news` ADD INDEX `idx_news_status_create_time` (`status`, `create_time`);
@@ -0,0 +1,247 @@
+package com.maxxinke.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecifications;
+import com.maxxinke.service.ViewCountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TypedQuery;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 流式输出按批读取的测试
+ *
+ * 数据库由按(sort, createTime, id)降序排列的内存数据代替，查询按参数中的游标返回之后的一批。
+ * 测试以-Xmx128m运行（见pom.xml），10万个各带2000字符描述的产品约占400MB，一次持有全部产品会内存溢出
+ */
+class CatalogStreamServiceImplTest {
+
+    private static final int PRODUCT_COUNT = 100_000;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final char[] DESCRIPTION = new char[2000];
+
+    static {
+        Arrays.fill(DESCRIPTION, 'x');
+    }
+
+    private final AtomicInteger openEntityManagers = new AtomicInteger();
+    private final AtomicInteger createdEntityManagers = new AtomicInteger();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private ViewCountService viewCountService;
+    // 按输出顺序排列的产品ID
+    private Long[] order;
+
+    @BeforeEach
+    void setUp() {
+        viewCountService = mock(ViewCountService.class, withSettings().stubOnly());
+    }
+
+    @Test
+    void streamsAllProductsInBoundedChunksWithoutHoldingConnectionWhileWriting() throws IOException {
+        catalog(PRODUCT_COUNT);
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        when(viewCountService.getPendingProductViews(anyLong())).thenAnswer(invocation -> {
+            if (!order[next.getAndIncrement()].equals(invocation.getArgument(0))) {
+                outOfOrder.incrementAndGet();
+            }
+            return 0L;
+        });
+        AtomicInteger writesWithOpenEntityManager = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        byte[] first = new byte[1];
+        byte[] last = new byte[1];
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                if (openEntityManagers.get() > 0) {
+                    writesWithOpenEntityManager.incrementAndGet();
+                }
+                if (len > 0) {
+                    if (bytes.get() == 0) {
+                        first[0] = b[off];
+                    }
+                    last[0] = b[off + len - 1];
+                }
+                bytes.addAndGet(len);
+            }
+        };
+
+        service(productQueries()).writeAllProducts(out);
+
+        assertThat(next.get()).isEqualTo(PRODUCT_COUNT);
+        assertThat(outOfOrder.get()).isZero();
+        assertThat(bytes.get()).isGreaterThan((long) PRODUCT_COUNT * DESCRIPTION.length);
+        assertThat((char) first[0]).isEqualTo('[');
+        assertThat((char) last[0]).isEqualTo(']');
+        // 每批一个EntityManager，最后一批不满时结束
+        assertThat(createdEntityManagers.get()).isEqualTo(PRODUCT_COUNT / CatalogStreamServiceImpl.BATCH_SIZE + 1);
+        assertThat(openEntityManagers.get()).isZero();
+        assertThat(writesWithOpenEntityManager.get()).isZero();
+    }
+
+    @Test
+    void writesSelectedFieldsAcrossChunkBoundaries() throws IOException {
+        catalog(1200);
+        when(viewCountService.getPendingProductViews(7L)).thenReturn(5L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service(fieldQueries()).writeAllProductFields(Arrays.asList("id", "name", "views"), out);
+
+        JsonNode rows = objectMapper.readTree(out.toByteArray());
+        assertThat(rows.size()).isEqualTo(1200);
+        for (int i = 0; i < rows.size(); i++) {
+            JsonNode row = rows.get(i);
+            long id = order[i];
+            assertThat(row.get("id").asLong()).isEqualTo(id);
+            assertThat(row.get("name").asText()).isEqualTo("产品" + id);
+            assertThat(row.get("views").asLong()).isEqualTo(id == 7L ? 15L : 10L);
+            assertThat(row.size()).isEqualTo(3);
+        }
+        assertThat(openEntityManagers.get()).isZero();
+    }
+
+    /**
+     * 生成产品的排序：排序值和创建时间都有大量相同的值，批的边界会落在相同的排序值和创建时间中间
+     */
+    private void catalog(int count) {
+        order = new Long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) (i + 1);
+        }
+        Arrays.sort(order, Comparator.<Long>comparingInt(CatalogStreamServiceImplTest::sortOf)
+                .thenComparing(CatalogStreamServiceImplTest::createTimeOf)
+                .thenComparing(id -> id)
+                .reversed());
+    }
+
+    private static int sortOf(long id) {
+        return (int) (id % 4);
+    }
+
+    private static LocalDateTime createTimeOf(long id) {
+        return BASE_TIME.plusMinutes(id % 50);
+    }
+
+    /**
+     * 按查询参数中的游标找出之后的一批产品ID，与SEEK_AFTER的条件一致
+     */
+    private List<Long> chunk(Map<String, Object> parameters) {
+        int sort = (Integer) parameters.get("sort");
+        LocalDateTime createTime = (LocalDateTime) parameters.get("createTime");
+        long id = (Long) parameters.get("id");
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            long candidate = order[mid];
+            int bySort = Integer.compare(sortOf(candidate), sort);
+            int byTime = createTimeOf(candidate).compareTo(createTime);
+            boolean after = bySort < 0 || (bySort == 0 && (byTime < 0 || (byTime == 0 && candidate < id)));
+            if (after) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return Arrays.asList(order).subList(low, Math.min(low + CatalogStreamServiceImpl.BATCH_SIZE, order.length));
+    }
+
+    private QueryAnswer productQueries() {
+        return parameters -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : chunk(parameters)) {
+                Product product = new Product();
+                product.setId(id);
+                product.setName("产品" + id);
+                product.setCategory("管材");
+                product.setDescription(new String(DESCRIPTION));
+                product.setSpecifications(ProductSpecifications.fromJson("[]"));
+                product.setSort(sortOf(id));
+                product.setStatus(1);
+                product.setViews(10L);
+                product.setCreateTime(createTimeOf(id));
+                product.setUpdateTime(createTimeOf(id));
+                products.add(product);
+            }
+            return products;
+        };
+    }
+
+    private QueryAnswer fieldQueries() {
+        return parameters -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : chunk(parameters)) {
+                rows.add(new Object[]{sortOf(id), createTimeOf(id), id, id, "产品" + id, 10L});
+            }
+            return rows;
+        };
+    }
+
+    private CatalogStreamServiceImpl service(QueryAnswer answer) {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class, withSettings().stubOnly());
+        when(entityManagerFactory.createEntityManager()).thenAnswer(invocation -> entityManager(answer));
+        return new CatalogStreamServiceImpl(viewCountService, objectMapper, entityManagerFactory);
+    }
+
+    @SuppressWarnings("unchecked")
+    private EntityManager entityManager(QueryAnswer answer) {
+        createdEntityManagers.incrementAndGet();
+        openEntityManagers.incrementAndGet();
+        EntityManager entityManager = mock(EntityManager.class, withSettings().stubOnly());
+        when(entityManager.createQuery(anyString(), any(Class.class))).thenAnswer(invocation -> {
+            Map<String, Object> parameters = new HashMap<>();
+            TypedQuery<Object> query = mock(TypedQuery.class, withSettings().stubOnly().defaultAnswer(RETURNS_SELF));
+            when(query.setParameter(anyString(), any())).thenAnswer(set -> {
+                parameters.put(set.getArgument(0), set.getArgument(1));
+                return query;
+            });
+            when(query.setMaxResults(anyInt())).thenAnswer(set -> {
+                assertThat((int) set.getArgument(0)).isEqualTo(CatalogStreamServiceImpl.BATCH_SIZE);
+                return query;
+            });
+            when(query.getResultList()).thenAnswer(get -> answer.results(parameters));
+            return query;
+        });
+        doAnswer(invocation -> openEntityManagers.decrementAndGet()).when(entityManager).close();
+        return entityManager;
+    }
+
+    @FunctionalInterface
+    private interface QueryAnswer {
+        List<?> results(Map<String, Object> parameters);
+    }
+}
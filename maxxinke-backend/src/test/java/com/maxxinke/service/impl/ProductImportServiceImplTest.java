@@ -0,0 +1,185 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.dto.ProductImportResultDTO;
+import com.maxxinke.entity.ProductCategory;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.repository.ProductCategoryRepository;
+import com.maxxinke.utils.CsvWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ProductImportServiceImplTest {
+
+    private static final String HEADER = "id,name,category,description,specifications,application,image,sort,status";
+
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private ProductImportServiceImpl importService;
+    // 每次批量写入的行，按写入顺序
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class, withSettings().stubOnly());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.add(new ArrayList<>(rows));
+            return new int[rows.size()];
+        });
+        ProductCategoryRepository categoryRepository = mock(ProductCategoryRepository.class);
+        ProductCategory category = new ProductCategory();
+        category.setName("管材");
+        when(categoryRepository.findAll()).thenReturn(Collections.singletonList(category));
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        importService = new ProductImportServiceImpl(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), categoryRepository, eventPublisher);
+    }
+
+    /**
+     * 1万行导入按每批500行写入，数据库写入由模拟对象代替
+     */
+    @Test
+    void importsTenThousandRowsInBatches() throws IOException {
+        int rows = 10_000;
+        StringWriter csv = new StringWriter();
+        CsvWriter writer = new CsvWriter(csv);
+        writer.writeRecord((Object[]) HEADER.split(","));
+        for (int i = 1; i <= rows; i++) {
+            // 每100行有一行分类不存在
+            String category = i % 100 == 0 ? "不存在" : "管材";
+            writer.writeRecord("", "PE给水管" + i, category, "描述，包含逗号和\"引号\"\n以及换行",
+                    "[{\"name\":\"公称外径\",\"value\":\"" + i + "\",\"unit\":\"mm\"}]", "市政供水", "", i % 10, 1);
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        ProductImportResultDTO result = importService.importCsv(new ByteArrayInputStream(bytes));
+
+        assertThat(result.getTotal()).isEqualTo(rows);
+        assertThat(result.getImported()).isEqualTo(9_900);
+        assertThat(result.getFailed()).isEqualTo(100);
+        assertThat(result.getErrors()).hasSize(100);
+        assertThat(batches).hasSize(20);
+        assertThat(batches.get(0)).hasSize(500);
+        assertThat(batches.get(19)).hasSize(400);
+        assertThat(batches.get(0).get(0)[4]).isEqualTo("[{\"name\":\"公称外径\",\"value\":\"1\",\"unit\":\"mm\"}]");
+    }
+
+    @Test
+    void retriesFailedBatchRowByRow() throws IOException {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'name'"));
+        AtomicInteger updates = new AtomicInteger();
+        when(jdbcTemplate.update(anyString(), (Object[]) any())).thenAnswer(invocation -> {
+            updates.incrementAndGet();
+            if ("坏行".equals(invocation.getArgument(2))) {
+                throw new DataIntegrityViolationException("Data too long for column 'name'");
+            }
+            return 1;
+        });
+
+        ProductImportResultDTO result = importService.importCsv(csv(
+                ",好行1,管材,,,,,,",
+                ",坏行,管材,,,,,,",
+                ",好行2,管材,,,,,,"));
+
+        assertThat(updates.get()).isEqualTo(3);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getRow()).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsTextLongerThan65535Bytes() throws IOException {
+        char[] chinese = new char[30_000];
+        Arrays.fill(chinese, '管');
+        char[] ascii = new char[60_000];
+        Arrays.fill(ascii, 'a');
+
+        ProductImportResultDTO result = importService.importCsv(csv(
+                ",中文描述," + "管材," + new String(chinese) + ",,,,,",
+                ",英文描述," + "管材," + new String(ascii) + ",,,,,",
+                ",中文应用," + "管材,,," + new String(chinese) + ",,,"));
+
+        // 3万个中文字符编码后为9万字节，超过TEXT列的上限
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getRow()).isEqualTo(2L);
+        assertThat(result.getErrors().get(0).getMessage()).contains("产品描述");
+        assertThat(result.getErrors().get(1).getRow()).isEqualTo(4L);
+        assertThat(result.getErrors().get(1).getMessage()).contains("应用领域");
+    }
+
+    @Test
+    void rowsWithIdUpdateExistingProducts() throws IOException {
+        ProductImportResultDTO result = importService.importCsv(csv(
+                "42,已有产品,管材,,,,,,",
+                ",新产品,管材,,,,,,",
+                "abc,错误ID,管材,,,,,,"));
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(ProductImportResultDTO.RowError::getMessage)
+                .containsExactly("产品ID必须是整数: abc");
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0).get(0)[0]).isEqualTo(42L);
+        assertThat(batches.get(0).get(1)[0]).isNull();
+    }
+
+    @Test
+    void stripsFormulaPrefixAddedOnExport() throws IOException {
+        StringWriter csv = new StringWriter();
+        CsvWriter writer = new CsvWriter(csv);
+        writer.writeRecord((Object[]) HEADER.split(","));
+        writer.writeRecord("", "=1+1", "管材", "-20℃可用", "", "@市政", "", 3, 1);
+
+        ProductImportResultDTO result = importService.importCsv(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported()).isEqualTo(1);
+        Object[] row = batches.get(0).get(0);
+        assertThat(row[1]).isEqualTo("=1+1");
+        assertThat(row[3]).isEqualTo("-20℃可用");
+        assertThat(row[5]).isEqualTo("@市政");
+        assertThat(row[7]).isEqualTo(3);
+    }
+
+    @Test
+    void publishesOneBulkChangeEvent() throws IOException {
+        importService.importCsv(csv(",产品,管材,,,,,,"));
+
+        ArgumentCaptor<Object> event = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue()).isInstanceOf(ContentChangedEvent.class);
+        assertThat(((ContentChangedEvent) event.getValue()).getId()).isNull();
+    }
+
+    private static ByteArrayInputStream csv(String... lines) {
+        String content = HEADER + "\n" + String.join("\n", lines) + "\n";
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.CatalogCacheProperties;
+import com.maxxinke.entity.Product;
+import com.maxxinke.event.ContentChangedEvent;
+import com.maxxinke.event.ViewCountFlushedEvent;
+import com.maxxinke.repository.FieldProjectionRepository;
+import com.maxxinke.repository.ProductRepository;
+import com.maxxinke.service.TrendingService;
+import com.maxxinke.service.ViewCountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTest {
+
+    private ProductRepository productRepository;
+    private ViewCountService viewCountService;
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        viewCountService = mock(ViewCountService.class);
+        productService = new ProductServiceImpl(productRepository, mock(FieldProjectionRepository.class),
+                mock(ApplicationEventPublisher.class), viewCountService, mock(TrendingService.class),
+                new CatalogCacheProperties());
+        productService.initCaches();
+    }
+
+    @Test
+    void viewFlushKeepsCachedProductAndOverlaysDelta() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 10L)));
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(10L);
+
+        // 浏览量写入数据库：尚未写入的部分清零，数据库中的值加5
+        flush(1L, 5L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 15L)));
+
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(15L);
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void pendingViewsAreAddedOnTopOfCachedValue() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 10L)));
+        productService.getProductById(1L);
+        when(viewCountService.getPendingProductViews(1L)).thenReturn(3L);
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(13L);
+    }
+
+    @Test
+    void viewFlushKeepsCachedLists() {
+        when(productRepository.findByStatusOrderBySortDesc(1)).thenReturn(Collections.singletonList(product(1L, 10L)));
+        productService.getProductsByStatus(1);
+        flush(1L, 2L);
+        flush(1L, 3L);
+        assertThat(productService.getProductsByStatus(1).get(0).getViews()).isEqualTo(15L);
+        verify(productRepository, times(1)).findByStatusOrderBySortDesc(1);
+    }
+
+    @Test
+    void loadOverlappingFlushIsNotCached() {
+        // 查询期间该产品的浏览量有写入，无法确定查询结果是否已包含增量，不写入缓存
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            flush(1L, 5L);
+            return Optional.of(product(1L, 15L));
+        });
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(15L);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 15L)));
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(15L);
+        verify(productRepository, times(2)).findById(1L);
+        // 第二次查询的结果已写入缓存
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(15L);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deletedProductDropsFlushedViews() {
+        flush(1L, 5L);
+        flush(2L, 3L);
+
+        productService.onContentChanged(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, 1L));
+        assertThat(productService.getCacheStats()).containsEntry("flushedViews", 2);
+
+        productService.onContentChanged(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, 1L, true));
+        assertThat(productService.getCacheStats()).containsEntry("flushedViews", 1);
+    }
+
+    @Test
+    void bulkChangeClearsFlushedViews() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 10L)));
+        productService.getProductById(1L);
+        flush(1L, 5L);
+
+        productService.onContentChanged(new ContentChangedEvent(ContentChangedEvent.ContentType.PRODUCT, null));
+        assertThat(productService.getCacheStats()).containsEntry("flushedViews", 0);
+
+        // 重新查询的值已包含清空前的增量，之后的写入照常叠加
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1L, 15L)));
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(15L);
+        flush(1L, 2L);
+        assertThat(productService.getProductById(1L).getViews()).isEqualTo(17L);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    private void flush(Long id, long delta) {
+        productService.onViewCountFlushed(new ViewCountFlushedEvent(ContentChangedEvent.ContentType.PRODUCT,
+                Collections.singletonMap(id, delta)));
+    }
+
+    private static Product product(Long id, Long views) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("产品" + id);
+        product.setViews(views);
+        return product;
+    }
+}
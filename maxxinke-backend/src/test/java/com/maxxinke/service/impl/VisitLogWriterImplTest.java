@@ -0,0 +1,204 @@
+package com.maxxinke.service.impl;
+
+import com.maxxinke.config.VisitLogProperties;
+import com.maxxinke.entity.VisitLog;
+import com.maxxinke.repository.VisitLogJournalCheckpointRepository;
+import com.maxxinke.service.LiveTrafficService;
+import com.maxxinke.service.TopPathService;
+import com.maxxinke.service.UserAgentService;
+import com.maxxinke.service.VisitStatsService;
+import com.maxxinke.service.VisitorStatsService;
+import com.maxxinke.utils.VisitLogJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 访问日志写入失败时逐条写入、以及重启后统计上次运行留下的记录的测试
+ * 数据库由模拟对象代替，path为"/bad"的记录写入时报错；需要整批写入的记录在启动前写入预写日志
+ */
+class VisitLogWriterImplTest {
+
+    private static final LocalDateTime VISIT_TIME = LocalDateTime.of(2024, 5, 1, 8, 30);
+
+    @TempDir
+    Path directory;
+
+    private JdbcTemplate jdbcTemplate;
+    private VisitStatsService visitStatsService;
+    private LiveTrafficService liveTrafficService;
+    private VisitorStatsService visitorStatsService;
+    private TopPathService topPathService;
+    private VisitLogProperties properties;
+    private VisitLogWriterImpl writer;
+    // 写入数据库的记录路径
+    private final List<String> inserted = new CopyOnWriteArrayList<>();
+    private RuntimeException badRowError;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        badRowError = new DataIntegrityViolationException("Incorrect datetime value");
+        when(jdbcTemplate.update(anyString(), (Object[]) any())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (!sql.startsWith("INSERT INTO visit_logs")) {
+                return 1;
+            }
+            Object[] args = Arrays.copyOfRange(invocation.getArguments(), 1, invocation.getArguments().length);
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < args.length; i += 4) {
+                if ("/bad".equals(args[i])) {
+                    throw badRowError;
+                }
+                paths.add((String) args[i]);
+            }
+            inserted.addAll(paths);
+            return paths.size();
+        });
+        visitStatsService = mock(VisitStatsService.class);
+        liveTrafficService = mock(LiveTrafficService.class);
+        visitorStatsService = mock(VisitorStatsService.class);
+        topPathService = mock(TopPathService.class);
+        properties = new VisitLogProperties();
+        properties.setJournalDir(directory.toString());
+        properties.setJournalSegmentBytes(64 * 1024);
+        properties.setJournalMaxBytes(1024 * 1024);
+        properties.setFlushIntervalMs(10);
+        properties.setMaxRetryIntervalMs(20);
+        properties.setMaxBatchAttempts(3);
+        properties.setNodeId("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void skipsOnlyRowsThatCannotBeWritten() throws Exception {
+        leftByPreviousRun("/a", "/bad", "/b");
+        writer = start();
+
+        awaitProcessed(3);
+
+        assertThat(inserted).containsExactly("/a", "/b");
+        assertThat(writer.getMetrics()).containsEntry("written", 2L).containsEntry("failed", 1L);
+        verify(visitStatsService).applyIncrements(paths("/a", "/b"));
+    }
+
+    @Test
+    void retriesOtherErrorsBeforeSkipping() throws Exception {
+        badRowError = new UncategorizedSQLException("insert", "INSERT INTO visit_logs", new SQLException("unknown"));
+        leftByPreviousRun("/a", "/bad");
+        writer = start();
+
+        awaitProcessed(2);
+
+        // 模拟的事务不会回滚，每次逐条写入都会记下"/a"
+        assertThat(inserted).containsOnly("/a");
+        assertThat(writer.getMetrics()).containsEntry("written", 1L).containsEntry("failed", 1L).containsEntry("retries", 2L);
+    }
+
+    @Test
+    void countsRecordsLeftByPreviousRun() throws Exception {
+        leftByPreviousRun("/old");
+        writer = start();
+        writer.submit(visit("/new"));
+
+        awaitProcessed(2);
+
+        assertThat(inserted).containsExactly("/old", "/new");
+        // 新记录由请求线程计入统计，写入线程只补上次运行留下的记录
+        verify(liveTrafficService).increment(VISIT_TIME);
+        verify(visitorStatsService).offer(any(VisitLog.class));
+        verify(topPathService).offer(any(VisitLog.class));
+    }
+
+    @Test
+    void doesNotCountRecordsOfCurrentRun() throws Exception {
+        writer = start();
+        writer.submit(visit("/new"));
+
+        awaitProcessed(1);
+
+        verify(liveTrafficService, never()).increment(any());
+        verify(topPathService, never()).offer(any());
+    }
+
+    /**
+     * 启动前写入预写日志的记录，启动后在同一批中读出
+     */
+    private void leftByPreviousRun(String... paths) throws Exception {
+        try (VisitLogJournal journal = new VisitLogJournal(directory,
+                properties.getJournalSegmentBytes(), properties.getJournalMaxBytes())) {
+            for (String path : paths) {
+                journal.append(visit(path));
+            }
+        }
+    }
+
+    private VisitLogWriterImpl start() {
+        UserAgentService userAgentService = mock(UserAgentService.class);
+        when(userAgentService.resolveIds(any())).thenReturn(Collections.emptyMap());
+        VisitLogJournalCheckpointRepository checkpointRepository = mock(VisitLogJournalCheckpointRepository.class);
+        when(checkpointRepository.findById(eq("test"))).thenReturn(Optional.empty());
+        VisitLogWriterImpl writer = new VisitLogWriterImpl(jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), visitStatsService, userAgentService,
+                liveTrafficService, visitorStatsService, topPathService, checkpointRepository, properties);
+        writer.start();
+        return writer;
+    }
+
+    private void awaitProcessed(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (processed() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(processed()).isEqualTo(count);
+    }
+
+    private long processed() {
+        return (Long) writer.getMetrics().get("written") + (Long) writer.getMetrics().get("failed");
+    }
+
+    private static List<VisitLog> paths(String... paths) {
+        return argThat(visits -> visits.size() == paths.length
+                && Arrays.equals(visits.stream().map(VisitLog::getPath).toArray(), paths));
+    }
+
+    private static VisitLog visit(String path) {
+        VisitLog visitLog = new VisitLog();
+        visitLog.setPath(path);
+        visitLog.setIp("127.0.0.1");
+        visitLog.setCreateTime(VISIT_TIME);
+        return visitLog;
+    }
+}
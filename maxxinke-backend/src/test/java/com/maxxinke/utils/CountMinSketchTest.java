@@ -0,0 +1,36 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUnderestimatesAndStaysWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        long total = 0;
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("/page/" + (i % 500), 1);
+            total++;
+        }
+        sketch.add("/hot", 1_000);
+        total += 1_000;
+
+        double bound = Math.E / 1024 * total;
+        for (int i = 0; i < 500; i++) {
+            long estimate = sketch.estimate("/page/" + i);
+            assertThat(estimate).isGreaterThanOrEqualTo(10);
+            assertThat((double) estimate).isLessThanOrEqualTo(10 + bound);
+        }
+        assertThat(sketch.estimate("/hot")).isGreaterThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void unseenValueEstimatesToNearZero() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        assertThat(sketch.estimate("/never")).isZero();
+        sketch.add("/a", 5);
+        assertThat(sketch.estimate("/a")).isEqualTo(5);
+    }
+}
@@ -0,0 +1,36 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvWriterTest {
+
+    @Test
+    void prefixesFormulaLikeText() throws Exception {
+        assertThat(write("=SUM(A1:A9)", "+86 138", "-管材", "@cmd", "PE=100", "'引号", -1))
+                .isEqualTo("'=SUM(A1:A9),'+86 138,'-管材,'@cmd,PE=100,'引号,-1\r\n");
+    }
+
+    @Test
+    void prefixedValuesReadBackUnchanged() throws Exception {
+        String[] values = {"=HYPERLINK(\"http://a\",\"b\")", "'=1", "''@x", "'", "'普通", "-", "普通,文本"};
+        CsvReader reader = new CsvReader(new StringReader(write((Object[]) values)));
+        List<String> read = new ArrayList<>();
+        for (String value : reader.readRecord()) {
+            read.add(CsvWriter.stripFormulaPrefix(value));
+        }
+        assertThat(read).containsExactly(values);
+    }
+
+    private static String write(Object... fields) throws Exception {
+        StringWriter out = new StringWriter();
+        new CsvWriter(out).writeRecord(fields);
+        return out.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DecayingTopKTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void scoreHalvesAfterOneHalfLife() {
+        DecayingTopK topK = new DecayingTopK(HOUR, 10, 100, 0);
+        topK.add(1, 8, 0);
+        assertThat(topK.top(1, HOUR).get(0).getScore()).isCloseTo(4, within(1e-9));
+        assertThat(topK.top(1, 3 * HOUR).get(0).getScore()).isCloseTo(1, within(1e-9));
+    }
+
+    @Test
+    void recentViewsOutrankOlderOnes() {
+        DecayingTopK topK = new DecayingTopK(HOUR, 10, 100, 0);
+        topK.add(1, 10, 0);
+        topK.add(2, 6, 2 * HOUR);
+
+        List<DecayingTopK.Scored> top = topK.top(10, 2 * HOUR);
+        assertThat(top).extracting(DecayingTopK.Scored::getId).containsExactly(2L, 1L);
+        assertThat(top.get(1).getScore()).isCloseTo(2.5, within(1e-9));
+    }
+
+    @Test
+    void keepsOrderAcrossRescaleAndRemove() {
+        DecayingTopK topK = new DecayingTopK(1000, 3, 100, 0);
+        // 超过放大倍数上限后整体缩小，排名不变
+        long now = 200_000;
+        topK.add(1, 3, now);
+        topK.add(2, 2, now);
+        topK.add(3, 1, now);
+        topK.add(4, 0.5, now);
+        assertThat(topK.top(3, now)).extracting(DecayingTopK.Scored::getId).containsExactly(1L, 2L, 3L);
+
+        topK.remove(1);
+        // 前K名中的ID被移除后从其余ID中补足
+        assertThat(topK.top(3, now)).extracting(DecayingTopK.Scored::getId).containsExactly(2L, 3L, 4L);
+        assertThat(topK.snapshot(10, now)).hasSize(3);
+    }
+
+    @Test
+    void evictsLowerHalfWhenTooManyIds() {
+        DecayingTopK topK = new DecayingTopK(HOUR, 2, 10, 0);
+        for (long id = 1; id <= 11; id++) {
+            topK.add(id, id, 0);
+        }
+        assertThat(topK.size()).isLessThanOrEqualTo(10);
+        assertThat(topK.top(2, 0)).extracting(DecayingTopK.Scored::getId).containsExactly(11L, 10L);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThatThrownBy(() -> new DecayingTopK(0, 10, 100, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DecayingTopK(HOUR, 10, 5, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,85 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    @Test
+    void normalizesValues() {
+        assertThat(FacetIndex.normalize("  ＤＮ１１０   Mm ")).isEqualTo("dn110 mm");
+        assertThat(FacetIndex.normalize(null)).isEmpty();
+    }
+
+    @Test
+    void matchesOrWithinDimensionAndAcrossDimensions() {
+        FacetIndex index = index();
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put("材质", Arrays.asList("PVC", "PE"));
+        filters.put("口径", Collections.singletonList("dn110"));
+        assertThat(ids(index.match(filters))).containsExactly(1, 3);
+    }
+
+    @Test
+    void countsExcludeOwnDimensionFilter() {
+        FacetIndex index = index();
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put("材质", Collections.singletonList("pvc"));
+
+        List<FacetIndex.Facet> facets = index.counts(filters, null);
+        FacetIndex.Facet material = facet(facets, "材质");
+        FacetIndex.Facet size = facet(facets, "口径");
+
+        // 材质维度不应用自身条件，仍能看到其他材质的数量；数量相同时按取值排序
+        assertThat(material.getValues()).extracting(FacetIndex.FacetCount::getKey).containsExactly("pe", "pvc");
+        assertThat(material.getValues()).extracting(FacetIndex.FacetCount::getCount).containsExactly(2, 2);
+        // 口径维度只统计材质为PVC的文档
+        assertThat(size.getValues()).extracting(FacetIndex.FacetCount::getKey).containsExactly("dn110", "dn50");
+        assertThat(size.getValues()).extracting(FacetIndex.FacetCount::getCount).containsExactly(1, 1);
+        // 展示名称保留最近一次写入的原文
+        assertThat(size.getValues().get(0).getLabel()).isEqualTo("dn110");
+    }
+
+    @Test
+    void replaceAndRemoveUpdateBitmaps() {
+        FacetIndex index = index();
+        index.put(1, Collections.singletonMap("材质", Collections.singletonList("PE")));
+        index.remove(2);
+        Map<String, List<String>> filters = Collections.singletonMap("材质", Collections.singletonList("pvc"));
+        assertThat(ids(index.match(filters))).isEmpty();
+        assertThat(ids(index.match(Collections.emptyMap()))).containsExactly(1, 3, 4);
+    }
+
+    private static FacetIndex index() {
+        FacetIndex index = new FacetIndex();
+        index.put(1, values("PVC", "DN110"));
+        index.put(2, values("pvc", "DN50"));
+        index.put(3, values("PE", "dn110"));
+        index.put(4, values("PE", "DN63"));
+        return index;
+    }
+
+    private static Map<String, List<String>> values(String material, String size) {
+        Map<String, List<String>> values = new HashMap<>();
+        values.put("材质", Collections.singletonList(material));
+        values.put("口径", Collections.singletonList(size));
+        return values;
+    }
+
+    private static FacetIndex.Facet facet(List<FacetIndex.Facet> facets, String key) {
+        return facets.stream().filter(facet -> facet.getKey().equals(key)).findFirst()
+                .orElseThrow(() -> new AssertionError("缺少维度: " + key));
+    }
+
+    private static int[] ids(BitSet bitSet) {
+        return bitSet.stream().toArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctCountWithinStandardError() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 100_000; i++) {
+            hll.offer("visitor-" + i);
+            // 重复元素不影响估算
+            hll.offer("visitor-" + (i % 1000));
+        }
+        // 默认精度误差约1.6%，取三倍标准误差
+        assertThat((double) hll.cardinality()).isCloseTo(100_000, within(5_000.0));
+    }
+
+    @Test
+    void smallCardinalityIsNearlyExact() {
+        HyperLogLog hll = new HyperLogLog();
+        assertThat(hll.cardinality()).isZero();
+        for (int i = 0; i < 50; i++) {
+            hll.offer("v" + i);
+        }
+        assertThat(hll.cardinality()).isBetween(49L, 51L);
+    }
+
+    @Test
+    void mergeEqualsUnionAndIsIdempotent() {
+        HyperLogLog a = new HyperLogLog();
+        HyperLogLog b = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 20_000; i++) {
+            a.offer("v" + i);
+            union.offer("v" + i);
+        }
+        for (int i = 10_000; i < 30_000; i++) {
+            b.offer("v" + i);
+            union.offer("v" + i);
+        }
+        a.merge(b);
+        assertThat(a.cardinality()).isEqualTo(union.cardinality());
+        a.merge(b);
+        assertThat(a.cardinality()).isEqualTo(union.cardinality());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            hll.offer("v" + i);
+        }
+        HyperLogLog restored = HyperLogLog.fromBytes(hll.toBytes());
+        assertThat(restored.getPrecision()).isEqualTo(hll.getPrecision());
+        assertThat(restored.cardinality()).isEqualTo(hll.cardinality());
+        assertThat(HyperLogLog.fromBytes(new HyperLogLog().toBytes()).cardinality()).isZero();
+    }
+}
@@ -0,0 +1,101 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void cjkTextIsIndexedAsUnigramsAndBigrams() {
+        assertThat(InvertedIndex.indexTokens("管道")).containsExactly("管", "管道", "道");
+        assertThat(InvertedIndex.queryTokens("排水管道")).containsExactly("排水", "水管", "管道");
+        assertThat(InvertedIndex.queryTokens("管")).containsExactly("管");
+    }
+
+    @Test
+    void mixedWordsAreSplitAndLowercased() {
+        assertThat(InvertedIndex.indexTokens("DN110 PVC")).containsExactly("dn110", "dn", "110", "pvc");
+        // 查询时不拆分，去重后保持顺序
+        assertThat(InvertedIndex.queryTokens("PVC dn110 pvc")).containsExactly("pvc", "dn110");
+        assertThat(InvertedIndex.queryTokens(null)).isEmpty();
+    }
+
+    @Test
+    void ranksByBm25WithFieldWeights() {
+        InvertedIndex<Integer> index = index();
+        index.put(1, 1, fields("PVC排水管", "用于建筑排水"));
+        index.put(2, 1, fields("PE给水管", "可替代PVC管材"));
+        index.put(3, 1, fields("阀门", "铜质阀门"));
+
+        InvertedIndex.SearchResult<Integer> result = index.search("pvc", null, 0, 10);
+        // 名称权重高于描述，名称中匹配的文档排在前面
+        assertThat(result.getHits()).extracting(InvertedIndex.Hit::getId).containsExactly(1L, 2L);
+        assertThat(result.getTotal()).isEqualTo(2);
+        assertThat(result.getHits().get(0).getScore()).isGreaterThan(result.getHits().get(1).getScore());
+    }
+
+    @Test
+    void rarerTermsScoreHigher() {
+        InvertedIndex<Integer> index = index();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, 1, fields("管材" + (id == 1 ? " 耐压" : ""), null));
+        }
+        double common = index.search("管材", null, 0, 1).getHits().get(0).getScore();
+        double rare = index.search("耐压", null, 0, 1).getHits().get(0).getScore();
+        assertThat(rare).isGreaterThan(common);
+    }
+
+    @Test
+    void requiresAllTermsForShortQueriesAndFiltersAttributes() {
+        InvertedIndex<Integer> index = index();
+        index.put(1, 1, fields("PVC 管件", null));
+        index.put(2, 0, fields("PVC 管件", null));
+        index.put(3, 1, fields("PVC 阀门", null));
+
+        assertThat(index.search("pvc 管件", null, 0, 10).getHits()).extracting(InvertedIndex.Hit::getId)
+                .containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("pvc 管件", status -> status == 1, 0, 10).getHits()).extracting(InvertedIndex.Hit::getId)
+                .containsExactly(1L);
+
+        index.remove(1);
+        assertThat(index.search("pvc 管件", status -> status == 1, 0, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void pagesByOffsetAndLimit() {
+        InvertedIndex<Integer> index = index();
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, 1, fields("pvc", null));
+        }
+        InvertedIndex.SearchResult<Integer> page = index.search("pvc", null, 3, 10);
+        assertThat(page.getTotal()).isEqualTo(5);
+        assertThat(page.getHits()).hasSize(2);
+    }
+
+    @Test
+    void highlightsMatchesAndEscapesHtml() {
+        List<String> terms = Arrays.asList("pvc");
+        assertThat(InvertedIndex.highlight("<b>PVC</b> 管", terms, 0)).isEqualTo("&lt;b&gt;<em>PVC</em>&lt;/b&gt; 管");
+        assertThat(InvertedIndex.highlight("没有匹配", terms, 10)).isNull();
+    }
+
+    private static InvertedIndex<Integer> index() {
+        Map<String, Float> weights = new HashMap<>();
+        weights.put("name", 3f);
+        weights.put("description", 1f);
+        return new InvertedIndex<>(weights);
+    }
+
+    private static Map<String, String> fields(String name, String description) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("name", name);
+        fields.put("description", description);
+        return fields;
+    }
+}
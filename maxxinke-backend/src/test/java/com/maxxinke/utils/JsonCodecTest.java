@@ -0,0 +1,121 @@
+package com.maxxinke.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.maxxinke.entity.News;
+import com.maxxinke.entity.Product;
+import com.maxxinke.entity.ProductSpecification;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 共享读写器与原来每次新建ObjectMapper的读取结果对比
+ */
+class JsonCodecTest {
+
+    private static final String PRODUCT_JSON = "{\"name\":\"PE给水管\",\"category\":\"管材\",\"description\":\"描述\","
+            + "\"specifications\":[{\"name\":\"公称外径\",\"value\":\"110\",\"unit\":\"mm\"},{\"name\":\"压力等级\",\"value\":\"1.6\",\"unit\":\"MPa\"}],"
+            + "\"application\":\"市政供水\",\"image\":\"a.jpg\",\"sort\":3,\"status\":0,\"extra\":\"前端附带的字段\"}";
+    private static final String NEWS_JSON = "{\"title\":\"新品发布\",\"content\":\"<p>正文</p>\",\"type\":\"company\","
+            + "\"status\":1,\"summary\":\"摘要\"}";
+
+    @Test
+    void productReaderMatchesPerRequestMapper() throws Exception {
+        ObjectMapper legacy = new ObjectMapper();
+        legacy.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        Product expected = legacy.readValue(PRODUCT_JSON, Product.class);
+        Product actual = JsonCodec.PRODUCT_READER.readValue(PRODUCT_JSON);
+
+        assertThat(actual).isEqualTo(expected);
+        assertThat(actual.getSpecifications()).hasSize(2);
+        assertThat(actual.getSpecifications().get(0).getUnit()).isEqualTo("mm");
+        assertThat(actual.getViews()).isEqualTo(0L);
+    }
+
+    @Test
+    void newsReaderMatchesPerRequestMapperAndRejectsUnknownFields() throws Exception {
+        News expected = new ObjectMapper().readValue(NEWS_JSON, News.class);
+        News actual = JsonCodec.NEWS_READER.readValue(NEWS_JSON);
+        assertThat(actual).isEqualTo(expected);
+
+        String unknown = NEWS_JSON.replace("}", ",\"extra\":1}");
+        assertThatThrownBy(() -> JsonCodec.NEWS_READER.readValue(unknown))
+                .isInstanceOf(UnrecognizedPropertyException.class);
+    }
+
+    @Test
+    void readersAcceptJavaTimeValues() throws Exception {
+        Product product = JsonCodec.PRODUCT_READER.readValue("{\"name\":\"a\",\"createTime\":\"2024-05-01T08:30:00\"}");
+        assertThat(product.getCreateTime()).isEqualTo(LocalDateTime.of(2024, 5, 1, 8, 30));
+    }
+
+    @Test
+    void specificationsRoundTrip() throws Exception {
+        List<ProductSpecification> specifications = Arrays.asList(
+                specification("长度", "6", "m"), specification("颜色", "黑色", null));
+
+        String json = JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(specifications);
+        List<ProductSpecification> read = JsonCodec.SPECIFICATIONS_READER.readValue(json);
+
+        assertThat(read).isEqualTo(specifications);
+        assertThat(json).isEqualTo(new ObjectMapper().writeValueAsString(specifications));
+        assertThat(new ObjectMapper().readValue(json, new TypeReference<List<ProductSpecification>>() {}))
+                .isEqualTo(read);
+    }
+
+    @Test
+    void specificationsEdgeCases() throws Exception {
+        assertThat(JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(new ArrayList<>())).isEqualTo("[]");
+        assertThat((List<?>) JsonCodec.SPECIFICATIONS_READER.readValue("[]")).isEmpty();
+        assertThat((Object) JsonCodec.SPECIFICATIONS_READER.readValue("null")).isNull();
+    }
+
+    @Test
+    void readersAreSafeToShareAcrossThreads() throws Exception {
+        Product expected = JsonCodec.PRODUCT_READER.readValue(PRODUCT_JSON);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        Product product = JsonCodec.PRODUCT_READER.readValue(PRODUCT_JSON);
+                        String json = JsonCodec.SPECIFICATIONS_WRITER.writeValueAsString(product.getSpecifications());
+                        List<ProductSpecification> read = JsonCodec.SPECIFICATIONS_READER.readValue(json);
+                        if (!product.equals(expected) || !read.equals(expected.getSpecifications())) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ProductSpecification specification(String name, String value, String unit) {
+        ProductSpecification specification = new ProductSpecification();
+        specification.setName(name);
+        specification.setValue(value);
+        specification.setUnit(unit);
+        return specification;
+    }
+}
@@ -0,0 +1,55 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruCacheTest {
+
+    @Test
+    void putIsRejectedAfterInvalidation() {
+        LruCache<String, String> cache = new LruCache<>(100, 0);
+        long version = cache.version();
+        // 查询数据库期间数据被修改并使缓存失效，查到的旧数据不能写入
+        cache.invalidate("a");
+        assertThat(cache.put("a", "stale", version)).isFalse();
+        assertThat(cache.get("a")).isNull();
+
+        assertThat(cache.put("a", "fresh", cache.version())).isTrue();
+        assertThat(cache.get("a")).isEqualTo("fresh");
+    }
+
+    @Test
+    void invalidateAllClearsEntriesAndBumpsVersion() {
+        LruCache<String, String> cache = new LruCache<>(100, 0);
+        long version = cache.version();
+        cache.put("a", "1", version);
+        cache.put("b", "2", version);
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.put("c", "3", version)).isFalse();
+        assertThat(cache.version()).isGreaterThan(version);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPerSegment() {
+        // 每段容量为1，同一段中后写入的键淘汰先写入的键
+        LruCache<Integer, String> cache = new LruCache<>(16, 0);
+        long version = cache.version();
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, "v" + i, version);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(16);
+        assertThat(cache.get(999)).isEqualTo("v999");
+    }
+
+    @Test
+    void expiredEntriesAreMisses() throws InterruptedException {
+        LruCache<String, String> cache = new LruCache<>(100, 20);
+        cache.put("a", "1", cache.version());
+        assertThat(cache.get("a")).isEqualTo("1");
+        Thread.sleep(40);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+}
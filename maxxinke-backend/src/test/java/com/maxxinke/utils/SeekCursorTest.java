@@ -0,0 +1,56 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeekCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        LocalDateTime createTime = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+        String token = SeekCursor.of(7, createTime, 42L).encode("products");
+        assertThat(token).doesNotContain("+", "/", "=");
+
+        SeekCursor cursor = SeekCursor.decode("products", token);
+        assertThat(cursor.getSort()).isEqualTo(7);
+        assertThat(cursor.getCreateTime()).isEqualTo(createTime);
+        assertThat(cursor.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void nullSortIsZero() {
+        SeekCursor cursor = SeekCursor.decode("news", SeekCursor.of(null, LocalDateTime.of(2024, 1, 1, 0, 0), 1L).encode("news"));
+        assertThat(cursor.getSort()).isZero();
+    }
+
+    @Test
+    void emptyTokenStartsBeforeAllRows() {
+        SeekCursor first = SeekCursor.decode("products", null);
+        assertThat(first.getSort()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(first.getId()).isEqualTo(Long.MAX_VALUE);
+        assertThat(SeekCursor.decode("products", "").getCreateTime()).isAfter(LocalDateTime.now());
+    }
+
+    @Test
+    void rejectsCursorFromAnotherList() {
+        String token = SeekCursor.of(0, LocalDateTime.of(2024, 1, 1, 0, 0), 1L).encode("news");
+        assertThatThrownBy(() -> SeekCursor.decode("products", token))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("不属于该列表");
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        String badNumber = Base64.getUrlEncoder().encodeToString("products|x|2024-01-01T00:00|1".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> SeekCursor.decode("products", badNumber)).isInstanceOf(IllegalArgumentException.class);
+        String badDate = Base64.getUrlEncoder().encodeToString("products|0|yesterday|1".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> SeekCursor.decode("products", badDate)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SeekCursor.decode("products", "not base64!")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
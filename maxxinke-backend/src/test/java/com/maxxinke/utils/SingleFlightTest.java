@@ -0,0 +1,96 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> first = executor.submit(() -> flight.load("k", () -> {
+                started.countDown();
+                await(release);
+                return loads.incrementAndGet();
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<Integer> second = executor.submit(() -> flight.load("k", loads::incrementAndGet));
+            // 等第二个请求进入等待后再完成加载
+            while ((Long) flight.getStats().get("coalesced") == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+            assertThat(loads.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void retainsResultUntilForgotten() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(60_000);
+        AtomicInteger loads = new AtomicInteger();
+        assertThat(flight.load("k", loads::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.load("k", loads::incrementAndGet)).isEqualTo(1);
+        flight.forget("k");
+        assertThat(flight.load("k", loads::incrementAndGet)).isEqualTo(2);
+        assertThat(flight.getStats()).containsEntry("retainedHits", 1L);
+    }
+
+    @Test
+    void forgetDuringLoadDoesNotRetainStaleResult() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> stale = executor.submit(() -> flight.load("k", () -> {
+                started.countDown();
+                await(release);
+                return "old";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            // 加载期间数据被修改，完成的旧结果仍返回给发起的请求，但不再保留
+            flight.forget("k");
+            release.countDown();
+            assertThat(stale.get(5, TimeUnit.SECONDS)).isEqualTo("old");
+            assertThat(flight.load("k", () -> "new")).isEqualTo("new");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureIsNotRetained() {
+        SingleFlight<String, String> flight = new SingleFlight<>(60_000);
+        assertThatThrownBy(() -> flight.load("k", () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(flight.load("k", () -> "ok")).isEqualTo("ok");
+        assertThat(flight.getStats()).containsEntry("failures", 1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.maxxinke.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void exactWhileUnderCapacity() {
+        SpaceSaving<String> counter = new SpaceSaving<>(10);
+        counter.offer("/a", 3);
+        counter.offer("/b", 1);
+        counter.offer("/a", 2);
+
+        List<SpaceSaving.Counter<String>> top = counter.top(10);
+        assertThat(top).extracting(SpaceSaving.Counter::getKey).containsExactly("/a", "/b");
+        assertThat(top.get(0).getCount()).isEqualTo(5);
+        assertThat(top.get(0).getError()).isZero();
+        assertThat(counter.get("/c")).isNull();
+    }
+
+    @Test
+    void keepsHeavyHittersWhenFull() {
+        SpaceSaving<String> counter = new SpaceSaving<>(20);
+        for (int i = 0; i < 10_000; i++) {
+            // 两个高频路径各占约10%，其余为长尾
+            counter.offer(i % 10 == 0 ? "/hot" : i % 10 == 1 ? "/warm" : "/tail/" + i, 1);
+        }
+        List<String> top = counter.top(2).stream().map(SpaceSaving.Counter::getKey).collect(Collectors.toList());
+        assertThat(top).containsExactlyInAnyOrder("/hot", "/warm");
+
+        SpaceSaving.Counter<String> hot = counter.get("/hot");
+        // 估算值不小于真实值，减去误差上限后不大于真实值
+        assertThat(hot.getCount()).isGreaterThanOrEqualTo(1000);
+        assertThat(hot.getCount() - hot.getError()).isLessThanOrEqualTo(1000);
+    }
+}
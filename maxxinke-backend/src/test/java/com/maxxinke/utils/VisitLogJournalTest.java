@@ -0,0 +1,90 @@
+package com.maxxinke.utils;
+
+import com.maxxinke.entity.VisitLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VisitLogJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void journalIdSurvivesReopenAndChangesWithDirectory(@TempDir Path other) throws Exception {
+        String id;
+        try (VisitLogJournal journal = open(directory)) {
+            id = journal.getJournalId();
+        }
+        try (VisitLogJournal reopened = open(directory)) {
+            assertThat(reopened.getJournalId()).isEqualTo(id);
+        }
+        try (VisitLogJournal fresh = open(other)) {
+            assertThat(fresh.getJournalId()).isNotEqualTo(id);
+        }
+    }
+
+    @Test
+    void rejectsPositionsBeyondWrittenData() throws Exception {
+        try (VisitLogJournal journal = open(directory)) {
+            journal.append(visit("/a"));
+            VisitLogJournal.ReadResult result = journal.read(journal.firstPosition(), 10);
+            assertThat(result.getRecords()).extracting(VisitLog::getPath).containsExactly("/a");
+
+            assertThat(journal.isValid(result.getNext())).isTrue();
+            assertThat(journal.isValid(new VisitLogJournal.Position(1, result.getNext().getOffset() + 1))).isFalse();
+            assertThat(journal.isValid(new VisitLogJournal.Position(57, 0))).isFalse();
+            assertThat(journal.isValid(new VisitLogJournal.Position(1, -1))).isFalse();
+        }
+    }
+
+    @Test
+    void resumesFromSavedPositionAfterReopen() throws Exception {
+        VisitLogJournal.Position saved;
+        try (VisitLogJournal journal = open(directory)) {
+            journal.append(visit("/a"));
+            journal.append(visit("/b"));
+            saved = journal.read(journal.firstPosition(), 1).getNext();
+        }
+        try (VisitLogJournal journal = open(directory)) {
+            assertThat(journal.isValid(saved)).isTrue();
+            journal.append(visit("/c"));
+            assertThat(journal.read(saved, 10).getRecords()).extracting(VisitLog::getPath).containsExactly("/b", "/c");
+        }
+    }
+
+    @Test
+    void readsSegmentsOfPreviousRunSeparately() throws Exception {
+        try (VisitLogJournal journal = open(directory)) {
+            journal.append(visit("/a"));
+        }
+        try (VisitLogJournal journal = open(directory)) {
+            journal.append(visit("/b"));
+            long opened = journal.getOpenedSegment();
+            assertThat(opened).isEqualTo(2);
+
+            VisitLogJournal.ReadResult previous = journal.read(journal.firstPosition(), 10, opened);
+            assertThat(previous.getRecords()).extracting(VisitLog::getPath).containsExactly("/a");
+            assertThat(previous.getNext().getSegment()).isEqualTo(opened);
+            assertThat(journal.read(previous.getNext(), 10, opened).getRecords()).isEmpty();
+            assertThat(journal.read(previous.getNext(), 10).getRecords()).extracting(VisitLog::getPath).containsExactly("/b");
+        }
+    }
+
+    private static VisitLogJournal open(Path directory) throws Exception {
+        return new VisitLogJournal(directory, SEGMENT_BYTES, SEGMENT_BYTES * 16L);
+    }
+
+    private static VisitLog visit(String path) {
+        VisitLog visitLog = new VisitLog();
+        visitLog.setPath(path);
+        visitLog.setCreateTime(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return visitLog;
+    }
+}
@@ -5,7 +5,7 @@ import StatsSection from '../components/home/StatsSection';
 import AdvantagesSection from '../components/home/AdvantagesSection';
 import Products from '../components/home/Products';
 import News from '../components/home/News';
-import api from '../services/api';
+import { visitService } from '../services/visitService';
 
 const HomeWrapper = styled.div`
   min-height: 100vh;
@@ -24,27 +24,18 @@ const Home: React.FC = () => {
 
   useEffect(() => {
     // 页面加载时记录访问
-    const recordPageView = async () => {
+    const recordPageView = () => {
       // 防止在严格模式下重复记录
       if (hasRecorded.current) {
         return;
       }
 
-      try {
-        // 只记录前台页面的访问
-        const currentPath = window.location.pathname;
-        // 如果是前台页面，才记录访问
-        if (!currentPath.startsWith('/admin') && !currentPath.startsWith('/dashboard')) {
-          await api.get('/dashboard/visits/record', {
-            params: {
-              path: currentPath,
-              title: document.title
-            }
-          });
-          hasRecorded.current = true;
-        }
-      } catch (error) {
-        console.error('Failed to record visit:', error);
+      // 只记录前台页面的访问
+      const currentPath = window.location.pathname;
+      // 如果是前台页面，才记录访问
+      if (!currentPath.startsWith('/admin') && !currentPath.startsWith('/dashboard')) {
+        visitService.trackPageView(currentPath, document.title);
+        hasRecorded.current = true;
       }
     };
 
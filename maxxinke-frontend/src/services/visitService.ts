@@ -17,7 +17,64 @@ export interface CategoryData {
   count: number;
 }
 
+export interface PageViewEvent {
+  path: string;
+  title?: string;
+  timestamp: number;
+}
+
+const BEACON_URL = `${api.defaults.baseURL}/dashboard/visits/batch`;
+// 攒够条数或到达间隔时上报一次，页面隐藏或关闭时立即上报
+const MAX_PENDING_EVENTS = 20;
+const FLUSH_DELAY = 10000;
+
+let pendingEvents: PageViewEvent[] = [];
+let flushTimer: ReturnType<typeof setTimeout> | null = null;
+
+const flushPageViews = () => {
+  if (flushTimer) {
+    clearTimeout(flushTimer);
+    flushTimer = null;
+  }
+  if (pendingEvents.length === 0) {
+    return;
+  }
+  const body = JSON.stringify(pendingEvents);
+  pendingEvents = [];
+  // 使用text/plain避免跨域预检请求，sendBeacon在页面卸载时也能可靠发送
+  const blob = new Blob([body], { type: 'text/plain;charset=UTF-8' });
+  if (navigator.sendBeacon && navigator.sendBeacon(BEACON_URL, blob)) {
+    return;
+  }
+  fetch(BEACON_URL, {
+    method: 'POST',
+    body,
+    keepalive: true,
+    headers: { 'Content-Type': 'text/plain;charset=UTF-8' },
+  }).catch((error) => console.error('Failed to record visit:', error));
+};
+
+if (typeof window !== 'undefined') {
+  window.addEventListener('pagehide', flushPageViews);
+  document.addEventListener('visibilitychange', () => {
+    if (document.visibilityState === 'hidden') {
+      flushPageViews();
+    }
+  });
+}
+
 export const visitService = {
+  // 记录页面访问，访问事件在本地合并后批量上报
+  trackPageView: (path: string, title?: string) => {
+    pendingEvents.push({ path, title, timestamp: Date.now() });
+    if (pendingEvents.length >= MAX_PENDING_EVENTS) {
+      flushPageViews();
+    } else if (!flushTimer) {
+      flushTimer = setTimeout(flushPageViews, FLUSH_DELAY);
+    }
+  },
+
+
   // 获取访问统计数据
   getVisitStats: async (): Promise<VisitStats> => {
     const response = await api.get<VisitStats>('/dashboard/stats');